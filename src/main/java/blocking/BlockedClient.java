@@ -1,20 +1,21 @@
 package blocking;
 
-import java.nio.channels.SocketChannel;
 import java.time.Instant;
 import java.util.Objects;
 
+import server.ClientSession;
+
 /**
  * Immutable record representing a blocked client with timeout information.
- * Encapsulates client channel, blocking timestamp, and optional timeout.
+ * Encapsulates client session, blocking timestamp, and optional timeout.
  * 
- * @param channel   the client's socket channel
+ * @param client    the client's session
  * @param blockedAt when the client was blocked
  * @param timeoutAt when the client should timeout (null for indefinite
  *                  blocking)
  */
 public record BlockedClient(
-        SocketChannel channel,
+        ClientSession client,
         Instant blockedAt,
         Instant timeoutAt) {
 
@@ -22,7 +23,7 @@ public record BlockedClient(
      * Compact constructor with validation using Java 24 features.
      */
     public BlockedClient {
-        Objects.requireNonNull(channel, "Channel cannot be null");
+        Objects.requireNonNull(client, "Client cannot be null");
         Objects.requireNonNull(blockedAt, "Blocked timestamp cannot be null");
 
         // Validate timeout is in the future if specified
@@ -34,22 +35,22 @@ public record BlockedClient(
     /**
      * Creates a blocked client with indefinite blocking (no timeout).
      * 
-     * @param channel the client's socket channel
+     * @param client the client's session
      * @return a BlockedClient with no timeout
      */
-    public static BlockedClient indefinite(SocketChannel channel) {
-        return new BlockedClient(channel, Instant.now(), null);
+    public static BlockedClient indefinite(ClientSession client) {
+        return new BlockedClient(client, Instant.now(), null);
     }
 
     /**
      * Creates a blocked client with a specific timeout.
      * 
-     * @param channel   the client's socket channel
+     * @param client    the client's session
      * @param timeoutMs timeout in milliseconds
      * @return a BlockedClient with the specified timeout
      * @throws IllegalArgumentException if timeoutMs is negative or exceeds maximum
      */
-    public static BlockedClient withTimeout(SocketChannel channel, long timeoutMs) {
+    public static BlockedClient withTimeout(ClientSession client, long timeoutMs) {
         if (timeoutMs < BlockingConstants.MINIMUM_TIMEOUT_MS) {
             throw new IllegalArgumentException("Timeout must be positive: " + timeoutMs);
         }
@@ -59,7 +60,7 @@ public record BlockedClient(
 
         final Instant now = Instant.now();
         final Instant timeout = now.plusMillis(timeoutMs);
-        return new BlockedClient(channel, now, timeout);
+        return new BlockedClient(client, now, timeout);
     }
 
     /**
@@ -86,7 +87,7 @@ public record BlockedClient(
      * @return true if the channel is open, false otherwise
      */
     public boolean isChannelOpen() {
-        return channel.isOpen();
+        return client.getChannel().isOpen();
     }
 
     /**
@@ -1,7 +1,6 @@
 package blocking;
 
 import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -21,6 +20,8 @@ import config.ServerConfig;
 import events.EventListener;
 import protocol.ResponseBuilder;
 import scheduler.TimeoutScheduler;
+import server.ClientSession;
+import server.ClientWriter;
 import storage.StorageService;
 
 /**
@@ -49,6 +50,7 @@ public final class BlockingManager implements EventListener {
 
     // Dependencies
     private final StorageService storage;
+    private final ClientWriter clientWriter;
     private final AtomicReference<TimeoutScheduler> schedulerRef = new AtomicReference<>(null);
 
     // State management
@@ -63,10 +65,12 @@ public final class BlockingManager implements EventListener {
     /**
      * Creates a new blocking manager with the specified storage service.
      * 
-     * @param storage the storage service for data operations
+     * @param storage      the storage service for data operations
+     * @param clientWriter routes wakeup replies to client output queues
      */
-    public BlockingManager(StorageService storage) {
+    public BlockingManager(StorageService storage, ClientWriter clientWriter) {
         this.storage = Objects.requireNonNull(storage, "Storage service cannot be null");
+        this.clientWriter = Objects.requireNonNull(clientWriter, "Client writer cannot be null");
     }
 
     /**
@@ -128,6 +132,7 @@ public final class BlockingManager implements EventListener {
         waitingClients.values().forEach(queue -> queue.forEach(this::sendTimeoutResponse));
 
         waitingClients.clear();
+        clientContexts.keySet().forEach(client -> client.client().setBlocked(false));
         clientContexts.clear();
 
         // reset metrics
@@ -155,10 +160,10 @@ public final class BlockingManager implements EventListener {
      * 
      * @throws BlockingException if the client cannot be blocked
      */
-    private void blockClient(List<String> keys, SocketChannel client, Optional<Long> timeoutMs,
+    private void blockClient(List<String> keys, ClientSession client, Optional<Long> timeoutMs,
             BlockingContext<String> context) throws BlockingException {
 
-        if (!client.isOpen()) {
+        if (!client.getChannel().isOpen()) {
             LOGGER.warn("Attempting to block a closed client channel");
             return;
         }
@@ -166,6 +171,7 @@ public final class BlockingManager implements EventListener {
         try {
             final BlockedClient blockedClient = createBlockedClient(client, timeoutMs);
             clientContexts.put(blockedClient, context);
+            client.setBlocked(true);
 
             // Add client to all relevant key queues
             for (final String key : keys) {
@@ -186,14 +192,14 @@ public final class BlockingManager implements EventListener {
      * Blocks a client for list operations (BLPOP, BRPOP, etc.).
      * 
      * @param keys      the list keys to monitor
-     * @param client    the client channel to block
+     * @param client    the client session to block
      * @param timeoutMs optional timeout in milliseconds
      * @throws BlockingException if the client cannot be blocked
      */
-    public void blockClientForLists(List<String> keys, SocketChannel client, Optional<Long> timeoutMs)
+    public void blockClientForLists(List<String> keys, ClientSession client, Optional<Long> timeoutMs)
             throws BlockingException {
         Objects.requireNonNull(keys, "Keys cannot be null");
-        Objects.requireNonNull(client, "Client channel cannot be null");
+        Objects.requireNonNull(client, "Client cannot be null");
         Objects.requireNonNull(timeoutMs, "Timeout optional cannot be null");
 
         validateBlockingRequest(keys);
@@ -212,16 +218,16 @@ public final class BlockingManager implements EventListener {
      * @param keys      the stream keys to monitor
      * @param ids       the stream IDs to start from
      * @param count     optional maximum entries per stream
-     * @param client    the client channel to block
+     * @param client    the client session to block
      * @param timeoutMs optional timeout in milliseconds
      * @throws BlockingException if the client cannot be blocked
      */
     public void blockClientForStreams(List<String> keys, List<String> ids, Optional<Integer> count,
-            SocketChannel client, Optional<Long> timeoutMs) throws BlockingException {
+            ClientSession client, Optional<Long> timeoutMs) throws BlockingException {
         Objects.requireNonNull(keys, "Keys cannot be null");
         Objects.requireNonNull(ids, "IDs cannot be null");
         Objects.requireNonNull(count, "Count optional cannot be null");
-        Objects.requireNonNull(client, "Client channel cannot be null");
+        Objects.requireNonNull(client, "Client cannot be null");
         Objects.requireNonNull(timeoutMs, "Timeout optional cannot be null");
 
         validateBlockingRequest(keys);
@@ -338,6 +344,7 @@ public final class BlockingManager implements EventListener {
         waitingClients.values().forEach(queue -> queue.forEach(this::sendTimeoutResponse));
 
         waitingClients.clear();
+        clientContexts.keySet().forEach(client -> client.client().setBlocked(false));
         clientContexts.clear();
 
         // Reset metrics
@@ -349,7 +356,7 @@ public final class BlockingManager implements EventListener {
     /**
      * Creates a blocked client with appropriate timeout settings.
      */
-    private BlockedClient createBlockedClient(SocketChannel client, Optional<Long> timeoutMs) {
+    private BlockedClient createBlockedClient(ClientSession client, Optional<Long> timeoutMs) {
         return timeoutMs
                 .map(ms -> BlockedClient.withTimeout(client, ms))
                 .orElse(BlockedClient.indefinite(client));
@@ -361,7 +368,7 @@ public final class BlockingManager implements EventListener {
     private void sendSuccessResponse(BlockedClient client, BlockingContext<String> context) {
         try {
             final ByteBuffer response = context.buildSuccessResponse(storage);
-            writeResponse(client.channel(), response);
+            writeResponse(client.client(), response);
 
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("Sent success response to client: {}", context.getOperationType());
@@ -378,7 +385,7 @@ public final class BlockingManager implements EventListener {
     private void sendTimeoutResponse(BlockedClient client) {
         try {
             final ByteBuffer response = ResponseBuilder.encode(ProtocolConstants.RESP_NULL_ARRAY);
-            writeResponse(client.channel(), response);
+            writeResponse(client.client(), response);
 
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("Sent timeout response to client");
@@ -390,14 +397,12 @@ public final class BlockingManager implements EventListener {
     }
 
     /**
-     * Writes a response to a client channel with proper error handling.
+     * Writes a response to a client with proper error handling.
      */
-    private void writeResponse(SocketChannel channel, ByteBuffer response) {
+    private void writeResponse(ClientSession client, ByteBuffer response) {
         try {
-            if (channel.isOpen()) {
-                while (response.hasRemaining()) {
-                    channel.write(response);
-                }
+            if (client.getChannel().isOpen()) {
+                clientWriter.write(client, response);
             }
         } catch (Exception e) {
             // Log error but don't throw to ensure cleanup continues
@@ -411,6 +416,7 @@ public final class BlockingManager implements EventListener {
     private void cleanupClient(BlockedClient client) {
         try {
             clientContexts.remove(client);
+            client.client().setBlocked(false);
             waitingClients.values().forEach(queue -> queue.remove(client));
 
         } catch (Exception e) {
@@ -448,6 +454,16 @@ public final class BlockingManager implements EventListener {
         return clientContexts.size();
     }
 
+    /**
+     * Checks whether any client is blocked waiting for the given key.
+     * 
+     * @param key the key
+     * @return true if at least one client waits for data on the key
+     */
+    public boolean hasWaitingClients(String key) {
+        return waitingClients.containsKey(key);
+    }
+
     /**
      * Gets the number of keys currently being monitored.
      */
@@ -17,11 +17,12 @@ import storage.StorageService;
 public record ListBlockingContext(List<String> keys) implements BlockingContext<String> {
 
     /**
-     * Compact constructor with validation.
+     * Canonical constructor with validation. Fields are assigned before
+     * validating because {@link #validate()} reads them.
      */
-    public ListBlockingContext {
+    public ListBlockingContext(List<String> keys) {
         Objects.requireNonNull(keys, "Keys list cannot be null");
-        keys = List.copyOf(keys); // Ensure immutability
+        this.keys = List.copyOf(keys); // Ensure immutability
 
         // Validate using the interface default method
         validate();
@@ -25,15 +25,17 @@ public record StreamBlockingContext(
         Optional<Integer> count) implements BlockingContext<String> {
 
     /**
-     * Compact constructor with validation.
+     * Canonical constructor with validation. Fields are assigned before
+     * validating because the validation methods read them.
      */
-    public StreamBlockingContext {
+    public StreamBlockingContext(List<String> keys, List<String> ids, Optional<Integer> count) {
         Objects.requireNonNull(keys, "Keys list cannot be null");
         Objects.requireNonNull(ids, "IDs list cannot be null");
         Objects.requireNonNull(count, "Count optional cannot be null");
 
-        keys = List.copyOf(keys); // Ensure immutability
-        ids = List.copyOf(ids); // Ensure immutability
+        this.keys = List.copyOf(keys); // Ensure immutability
+        this.ids = List.copyOf(ids); // Ensure immutability
+        this.count = count;
 
         // Validate inputs
         validate();
@@ -56,6 +56,7 @@ public final class QuickList<T> implements Iterable<T> {
     private Node<T> head;
     private Node<T> tail;
     private int totalSize = 0;
+    private int nodeCount = 0;
     private final StampedLock lock = new StampedLock();
 
     /**
@@ -327,6 +328,18 @@ public final class QuickList<T> implements Iterable<T> {
         return lock.validate(stamp) ? size : totalSize;
     }
 
+    /**
+     * Returns the number of nodes holding the elements, for memory
+     * accounting.
+     *
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        long stamp = lock.tryOptimisticRead();
+        int nodes = nodeCount;
+        return lock.validate(stamp) ? nodes : nodeCount;
+    }
+
     /**
      * Checks if the list is empty.
      * 
@@ -339,6 +352,7 @@ public final class QuickList<T> implements Iterable<T> {
     private void ensureHeadCanGrowLeft() {
         if (head == null) {
             head = tail = new Node<>();
+            nodeCount = 1;
             return;
         }
         if (!head.canGrowLeft()) {
@@ -346,12 +360,14 @@ public final class QuickList<T> implements Iterable<T> {
             newHead.next = head;
             head.prev = newHead;
             head = newHead;
+            nodeCount++;
         }
     }
 
     private void ensureTailCanGrowRight() {
         if (tail == null) {
             head = tail = new Node<>();
+            nodeCount = 1;
             return;
         }
         if (!tail.canGrowRight()) {
@@ -359,6 +375,7 @@ public final class QuickList<T> implements Iterable<T> {
             tail.next = newTail;
             newTail.prev = tail;
             tail = newTail;
+            nodeCount++;
         }
     }
 
@@ -366,6 +383,7 @@ public final class QuickList<T> implements Iterable<T> {
         if (head == null)
             return;
         head = head.next;
+        nodeCount--;
         if (head != null)
             head.prev = null;
         else
@@ -376,6 +394,7 @@ public final class QuickList<T> implements Iterable<T> {
         if (tail == null)
             return;
         tail = tail.prev;
+        nodeCount--;
         if (tail != null)
             tail.next = null;
         else
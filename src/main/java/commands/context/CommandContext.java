@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import server.ClientSession;
 import server.ServerContext;
 import storage.StorageService;
 
@@ -13,6 +14,14 @@ import storage.StorageService;
  * Context for a command execution, encapsulating operation, arguments, client
  * channel,
  * storage service, and server context.
+ *
+ * <p>
+ * A client's commands run one at a time, so the dispatcher keeps one context
+ * per client session and {@link #reset resets} it for every command instead
+ * of allocating a new one. Commands must therefore not keep the context, or
+ * hand it to anything that does, beyond their execution; what outlives it,
+ * such as a command queued by MULTI, copies the operation and arguments.
+ * </p>
  */
 public final class CommandContext {
 
@@ -21,30 +30,48 @@ public final class CommandContext {
     private static final int KEY_INDEX = 1;
     private static final int VALUE_INDEX = 2;
 
-    private final String operation;
-    private final String[] args;
-    private final SocketChannel clientChannel;
+    private String operation;
+    private String[] args;
+    private final ClientSession client;
     private final StorageService storageService;
     private final ServerContext serverContext;
+    private String[] propagatedArgs;
 
     /**
      * Constructs a CommandContext with the given parameters.
      *
-     * @param operation      the command operation (e.g., "SET", "GET")
+     * @param operation      the upper-case command operation (e.g., "SET",
+     *                       "GET"), as registered in the command registry
      * @param args           the command arguments
-     * @param clientChannel  the client's socket channel
+     * @param client         the client's session, or null for commands
+     *                       replicated from the master
      * @param storageService the storage service instance
      * @param serverContext  the server context
      */
-    public CommandContext(String operation, String[] args, SocketChannel clientChannel,
+    public CommandContext(String operation, String[] args, ClientSession client,
             StorageService storageService, ServerContext serverContext) {
-        this.operation = operation.toUpperCase();
+        this.operation = operation;
         this.args = args;
-        this.clientChannel = clientChannel;
+        this.client = client;
         this.storageService = storageService;
         this.serverContext = serverContext;
     }
 
+    /**
+     * Prepares the context for the next command of the same client.
+     *
+     * @param operation the upper-case command operation, as registered in the
+     *                  command registry
+     * @param args      the command arguments
+     * @return this context
+     */
+    public CommandContext reset(String operation, String[] args) {
+        this.operation = operation;
+        this.args = args;
+        this.propagatedArgs = null;
+        return this;
+    }
+
     /**
      * Returns the command operation.
      */
@@ -60,10 +87,36 @@ public final class CommandContext {
     }
 
     /**
-     * Returns the client socket channel.
+     * Returns the arguments written to the AOF and sent to replicas: the
+     * command arguments, unless the command replaced them.
+     */
+    public String[] getPropagatedArgs() {
+        return propagatedArgs != null ? propagatedArgs : args;
+    }
+
+    /**
+     * Replaces the arguments written to the AOF and sent to replicas, for
+     * commands whose effect depends on when they run, such as relative
+     * expiry times.
+     *
+     * @param propagatedArgs the arguments that reproduce the command's effect
+     */
+    public void setPropagatedArgs(String[] propagatedArgs) {
+        this.propagatedArgs = propagatedArgs;
+    }
+
+    /**
+     * Returns the client's session, or null for replicated commands.
+     */
+    public ClientSession getClient() {
+        return client;
+    }
+
+    /**
+     * Returns the client socket channel, or null for replicated commands.
      */
     public SocketChannel getClientChannel() {
-        return clientChannel;
+        return client != null ? client.getChannel() : null;
     }
 
     /**
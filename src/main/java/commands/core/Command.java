@@ -53,6 +53,17 @@ public interface Command {
         return false;
     }
 
+    /**
+     * Indicates if the command may make the dataset larger. Such commands are
+     * refused while the dataset is over {@code maxmemory} and nothing can be
+     * evicted.
+     *
+     * @return true for write commands, unless they only remove data
+     */
+    default boolean mayGrowMemory() {
+        return isWriteCommand();
+    }
+
     /**
      * Indicates if the command is a read operation.
      *
@@ -88,4 +99,15 @@ public interface Command {
     default boolean isBlockingCommand() {
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Indicates if the command reads or writes only the key at argument 1
+     * and nothing else in the keyspace. Such commands can run concurrently
+     * with commands on keys in other lock stripes.
+     *
+     * @return true if the command touches a single key, false otherwise
+     */
+    default boolean isSingleKeyCommand() {
+        return false;
+    }
+}
@@ -0,0 +1,373 @@
+package commands.impl.basic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import commands.base.ReadCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import config.ProtocolConstants;
+import protocol.ResponseBuilder;
+import pubsub.PubSubState;
+import server.ClientSession;
+import tracking.TrackingManager;
+import tracking.TrackingState;
+import transaction.TransactionState;
+
+/**
+ * Implements the Redis CLIENT command.
+ *
+ * <p>
+ * Supports {@code CLIENT ID}, {@code CLIENT GETNAME}, {@code CLIENT SETNAME},
+ * {@code CLIENT LIST}, {@code CLIENT INFO} and {@code CLIENT KILL}. KILL
+ * accepts the old {@code CLIENT KILL addr} form as well as the
+ * {@code ID}, {@code ADDR} and {@code SKIPME} filters.
+ * </p>
+ *
+ * <p>
+ * {@code CLIENT TRACKING}, {@code CLIENT CACHING} and {@code CLIENT GETREDIR}
+ * control client-side caching. The server only speaks RESP2, so
+ * invalidations reach a client through the {@code __redis__:invalidate}
+ * channel, normally on a second connection named with {@code REDIRECT}.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ClientCommand extends ReadCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientCommand.class);
+
+    private static final String COMMAND_NAME = "CLIENT";
+    private static final int MIN_ARG_COUNT = 2;
+
+    private static final String NO_SUCH_CLIENT = "No such client";
+    private static final String SYNTAX_ERROR = "syntax error";
+    private static final String INVALID_NAME = "Client names cannot contain spaces, newlines or special characters.";
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.minArgs(MIN_ARG_COUNT).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        ClientSession self = context.getClient();
+        String subcommand = context.getArg(1).toUpperCase(Locale.ROOT);
+        int argCount = context.getArgCount();
+
+        return switch (subcommand) {
+            case "ID" -> self != null && argCount == 2
+                    ? CommandResult.success(ResponseBuilder.integer(self.getId()))
+                    : wrongArgs(subcommand);
+            case "GETNAME" -> self != null && argCount == 2 ? getName(self) : wrongArgs(subcommand);
+            case "SETNAME" -> self != null && argCount == 3
+                    ? setName(self, context.getArg(2))
+                    : wrongArgs(subcommand);
+            case "INFO" -> self != null && argCount == 2
+                    ? CommandResult.success(ResponseBuilder.bulkString(describe(self, System.currentTimeMillis())))
+                    : wrongArgs(subcommand);
+            case "LIST" -> argCount == 2 ? list(context) : wrongArgs(subcommand);
+            case "KILL" -> argCount >= 3 ? kill(context, self) : wrongArgs(subcommand);
+            case "TRACKING" -> self != null && argCount >= 3 ? tracking(context, self) : wrongArgs(subcommand);
+            case "CACHING" -> self != null && argCount == 3 ? caching(self, context.getArg(2)) : wrongArgs(subcommand);
+            case "GETREDIR" -> self != null && argCount == 2 ? getRedirect(self) : wrongArgs(subcommand);
+            default -> CommandResult.error("unknown subcommand '" + context.getArg(1) + "'");
+        };
+    }
+
+    private static CommandResult wrongArgs(String subcommand) {
+        return CommandResult.error("wrong number of arguments for 'client|" + subcommand.toLowerCase(Locale.ROOT)
+                + "' command");
+    }
+
+    private static CommandResult getName(ClientSession self) {
+        String name = self.getName();
+        return CommandResult.success(ResponseBuilder.bulkString(name.isEmpty() ? null : name));
+    }
+
+    private static CommandResult setName(ClientSession self, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return CommandResult.error(INVALID_NAME);
+            }
+        }
+        self.setName(name);
+        return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
+    }
+
+    private static CommandResult list(CommandContext context) {
+        long now = System.currentTimeMillis();
+        StringBuilder listing = new StringBuilder();
+        for (ClientSession client : context.getServerContext().getClientWriter().getClients()) {
+            listing.append(describe(client, now)).append('\n');
+        }
+        return CommandResult.success(ResponseBuilder.bulkString(listing.toString()));
+    }
+
+    /**
+     * Disconnects the matching clients. The old form names one address and
+     * replies OK; the filter form replies with the number of clients killed
+     * and skips the calling client unless {@code SKIPME no} is given.
+     */
+    private static CommandResult kill(CommandContext context, ClientSession self) {
+        int argCount = context.getArgCount();
+        if (argCount == 3) {
+            ClientSession target = findByAddress(context, context.getArg(2));
+            if (target == null) {
+                return CommandResult.error(NO_SUCH_CLIENT);
+            }
+            disconnect(target);
+            return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
+        }
+        if (argCount % 2 == 1) {
+            return CommandResult.error(SYNTAX_ERROR);
+        }
+
+        Long id = null;
+        String address = null;
+        boolean skipMe = true;
+        for (int i = 2; i < argCount; i += 2) {
+            String value = context.getArg(i + 1);
+            switch (context.getArg(i).toUpperCase(Locale.ROOT)) {
+                case "ID" -> {
+                    try {
+                        id = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        return CommandResult.error("client-id should be greater than 0");
+                    }
+                }
+                case "ADDR" -> address = value;
+                case "SKIPME" -> {
+                    if ("yes".equalsIgnoreCase(value)) {
+                        skipMe = true;
+                    } else if ("no".equalsIgnoreCase(value)) {
+                        skipMe = false;
+                    } else {
+                        return CommandResult.error(SYNTAX_ERROR);
+                    }
+                }
+                default -> {
+                    return CommandResult.error(SYNTAX_ERROR);
+                }
+            }
+        }
+
+        List<ClientSession> matches = new ArrayList<>();
+        for (ClientSession client : context.getServerContext().getClientWriter().getClients()) {
+            if ((id == null || client.getId() == id)
+                    && (address == null || client.getAddress().equals(address))
+                    && !(skipMe && client == self)) {
+                matches.add(client);
+            }
+        }
+        matches.forEach(ClientCommand::disconnect);
+        return CommandResult.success(ResponseBuilder.integer(matches.size()));
+    }
+
+    /**
+     * Turns tracking on or off:
+     * {@code CLIENT TRACKING ON|OFF [REDIRECT id] [PREFIX p]... [BCAST] [OPTIN] [OPTOUT]}.
+     */
+    private static CommandResult tracking(CommandContext context, ClientSession self) {
+        TrackingManager trackingManager = context.getServerContext().getTrackingManager();
+        String mode = context.getArg(2);
+        if ("off".equalsIgnoreCase(mode)) {
+            if (context.getArgCount() > 3) {
+                return CommandResult.error(SYNTAX_ERROR);
+            }
+            trackingManager.disable(self);
+            return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
+        }
+        if (!"on".equalsIgnoreCase(mode)) {
+            return CommandResult.error(SYNTAX_ERROR);
+        }
+
+        ClientSession redirect = null;
+        boolean broadcast = false;
+        boolean optIn = false;
+        boolean optOut = false;
+        List<String> prefixes = new ArrayList<>();
+        int argCount = context.getArgCount();
+        for (int i = 3; i < argCount; i++) {
+            String option = context.getArg(i).toUpperCase(Locale.ROOT);
+            boolean hasValue = i + 1 < argCount;
+            switch (option) {
+                case "BCAST" -> broadcast = true;
+                case "OPTIN" -> optIn = true;
+                case "OPTOUT" -> optOut = true;
+                case "PREFIX" -> {
+                    if (!hasValue) {
+                        return CommandResult.error(SYNTAX_ERROR);
+                    }
+                    prefixes.add(context.getArg(++i));
+                }
+                case "REDIRECT" -> {
+                    if (!hasValue) {
+                        return CommandResult.error(SYNTAX_ERROR);
+                    }
+                    redirect = findById(context, context.getArg(++i));
+                    if (redirect == null) {
+                        return CommandResult.error("The client ID you want redirect to does not exist");
+                    }
+                }
+                default -> {
+                    return CommandResult.error(SYNTAX_ERROR);
+                }
+            }
+        }
+
+        if (!broadcast && !prefixes.isEmpty()) {
+            return CommandResult.error("PREFIX option requires BCAST mode to be enabled");
+        }
+        if (optIn && optOut) {
+            return CommandResult.error("You can't use both OPTIN and OPTOUT");
+        }
+        if (broadcast && (optIn || optOut)) {
+            return CommandResult.error("OPTIN and OPTOUT are not compatible with BCAST");
+        }
+        TrackingState current = self.getTrackingState();
+        if (current != null && current.isBroadcast() != broadcast) {
+            return CommandResult.error("You can't switch BCAST mode on/off before disabling tracking for this "
+                    + "client, and then re-enabling it with a different mode.");
+        }
+        for (int i = 0; i < prefixes.size(); i++) {
+            for (int j = i + 1; j < prefixes.size(); j++) {
+                String a = prefixes.get(i);
+                String b = prefixes.get(j);
+                if (a.startsWith(b) || b.startsWith(a)) {
+                    return CommandResult.error("Prefix '" + a + "' overlaps with another provided prefix '" + b
+                            + "'. Prefixes for a single client must not overlap.");
+                }
+            }
+        }
+
+        trackingManager.enable(self, new TrackingState(redirect, broadcast, optIn, optOut, prefixes));
+        return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
+    }
+
+    /**
+     * Overrides the OPTIN or OPTOUT choice for the next command:
+     * {@code CLIENT CACHING yes|no}.
+     */
+    private static CommandResult caching(ClientSession self, String value) {
+        TrackingState state = self.getTrackingState();
+        if (state == null || (!state.isOptIn() && !state.isOptOut())) {
+            return CommandResult.error("CLIENT CACHING can be called only when the client is in tracking mode "
+                    + "with OPTIN or OPTOUT mode enabled");
+        }
+        if ("yes".equalsIgnoreCase(value)) {
+            if (!state.isOptIn()) {
+                return CommandResult.error("CLIENT CACHING YES is only valid when tracking is enabled in OPTIN mode.");
+            }
+        } else if ("no".equalsIgnoreCase(value)) {
+            if (!state.isOptOut()) {
+                return CommandResult.error("CLIENT CACHING NO is only valid when tracking is enabled in OPTOUT mode.");
+            }
+        } else {
+            return CommandResult.error(SYNTAX_ERROR);
+        }
+        state.markCaching(self.getCommandCount());
+        return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
+    }
+
+    /**
+     * Replies with the id invalidations are redirected to, 0 if they go to
+     * the client itself, or -1 if tracking is off.
+     */
+    private static CommandResult getRedirect(ClientSession self) {
+        TrackingState state = self.getTrackingState();
+        long redirectId = state == null ? -1 : state.getRedirect() == null ? 0 : state.getRedirect().getId();
+        return CommandResult.success(ResponseBuilder.integer(redirectId));
+    }
+
+    private static ClientSession findById(CommandContext context, String id) {
+        for (ClientSession client : context.getServerContext().getClientWriter().getClients()) {
+            if (String.valueOf(client.getId()).equals(id)) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private static ClientSession findByAddress(CommandContext context, String address) {
+        for (ClientSession client : context.getServerContext().getClientWriter().getClients()) {
+            if (client.getAddress().equals(address)) {
+                return client;
+            }
+        }
+        return null;
+    }
+
+    private static void disconnect(ClientSession client) {
+        LOGGER.info("Killing client {}", client);
+        client.disconnect();
+    }
+
+    /**
+     * Formats one client the way {@code CLIENT LIST} reports it.
+     */
+    private static String describe(ClientSession client, long now) {
+        PubSubState pubSubState = client.peekPubSubState();
+        TransactionState transactionState = client.peekTransactionState();
+        int channels = pubSubState != null ? pubSubState.getSubscribedChannels().size() : 0;
+        int patterns = pubSubState != null ? pubSubState.getSubscribedPatterns().size() : 0;
+        int queued = transactionState != null && transactionState.isInTransaction()
+                ? transactionState.getQueuedCommands().size()
+                : -1;
+
+        return "id=" + client.getId()
+                + " addr=" + client.getAddress()
+                + " laddr=" + client.getLocalAddress()
+                + " name=" + client.getName()
+                + " age=" + (now - client.getCreatedMillis()) / 1000
+                + " idle=" + (now - client.getLastInteractionMillis()) / 1000
+                + " flags=" + flags(client, queued >= 0)
+                + " db=0"
+                + " sub=" + channels
+                + " psub=" + patterns
+                + " multi=" + queued
+                + " omem=" + client.getPendingOutputBytes()
+                + " tot-net-in=" + client.getNetworkInputBytes()
+                + " tot-net-out=" + client.getNetworkOutputBytes()
+                + " tot-cmds=" + client.getCommandCount()
+                + " cmd=" + client.getLastCommand().toLowerCase(Locale.ROOT);
+    }
+
+    private static String flags(ClientSession client, boolean inTransaction) {
+        StringBuilder flags = new StringBuilder();
+        if (client.isReplica()) {
+            flags.append('S');
+        }
+        if (client.isInPubSubMode()) {
+            flags.append('P');
+        }
+        if (inTransaction) {
+            flags.append('x');
+        }
+        if (client.isBlocked()) {
+            flags.append('b');
+        }
+        if (client.isUnixSocket()) {
+            flags.append('U');
+        }
+        TrackingState trackingState = client.getTrackingState();
+        if (trackingState != null) {
+            flags.append(trackingState.isBroadcast() ? "tB" : "t");
+        }
+        return flags.isEmpty() ? "N" : flags.toString();
+    }
+}
@@ -10,6 +10,7 @@ import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
 import config.ProtocolConstants;
 import protocol.ResponseBuilder;
+import protocol.ResponseCache;
 
 /**
  * Implements the Redis PING command.
@@ -22,6 +23,9 @@ public final class PingCommand extends ReadCommand {
 
     private static final String COMMAND_NAME = "PING";
 
+    // Accepts either "PING" or "PING <message>"
+    private static final CommandValidator.CommandValidation ARGUMENTS = CommandValidator.argRange(1, 2);
+
     @Override
     public String getName() {
         return COMMAND_NAME;
@@ -29,15 +33,14 @@ public final class PingCommand extends ReadCommand {
 
     @Override
     protected ValidationResult performValidation(CommandContext context) {
-        // Accepts either "PING" or "PING <message>"
-        return CommandValidator.argRange(1, 2).validate(context);
+        return ARGUMENTS.validate(context);
     }
 
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         boolean inPubSubMode = context.getServerContext()
                 .getPubSubManager()
-                .isInPubSubMode(context.getClientChannel());
+                .isInPubSubMode(context.getClient());
 
         String message = (context.getArgs().length == 1) ? null : context.getArgs()[1];
 
@@ -50,7 +53,7 @@ public final class PingCommand extends ReadCommand {
                     second));
         } else if (message == null) {
             // No argument: simple string "PONG"
-            response = ResponseBuilder.simpleString(ProtocolConstants.PONG_RESPONSE);
+            response = ResponseCache.PONG_RESPONSE.duplicate();
         } else {
             // With argument: bulk string reply of argument
             response = ResponseBuilder.bulkString(message);
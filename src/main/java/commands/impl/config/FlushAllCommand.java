@@ -27,6 +27,11 @@ public class FlushAllCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argRange(MIN_ARG_COUNT, MAX_ARG_COUNT).and(
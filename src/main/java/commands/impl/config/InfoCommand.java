@@ -12,10 +12,12 @@ import commands.result.CommandResult;
 import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
 import protocol.ResponseBuilder;
+import storage.offheap.SlabStore;
+import utils.BufferPool;
 
 /**
- * Implements the Redis INFO command, providing server, replication, and metrics
- * information.
+ * Implements the Redis INFO command, providing server, replication, metrics
+ * and memory information.
  * Supports optional section argument to filter output.
  */
 public final class InfoCommand extends ReadCommand {
@@ -27,6 +29,7 @@ public final class InfoCommand extends ReadCommand {
     private static final String SECTION_SERVER = "server";
     private static final String SECTION_REPLICATION = "replication";
     private static final String SECTION_METRICS = "metrics";
+    private static final String SECTION_MEMORY = "memory";
 
     // Info keys
     private static final String KEY_PORT = "port";
@@ -35,12 +38,33 @@ public final class InfoCommand extends ReadCommand {
     private static final String KEY_DATABASE_FILENAME = "database_filename";
     private static final String KEY_APPEND_ONLY_MODE = "append_only_mode";
     private static final String KEY_MAX_MEMORY = "max_memory";
+    private static final String KEY_MAX_MEMORY_POLICY = "maxmemory_policy";
     private static final String KEY_REQUIRE_PASSWORD = "require_password";
     private static final String KEY_ACTIVE_CONNECTIONS = "active_connections";
     private static final String KEY_TOTAL_COMMANDS_PROCESSED = "total_commands_processed";
     private static final String KEY_TOTAL_ERRORS = "total_errors";
     private static final String KEY_MEMORY_USAGE_BYTES = "memory_usage_bytes";
     private static final String KEY_UPTIME_SECONDS = "uptime_seconds";
+    private static final String KEY_EXPIRED_KEYS = "expired_keys";
+    private static final String KEY_EXPIRED_STALE_PERC = "expired_stale_perc";
+    private static final String KEY_EXPIRE_CYCLE_CPU_MILLISECONDS = "expire_cycle_cpu_milliseconds";
+    private static final String KEY_EXPIRED_TIME_CAP_REACHED_COUNT = "expired_time_cap_reached_count";
+    private static final String KEY_EVICTED_KEYS = "evicted_keys";
+    private static final String KEY_TRACKING_CLIENTS = "tracking_clients";
+    private static final String KEY_TRACKING_TOTAL_KEYS = "tracking_total_keys";
+    private static final String KEY_TRACKING_TOTAL_PREFIXES = "tracking_total_prefixes";
+    private static final String KEY_USED_MEMORY = "used_memory";
+    private static final String KEY_USED_MEMORY_PREFIX = "used_memory_";
+    private static final String KEY_OFFHEAP_RESERVED_BYTES = "offheap_reserved_bytes";
+    private static final String KEY_OFFHEAP_USED_BYTES = "offheap_used_bytes";
+    private static final String KEY_OFFHEAP_SLABS = "offheap_slabs";
+    private static final String KEY_OFFHEAP_COMPACTION_MOVES = "offheap_compaction_moves";
+    private static final String KEY_BUFFER_POOL_HITS = "io_buffer_pool_hits";
+    private static final String KEY_BUFFER_POOL_MISSES = "io_buffer_pool_misses";
+    private static final String KEY_BUFFER_POOL_HIT_RATE = "io_buffer_pool_hit_rate";
+    private static final String KEY_BUFFER_POOL_BYTES_OUTSTANDING = "io_buffer_pool_bytes_outstanding";
+    private static final String KEY_BUFFER_POOL_BYTES_IDLE = "io_buffer_pool_bytes_idle";
+    private static final String KEY_BUFFER_POOL_DIRECT_BYTES = "io_buffer_pool_direct_bytes";
 
     @Override
     public String getName() {
@@ -83,11 +107,13 @@ public final class InfoCommand extends ReadCommand {
             info.putAll(getServerInfo(context));
             info.putAll(getReplicationInfo(context));
             info.putAll(getMetricsInfo(context));
+            info.putAll(getMemoryInfo(context));
         } else {
             switch (section) {
                 case SECTION_SERVER -> info.putAll(getServerInfo(context));
                 case SECTION_REPLICATION -> info.putAll(getReplicationInfo(context));
                 case SECTION_METRICS -> info.putAll(getMetricsInfo(context));
+                case SECTION_MEMORY -> info.putAll(getMemoryInfo(context));
                 default -> LOGGER.debug("Unknown INFO section requested: {}", section);
             }
         }
@@ -106,6 +132,8 @@ public final class InfoCommand extends ReadCommand {
         serverInfo.put(KEY_DATABASE_FILENAME, config.databaseFilename());
         serverInfo.put(KEY_APPEND_ONLY_MODE, String.valueOf(config.appendOnlyMode() ? 1 : 0));
         serverInfo.put(KEY_MAX_MEMORY, String.valueOf(config.maxMemory()));
+        serverInfo.put(KEY_MAX_MEMORY_POLICY,
+                context.getServerContext().getMemoryEvictor().getPolicy().configName());
         serverInfo.put(KEY_REQUIRE_PASSWORD, config.requirePassword().isPresent() ? "yes" : "no");
         return serverInfo;
     }
@@ -134,6 +162,46 @@ public final class InfoCommand extends ReadCommand {
             metricsInfo.put(KEY_UPTIME_SECONDS, String.format("%.0f", uptimeSeconds != null ? uptimeSeconds : 0.0));
         }
 
+        var expiryCycle = context.getServerContext().getActiveExpiryCycle();
+        metricsInfo.put(KEY_EXPIRED_KEYS,
+                String.valueOf(context.getServerContext().getMetricsCollector().getExpiredKeys()));
+        metricsInfo.put(KEY_EXPIRED_STALE_PERC, String.format("%.2f", expiryCycle.getStalePerc() * 100));
+        metricsInfo.put(KEY_EXPIRE_CYCLE_CPU_MILLISECONDS, String.valueOf(expiryCycle.getCycleTimeMillis()));
+        metricsInfo.put(KEY_EXPIRED_TIME_CAP_REACHED_COUNT, String.valueOf(expiryCycle.getTimeCapReachedCount()));
+        metricsInfo.put(KEY_EVICTED_KEYS,
+                String.valueOf(context.getServerContext().getMetricsCollector().getEvictedKeys()));
+
+        var trackingManager = context.getServerContext().getTrackingManager();
+        metricsInfo.put(KEY_TRACKING_CLIENTS, String.valueOf(trackingManager.getTrackingClientCount()));
+        metricsInfo.put(KEY_TRACKING_TOTAL_KEYS, String.valueOf(trackingManager.getTrackedKeyCount()));
+        metricsInfo.put(KEY_TRACKING_TOTAL_PREFIXES, String.valueOf(trackingManager.getPrefixCount()));
+
         return metricsInfo;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the memory used by the keyspace, in total and by key type, and
+     * I/O buffer pool statistics as key-value pairs.
+     */
+    private Map<String, String> getMemoryInfo(CommandContext context) {
+        var storageService = context.getStorageService();
+        BufferPool.Stats stats = BufferPool.getInstance().getStats();
+        Map<String, String> memoryInfo = new LinkedHashMap<>();
+        memoryInfo.put(KEY_USED_MEMORY, String.valueOf(storageService.getUsedMemory()));
+        storageService.getUsedMemoryByType().forEach((type, bytes) -> memoryInfo
+                .put(KEY_USED_MEMORY_PREFIX + type.getDisplayName(), String.valueOf(bytes)));
+        storageService.getSlabStore().map(SlabStore::getStats).ifPresent(offHeap -> {
+            memoryInfo.put(KEY_OFFHEAP_RESERVED_BYTES, String.valueOf(offHeap.reservedBytes()));
+            memoryInfo.put(KEY_OFFHEAP_USED_BYTES, String.valueOf(offHeap.usedBytes()));
+            memoryInfo.put(KEY_OFFHEAP_SLABS, String.valueOf(offHeap.slabs()));
+            memoryInfo.put(KEY_OFFHEAP_COMPACTION_MOVES, String.valueOf(offHeap.compactionMoves()));
+        });
+        memoryInfo.put(KEY_BUFFER_POOL_HITS, String.valueOf(stats.hits()));
+        memoryInfo.put(KEY_BUFFER_POOL_MISSES, String.valueOf(stats.misses()));
+        memoryInfo.put(KEY_BUFFER_POOL_HIT_RATE, String.format("%.4f", stats.hitRate()));
+        memoryInfo.put(KEY_BUFFER_POOL_BYTES_OUTSTANDING, String.valueOf(stats.bytesOutstanding()));
+        memoryInfo.put(KEY_BUFFER_POOL_BYTES_IDLE, String.valueOf(stats.bytesIdle()));
+        memoryInfo.put(KEY_BUFFER_POOL_DIRECT_BYTES, String.valueOf(stats.directBytes()));
+        return memoryInfo;
+    }
+}
@@ -0,0 +1,123 @@
+package commands.impl.config;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import commands.base.ReadCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import errors.ErrorCode;
+import protocol.ResponseBuilder;
+import storage.StorageService;
+import storage.types.ValueType;
+
+/**
+ * Implements the Redis MEMORY USAGE and MEMORY STATS commands.
+ * <p>
+ * {@code MEMORY USAGE key [SAMPLES count]} returns the estimated bytes a key
+ * and its value take, or nil if the key does not exist. Sizes are tracked as
+ * values change, so the answer is exact for the estimate and costs the same
+ * for any value; {@code SAMPLES} is accepted for compatibility and ignored.
+ * </p>
+ * <p>
+ * {@code MEMORY STATS} returns name and value pairs: the heap in use, the
+ * off-heap memory reserved for strings if they are kept there, the memory
+ * taken by the keyspace, in total, per key and by key type, and its share of
+ * the heap.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MemoryCommand extends ReadCommand {
+
+    private static final String COMMAND_NAME = "MEMORY";
+    private static final String USAGE = "USAGE";
+    private static final String STATS = "STATS";
+    private static final String SAMPLES = "SAMPLES";
+    private static final int INDEX_SUBCOMMAND = 1;
+    private static final int INDEX_KEY = 2;
+    private static final int INDEX_OPTION = 3;
+    private static final int INDEX_SAMPLES = 4;
+    private static final int STATS_ARG_COUNT = 2;
+    private static final int USAGE_ARG_COUNT = 3;
+    private static final int USAGE_SAMPLES_ARG_COUNT = 5;
+
+    private static final String STAT_TOTAL_ALLOCATED = "total.allocated";
+    private static final String STAT_OFFHEAP_ALLOCATED = "offheap.allocated";
+    private static final String STAT_KEYS_COUNT = "keys.count";
+    private static final String STAT_KEYS_BYTES_PER_KEY = "keys.bytes-per-key";
+    private static final String STAT_DATASET_BYTES = "dataset.bytes";
+    private static final String STAT_DATASET_PERCENTAGE = "dataset.percentage";
+    private static final String STAT_TYPE_BYTES_SUFFIX = ".bytes";
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.minArgs(STATS_ARG_COUNT).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        String subcommand = context.getArg(INDEX_SUBCOMMAND).toUpperCase(Locale.ROOT);
+        int argCount = context.getArgCount();
+        return switch (subcommand) {
+            case USAGE -> argCount == USAGE_ARG_COUNT
+                    || argCount == USAGE_SAMPLES_ARG_COUNT && SAMPLES.equalsIgnoreCase(context.getArg(INDEX_OPTION))
+                            ? usage(context)
+                            : CommandResult.error(ErrorCode.SYNTAX_ERROR.getMessage());
+            case STATS -> argCount == STATS_ARG_COUNT
+                    ? stats(context.getStorageService())
+                    : CommandResult.error(ErrorCode.WRONG_ARG_COUNT.format("memory|stats"));
+            default -> CommandResult.error(ErrorCode.SYNTAX_ERROR.getMessage());
+        };
+    }
+
+    private CommandResult usage(CommandContext context) {
+        if (context.getArgCount() == USAGE_SAMPLES_ARG_COUNT) {
+            ValidationResult samples = CommandValidator.validateInteger(context.getArg(INDEX_SAMPLES));
+            if (!samples.isValid()) {
+                return CommandResult.error(samples.getErrorMessage());
+            }
+        }
+        long bytes = context.getStorageService().getMemoryUsage(context.getArg(INDEX_KEY));
+        return CommandResult.success(bytes < 0 ? ResponseBuilder.bulkString(null) : ResponseBuilder.integer(bytes));
+    }
+
+    private CommandResult stats(StorageService storageService) {
+        Runtime runtime = Runtime.getRuntime();
+        long allocated = runtime.totalMemory() - runtime.freeMemory();
+        long datasetBytes = storageService.getUsedMemory();
+        int keyCount = storageService.getStore().size();
+
+        List<ByteBuffer> stats = new ArrayList<>();
+        addStat(stats, STAT_TOTAL_ALLOCATED, ResponseBuilder.integer(allocated));
+        storageService.getSlabStore().ifPresent(slabStore -> addStat(stats, STAT_OFFHEAP_ALLOCATED,
+                ResponseBuilder.integer(slabStore.getStats().reservedBytes())));
+        addStat(stats, STAT_KEYS_COUNT, ResponseBuilder.integer(keyCount));
+        addStat(stats, STAT_KEYS_BYTES_PER_KEY, ResponseBuilder.integer(keyCount == 0 ? 0 : datasetBytes / keyCount));
+        addStat(stats, STAT_DATASET_BYTES, ResponseBuilder.integer(datasetBytes));
+        addStat(stats, STAT_DATASET_PERCENTAGE, ResponseBuilder.bulkString(
+                String.format(Locale.ROOT, "%.4f", allocated == 0 ? 0.0 : datasetBytes * 100.0 / allocated)));
+        for (Map.Entry<ValueType, Long> entry : storageService.getUsedMemoryByType().entrySet()) {
+            addStat(stats, entry.getKey().getDisplayName() + STAT_TYPE_BYTES_SUFFIX,
+                    ResponseBuilder.integer(entry.getValue()));
+        }
+        return CommandResult.success(ResponseBuilder.arrayOfBuffers(stats));
+    }
+
+    private static void addStat(List<ByteBuffer> stats, String name, ByteBuffer value) {
+        stats.add(ResponseBuilder.bulkString(name));
+        stats.add(value);
+    }
+}
@@ -6,7 +6,7 @@ import commands.result.CommandResult;
 import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
 import protocol.ResponseBuilder;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.Expiry;
 import utils.GeoUtils;
 
 /**
@@ -26,6 +26,11 @@ public class GeoAddCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(final CommandContext context) {
         // Require at least: GEOADD key longitude latitude member
@@ -47,7 +52,7 @@ public class GeoAddCommand extends WriteCommand {
                     entry.longitude(), 
                     entry.latitude(), 
                     entry.member(),
-                    ExpiryPolicy.never());
+                    Expiry.NEVER);
                     
                 if (wasAdded) {
                     addedCount++;
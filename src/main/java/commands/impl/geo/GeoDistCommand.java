@@ -27,6 +27,11 @@ public class GeoDistCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(final CommandContext context) {
         // GEODIST key member1 member2 [unit]
@@ -29,6 +29,11 @@ public class GeoPosCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(final CommandContext context) {
         // Require at least: GEOPOS key member [member ...]
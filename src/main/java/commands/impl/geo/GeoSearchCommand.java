@@ -28,6 +28,11 @@ public class GeoSearchCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(final CommandContext context) {
         // GEOSEARCH requires at least 6 arguments: key FROM... BY...
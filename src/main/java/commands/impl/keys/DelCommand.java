@@ -0,0 +1,64 @@
+package commands.impl.keys;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import commands.base.WriteCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import protocol.ResponseBuilder;
+import storage.StorageService;
+
+/**
+ * Implements the Redis DEL command.
+ * <p>
+ * Deletes the given keys and returns how many of them existed. Keys evicted
+ * to stay under {@code maxmemory} reach replicas and the AOF as this
+ * command.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class DelCommand extends WriteCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DelCommand.class);
+    private static final String COMMAND_NAME = "DEL";
+    private static final int MIN_ARGUMENTS = 2;
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.minArgs(MIN_ARGUMENTS).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        StorageService storage = context.getStorageService();
+        int deleted = 0;
+        for (int i = 1; i < context.getArgCount(); i++) {
+            String key = context.getArg(i);
+            if (storage.exists(key) && storage.delete(key)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            propagateCommand(context.getArgs(), context.getServerContext());
+        }
+
+        LOGGER.debug("Deleted {} of {} keys", deleted, context.getArgCount() - 1);
+        return CommandResult.success(ResponseBuilder.integer(deleted));
+    }
+}
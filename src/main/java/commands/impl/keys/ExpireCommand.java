@@ -0,0 +1,157 @@
+package commands.impl.keys;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import commands.base.WriteCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import errors.ErrorCode;
+import protocol.ResponseBuilder;
+import storage.StorageService;
+import storage.expiry.Expiry;
+import utils.CoarseClock;
+
+/**
+ * Implements the Redis EXPIRE, PEXPIRE, EXPIREAT and PEXPIREAT commands.
+ * <p>
+ * Sets the time to live of an existing key, relative in seconds or
+ * milliseconds, or as a Unix time in seconds or milliseconds. The NX, XX,
+ * GT and LT options only set it if the key has no time to live, has one, or
+ * if the new deadline is later or earlier than the current one; a key
+ * without a time to live counts as expiring never. A deadline in the past
+ * deletes the key. Returns 1 if the time to live was set and 0 otherwise.
+ * </p>
+ * <p>
+ * The command is propagated and logged to the AOF as PEXPIREAT with the
+ * absolute deadline, so replicas and a restarted server expire the key at
+ * the same moment as the master.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ExpireCommand extends WriteCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpireCommand.class);
+
+    private static final String COMMAND_NAME = "EXPIRE";
+    private static final String PEXPIRE = "PEXPIRE";
+    private static final String EXPIREAT = "EXPIREAT";
+    private static final String PEXPIREAT = "PEXPIREAT";
+    private static final String OPTION_NX = "NX";
+    private static final String OPTION_XX = "XX";
+    private static final String OPTION_GT = "GT";
+    private static final String OPTION_LT = "LT";
+    private static final String NX_NOT_COMPATIBLE = "NX and XX, GT or LT options at the same time are not compatible";
+    private static final String GT_LT_NOT_COMPATIBLE = "GT and LT options at the same time are not compatible";
+    private static final String UNSUPPORTED_OPTION = "Unsupported option ";
+    private static final int MIN_ARGUMENTS = 3;
+    private static final int INDEX_TIME = 2;
+    private static final int FIRST_OPTION_INDEX = 3;
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.minArgs(MIN_ARGUMENTS).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        String operation = context.getOperation().toUpperCase(Locale.ROOT);
+        String key = context.getKey();
+
+        boolean nx = false;
+        boolean xx = false;
+        boolean gt = false;
+        boolean lt = false;
+        for (int i = FIRST_OPTION_INDEX; i < context.getArgCount(); i++) {
+            String option = context.getArg(i).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case OPTION_NX -> nx = true;
+                case OPTION_XX -> xx = true;
+                case OPTION_GT -> gt = true;
+                case OPTION_LT -> lt = true;
+                default -> {
+                    return CommandResult.error(UNSUPPORTED_OPTION + context.getArg(i));
+                }
+            }
+        }
+        if (nx && (xx || gt || lt)) {
+            return CommandResult.error(NX_NOT_COMPATIBLE);
+        }
+        if (gt && lt) {
+            return CommandResult.error(GT_LT_NOT_COMPATIBLE);
+        }
+
+        long amount;
+        try {
+            amount = Long.parseLong(context.getArg(INDEX_TIME));
+        } catch (NumberFormatException e) {
+            return CommandResult.error(ErrorCode.INVALID_INTEGER.getMessage());
+        }
+        long deadline;
+        try {
+            deadline = toDeadline(operation, amount);
+        } catch (ArithmeticException e) {
+            return CommandResult.error(ErrorCode.INVALID_EXPIRE_TIME.format(operation.toLowerCase(Locale.ROOT)));
+        }
+
+        StorageService storage = context.getStorageService();
+        long current = storage.getExpiresAt(key);
+        if (current == StorageService.NO_SUCH_KEY) {
+            return CommandResult.success(ResponseBuilder.integer(0));
+        }
+        boolean persistent = current == Expiry.NEVER;
+        if ((nx && !persistent) || (xx && persistent)
+                || (gt && (persistent || deadline <= current))
+                || (lt && !persistent && deadline >= current)) {
+            return CommandResult.success(ResponseBuilder.integer(0));
+        }
+
+        if (deadline <= CoarseClock.millis()) {
+            storage.delete(key);
+        } else {
+            storage.setExpiresAt(key, deadline);
+        }
+        context.setPropagatedArgs(new String[] { PEXPIREAT, key, Long.toString(deadline) });
+        propagateCommand(context.getPropagatedArgs(), context.getServerContext());
+
+        LOGGER.debug("Key '{}' set to expire at {}", key, deadline);
+        return CommandResult.success(ResponseBuilder.integer(1));
+    }
+
+    /**
+     * Converts the time argument of the given variant to an absolute deadline.
+     *
+     * @throws ArithmeticException if the deadline overflows
+     */
+    private static long toDeadline(String operation, long amount) {
+        return switch (operation) {
+            case PEXPIRE -> Expiry.inMillis(amount);
+            case EXPIREAT -> Math.multiplyExact(amount, MILLIS_PER_SECOND);
+            case PEXPIREAT -> amount;
+            default -> Expiry.inMillis(Math.multiplyExact(amount, MILLIS_PER_SECOND));
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package commands.impl.keys;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import commands.base.WriteCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import protocol.ResponseBuilder;
+import storage.expiry.Expiry;
+
+/**
+ * Implements the Redis PERSIST command.
+ * <p>
+ * Removes the time to live of a key. Returns 1 if it was removed, and 0 if
+ * the key does not exist or has no time to live.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class PersistCommand extends WriteCommand {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistCommand.class);
+    private static final String COMMAND_NAME = "PERSIST";
+    private static final int EXPECTED_ARG_COUNT = 2;
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.argCount(EXPECTED_ARG_COUNT).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        String key = context.getKey();
+        var storage = context.getStorageService();
+        long deadline = storage.getExpiresAt(key);
+        if (deadline < 0 || !storage.setExpiresAt(key, Expiry.NEVER)) {
+            return CommandResult.success(ResponseBuilder.integer(0));
+        }
+        propagateCommand(context.getArgs(), context.getServerContext());
+
+        LOGGER.debug("Removed the time to live of key '{}'", key);
+        return CommandResult.success(ResponseBuilder.integer(1));
+    }
+}
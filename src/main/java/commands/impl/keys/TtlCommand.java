@@ -0,0 +1,62 @@
+package commands.impl.keys;
+
+import commands.base.ReadCommand;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import commands.validation.CommandValidator;
+import commands.validation.ValidationResult;
+import protocol.ResponseBuilder;
+import storage.StorageService;
+import storage.expiry.Expiry;
+
+/**
+ * Implements the Redis TTL and PTTL commands.
+ * <p>
+ * Returns the remaining time to live of a key in seconds (TTL, rounded to
+ * the nearest second) or milliseconds (PTTL), -1 if the key exists but has
+ * no time to live, and -2 if the key does not exist.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TtlCommand extends ReadCommand {
+
+    private static final String COMMAND_NAME = "TTL";
+    private static final String PTTL = "PTTL";
+    private static final int EXPECTED_ARG_COUNT = 2;
+    private static final long NO_TTL = -1;
+    private static final long MILLIS_PER_SECOND = 1000;
+
+    @Override
+    public String getName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
+    @Override
+    protected ValidationResult performValidation(CommandContext context) {
+        return CommandValidator.argCount(EXPECTED_ARG_COUNT).validate(context);
+    }
+
+    @Override
+    protected CommandResult executeInternal(CommandContext context) {
+        long deadline = context.getStorageService().getExpiresAt(context.getKey());
+        if (deadline == StorageService.NO_SUCH_KEY) {
+            return CommandResult.success(ResponseBuilder.integer(StorageService.NO_SUCH_KEY));
+        }
+        if (deadline == Expiry.NEVER) {
+            return CommandResult.success(ResponseBuilder.integer(NO_TTL));
+        }
+
+        long remaining = Expiry.remainingMillis(deadline);
+        boolean millis = PTTL.equalsIgnoreCase(context.getOperation());
+        return CommandResult.success(ResponseBuilder.integer(
+                millis ? remaining : (remaining + MILLIS_PER_SECOND / 2) / MILLIS_PER_SECOND));
+    }
+}
@@ -65,7 +65,7 @@ public final class BlockingPopCommand extends BlockingCommand {
         }
 
         LOGGER.info("Blocking client on keys {} with timeout {} ms", keys, optTimeout.orElse(0L));
-        blockingManager.blockClientForLists(keys, context.getClientChannel(), optTimeout);
+        blockingManager.blockClientForLists(keys, context.getClient(), optTimeout);
         return CommandResult.async();
     }
 }
@@ -25,6 +25,11 @@ public final class LengthCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argCount(EXPECTED_ARG_COUNT).validate(context);
@@ -37,6 +37,16 @@ public final class PopCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argRange(MIN_ARG_COUNT, MAX_ARG_COUNT).validate(context);
@@ -30,6 +30,11 @@ public final class PushCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.minArgs( MIN_ARGUMENTS).validate(context);
@@ -43,7 +43,7 @@ public class SubscribeCommand extends PubSubCommand {
     @Override
     protected CommandResult executeInternal(final CommandContext context) {
         final List<String> channels = context.getSlice(1, context.getArgCount());
-        final var clientChannel = context.getClientChannel();
+        final var client = context.getClient();
         final var pubSubManager = context.getServerContext().getPubSubManager();
 
         if (channels.isEmpty()) {
@@ -52,8 +52,8 @@ public class SubscribeCommand extends PubSubCommand {
 
         final List<ByteBuffer> replies = new ArrayList<>();
         for (final String channel : channels) {
-            pubSubManager.subscribe(clientChannel, List.of(channel));
-            final int subscriptionCount = pubSubManager.subscriptionCount(clientChannel);
+            pubSubManager.subscribe(client, List.of(channel));
+            final int subscriptionCount = pubSubManager.subscriptionCount(client);
 
             final var ack = ResponseBuilder.arrayOfBuffers(List.of(
                     ResponseBuilder.bulkString("subscribe"),
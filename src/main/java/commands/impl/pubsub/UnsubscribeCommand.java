@@ -43,7 +43,7 @@ public class UnsubscribeCommand extends PubSubCommand {
     protected CommandResult executeInternal(CommandContext context) {
         boolean isPatternUnsubscribe = PUNSUBSCRIBE_COMMAND.equalsIgnoreCase(context.getOperation());
         var pubSubManager = context.getServerContext().getPubSubManager();
-        var clientChannel = context.getClientChannel();
+        var client = context.getClient();
 
         // If no arguments, unsubscribe from all; otherwise, unsubscribe from specified
         // targets
@@ -56,30 +56,30 @@ public class UnsubscribeCommand extends PubSubCommand {
         }
 
         if (isPatternUnsubscribe) {
-            pubSubManager.punsubscribe(clientChannel, unsubscribeTargets);
+            pubSubManager.punsubscribe(client, unsubscribeTargets);
         } else {
-            pubSubManager.unsubscribe(clientChannel, unsubscribeTargets);
+            pubSubManager.unsubscribe(client, unsubscribeTargets);
         }
 
         // Determine which channels/patterns were unsubscribed for acknowledgement
         List<String> unsubscribedList = (unsubscribeTargets != null && !unsubscribeTargets.isEmpty())
                 ? unsubscribeTargets
                 : (isPatternUnsubscribe
-                        ? List.copyOf(pubSubManager.getOrCreateState(clientChannel).getSubscribedPatterns())
-                        : List.copyOf(pubSubManager.getOrCreateState(clientChannel).getSubscribedChannels()));
+                        ? List.copyOf(pubSubManager.getOrCreateState(client).getSubscribedPatterns())
+                        : List.copyOf(pubSubManager.getOrCreateState(client).getSubscribedChannels()));
 
         // Build responses for all unsubscribed targets
         List<ByteBuffer> responses = new java.util.ArrayList<>();
         for (String unsubscribed : unsubscribedList) {
             String responseKind = isPatternUnsubscribe ? PUNSUBSCRIBE_KIND : UNSUBSCRIBE_KIND;
-            int remainingSubscriptions = pubSubManager.subscriptionCount(clientChannel);
+            int remainingSubscriptions = pubSubManager.subscriptionCount(client);
 
             var response = ResponseBuilder.arrayOfBuffers(List.of(
                     ResponseBuilder.bulkString(responseKind),
                     ResponseBuilder.bulkString(unsubscribed),
                     ResponseBuilder.integer(remainingSubscriptions)));
 
-            logger.debug("Client {} unsubscribed from {}: {}", clientChannel, responseKind, unsubscribed);
+            logger.debug("Client {} unsubscribed from {}: {}", client, responseKind, unsubscribed);
 
             responses.add(response);
         }
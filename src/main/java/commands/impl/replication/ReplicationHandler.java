@@ -9,7 +9,6 @@ import org.slf4j.LoggerFactory;
 import commands.result.CommandResult;
 import config.ProtocolConstants;
 import protocol.ResponseBuilder;
-import replication.ReplicationProtocol;
 import replication.ReplicationState;
 import server.ServerContext;
 
@@ -86,7 +85,7 @@ public class ReplicationHandler {
             combinedResponse.put(rdbPayload);
             combinedResponse.flip();
 
-            ReplicationProtocol.sendResponse(replicaChannel, combinedResponse);
+            serverContext.getClientWriter().write(replicaChannel, combinedResponse);
 
             serverContext.getReplicationManager().addReplica(replicaChannel);
 
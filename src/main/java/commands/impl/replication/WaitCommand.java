@@ -41,7 +41,7 @@ public final class WaitCommand extends ReplicationCommand {
 
     @Override
     protected CommandResult executeInternal(CommandContext context) {
-        if (context.getServerContext().getTransactionManager().isInTransaction(context.getClientChannel())) {
+        if (context.getServerContext().getTransactionManager().isInTransaction(context.getClient())) {
             return CommandResult.error("WAIT not allowed in MULTI");
         }
 
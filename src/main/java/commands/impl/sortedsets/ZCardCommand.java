@@ -28,6 +28,11 @@ public class ZCardCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         // Validates that the correct number of arguments are provided for ZCARD
@@ -25,6 +25,11 @@ public class ZRankCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         // Validates that the correct number of arguments are provided for ZRANK.
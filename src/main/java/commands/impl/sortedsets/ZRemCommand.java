@@ -23,6 +23,16 @@ public class ZRemCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         // Ensure at least: ZREM key member
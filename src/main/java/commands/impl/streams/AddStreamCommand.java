@@ -11,7 +11,7 @@ import commands.result.CommandResult;
 import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
 import protocol.ResponseBuilder;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.Expiry;
 
 /**
  * Implements the XADD command for adding entries to a stream.
@@ -35,6 +35,11 @@ public final class AddStreamCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(final CommandContext context) {
         return CommandValidator.minArgs(MIN_ARGUMENTS).and(
@@ -52,7 +57,7 @@ public final class AddStreamCommand extends WriteCommand {
 
         try {
             final String entryId = context.getStorageService().addStreamEntry(
-                    streamKey, streamId, fieldValueMap, ExpiryPolicy.never());
+                    streamKey, streamId, fieldValueMap, Expiry.NEVER);
             publishDataAdded(streamKey, context.getServerContext());
             propagateCommand(context.getArgs(), context.getServerContext());
 
@@ -91,7 +91,7 @@ public final class ReadStreamCommand extends BlockingCommand {
                 resolvedArgs.streamKeys(),
                 resolvedArgs.streamIds(),
                 inputArgs.count(),
-                context.getClientChannel(),
+                context.getClient(),
                 blockTimeout);
 
         LOGGER.trace("Client blocked for XREAD: keys={}, ids={}, timeout={}",
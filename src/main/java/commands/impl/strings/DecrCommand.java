@@ -29,6 +29,11 @@ public final class DecrCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argCount(EXPECTED_ARG_COUNT).validate(context);
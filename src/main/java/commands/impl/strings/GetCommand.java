@@ -8,12 +8,19 @@ import commands.context.CommandContext;
 import commands.result.CommandResult;
 import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
-import protocol.ResponseBuilder;
+import protocol.ResponseCache;
 
 /**
  * Handles the Redis GET command.
  * Retrieves the value of a key as a bulk string response.
  *
+ * <p>
+ * String values are stored already encoded as RESP bulk strings, so the
+ * reply is a read-only view of the stored bytes and no encoding happens
+ * on the read path. Values kept off the heap are copied out while the key's
+ * stripe is held, since their slot may be reused once it is released.
+ * </p>
+ *
  * @author Ankit Kumar
  * @version 1.0
  */
@@ -28,6 +35,11 @@ public final class GetCommand extends ReadCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argCount(MIN_ARGUMENT_COUNT).validate(context);
@@ -44,10 +56,10 @@ public final class GetCommand extends ReadCommand {
     protected CommandResult executeInternal(CommandContext context) {
         var storageService = context.getStorageService();
         var key = context.getKey();
-        var value = storageService.getString(key);
+        var value = storageService.getEncodedString(key);
 
         LOGGER.debug("GET command executed for key: {}", key);
 
-        return CommandResult.success(ResponseBuilder.bulkString(value.orElse(null)));
+        return CommandResult.success(value != null ? value : ResponseCache.NULL_BULK_STRING.duplicate());
     }
 }
\ No newline at end of file
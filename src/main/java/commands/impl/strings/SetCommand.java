@@ -1,5 +1,7 @@
 package commands.impl.strings;
 
+import java.util.Locale;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,15 +11,25 @@ import commands.result.CommandResult;
 import commands.validation.CommandValidator;
 import commands.validation.ValidationResult;
 import config.ProtocolConstants;
+import errors.ErrorCode;
 import protocol.ResponseBuilder;
-import storage.expiry.ExpiryPolicy;
+import storage.StorageService;
+import storage.expiry.Expiry;
 
 /**
  * Implements the Redis SET command.
- * 
- * Sets a string value for a key, with optional PX (expiry in milliseconds).
- * Only the PX modifier is supported for expiry.
- * 
+ *
+ * Sets a string value for a key. The time to live is given with EX (seconds),
+ * PX (milliseconds), EXAT (Unix time in seconds) or PXAT (Unix time in
+ * milliseconds); KEEPTTL keeps the time to live of the previous value, and
+ * without any of these the key does not expire.
+ *
+ * <p>
+ * Replicas and the AOF receive relative times as an absolute PXAT deadline,
+ * so a key expires at the same moment on the master, its replicas and after
+ * a restart, however late the command is applied.
+ * </p>
+ *
  * @author Ankit Kumar
  * @version 1.0
  */
@@ -26,53 +38,107 @@ public final class SetCommand extends WriteCommand {
     private static final Logger LOGGER = LoggerFactory.getLogger(SetCommand.class);
 
     private static final String COMMAND_NAME = "SET";
-    private static final String EXPIRY_MODIFIER_PX = "PX";
+    private static final String OPTION_EX = "EX";
+    private static final String OPTION_PX = "PX";
+    private static final String OPTION_EXAT = "EXAT";
+    private static final String OPTION_PXAT = "PXAT";
+    private static final String OPTION_KEEPTTL = "KEEPTTL";
     private static final int MIN_ARGUMENTS = 3;
-    private static final int MAX_ARGUMENTS = 5;
-    private static final int INDEX_EXPIRY_MODIFIER = 3;
-    private static final int INDEX_EXPIRY_VALUE = 4;
+    private static final int FIRST_OPTION_INDEX = 3;
+    private static final long MILLIS_PER_SECOND = 1000;
 
     @Override
     public String getName() {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean isSingleKeyCommand() {
+        return true;
+    }
+
     /**
-     * Validates the SET command arguments.
-     * Supports basic set and set with PX expiry.
+     * Validates the SET command arguments. Options are checked when the
+     * command runs.
      */
     @Override
     protected ValidationResult performValidation(CommandContext context) {
-
-        return CommandValidator.argCount(MIN_ARGUMENTS).or(
-                CommandValidator.argCount(MAX_ARGUMENTS)
-                        .and(CommandValidator.argEquals(INDEX_EXPIRY_MODIFIER, EXPIRY_MODIFIER_PX))
-                        .and(ctx -> CommandValidator.validateInteger(ctx.getArg(INDEX_EXPIRY_VALUE))))
-                .validate(context);
+        return CommandValidator.minArgs(MIN_ARGUMENTS).validate(context);
     }
 
     /**
      * Executes the SET command.
-     * Stores the value for the given key, with optional PX expiry.
+     * Stores the value for the given key with the requested time to live.
      */
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         String key = context.getKey();
         String value = context.getValue();
+        StorageService storage = context.getStorageService();
+
+        long expiresAt = Expiry.NEVER;
+        boolean expirySet = false;
+        boolean keepTtl = false;
+        for (int i = FIRST_OPTION_INDEX; i < context.getArgCount(); i++) {
+            String option = context.getArg(i).toUpperCase(Locale.ROOT);
+            if (OPTION_KEEPTTL.equals(option) && !expirySet) {
+                keepTtl = true;
+                continue;
+            }
+            if (!isExpiryOption(option) || expirySet || keepTtl || i + 1 >= context.getArgCount()) {
+                return CommandResult.error(ErrorCode.SYNTAX_ERROR.getMessage());
+            }
 
-        ExpiryPolicy expiryPolicy = ExpiryPolicy.never();
+            long amount;
+            try {
+                amount = Long.parseLong(context.getArg(++i));
+            } catch (NumberFormatException e) {
+                return CommandResult.error(ErrorCode.INVALID_INTEGER.getMessage());
+            }
+            try {
+                expiresAt = toDeadline(option, amount);
+            } catch (ArithmeticException e) {
+                expiresAt = -1;
+            }
+            if (amount <= 0 || expiresAt <= 0) {
+                return CommandResult.error(ErrorCode.INVALID_EXPIRE_TIME.format(COMMAND_NAME.toLowerCase(Locale.ROOT)));
+            }
+            expirySet = true;
+        }
 
-        if (context.getArgCount() == MAX_ARGUMENTS
-                && EXPIRY_MODIFIER_PX.equalsIgnoreCase(context.getArg(INDEX_EXPIRY_MODIFIER))) {
-            long expiryMillis = Long.parseLong(context.getArg(INDEX_EXPIRY_VALUE));
-            expiryPolicy = ExpiryPolicy.inMillis(expiryMillis);
-            LOGGER.info("Set key '{}' with PX expiry {} ms", key, expiryMillis);
+        if (keepTtl) {
+            long currentDeadline = storage.getExpiresAt(key);
+            expiresAt = currentDeadline == StorageService.NO_SUCH_KEY ? Expiry.NEVER : currentDeadline;
         }
 
-        context.getStorageService().setString(key, value, expiryPolicy);
+        storage.setString(key, value, expiresAt);
         publishDataAdded(key, context.getServerContext());
-        propagateCommand(context.getArgs(), context.getServerContext());
+        if (expirySet) {
+            context.setPropagatedArgs(
+                    new String[] { COMMAND_NAME, key, value, OPTION_PXAT, Long.toString(expiresAt) });
+        }
+        propagateCommand(context.getPropagatedArgs(), context.getServerContext());
 
+        LOGGER.debug("Set key '{}' expiring at {}", key, expiresAt);
         return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
     }
-}
\ No newline at end of file
+
+    private static boolean isExpiryOption(String option) {
+        return OPTION_EX.equals(option) || OPTION_PX.equals(option)
+                || OPTION_EXAT.equals(option) || OPTION_PXAT.equals(option);
+    }
+
+    /**
+     * Converts the amount of an expiry option to an absolute deadline.
+     *
+     * @throws ArithmeticException if the deadline overflows
+     */
+    private static long toDeadline(String option, long amount) {
+        return switch (option) {
+            case OPTION_EX -> Expiry.inMillis(Math.multiplyExact(amount, MILLIS_PER_SECOND));
+            case OPTION_PX -> Expiry.inMillis(amount);
+            case OPTION_EXAT -> Math.multiplyExact(amount, MILLIS_PER_SECOND);
+            default -> amount;
+        };
+    }
+}
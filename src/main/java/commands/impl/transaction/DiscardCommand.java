@@ -34,6 +34,11 @@ public final class DiscardCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     /**
      * Validates the argument count for the DISCARD command.
      *
@@ -55,7 +60,7 @@ public final class DiscardCommand extends WriteCommand {
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         var transactionManager = context.getServerContext().getTransactionManager();
-        var transactionState = transactionManager.getOrCreateState(context.getClientChannel());
+        var transactionState = transactionManager.getOrCreateState(context.getClient());
 
         if (!transactionState.isInTransaction()) {
             return CommandResult.error(ErrorCode.DISCARD_WITHOUT_MULTI.getMessage());
@@ -37,6 +37,11 @@ public final class ExecCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argCount(1).validate(context);
@@ -45,7 +50,7 @@ public final class ExecCommand extends WriteCommand {
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         var transactionManager = context.getServerContext().getTransactionManager();
-        var clientTransactionState = transactionManager.getOrCreateState(context.getClientChannel());
+        var clientTransactionState = transactionManager.getOrCreateState(context.getClient());
 
         if (!clientTransactionState.isInTransaction()) {
             return CommandResult.error(ErrorCode.EXEC_WITHOUT_MULTI.getMessage());
@@ -66,9 +71,10 @@ public final class ExecCommand extends WriteCommand {
         List<ByteBuffer> results = executeQueuedCommands(queuedCommands, context);
 
         LOGGER.trace("EXEC executed {} queued commands for client={}",
-                queuedCommands.size(), context.getClientChannel());
+                queuedCommands.size(), context.getClient());
 
-        return CommandResult.success(ResponseBuilder.arrayOfBuffers(results));
+        // The replies stay separate segments, written with one gathering write
+        return CommandResult.success(results);
     }
 
     /**
@@ -82,14 +88,16 @@ public final class ExecCommand extends WriteCommand {
     }
 
     /**
-     * Executes queued commands and collects their responses.
+     * Executes queued commands and collects their responses, preceded by the
+     * array header of the EXEC reply.
      */
     private List<ByteBuffer> executeQueuedCommands(List<QueuedCommand> queuedCommands, CommandContext context) {
-        List<ByteBuffer> results = new ArrayList<>();
+        List<ByteBuffer> results = new ArrayList<>(queuedCommands.size() + 1);
+        results.add(ResponseBuilder.arrayHeader(queuedCommands.size()));
 
         for (var queuedCommand : queuedCommands) {
             CommandResult result = executeQueuedCommand(queuedCommand, context);
-            results.add(mapResultToResponse(result));
+            addResponse(result, results);
         }
 
         return results;
@@ -102,11 +110,12 @@ public final class ExecCommand extends WriteCommand {
         CommandContext commandContext = new CommandContext(
                 queuedCommand.operation(),
                 queuedCommand.rawArgs(),
-                context.getClientChannel(),
+                context.getClient(),
                 context.getStorageService(),
                 context.getServerContext());
 
         CommandResult result = queuedCommand.command().execute(commandContext);
+        trackRead(queuedCommand, context);
 
         if (shouldLogToAof(queuedCommand.command())
                 && result instanceof CommandResult.Success
@@ -121,16 +130,29 @@ public final class ExecCommand extends WriteCommand {
     }
 
     /**
-     * Converts a CommandResult into RESP-encoded ByteBuffer response.
+     * Remembers the key of a queued single-key read for a tracking client.
      */
-    private ByteBuffer mapResultToResponse(CommandResult result) {
-        return switch (result) {
-
-            case CommandResult.Success success -> success.response();
-            case CommandResult.Error error -> ResponseBuilder.error(error.message());
-            case CommandResult.MultiSuccess multiSuccess -> ResponseBuilder.merge(multiSuccess.responses());
-            case CommandResult.Async _ -> ResponseBuilder.error(ErrorCode.BLOCKING_IN_TRANSACTION.getMessage());
-        };
+    private void trackRead(QueuedCommand queuedCommand, CommandContext context) {
+        var client = context.getClient();
+        if (client != null && client.getTrackingState() != null
+                && queuedCommand.command().isReadCommand()
+                && queuedCommand.command().isSingleKeyCommand()
+                && queuedCommand.rawArgs().length > 1) {
+            context.getServerContext().getTrackingManager().rememberRead(client, queuedCommand.rawArgs()[1]);
+        }
+    }
+
+    /**
+     * Appends the RESP-encoded response of a CommandResult to the EXEC reply.
+     */
+    private void addResponse(CommandResult result, List<ByteBuffer> results) {
+        switch (result) {
+            case CommandResult.Success success -> results.add(success.response());
+            case CommandResult.Error error -> results.add(ResponseBuilder.error(error.message()));
+            case CommandResult.MultiSuccess multiSuccess -> results.add(ResponseBuilder.merge(multiSuccess.responses()));
+            case CommandResult.Async _ ->
+                results.add(ResponseBuilder.error(ErrorCode.BLOCKING_IN_TRANSACTION.getMessage()));
+        }
     }
 
     /**
@@ -31,6 +31,11 @@ public final class MultiCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         return CommandValidator.argCount(MULTI_COMMAND_ARG_COUNT).validate(context);
@@ -39,16 +44,16 @@ public final class MultiCommand extends WriteCommand {
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         var transactionManager = context.getServerContext().getTransactionManager();
-        var clientChannel = context.getClientChannel();
-        var clientTransactionState = transactionManager.getOrCreateState(clientChannel);
+        var client = context.getClient();
+        var clientTransactionState = transactionManager.getOrCreateState(client);
 
         if (clientTransactionState.isInTransaction()) {
-            LOGGER.info("MULTI command rejected: transaction already active for client {}", clientChannel);
+            LOGGER.info("MULTI command rejected: transaction already active for client {}", client);
             return CommandResult.error(ErrorCode.NESTED_MULTI.getMessage());
         }
 
-        transactionManager.beginTransaction(clientChannel);
-        LOGGER.debug("Transaction started for client {}", clientChannel);
+        transactionManager.beginTransaction(client);
+        LOGGER.debug("Transaction started for client {}", client);
         return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
     }
 }
@@ -21,6 +21,11 @@ public final class UnwatchCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         // UNWATCH does not require any arguments or validation.
@@ -32,7 +37,7 @@ public final class UnwatchCommand extends WriteCommand {
         // Remove all watched keys for the client associated with this context.
         context.getServerContext()
                 .getTransactionManager()
-                .unwatchAllKeys(context.getClientChannel());
+                .unwatchAllKeys(context.getClient());
 
         return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
     }
@@ -30,6 +30,11 @@ public final class WatchCommand extends WriteCommand {
         return COMMAND_NAME;
     }
 
+    @Override
+    public boolean mayGrowMemory() {
+        return false;
+    }
+
     @Override
     protected ValidationResult performValidation(CommandContext context) {
         if (context.getArgCount() < 2) {
@@ -41,18 +46,18 @@ public final class WatchCommand extends WriteCommand {
     @Override
     protected CommandResult executeInternal(CommandContext context) {
         var transactionManager = context.getServerContext().getTransactionManager();
-        var clientChannel = context.getClientChannel();
+        var client = context.getClient();
 
-        if (transactionManager.isInTransaction(clientChannel)) {
-            LOGGER.debug("WATCH command issued inside MULTI transaction for client: {}", clientChannel);
+        if (transactionManager.isInTransaction(client)) {
+            LOGGER.debug("WATCH command issued inside MULTI transaction for client: {}", client);
             return CommandResult.error(ErrorCode.WATCH_INSIDE_MULTI.getMessage());
         }
 
         int argCount = context.getArgCount();
         for (int argIndex = 1; argIndex < argCount; argIndex++) {
             String keyToWatch = context.getArg(argIndex);
-            transactionManager.watchKey(clientChannel, keyToWatch);
-            LOGGER.trace("Client {} is now watching key: {}", clientChannel, keyToWatch);
+            transactionManager.watchKey(client, keyToWatch);
+            LOGGER.trace("Client {} is now watching key: {}", client, keyToWatch);
         }
 
         return CommandResult.success(ResponseBuilder.encode(ProtocolConstants.RESP_OK));
@@ -3,18 +3,24 @@ package commands.registry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import commands.impl.basic.ClientCommand;
 import commands.impl.basic.EchoCommand;
 import commands.impl.basic.PingCommand;
 import commands.impl.basic.TypeCommand;
 import commands.impl.config.ConfigCommand;
 import commands.impl.config.FlushAllCommand;
 import commands.impl.config.InfoCommand;
+import commands.impl.config.MemoryCommand;
 import commands.impl.config.MetricsCommand;
 import commands.impl.geo.GeoAddCommand;
 import commands.impl.geo.GeoDistCommand;
 import commands.impl.geo.GeoPosCommand;
 import commands.impl.geo.GeoSearchCommand;
+import commands.impl.keys.DelCommand;
+import commands.impl.keys.ExpireCommand;
 import commands.impl.keys.KeysComamnd;
+import commands.impl.keys.PersistCommand;
+import commands.impl.keys.TtlCommand;
 import commands.impl.lists.*;
 import commands.impl.pubsub.PublishCommand;
 import commands.impl.pubsub.SubscribeCommand;
@@ -51,6 +57,12 @@ public final class CommandFactory {
     private static final String PSUBSCRIBE = "PSUBSCRIBE";
     private static final String UNSUBSCRIBE = "UNSUBSCRIBE";
     private static final String PUNSUBSCRIBE = "PUNSUBSCRIBE";
+    private static final String EXPIRE = "EXPIRE";
+    private static final String PEXPIRE = "PEXPIRE";
+    private static final String EXPIREAT = "EXPIREAT";
+    private static final String PEXPIREAT = "PEXPIREAT";
+    private static final String TTL = "TTL";
+    private static final String PTTL = "PTTL";
 
     private CommandFactory() {
         // Prevent instantiation
@@ -85,16 +97,22 @@ public final class CommandFactory {
         registry.register(new PingCommand());
         registry.register(new EchoCommand());
         registry.register(new TypeCommand());
+        registry.register(new ClientCommand());
     }
 
     private static void registerKeyCommands(final CommandRegistry registry) {
         registry.register(new KeysComamnd());
+        registry.register(new DelCommand());
+        registry.register(new ExpireCommand(), EXPIRE, PEXPIRE, EXPIREAT, PEXPIREAT);
+        registry.register(new TtlCommand(), TTL, PTTL);
+        registry.register(new PersistCommand());
     }
 
     private static void registerConfigCommands(final CommandRegistry registry) {
         registry.register(new InfoCommand());
         registry.register(new ConfigCommand());
         registry.register(new MetricsCommand());
+        registry.register(new MemoryCommand());
         registry.register(new FlushAllCommand());
     }
 
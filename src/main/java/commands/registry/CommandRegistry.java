@@ -1,7 +1,7 @@
 package commands.registry;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,13 +11,41 @@ import commands.core.Command;
 /**
  * Maintains a registry of command implementations for the Redis protocol.
  * Allows registration and lookup of commands by name or alias.
+ * 
+ * <p>
+ * Names are stored in an open-addressing table hashed case-insensitively,
+ * so a client's command name is resolved straight from the request argument
+ * without upper-casing it first. Registration only happens at startup; the
+ * table is rebuilt on each registration and read without locking afterwards.
+ * </p>
+ * 
+ * <p>
+ * Every registered name also gets a small int id, dense from 0, so that
+ * per-command state such as the command metrics is kept in arrays indexed
+ * by id rather than in maps keyed by name.
+ * </p>
  */
 public final class CommandRegistry {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CommandRegistry.class);
 
-    /** Thread-safe map of command names/aliases to Command instances. */
-    private final Map<String, Command> commandMap = new ConcurrentHashMap<>();
+    /** Table slots per registered name, keeping probe sequences short. */
+    private static final int LOAD_FACTOR_INVERSE = 4;
+
+    /**
+     * A registered name resolved to its command.
+     *
+     * @param name    the upper-case name or alias the command was registered
+     *                under
+     * @param command the command implementation
+     * @param id      the id of the name, unique within the registry
+     */
+    public record Entry(String name, Command command, int id) {
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private Entry[] table = new Entry[0];
+    private int nextId;
 
     /**
      * Registers a command with its primary name.
@@ -26,7 +54,7 @@ public final class CommandRegistry {
      */
     public void register(final Command command) {
         final String commandName = normalizeName(command.getName());
-        commandMap.put(commandName, command);
+        put(commandName, command);
         LOGGER.debug("Registered command: {}", commandName);
     }
 
@@ -40,11 +68,35 @@ public final class CommandRegistry {
         register(command);
         for (final String alias : aliases) {
             final String normalizedAlias = normalizeName(alias);
-            commandMap.put(normalizedAlias, command);
+            put(normalizedAlias, command);
             LOGGER.debug("Registered alias '{}' for command '{}'", normalizedAlias, command.getName());
         }
     }
 
+    /**
+     * Resolves a command name as sent by a client, ignoring case, without
+     * allocating.
+     * 
+     * @param name the name or alias of the command, in any case
+     * @return the registry entry, or null if not found
+     */
+    public Entry lookup(final String name) {
+        if (name == null || table.length == 0) {
+            return null;
+        }
+
+        final int mask = table.length - 1;
+        for (int slot = hashIgnoreCase(name) & mask;; slot = (slot + 1) & mask) {
+            final Entry entry = table[slot];
+            if (entry == null) {
+                return null;
+            }
+            if (entry.name().length() == name.length() && entry.name().regionMatches(true, 0, name, 0, name.length())) {
+                return entry;
+            }
+        }
+    }
+
     /**
      * Retrieves a command by name or alias.
      * 
@@ -52,7 +104,8 @@ public final class CommandRegistry {
      * @return the Command instance, or null if not found
      */
     public Command getCommand(final String name) {
-        return commandMap.get(normalizeName(name));
+        final Entry entry = lookup(name);
+        return entry != null ? entry.command() : null;
     }
 
     /**
@@ -62,7 +115,16 @@ public final class CommandRegistry {
      * @return true if the command exists, false otherwise
      */
     public boolean hasCommand(final String name) {
-        return commandMap.containsKey(normalizeName(name));
+        return lookup(name) != null;
+    }
+
+    /**
+     * Returns the number of ids handed out so far; every id is below it.
+     * 
+     * @return the exclusive upper bound of the command ids
+     */
+    public int getIdCount() {
+        return nextId;
     }
 
     /**
@@ -71,7 +133,38 @@ public final class CommandRegistry {
      * @return the size of the registry
      */
     public int size() {
-        return commandMap.size();
+        return entries.size();
+    }
+
+    private void put(final String name, final Command command) {
+        entries.removeIf(entry -> entry.name().equals(name));
+        entries.add(new Entry(name, command, nextId++));
+
+        final Entry[] rebuilt = new Entry[Integer.highestOneBit(entries.size() * LOAD_FACTOR_INVERSE - 1) << 1];
+        final int mask = rebuilt.length - 1;
+        for (final Entry entry : entries) {
+            int slot = hashIgnoreCase(entry.name()) & mask;
+            while (rebuilt[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            rebuilt[slot] = entry;
+        }
+        table = rebuilt;
+    }
+
+    /**
+     * Hashes a name with ASCII letters folded to upper case.
+     */
+    private static int hashIgnoreCase(final String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            hash = 31 * hash + c;
+        }
+        return hash ^ (hash >>> 16);
     }
 
     /**
@@ -27,6 +27,18 @@ public final class CommandValidator {
     /** Shared error message fragment for argument validation. */
     private static final String ARGUMENTS_GOT = " arguments, got ";
 
+    /**
+     * Argument count validators built once for the usual counts, since most
+     * commands ask for theirs on every execution.
+     */
+    private static final CommandValidation[] ARG_COUNT_VALIDATORS = new CommandValidation[8];
+
+    static {
+        for (int count = 0; count < ARG_COUNT_VALIDATORS.length; count++) {
+            ARG_COUNT_VALIDATORS[count] = newArgCount(count);
+        }
+    }
+
     /**
      * Functional interface for context-aware command validation.
      */
@@ -79,6 +91,13 @@ public final class CommandValidator {
      * Validates that the argument count matches the expected value.
      */
     public static CommandValidation argCount(final int expectedCount) {
+        if (expectedCount >= 0 && expectedCount < ARG_COUNT_VALIDATORS.length) {
+            return ARG_COUNT_VALIDATORS[expectedCount];
+        }
+        return newArgCount(expectedCount);
+    }
+
+    private static CommandValidation newArgCount(final int expectedCount) {
         return context -> {
             final int actualCount = context.getArgCount();
             if (actualCount != expectedCount) {
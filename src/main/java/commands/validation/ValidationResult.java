@@ -11,6 +11,9 @@ public final class ValidationResult {
 
     private static final String DEFAULT_ERROR_MESSAGE = "Validation failed";
 
+    /** Shared by every successful validation, which carries no state */
+    private static final ValidationResult VALID = new ValidationResult(true, null);
+
     private final boolean isValid;
     private final String errorMessage;
 
@@ -25,7 +28,7 @@ public final class ValidationResult {
      * @return a valid ValidationResult instance
      */
     public static ValidationResult valid() {
-        return new ValidationResult(true, null);
+        return VALID;
     }
 
     /**
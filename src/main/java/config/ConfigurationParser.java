@@ -22,7 +22,11 @@ public final class ConfigurationParser {
     // Valid configuration options
     private static final Set<String> VALID_OPTIONS = Set.of(
             "port", "replicaof", "repl-backlog-size", "dir", "dbfilename",
-            "appendonly", "maxmemory", "bind", "requirepass", "http-enabled", "http-port");
+            "appendonly", "maxmemory", "bind", "requirepass", "http-enabled", "http-port",
+            "client-query-buffer-limit", "reactor-threads",
+            "io-threads", "lock-stripes", "server-engine", "client-output-buffer-limit",
+            "unixsocket", "timeout", "maxclients", "active-expire-effort",
+            "maxmemory-policy", "offheap-strings");
 
     private ConfigurationParser() {
         // Utility class - prevent instantiation
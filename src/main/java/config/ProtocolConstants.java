@@ -1,5 +1,8 @@
 package config;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
 /*
  * Holds protocol-related constants and utility methods for a Redis-like server.
  * This includes RESP markers, standard responses, RDB opcodes, and methods to
@@ -10,6 +13,10 @@ public final class ProtocolConstants {
     private ProtocolConstants() {
     } // Utility class
 
+    // Keys, values and arguments are strings holding one char per protocol
+    // byte, so any binary payload survives and decoding is a plain copy
+    public static final Charset BYTE_CHARSET = StandardCharsets.ISO_8859_1;
+
     // Protocol markers
     public static final String CRLF = "\r\n";
     public static final char SIMPLE_STRING = '+';
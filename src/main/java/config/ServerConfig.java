@@ -18,16 +18,71 @@ public final class ServerConfig {
     public static final int DEFAULT_PORT = 6379;
     public static final int BUFFER_SIZE = 1024;
     public static final int CLEANUP_INTERVAL_MS = 100;
+    public static final int MAX_COMMANDS_PER_CLIENT_TICK = 128; // pipelined commands run per client per tick
+    public static final int CLIENTS_CRON_INTERVAL_MS = 1000;
+
+    // Query Buffer Configuration
+    public static final int DEFAULT_QUERY_BUFFER_LIMIT = 1024 * 1024 * 1024; // 1GB, as in Redis
+    public static final long QUERY_BUFFER_IDLE_SHRINK_MS = 2000;
+
+    // Output Backpressure Configuration
+    public static final long OUTPUT_HIGH_WATER_MARK = 1024 * 1024; // stop reading a client with this much queued
+    public static final long OUTPUT_LOW_WATER_MARK = 256 * 1024; // resume reading once drained below this
+
+    // I/O Buffer Pool Configuration
+    public static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024; // size classes of 1KB, 4KB, 16KB and 64KB
+    public static final int BUFFER_POOL_SLAB_SIZE = 1024 * 1024; // direct memory carved per allocation
+    public static final int BUFFER_POOL_THREAD_CACHE_SIZE = 16; // free buffers kept per thread and class
+    public static final long BUFFER_POOL_MAX_DIRECT_BYTES = 256L * 1024 * 1024; // heap buffers beyond this
+
+    // Off-heap String Store Configuration
+    public static final boolean DEFAULT_OFFHEAP_STRINGS = false;
+    public static final int OFFHEAP_SLAB_SIZE = 1024 * 1024; // off-heap memory carved per slab
+    public static final int OFFHEAP_MIN_SLOT_SIZE = 16; // smallest size class; classes double up to the largest
+    public static final int OFFHEAP_MAX_SLOT_SIZE = 64 * 1024; // larger values get a segment of their own
+    public static final long OFFHEAP_LARGE_POOL_BYTES = 64L * 1024 * 1024; // freed large segments kept for reuse
+    public static final int OFFHEAP_COMPACT_FILL_PERC = 50; // slabs less full than this are evacuated
+    public static final int OFFHEAP_COMPACT_MAX_MOVES = 4096; // values moved per cron run, under the global lock
+
+    // Active Expiry Configuration (effort 1 matches Redis' defaults)
+    public static final int DEFAULT_ACTIVE_EXPIRE_EFFORT = 1; // 1-10, trades CPU for fewer stale keys
+    public static final int MAX_ACTIVE_EXPIRE_EFFORT = 10;
+    public static final int ACTIVE_EXPIRE_KEYS_PER_LOOP = 20; // volatile keys sampled per loop at effort 1
+    public static final int ACTIVE_EXPIRE_ACCEPTABLE_STALE_PERC = 10; // loop again while more keys were expired
+    public static final int ACTIVE_EXPIRE_CYCLE_TIME_PERC = 25; // share of each cron interval a cycle may use
+
+    // Eviction Configuration (as in Redis)
+    public static final int MAXMEMORY_SAMPLES = 5; // keys sampled per eviction
+    public static final int EVICTION_POOL_SIZE = 16; // best candidates kept across samples
+    public static final int LRU_CLOCK_RESOLUTION_MS = 1000;
+    public static final int LRU_CLOCK_MAX = (1 << 24) - 1;
+    public static final int LFU_INIT_VAL = 5; // counter of new keys, so they are not evicted at once
+    public static final int LFU_LOG_FACTOR = 10; // higher values need more accesses to raise the counter
+    public static final int LFU_DECAY_TIME_MINUTES = 1; // idle minutes per counter decrement
+
+    // Client-side Caching Configuration
+    public static final int TRACKING_TABLE_MAX_KEYS = 1_000_000; // keys remembered for CLIENT TRACKING readers
 
     // Threading Configuration
     public static final int IO_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    public static final int DEFAULT_REACTOR_THREADS = 1; // single event loop unless configured
+    public static final int DEFAULT_IO_THREADS = 1; // io-threads mode off unless configured
+    public static final int DEFAULT_LOCK_STRIPES = 1; // one stripe: fully serialized execution
+    public static final String SERVER_ENGINE_NIO = "nio";
+    public static final String SERVER_ENGINE_VIRTUAL_THREADS = "virtual-threads";
+    public static final String DEFAULT_SERVER_ENGINE = SERVER_ENGINE_NIO;
+
+    // Client Output Buffer Configuration (as in Redis)
+    public static final String DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT =
+            "normal 0 0 0 replica 256mb 64mb 60 pubsub 32mb 8mb 60";
 
     // Connection Configuration
-    public static final int MAX_CONNECTIONS = 10000;
-    public static final int SOCKET_TIMEOUT_MS = 30000;
+    public static final int MAX_CONNECTIONS = 10000; // default maxclients, as in Redis
+    public static final int DEFAULT_CLIENT_TIMEOUT_SECONDS = 0; // idle clients are never closed, as in Redis
+    public static final int CLIENT_TIMEOUT_WHEEL_SLOTS = 512; // one slot per clients-cron tick
 
     // Memory Configuration
-    public static final long MAX_MEMORY_BYTES = 100 * 1024 * 1024; // 100MB default
+    public static final long MAX_MEMORY_BYTES = 0; // no limit by default, as in Redis
     public static final double MEMORY_CLEANUP_THRESHOLD = 0.9;
 
     // Replication Configuration
@@ -37,7 +92,10 @@ public final class ServerConfig {
     public static final String DEFAULT_DIR = "/var/lib/redis";
     public static final String DEFAULT_DB_FILENAME = "dump.rdb";
     public static final long DEFAULT_MAX_MEMORY = MAX_MEMORY_BYTES;
+    public static final String DEFAULT_MAXMEMORY_POLICY = "noeviction";
     public static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+    /** Path of the Unix domain socket listener; empty disables it */
+    public static final String DEFAULT_UNIX_SOCKET = "";
 
     // Configuration parsing constants
     public static final String OPTION_PREFIX = "--";
@@ -10,15 +10,20 @@ public enum ErrorCode {
                         "wrong number of arguments for '%s' command"),
         BLOCKING_IN_TRANSACTION(
                         "cannot queue blocking commands in transaction"),
+        PROTOCOL_ERROR("Protocol error: %s"),
+        MAX_CLIENTS_REACHED("max number of clients reached"),
 
         // Validation errors
         INVALID_INTEGER("value is not an integer or out of range"), INVALID_TIMEOUT(
                         "timeout value is invalid"),
         INVALID_STREAM_ID("Invalid stream ID format"),
+        SYNTAX_ERROR("syntax error"),
+        INVALID_EXPIRE_TIME("invalid expire time in '%s' command"),
 
         // Storage errors
         WRONG_TYPE("WRONGTYPE Operation against a key holding the wrong kind of value"), KEY_NOT_FOUND(
                         "no such key"),
+        OOM("OOM command not allowed when used memory > 'maxmemory'."),
 
         // Stream specific errors
         STREAM_ID_TOO_SMALL(
@@ -2,8 +2,11 @@ package metrics;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -49,6 +52,9 @@ public final class MetricsCollector {
     private final Counter clientConnections;
     private final Counter clientDisconnections;
     private final Counter clientConnectionFailures;
+    private final Counter outputBufferLimitDisconnections;
+    private final Counter idleClientDisconnections;
+    private final Counter rejectedConnections;
     private final AtomicInteger activeConnections = new AtomicInteger(0);
 
     // Command Metrics with Redis Enterprise categories
@@ -67,11 +73,19 @@ public final class MetricsCollector {
     private final Counter totalErrors;
     private final AtomicLong memoryUsage = new AtomicLong(0);
 
-    // Command metrics (detailed)
+    // Command metrics (detailed), keyed by the name as passed by callers
+    // (the registry's upper-case name) so recording never re-cases it
     private final Map<String, Counter> commandCounters = new ConcurrentHashMap<>(INITIAL_COMMAND_MAP_CAPACITY);
     private final Map<String, Timer> commandTimers = new ConcurrentHashMap<>(INITIAL_COMMAND_MAP_CAPACITY);
     private final Map<String, Counter> commandErrors = new ConcurrentHashMap<>(INITIAL_COMMAND_MAP_CAPACITY);
 
+    // The same meters indexed by command registry id, so the dispatcher's
+    // recording skips the map lookups; copied on write as commands appear
+    private record CommandMeters(Counter executions, Timer duration) {
+    }
+
+    private volatile CommandMeters[] commandMetersById = new CommandMeters[0];
+
     // Key Type Storage metrics (Redis Enterprise style)
     private final AtomicInteger totalKeys = new AtomicInteger(0);
     private final AtomicInteger stringKeys = new AtomicInteger(0);
@@ -100,6 +114,7 @@ public final class MetricsCollector {
 
     // Storage metrics
     private final Map<String, AtomicInteger> keyCountByType = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> memoryUsageByType = new ConcurrentHashMap<>();
     private final Counter expiredKeys;
     private final Counter evictedKeys;
     private final Counter keysRead;
@@ -156,6 +171,16 @@ public final class MetricsCollector {
         this.clientConnectionFailures = Counter.builder("endpoint_client_establishment_failures")
                 .description("Number of client connections that failed to establish properly")
                 .register(meterRegistry);
+        this.outputBufferLimitDisconnections = Counter
+                .builder("redis_client_output_buffer_limit_disconnections_total")
+                .description("Number of clients disconnected for exceeding their output buffer limit")
+                .register(meterRegistry);
+        this.idleClientDisconnections = Counter.builder("redis_client_idle_timeout_disconnections_total")
+                .description("Number of clients disconnected for staying idle longer than the timeout")
+                .register(meterRegistry);
+        this.rejectedConnections = Counter.builder("redis_rejected_connections_total")
+                .description("Number of connections rejected because of the maxclients limit")
+                .register(meterRegistry);
 
         // Initialize command metrics by type (Redis Enterprise style)
         this.readRequests = Counter.builder("endpoint_read_requests")
@@ -346,6 +371,23 @@ public final class MetricsCollector {
         memoryUsage.set(bytes);
     }
 
+    public void setMemoryUsage(String keyType, long bytes) {
+        memoryUsageByType.computeIfAbsent(keyType.toLowerCase(), type -> {
+            AtomicLong gauge = new AtomicLong(0);
+            Gauge.builder("redis_memory_usage_by_type_bytes", gauge, AtomicLong::get)
+                    .tag("type", type)
+                    .description("Memory usage in bytes of keys of type: " + type)
+                    .register(meterRegistry);
+            return gauge;
+        }).set(bytes);
+    }
+
+    public Map<String, Long> getMemoryUsageByType() {
+        Map<String, Long> usage = new TreeMap<>();
+        memoryUsageByType.forEach((type, gauge) -> usage.put(type, gauge.get()));
+        return usage;
+    }
+
     public double getActiveConnectionsCount() {
         return activeConnections.get();
     }
@@ -364,30 +406,58 @@ public final class MetricsCollector {
         getCommandTimer(commandName).record(duration);
     }
 
+    /**
+     * Records a command execution timed with {@link System#nanoTime()}.
+     *
+     * @param commandId     the command's id in the command registry
+     * @param commandName   the name the command was registered under
+     * @param durationNanos the execution time
+     */
+    public void recordCommandExecution(int commandId, String commandName, long durationNanos) {
+        CommandMeters[] byId = commandMetersById;
+        CommandMeters meters = commandId < byId.length ? byId[commandId] : null;
+        if (meters == null) {
+            meters = createCommandMeters(commandId, commandName);
+        }
+        meters.executions().increment();
+        meters.duration().record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized CommandMeters createCommandMeters(int commandId, String commandName) {
+        CommandMeters[] byId = commandMetersById;
+        if (commandId < byId.length && byId[commandId] != null) {
+            return byId[commandId];
+        }
+        byId = Arrays.copyOf(byId, Math.max(byId.length, commandId + 1));
+        byId[commandId] = new CommandMeters(getCommandCounter(commandName), getCommandTimer(commandName));
+        commandMetersById = byId;
+        return byId[commandId];
+    }
+
     public void incrementCommandError(String commandName) {
         getCommandErrorCounter(commandName).increment();
     }
 
     private Counter getCommandCounter(String commandName) {
-        return commandCounters.computeIfAbsent(commandName.toLowerCase(),
+        return commandCounters.computeIfAbsent(commandName,
                 name -> Counter.builder("redis_command_executions_total")
-                        .tag("command", name)
+                        .tag("command", name.toLowerCase())
                         .description("Number of executions for command: " + name)
                         .register(meterRegistry));
     }
 
     private Timer getCommandTimer(String commandName) {
-        return commandTimers.computeIfAbsent(commandName.toLowerCase(),
+        return commandTimers.computeIfAbsent(commandName,
                 name -> Timer.builder("redis_command_duration_seconds")
-                        .tag("command", name)
+                        .tag("command", name.toLowerCase())
                         .description("Execution duration for command: " + name)
                         .register(meterRegistry));
     }
 
     private Counter getCommandErrorCounter(String commandName) {
-        return commandErrors.computeIfAbsent(commandName.toLowerCase(),
+        return commandErrors.computeIfAbsent(commandName,
                 name -> Counter.builder("redis_command_errors_total")
-                        .tag("command", name)
+                        .tag("command", name.toLowerCase())
                         .description("Number of errors for command: " + name)
                         .register(meterRegistry));
     }
@@ -416,13 +486,21 @@ public final class MetricsCollector {
     }
 
     public void incrementExpiredKeys(int count) {
-        evictedKeys.increment(count);
+        expiredKeys.increment(count);
+    }
+
+    public long getExpiredKeys() {
+        return (long) expiredKeys.count();
     }
 
     public void incrementEvictedKeys() {
         evictedKeys.increment();
     }
 
+    public long getEvictedKeys() {
+        return (long) evictedKeys.count();
+    }
+
     // Replication metrics methods
     public void setReplicationLag(long lagMillis) {
         replicationLag.set(lagMillis);
@@ -527,13 +605,14 @@ public final class MetricsCollector {
 
         // Command metrics
         Map<String, Object> commandMetrics = new ConcurrentHashMap<>();
-        commandCounters.forEach((cmd, counter) -> commandMetrics.put(cmd + "_count", counter.count()));
-        commandErrors.forEach((cmd, counter) -> commandMetrics.put(cmd + "_errors", counter.count()));
+        commandCounters.forEach((cmd, counter) -> commandMetrics.put(cmd.toLowerCase() + "_count", counter.count()));
+        commandErrors.forEach((cmd, counter) -> commandMetrics.put(cmd.toLowerCase() + "_errors", counter.count()));
         metrics.put("commands", commandMetrics);
 
         // Storage metrics
         Map<String, Object> storageMetrics = new ConcurrentHashMap<>();
         keyCountByType.forEach((type, counter) -> storageMetrics.put(type + "_keys", counter.get()));
+        memoryUsageByType.forEach((type, gauge) -> storageMetrics.put(type + "_memory_bytes", gauge.get()));
         storageMetrics.put("expired_keys", expiredKeys.count());
         storageMetrics.put("evicted_keys", evictedKeys.count());
         metrics.put("storage", storageMetrics);
@@ -590,6 +669,18 @@ public final class MetricsCollector {
         clientConnectionFailures.increment();
     }
 
+    public void recordOutputBufferLimitDisconnection() {
+        outputBufferLimitDisconnections.increment();
+    }
+
+    public void recordIdleClientDisconnections(int count) {
+        idleClientDisconnections.increment(count);
+    }
+
+    public void recordRejectedConnection() {
+        rejectedConnections.increment();
+    }
+
     // Command Type Metrics (Redis Enterprise style)
     public void recordReadCommand(String commandName, Duration latency) {
         readRequests.increment();
@@ -609,6 +700,18 @@ public final class MetricsCollector {
         recordCommandExecution(commandName, latency);
     }
 
+    public void recordWriteCommand(int commandId, String commandName, long latencyNanos) {
+        writeRequests.increment();
+        writeRequestsLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        recordCommandExecution(commandId, commandName, latencyNanos);
+    }
+
+    public void recordOtherCommand(int commandId, String commandName, long latencyNanos) {
+        otherRequests.increment();
+        otherRequestsLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+        recordCommandExecution(commandId, commandName, latencyNanos);
+    }
+
     public void recordReadResponse() {
         readResponses.increment();
     }
@@ -815,6 +918,18 @@ public final class MetricsCollector {
         return clientConnectionFailures.count();
     }
 
+    public double getOutputBufferLimitDisconnections() {
+        return outputBufferLimitDisconnections.count();
+    }
+
+    public double getIdleClientDisconnections() {
+        return idleClientDisconnections.count();
+    }
+
+    public double getRejectedConnections() {
+        return rejectedConnections.count();
+    }
+
     public double getReadRequests() {
         return readRequests.count();
     }
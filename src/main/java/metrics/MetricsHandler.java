@@ -85,6 +85,8 @@ public final class MetricsHandler {
                 .append(String.format("%.0f", metricsCollector.getTotalNetOutputBytes())).append(LINE_SEPARATOR);
         infoBuilder.append("total_connections_received:")
                 .append(String.format("%.0f", metricsCollector.getTotalConnectionsReceived())).append(LINE_SEPARATOR);
+        infoBuilder.append("rejected_connections:")
+                .append(String.format("%.0f", metricsCollector.getRejectedConnections())).append(LINE_SEPARATOR);
         infoBuilder.append(LINE_SEPARATOR);
 
         // Endpoint metrics section
@@ -95,6 +97,12 @@ public final class MetricsHandler {
                 .append(String.format("%.0f", metricsCollector.getClientDisconnections())).append(LINE_SEPARATOR);
         infoBuilder.append("client_establishment_failures:")
                 .append(String.format("%.0f", metricsCollector.getClientConnectionFailures())).append(LINE_SEPARATOR);
+        infoBuilder.append("client_output_buffer_limit_disconnections:")
+                .append(String.format("%.0f", metricsCollector.getOutputBufferLimitDisconnections()))
+                .append(LINE_SEPARATOR);
+        infoBuilder.append("client_idle_timeout_disconnections:")
+                .append(String.format("%.0f", metricsCollector.getIdleClientDisconnections()))
+                .append(LINE_SEPARATOR);
         infoBuilder.append("read_requests:").append(String.format("%.0f", metricsCollector.getReadRequests()))
                 .append(LINE_SEPARATOR);
         infoBuilder.append("write_requests:").append(String.format("%.0f", metricsCollector.getWriteRequests()))
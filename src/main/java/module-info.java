@@ -30,7 +30,10 @@ module redis {
     exports server.http;
     exports replication;
     exports storage;
+    exports storage.eviction;
     exports storage.expiry;
+    exports storage.memory;
+    exports storage.offheap;
     exports storage.persistence;
     exports storage.repositories;
     exports storage.types;
@@ -1,9 +1,10 @@
 package protocol;
 
 import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
-import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Lock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +18,11 @@ import commands.impl.transaction.MultiCommand;
 import commands.registry.CommandRegistry;
 import commands.result.CommandResult;
 import errors.ErrorCode;
-import pubsub.PubSubManager;
+import server.ClientSession;
 import server.ServerContext;
+import server.StripedExecutionLock;
 import storage.StorageService;
-import transaction.TransactionManager;
-import transaction.TransactionState;
+import utils.CoarseClock;
 
 /**
  * Central command dispatcher for processing Redis protocol commands.
@@ -35,6 +36,15 @@ import transaction.TransactionState;
  * propagation for replication.
  * </p>
  * 
+ * <p>
+ * The per-client state consulted on every command (open MULTI block, pub/sub
+ * mode) is read straight from the client's {@link ClientSession}, which also
+ * keeps the {@link CommandContext} reused for each of the client's commands.
+ * A command is resolved to its registry entry once; its id then indexes the
+ * per-command metrics. Dispatching a simple command thus allocates nothing
+ * beyond the reply the command builds.
+ * </p>
+ * 
  * @author Ankit Kumar
  * @version 1.0
  * @since 1.0
@@ -46,77 +56,215 @@ public final class CommandDispatcher {
 
     /** Minimum number of arguments required for a valid command */
     private static final int MINIMUM_COMMAND_ARGS = 1;
+
+    /** Position of the key in the arguments of a single-key command */
+    private static final int KEY_ARG_INDEX = 1;
+
     private final CommandRegistry registry;
     private final StorageService storage;
-    private final TransactionManager transactionManager;
-    private final PubSubManager pubSubManager;
     private final ServerContext context;
 
     /**
      * Constructs a new CommandDispatcher with the required dependencies.
      * 
-     * @param registry           the command registry for looking up commands
-     * @param storage            the storage service for data operations
-     * @param transactionManager the transaction manager for handling MULTI/EXEC
-     * @param pubSubManager      the pub/sub manager for subscription handling
-     * @param context            the server context containing shared resources
+     * @param registry the command registry for looking up commands
+     * @param storage  the storage service for data operations
+     * @param context  the server context containing shared resources
      */
     public CommandDispatcher(final CommandRegistry registry,
             final StorageService storage,
-            final TransactionManager transactionManager,
-            final PubSubManager pubSubManager,
             final ServerContext context) {
         this.registry = registry;
         this.storage = storage;
-        this.pubSubManager = pubSubManager;
-        this.transactionManager = transactionManager;
         this.context = context;
     }
 
     /**
-     * Dispatches a command with the given arguments.
+     * Dispatches a client command, handing its reply to the given sink. A
+     * reply made of several buffers (EXEC, multi-part results) is handed over
+     * segment by segment, in order, so that it can be written with one
+     * gathering write instead of being merged into a single buffer.
      * 
      * @param rawArgs       the raw command arguments
-     * @param clientChannel the client socket channel
-     * @return the response buffer, or null if no response needed
+     * @param client        the client session
+     * @param replies       receives the reply segments
+     * @return true if a reply was produced, false if none is due yet
      */
-    public ByteBuffer dispatch(final String[] rawArgs, final SocketChannel clientChannel) {
-        return dispatch(rawArgs, clientChannel, false);
+    public boolean dispatch(final String[] rawArgs, final ClientSession client,
+            final Consumer<ByteBuffer> replies) {
+        return dispatch(rawArgs, client, false, replies);
     }
 
     /**
-     * Dispatches a command with the given arguments and propagation flag.
+     * Dispatches a command with the given arguments and propagation flag,
+     * returning its reply as a single buffer.
      * 
      * @param rawArgs             the raw command arguments
-     * @param clientChannel       the client socket channel
+     * @param client              the client session, or null for replicated
+     *                            commands
      * @param isPropagatedCommand whether this is a propagated command from master
      * @return the response buffer, or null if no response needed
      */
     public ByteBuffer dispatch(final String[] rawArgs,
-            final SocketChannel clientChannel,
+            final ClientSession client,
             final boolean isPropagatedCommand) {
+        final List<ByteBuffer> replies = new ArrayList<>(1);
+        if (!dispatch(rawArgs, client, isPropagatedCommand, replies::add)) {
+            return null;
+        }
+        return replies.size() == 1 ? replies.getFirst() : ResponseBuilder.merge(replies);
+    }
+
+    /**
+     * Dispatches a command with the given arguments and propagation flag.
+     * 
+     * <p>
+     * Execution holds the server's execution lock. A single-key command only
+     * holds the stripe owning its key, so it may run alongside commands on
+     * other stripes; every other command holds the global lock and never
+     * interleaves with anything.
+     * </p>
+     * 
+     * @param rawArgs             the raw command arguments
+     * @param client              the client session, or null for replicated
+     *                            commands
+     * @param isPropagatedCommand whether this is a propagated command from master
+     * @param replies             receives the reply segments
+     * @return true if a reply was produced
+     */
+    private boolean dispatch(final String[] rawArgs,
+            final ClientSession client,
+            final boolean isPropagatedCommand,
+            final Consumer<ByteBuffer> replies) {
+        final StripedExecutionLock executionLock = context.getExecutionLock();
+        final CommandRegistry.Entry entry = isValidCommandInput(rawArgs) ? registry.lookup(rawArgs[0]) : null;
+        if (isRefusedForMemory(entry, isPropagatedCommand)) {
+            return reply(replies, ResponseBuilder.error(ErrorCode.OOM.getMessage()));
+        }
+        final String stripeKey = stripeKeyOf(entry, rawArgs);
+
+        if (stripeKey != null) {
+            final int stripe = executionLock.stripeFor(stripeKey);
+            executionLock.lockStripe(stripe);
+            try {
+                // Clients only block under the global lock, so the check is
+                // stable while the stripe is held.
+                if (!wakesBlockedClients(entry.command(), stripeKey)) {
+                    return dispatchLocked(entry, rawArgs, client, isPropagatedCommand, replies);
+                }
+            } finally {
+                executionLock.unlockStripe(stripe);
+            }
+        }
+
+        final Lock globalLock = executionLock.global();
+        globalLock.lock();
+        try {
+            return dispatchLocked(entry, rawArgs, client, isPropagatedCommand, replies);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    /**
+     * Evicts keys before a write command while the dataset is over
+     * maxmemory, and checks whether the command must be refused because
+     * nothing more can be evicted. Runs before the execution lock is taken,
+     * since eviction locks the stripe of each evicted key itself. Commands
+     * from the master are never refused, and replicas leave eviction to the
+     * master.
+     *
+     * @return true if the command may grow the dataset and it is full
+     */
+    private boolean isRefusedForMemory(final CommandRegistry.Entry entry, final boolean isPropagatedCommand) {
+        if (entry == null || isPropagatedCommand || !entry.command().isWriteCommand()
+                || context.getConfig().isReplicaMode()) {
+            return false;
+        }
+        return !context.getMemoryEvictor().performEvictions() && entry.command().mayGrowMemory();
+    }
+
+    /**
+     * Finds the key that decides which stripe may execute a command.
+     * 
+     * @param entry   the resolved command, or null if unknown
+     * @param rawArgs the raw command arguments
+     * @return the single key the command touches, or null if the command
+     *         needs the global lock
+     */
+    private String stripeKeyOf(final CommandRegistry.Entry entry, final String[] rawArgs) {
+        if (context.getExecutionLock().getStripeCount() == 1
+                || entry == null || rawArgs.length <= KEY_ARG_INDEX) {
+            return null;
+        }
+        return entry.command().isSingleKeyCommand() ? rawArgs[KEY_ARG_INDEX] : null;
+    }
+
+    /**
+     * Checks whether a single-key write may serve clients blocked on its
+     * key. Serving them pops data and replies across stripes, so such writes
+     * are escalated to the global lock.
+     */
+    private boolean wakesBlockedClients(final Command command, final String key) {
+        return command.isWriteCommand() && context.getBlockingManager().hasWaitingClients(key);
+    }
+
+    /**
+     * Executes a command resolved by {@link #dispatch}, which looks the name
+     * up once; the registry's canonical name is reused from then on instead
+     * of re-casing the client's argument.
+     */
+    private boolean dispatchLocked(final CommandRegistry.Entry entry,
+            final String[] rawArgs,
+            final ClientSession client,
+            final boolean isPropagatedCommand,
+            final Consumer<ByteBuffer> replies) {
         if (!isValidCommandInput(rawArgs)) {
-            return ResponseBuilder.error(ErrorCode.UNKNOWN_COMMAND.getMessage());
+            return reply(replies, ResponseBuilder.error(ErrorCode.UNKNOWN_COMMAND.getMessage()));
+        }
+
+        if (entry == null) {
+            return reply(replies, handleUnknownCommand(rawArgs[0].toUpperCase(), isPropagatedCommand));
         }
 
-        final String commandName = rawArgs[0].toUpperCase();
-        final Command command = registry.getCommand(commandName);
+        final String commandName = entry.name();
+        final Command command = entry.command();
 
-        if (command == null) {
-            return handleUnknownCommand(commandName, isPropagatedCommand);
+        if (client != null) {
+            client.recordCommand(commandName, CoarseClock.millis());
         }
 
-        final CommandContext cmdContext = new CommandContext(commandName, rawArgs, clientChannel, storage, context);
+        final CommandContext cmdContext = contextFor(client, commandName, rawArgs);
 
         if (!command.validate(cmdContext)) {
-            return handleValidationFailure(isPropagatedCommand);
+            return reply(replies, handleValidationFailure(isPropagatedCommand));
         }
 
-        if (!canExecuteInCurrentMode(clientChannel, command)) {
-            return ResponseBuilder.error(ErrorCode.NOT_ALLOWED_IN_PUBSUB_MODE.format(commandName.toLowerCase()));
+        if (!canExecuteInCurrentMode(client, command)) {
+            return reply(replies,
+                    ResponseBuilder.error(ErrorCode.NOT_ALLOWED_IN_PUBSUB_MODE.format(commandName.toLowerCase())));
         }
 
-        return executeCommand(command, cmdContext, clientChannel, isPropagatedCommand, rawArgs);
+        return executeCommand(entry, cmdContext, client, isPropagatedCommand, rawArgs, replies);
+    }
+
+    /**
+     * Returns the client's reusable context, prepared for the command.
+     * Commands replicated from the master have no session and get a fresh
+     * one.
+     */
+    private CommandContext contextFor(final ClientSession client, final String commandName,
+            final String[] rawArgs) {
+        if (client == null) {
+            return new CommandContext(commandName, rawArgs, null, storage, context);
+        }
+        CommandContext reusable = client.getCommandContext();
+        if (reusable == null) {
+            reusable = new CommandContext(commandName, rawArgs, client, storage, context);
+            client.setCommandContext(reusable);
+            return reusable;
+        }
+        return reusable.reset(commandName, rawArgs);
     }
 
     /**
@@ -162,45 +310,58 @@ public final class CommandDispatcher {
         return ResponseBuilder.error(ErrorCode.WRONG_ARG_COUNT.getMessage());
     }
 
-    private boolean canExecuteInCurrentMode(final SocketChannel clientChannel, final Command command) {
-        final boolean inPubSub = pubSubManager.isInPubSubMode(clientChannel);
+    /**
+     * Remembers the key read by a single-key command for a client that uses
+     * {@code CLIENT TRACKING}, so it is told when the key changes.
+     */
+    private void trackRead(final Command command, final ClientSession client, final String[] rawArgs) {
+        if (client != null && client.getTrackingState() != null
+                && command.isSingleKeyCommand() && rawArgs.length > KEY_ARG_INDEX) {
+            context.getTrackingManager().rememberRead(client, rawArgs[KEY_ARG_INDEX]);
+        }
+    }
+
+    private boolean canExecuteInCurrentMode(final ClientSession client, final Command command) {
+        final boolean inPubSub = client != null && client.isInPubSubMode();
         return !inPubSub || isPubSubCommand(command);
     }
 
-    private ByteBuffer executeCommand(final Command command,
+    private boolean executeCommand(final CommandRegistry.Entry entry,
             final CommandContext context,
-            final SocketChannel clientChannel,
+            final ClientSession client,
             final boolean isPropagatedCommand,
-            final String[] rawArgs) {
+            final String[] rawArgs,
+            final Consumer<ByteBuffer> replies) {
+        final Command command = entry.command();
 
-        if (shouldQueueForTransaction(clientChannel, command, context)) {
-            return ResponseCache.QUEUED_RESPONSE.duplicate();
+        if (shouldQueueForTransaction(client, command, context)) {
+            return reply(replies, ResponseCache.QUEUED_RESPONSE.duplicate());
         }
 
         // For read commands, skip timing overhead for maximum performance
         if (command.isReadCommand()) {
             final CommandResult result = command.execute(context);
+            trackRead(command, client, rawArgs);
             recordLightweightMetrics(command, result, isPropagatedCommand);
-            return buildResponse(result);
+            return emitResponse(result, replies);
         }
 
         // Only time write commands and others that need detailed metrics
-        final Instant startTime = Instant.now();
+        final long startNanos = System.nanoTime();
         final CommandResult result = command.execute(context);
-        final Duration executionTime = Duration.between(startTime, Instant.now());
+        final long executionNanos = System.nanoTime() - startNanos;
 
-        recordCommandMetrics(command, context, result, executionTime, isPropagatedCommand);
+        recordCommandMetrics(entry, result, executionNanos, isPropagatedCommand);
         handleAofLogging(result, command, isPropagatedCommand, context, rawArgs);
 
         final boolean shouldSendResponse = !isPropagatedCommand || command.isReplicationCommand();
-        return shouldSendResponse ? buildResponse(result) : null;
+        return shouldSendResponse && emitResponse(result, replies);
     }
 
-    private boolean shouldQueueForTransaction(final SocketChannel clientChannel, final Command command,
+    private boolean shouldQueueForTransaction(final ClientSession client, final Command command,
             final CommandContext context) {
-        final TransactionState transactionState = transactionManager.getOrCreateState(clientChannel);
-        if (shouldQueueInTransaction(transactionState, command)) {
-            transactionState.queueCommand(command, context);
+        if (client != null && client.isInTransaction() && !isTransactionControlCommand(command)) {
+            client.getTransactionState().queueCommand(command, context);
             return true;
         }
         return false;
@@ -212,15 +373,11 @@ public final class CommandDispatcher {
                 context.getServerContext().isAofMode()) {
             final var aofRepo = context.getServerContext().getAofRepository();
             if (aofRepo != null) {
-                aofRepo.appendCommand(rawArgs);
+                aofRepo.appendCommand(context.getPropagatedArgs());
             }
         }
     }
 
-    private boolean shouldQueueInTransaction(final TransactionState state, final Command command) {
-        return state.isInTransaction() && !isTransactionControlCommand(command);
-    }
-
     private boolean isTransactionControlCommand(final Command command) {
         return command instanceof MultiCommand ||
                 command instanceof ExecCommand ||
@@ -239,15 +396,32 @@ public final class CommandDispatcher {
                 !isTransactionControlCommand(command);
     }
 
-    private ByteBuffer buildResponse(final CommandResult result) {
+    /**
+     * Hands a command result to the reply sink; the parts of a multi-part
+     * result are passed on as separate segments rather than merged.
+     */
+    private boolean emitResponse(final CommandResult result, final Consumer<ByteBuffer> replies) {
         return switch (result) {
-            case CommandResult.MultiSuccess(final var responses) -> ResponseBuilder.merge(responses);
-            case CommandResult.Success(final var response) -> response;
-            case CommandResult.Error(final var message) -> ResponseBuilder.error(message);
-            case CommandResult.Async() -> null; // No immediate response for async commands
+            case CommandResult.MultiSuccess(final var responses) when responses.isEmpty() ->
+                reply(replies, ResponseCache.EMPTY_ARRAY.duplicate());
+            case CommandResult.MultiSuccess(final var responses) -> {
+                responses.forEach(replies);
+                yield true;
+            }
+            case CommandResult.Success(final var response) -> reply(replies, response);
+            case CommandResult.Error(final var message) -> reply(replies, ResponseBuilder.error(message));
+            case CommandResult.Async() -> false; // No immediate response for async commands
         };
     }
 
+    private static boolean reply(final Consumer<ByteBuffer> replies, final ByteBuffer response) {
+        if (response == null) {
+            return false;
+        }
+        replies.accept(response);
+        return true;
+    }
+
     /**
      * Record lightweight metrics for read commands (no timing overhead).
      */
@@ -269,24 +443,24 @@ public final class CommandDispatcher {
     /**
      * Record Redis Enterprise compatible metrics for command execution.
      */
-    private void recordCommandMetrics(final Command command, final CommandContext context,
-            final CommandResult result, final Duration executionTime,
+    private void recordCommandMetrics(final CommandRegistry.Entry entry,
+            final CommandResult result, final long executionNanos,
             final boolean isPropagatedCommand) {
         if (isPropagatedCommand) {
             return; // Don't double-count replicated commands
         }
 
-        final var metricsCollector = this.context.getMetricsCollector();
-        final String commandName = context.getArgs()[0].toUpperCase();
+        final var metricsCollector = context.getMetricsCollector();
+        final Command command = entry.command();
 
         // Lightweight metrics - only essential ones for read commands
         if (command.isReadCommand()) {
             metricsCollector.recordReadResponse();
         } else if (command.isWriteCommand()) {
-            metricsCollector.recordWriteCommand(commandName, executionTime);
+            metricsCollector.recordWriteCommand(entry.id(), entry.name(), executionNanos);
             metricsCollector.recordWriteResponse();
         } else {
-            metricsCollector.recordOtherCommand(commandName, executionTime);
+            metricsCollector.recordOtherCommand(entry.id(), entry.name(), executionNanos);
             metricsCollector.recordOtherResponse();
         }
 
@@ -296,8 +470,8 @@ public final class CommandDispatcher {
         }
 
         // Record replication metrics if this is a master
-        if (command.isWriteCommand() && !context.getServerContext().getConfig().isReplicaMode()) {
-            final var replicationManager = context.getServerContext().getReplicationManager();
+        if (command.isWriteCommand() && !context.getConfig().isReplicaMode()) {
+            final var replicationManager = context.getReplicationManager();
             if (replicationManager.hasConnectedReplicas()) {
                 metricsCollector.recordReplicationCommand();
             }
@@ -0,0 +1,15 @@
+package protocol;
+
+/**
+ * Thrown when a client sends bytes that are not valid RESP. The message is
+ * the reason reported back to the client before the connection is closed.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public class ProtocolException extends RuntimeException {
+    public ProtocolException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,14 @@
 package protocol;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import config.ProtocolConstants;
+
 /**
  * Parses RESP (REdis Serialization Protocol) messages from a ByteBuffer.
  * Supports parsing RESP arrays, bulk strings, and simple strings.
@@ -19,6 +20,7 @@ public final class ProtocolParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolParser.class);
 
     private static final String[] EMPTY_RESULT = new String[0];
+    private static final long INVALID_NUMBER = Long.MIN_VALUE;
     private static final String CRLF = "\r\n";
     private static final byte ASTERISK = (byte) '*';
     private static final byte DOLLAR = (byte) '$';
@@ -113,11 +115,11 @@ public final class ProtocolParser {
             return null;
         }
 
-        final Long arraySize = parseNumber(buffer);
-        if (arraySize == null || arraySize < 0)
+        final long arraySize = parseNumber(buffer);
+        if (arraySize < 0)
             return null;
 
-        final String[] args = new String[arraySize.intValue()];
+        final String[] args = new String[(int) arraySize];
         for (int i = 0; i < arraySize; i++) {
             final String arg = parseBulkString(buffer);
             if (arg == null)
@@ -138,52 +140,61 @@ public final class ProtocolParser {
             return null;
         }
 
-        final Long length = parseNumber(buffer);
-        if (length == null || length < 0)
+        final long length = parseNumber(buffer);
+        if (length < 0 || length > Integer.MAX_VALUE - 2)
             return null;
 
-        final int bulkLength = length.intValue();
+        final int bulkLength = (int) length;
         if (buffer.remaining() < bulkLength + 2)
             return null;
 
-        final byte[] data = new byte[bulkLength];
-        buffer.get(data);
-
-        if (!buffer.hasRemaining() || buffer.get() != CR ||
-                !buffer.hasRemaining() || buffer.get() != LF) {
+        final int start = buffer.position();
+        if (buffer.get(start + bulkLength) != CR || buffer.get(start + bulkLength + 1) != LF) {
             return null;
         }
+        buffer.position(start + bulkLength + 2);
 
-        return new String(data, StandardCharsets.UTF_8);
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, bulkLength, ProtocolConstants.BYTE_CHARSET);
+        }
+        final byte[] data = new byte[bulkLength];
+        buffer.get(start, data);
+        return new String(data, ProtocolConstants.BYTE_CHARSET);
     }
 
     /**
-     * Parses a number (terminated by CRLF) from the buffer.
+     * Parses a number (terminated by CRLF) from the buffer, straight from the
+     * digit bytes.
      * 
      * @param buffer ByteBuffer containing RESP data
-     * @return Parsed number, or null if incomplete or invalid
+     * @return Parsed number, or {@link #INVALID_NUMBER} if incomplete or
+     *         invalid
      */
-    private static Long parseNumber(final ByteBuffer buffer) {
-        final StringBuilder numberBuilder = new StringBuilder();
+    private static long parseNumber(final ByteBuffer buffer) {
+        long value = 0;
+        boolean negative = false;
+        boolean digitSeen = false;
         while (buffer.hasRemaining()) {
             final byte currentByte = buffer.get();
             if (currentByte == CR) {
-                if (buffer.hasRemaining() && buffer.get() == LF) {
-                    break;
+                if (digitSeen && buffer.hasRemaining() && buffer.get() == LF) {
+                    return negative ? -value : value;
                 }
-                return null;
+                break;
             }
-            numberBuilder.append((char) currentByte);
-        }
-
-        try {
-            return Long.parseLong(numberBuilder.toString());
-        } catch (final NumberFormatException e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Failed to parse number from RESP: {}", numberBuilder, e);
+            if (currentByte == '-' && !digitSeen && !negative) {
+                negative = true;
+            } else if (currentByte >= '0' && currentByte <= '9' && value <= Integer.MAX_VALUE) {
+                value = value * 10 + (currentByte - '0');
+                digitSeen = true;
+            } else {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Failed to parse number from RESP at byte {}", buffer.position() - 1);
+                }
+                break;
             }
-            return null;
         }
+        return INVALID_NUMBER;
     }
 
     /**
@@ -229,7 +240,7 @@ public final class ProtocolParser {
     }
 
     /**
-     * Extracts the remaining bytes from the buffer as a UTF-8 string.
+     * Extracts the remaining bytes from the buffer as a byte string.
      * 
      * @param buffer ByteBuffer containing RESP data
      * @return Extracted string
@@ -237,6 +248,6 @@ public final class ProtocolParser {
     private static String extractString(final ByteBuffer buffer) {
         final byte[] bytes = new byte[buffer.remaining()];
         buffer.get(bytes);
-        return new String(bytes, StandardCharsets.UTF_8);
+        return new String(bytes, ProtocolConstants.BYTE_CHARSET);
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Low-level RESP encoding straight into a {@link ByteBuffer}.
+ *
+ * <p>
+ * Aggregate replies are encoded in two passes: the exact encoded size is
+ * computed first, then every length header and payload byte is written once
+ * into a buffer of that size. Strings hold one char per byte (see
+ * {@link config.ProtocolConstants#BYTE_CHARSET}) and are copied in place; numbers
+ * are written from a two-digit lookup table, so no intermediate
+ * {@code String}, {@code StringBuilder} or per-element buffer is created.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+final class RespEncoder {
+
+    private static final byte ARRAY_MARKER = (byte) '*';
+    private static final byte BULK_STRING_MARKER = (byte) '$';
+    private static final byte MINUS = (byte) '-';
+    private static final byte CR = (byte) '\r';
+    private static final byte LF = (byte) '\n';
+    private static final int CRLF_LENGTH = 2;
+    private static final int MARKER_LENGTH = 1;
+    private static final int NULL_BULK_STRING_LENGTH = 5;
+    private static final byte REPLACEMENT_BYTE = (byte) '?';
+
+    /** Tens and ones digit of every value in 0-99, as in Integer.toString */
+    private static final byte[] DIGIT_TENS = new byte[100];
+    private static final byte[] DIGIT_ONES = new byte[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (byte) ('0' + i / 10);
+            DIGIT_ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private RespEncoder() {
+        // Utility class
+    }
+
+    /**
+     * Returns the encoded size of an array header such as {@code *3\r\n}.
+     */
+    static int arrayHeaderLength(final int count) {
+        return MARKER_LENGTH + decimalLength(count) + CRLF_LENGTH;
+    }
+
+    /**
+     * Returns the encoded size of a bulk string, or of the null bulk string
+     * if the value is null.
+     */
+    static int bulkStringLength(final String value) {
+        if (value == null) {
+            return NULL_BULK_STRING_LENGTH;
+        }
+        final int payload = value.length();
+        return MARKER_LENGTH + decimalLength(payload) + CRLF_LENGTH + payload + CRLF_LENGTH;
+    }
+
+    /**
+     * Writes an array header such as {@code *3\r\n}.
+     */
+    static void writeArrayHeader(final ByteBuffer buffer, final int count) {
+        buffer.put(ARRAY_MARKER);
+        writeDecimal(buffer, count);
+        writeCrlf(buffer);
+    }
+
+    /**
+     * Writes a bulk string, or the null bulk string if the value is null.
+     */
+    static void writeBulkString(final ByteBuffer buffer, final String value) {
+        if (value == null) {
+            buffer.put(BULK_STRING_MARKER).put(MINUS).put((byte) '1');
+            writeCrlf(buffer);
+            return;
+        }
+        buffer.put(BULK_STRING_MARKER);
+        writeDecimal(buffer, value.length());
+        writeCrlf(buffer);
+        writeBytes(buffer, value);
+        writeCrlf(buffer);
+    }
+
+    /**
+     * Returns the number of characters in the decimal form of a value,
+     * including the sign.
+     */
+    static int decimalLength(final long value) {
+        if (value < 0) {
+            return value == Long.MIN_VALUE ? Long.toString(value).length() : 1 + decimalLength(-value);
+        }
+        int length = 1;
+        for (long remaining = value; remaining >= 10; remaining /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the decimal form of a value two digits at a time.
+     */
+    static void writeDecimal(final ByteBuffer buffer, final long value) {
+        if (value == Long.MIN_VALUE) {
+            writeBytes(buffer, Long.toString(value));
+            return;
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.put(MINUS);
+            remaining = -remaining;
+        }
+
+        int end = buffer.position() + decimalLength(remaining);
+        int index = end;
+        while (remaining >= 100) {
+            final int pair = (int) (remaining % 100);
+            remaining /= 100;
+            buffer.put(--index, DIGIT_ONES[pair]);
+            buffer.put(--index, DIGIT_TENS[pair]);
+        }
+        final int pair = (int) remaining;
+        buffer.put(--index, DIGIT_ONES[pair]);
+        if (pair >= 10) {
+            buffer.put(--index, DIGIT_TENS[pair]);
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Writes a byte string, one byte per char. Chars above 0xFF, which only
+     * occur in text the server builds itself, are written as a replacement
+     * byte like {@link String#getBytes} does.
+     */
+    static void writeBytes(final ByteBuffer buffer, final String value) {
+        final int chars = value.length();
+        for (int i = 0; i < chars; i++) {
+            final char c = value.charAt(i);
+            buffer.put(c <= 0xFF ? (byte) c : REPLACEMENT_BYTE);
+        }
+    }
+
+    private static void writeCrlf(final ByteBuffer buffer) {
+        buffer.put(CR).put(LF);
+    }
+}
@@ -0,0 +1,265 @@
+package protocol;
+
+import java.nio.ByteBuffer;
+
+import config.ProtocolConstants;
+
+/**
+ * Incremental RESP request parser, one instance per connection.
+ *
+ * <p>
+ * The parser is a state machine that consumes bytes as soon as they arrive
+ * and remembers where it stopped, so a request split across many reads is
+ * never re-parsed from its first byte and the consumed bytes can be compacted
+ * out of the read buffer. Length prefixes are accumulated digit by digit into
+ * a primitive rather than a boxed number.
+ * </p>
+ *
+ * <p>
+ * Every argument is still copied out of the buffer into its own Latin-1
+ * {@code String}, because commands, the AOF and replication all take their
+ * arguments as {@code String[]}; the parser does not hand out views into the
+ * read buffer. Arguments from a heap buffer are decoded in one copy, those
+ * from a direct buffer go through a reused scratch array first.
+ * </p>
+ *
+ * <p>
+ * Only a bulk string that is still incomplete has to stay in the buffer;
+ * {@link #getRequiredBufferCapacity()} tells the caller how large the buffer
+ * must be to hold it.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class RespParser {
+
+    private static final String[] EMPTY_COMMAND = new String[0];
+    private static final String INLINE_SEPARATOR = "\\s+";
+    private static final byte ASTERISK = (byte) '*';
+    private static final byte DOLLAR = (byte) '$';
+    private static final byte MINUS = (byte) '-';
+    private static final byte CR = (byte) '\r';
+    private static final byte LF = (byte) '\n';
+    private static final int CRLF_LENGTH = 2;
+
+    /** Largest accepted number of arguments in one request, as in Redis */
+    private static final int MAX_MULTIBULK_LENGTH = 1024 * 1024;
+
+    /** Largest accepted unterminated inline request, as in Redis */
+    private static final int MAX_INLINE_LENGTH = 64 * 1024;
+
+    /** Largest argument decoded through the reused scratch array */
+    private static final int SCRATCH_SIZE = 1024;
+
+    private enum State {
+        /** Waiting for the first byte of a request. */
+        START,
+        /** Reading the argument count after '*'. */
+        ARRAY_LENGTH,
+        /** Waiting for the '$' of the next argument. */
+        BULK_START,
+        /** Reading the byte length after '$'. */
+        BULK_LENGTH,
+        /** Waiting for the argument bytes and their CRLF. */
+        BULK_DATA,
+        /** Scanning an inline command for its line end. */
+        INLINE
+    }
+
+    private State state = State.START;
+    private String[] args;
+    private int argIndex;
+    private int bulkLength;
+
+    private long number;
+    private boolean negative;
+    private boolean digitSeen;
+    private boolean crSeen;
+
+    private int inlineScanned;
+
+    /** Copy target for arguments read from direct buffers, created on first use */
+    private byte[] scratch;
+
+    /**
+     * Consumes bytes from the buffer until a full request has been parsed.
+     * Bytes belonging to an incomplete request are consumed too (except for
+     * an incomplete argument), and parsing resumes with the next call.
+     *
+     * @param buffer the read buffer in read mode
+     * @return the command arguments (empty for a blank or empty request), or
+     *         null if more bytes are needed
+     * @throws ProtocolException if the bytes are not valid RESP
+     */
+    public String[] parse(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            switch (state) {
+                case START -> {
+                    if (buffer.get(buffer.position()) == ASTERISK) {
+                        buffer.get();
+                        state = State.ARRAY_LENGTH;
+                    } else {
+                        state = State.INLINE;
+                    }
+                }
+                case ARRAY_LENGTH -> {
+                    if (!readNumber(buffer)) {
+                        return null;
+                    }
+                    if (number > MAX_MULTIBULK_LENGTH) {
+                        throw new ProtocolException("invalid multibulk length");
+                    }
+                    if (number <= 0) {
+                        state = State.START;
+                        return EMPTY_COMMAND;
+                    }
+                    args = new String[(int) number];
+                    argIndex = 0;
+                    state = State.BULK_START;
+                }
+                case BULK_START -> {
+                    byte marker = buffer.get();
+                    if (marker != DOLLAR) {
+                        throw new ProtocolException("expected '$', got '" + (char) marker + "'");
+                    }
+                    state = State.BULK_LENGTH;
+                }
+                case BULK_LENGTH -> {
+                    if (!readNumber(buffer)) {
+                        return null;
+                    }
+                    if (number < 0 || number > Integer.MAX_VALUE - CRLF_LENGTH) {
+                        throw new ProtocolException("invalid bulk length");
+                    }
+                    bulkLength = (int) number;
+                    state = State.BULK_DATA;
+                }
+                case BULK_DATA -> {
+                    if (buffer.remaining() < bulkLength + CRLF_LENGTH) {
+                        return null;
+                    }
+                    args[argIndex++] = readBulk(buffer);
+                    if (argIndex < args.length) {
+                        state = State.BULK_START;
+                        continue;
+                    }
+                    String[] command = args;
+                    args = null;
+                    state = State.START;
+                    return command;
+                }
+                case INLINE -> {
+                    String[] command = readInline(buffer);
+                    if (command == null) {
+                        return null;
+                    }
+                    state = State.START;
+                    return command;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the buffer capacity needed before parsing can make progress,
+     * assuming consumed bytes have been compacted away.
+     *
+     * @return the capacity needed for the pending argument, or 0 if any
+     *         additional bytes will do
+     */
+    public int getRequiredBufferCapacity() {
+        return state == State.BULK_DATA ? bulkLength + CRLF_LENGTH : 0;
+    }
+
+    /**
+     * Accumulates a CRLF-terminated decimal number, possibly across calls.
+     *
+     * @return true once the number is complete and stored in {@link #number}
+     */
+    private boolean readNumber(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte current = buffer.get();
+            if (crSeen) {
+                if (current != LF || !digitSeen) {
+                    throw new ProtocolException("invalid length");
+                }
+                if (negative) {
+                    number = -number;
+                }
+                negative = false;
+                digitSeen = false;
+                crSeen = false;
+                return true;
+            }
+
+            if (current == CR) {
+                crSeen = true;
+            } else if (current == MINUS && !digitSeen && !negative) {
+                negative = true;
+            } else if (current >= '0' && current <= '9' && number <= Integer.MAX_VALUE) {
+                number = (digitSeen ? number * 10 : 0) + (current - '0');
+                digitSeen = true;
+            } else {
+                throw new ProtocolException("invalid length");
+            }
+        }
+        return false;
+    }
+
+    private String readBulk(ByteBuffer buffer) {
+        int start = buffer.position();
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + start, bulkLength, ProtocolConstants.BYTE_CHARSET);
+        } else {
+            byte[] bytes = bulkLength <= SCRATCH_SIZE ? scratch() : new byte[bulkLength];
+            buffer.get(start, bytes, 0, bulkLength);
+            value = new String(bytes, 0, bulkLength, ProtocolConstants.BYTE_CHARSET);
+        }
+
+        int end = start + bulkLength;
+        if (buffer.get(end) != CR || buffer.get(end + 1) != LF) {
+            throw new ProtocolException("expected CRLF after bulk string");
+        }
+        buffer.position(end + CRLF_LENGTH);
+        return value;
+    }
+
+    private byte[] scratch() {
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        return scratch;
+    }
+
+    /**
+     * Parses an inline command terminated by LF (optionally preceded by CR),
+     * scanning only bytes not seen by earlier calls. Inline input without a
+     * line end is rejected once it exceeds {@link #MAX_INLINE_LENGTH}, so a
+     * client cannot make the server buffer and scan it up to the query
+     * buffer limit.
+     */
+    private String[] readInline(ByteBuffer buffer) {
+        int start = buffer.position();
+        for (int i = start + inlineScanned; i < buffer.limit(); i++) {
+            if (buffer.get(i) == LF) {
+                int end = i > start && buffer.get(i - 1) == CR ? i - 1 : i;
+                byte[] line = new byte[end - start];
+                buffer.get(start, line);
+                buffer.position(i + 1);
+                inlineScanned = 0;
+
+                String trimmed = new String(line, ProtocolConstants.BYTE_CHARSET).trim();
+                return trimmed.isEmpty() ? EMPTY_COMMAND : trimmed.split(INLINE_SEPARATOR);
+            }
+        }
+        if (buffer.remaining() > MAX_INLINE_LENGTH) {
+            throw new ProtocolException("too big inline request");
+        }
+        inlineScanned = buffer.remaining();
+        return null;
+    }
+}
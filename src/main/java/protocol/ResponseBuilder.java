@@ -17,6 +17,12 @@ import config.ProtocolConstants;
  * string, error, integer, bulk string, array, map, etc.)
  * according to the RESP protocol.
  *
+ * <p>
+ * Arrays of strings are sized up front and encoded in a single pass by
+ * {@link RespEncoder}, so a large reply such as LRANGE is written once into
+ * one exactly sized buffer.
+ * </p>
+ *
  * @author Ankit Kumar
  * @version 1.0
  * @since 1.0
@@ -33,6 +39,9 @@ public final class ResponseBuilder {
     private static final String CONTINUE_PREFIX = "+CONTINUE";
     private static final String CRLF = ProtocolConstants.CRLF;
 
+    /** A stream entry is encoded as a two-element array: id and fields */
+    private static final int STREAM_ENTRY_PARTS = 2;
+
     private ResponseBuilder() {
         // Utility class; prevent instantiation
     }
@@ -68,9 +77,25 @@ public final class ResponseBuilder {
     }
 
     /**
+     * Encodes the header of a RESP array, for replies whose elements are
+     * sent as separate segments.
      * 
-     * @param buffers
-     * @return
+     * @param count the number of elements that follow
+     * @return ByteBuffer containing the encoded header
+     */
+    public static ByteBuffer arrayHeader(final int count) {
+        final ByteBuffer buffer = ByteBuffer.allocate(RespEncoder.arrayHeaderLength(count));
+        RespEncoder.writeArrayHeader(buffer, count);
+        return buffer.flip();
+    }
+
+    /**
+     * Concatenates already encoded replies into one buffer. Prefer handing
+     * the parts to a {@link ResponseChain} where the reply goes straight to a
+     * socket, which avoids this copy.
+     * 
+     * @param buffers the encoded replies
+     * @return ByteBuffer containing all replies, or an empty array if none
      */
     public static ByteBuffer merge(final List<ByteBuffer> buffers) {
         if (buffers == null || buffers.isEmpty()) {
@@ -109,14 +134,17 @@ public final class ResponseBuilder {
             return encode(ARRAY_PREFIX + "0" + CRLF);
         }
 
-        final StringBuilder responseBuilder = new StringBuilder();
-        responseBuilder.append(ARRAY_PREFIX).append(elements.size()).append(CRLF);
-
+        int size = RespEncoder.arrayHeaderLength(elements.size());
         for (final String element : elements) {
-            responseBuilder.append(bufferToString(bulkString(element)));
+            size += RespEncoder.bulkStringLength(element);
         }
 
-        return encode(responseBuilder.toString());
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        RespEncoder.writeArrayHeader(buffer, elements.size());
+        for (final String element : elements) {
+            RespEncoder.writeBulkString(buffer, element);
+        }
+        return buffer.flip();
     }
 
     /**
@@ -158,23 +186,35 @@ public final class ResponseBuilder {
             return encode(ARRAY_PREFIX + "0" + CRLF);
         }
 
-        final StringBuilder responseBuilder = new StringBuilder();
-        responseBuilder.append(ARRAY_PREFIX).append(entries.size()).append(CRLF);
-
-        for (final T entry : entries) {
-            final String id = idExtractor.apply(entry);
+        // Extract once; the extractors may build new lists on every call
+        final int count = entries.size();
+        final String[] ids = new String[count];
+        final List<?>[] fieldLists = new List<?>[count];
+        int size = RespEncoder.arrayHeaderLength(count);
+        for (int i = 0; i < count; i++) {
+            final T entry = entries.get(i);
+            ids[i] = idExtractor.apply(entry);
             final List<String> fields = fieldsExtractor.apply(entry);
+            fieldLists[i] = fields;
 
-            responseBuilder.append(ARRAY_PREFIX).append("2").append(CRLF);
-            responseBuilder.append(bufferToString(bulkString(id)));
-            responseBuilder.append(ARRAY_PREFIX).append(fields.size()).append(CRLF);
-
+            size += RespEncoder.arrayHeaderLength(STREAM_ENTRY_PARTS) + RespEncoder.bulkStringLength(ids[i])
+                    + RespEncoder.arrayHeaderLength(fields.size());
             for (final String field : fields) {
-                responseBuilder.append(bufferToString(bulkString(field)));
+                size += RespEncoder.bulkStringLength(field);
             }
         }
 
-        return encode(responseBuilder.toString());
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        RespEncoder.writeArrayHeader(buffer, count);
+        for (int i = 0; i < count; i++) {
+            RespEncoder.writeArrayHeader(buffer, STREAM_ENTRY_PARTS);
+            RespEncoder.writeBulkString(buffer, ids[i]);
+            RespEncoder.writeArrayHeader(buffer, fieldLists[i].size());
+            for (final Object field : fieldLists[i]) {
+                RespEncoder.writeBulkString(buffer, (String) field);
+            }
+        }
+        return buffer.flip();
     }
 
     /**
@@ -233,37 +273,32 @@ public final class ResponseBuilder {
         }
 
         final int totalElements = map.size() * 2;
-        final StringBuilder responseBuilder = new StringBuilder();
-        responseBuilder.append(ARRAY_PREFIX).append(totalElements).append(CRLF);
-
+        final String[] elements = new String[totalElements];
+        int size = RespEncoder.arrayHeaderLength(totalElements);
+        int index = 0;
         for (final Map.Entry<K, V> entry : map.entrySet()) {
-            responseBuilder.append(bufferToString(bulkString(String.valueOf(entry.getKey()))));
-            responseBuilder.append(bufferToString(bulkString(String.valueOf(entry.getValue()))));
+            elements[index] = String.valueOf(entry.getKey());
+            elements[index + 1] = String.valueOf(entry.getValue());
+            size += RespEncoder.bulkStringLength(elements[index]) + RespEncoder.bulkStringLength(elements[index + 1]);
+            index += 2;
         }
 
-        return encode(responseBuilder.toString());
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        RespEncoder.writeArrayHeader(buffer, totalElements);
+        for (final String element : elements) {
+            RespEncoder.writeBulkString(buffer, element);
+        }
+        return buffer.flip();
     }
 
     /**
-     * Encodes a string as a ByteBuffer using UTF-8.
+     * Encodes a string as a ByteBuffer, one byte per char.
      * 
      * @param text the string to encode
      * @return ByteBuffer containing the encoded string
      */
     public static ByteBuffer encode(final String text) {
-        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
-    }
-
-    /**
-     * Converts a ByteBuffer to a String using UTF-8.
-     * 
-     * @param buffer the ByteBuffer to convert
-     * @return String representation of the buffer
-     */
-    private static String bufferToString(final ByteBuffer buffer) {
-        final byte[] bytes = new byte[buffer.remaining()];
-        buffer.duplicate().get(bytes);
-        return new String(bytes, StandardCharsets.UTF_8);
+        return ByteBuffer.wrap(text.getBytes(ProtocolConstants.BYTE_CHARSET));
     }
 
     /**
@@ -102,8 +102,7 @@ public final class ResponseCache {
 
         if (value.length() > MAX_CACHED_STRING_LENGTH) {
             // Too long to cache - direct encoding
-            String response = "$" + value.length() + ProtocolConstants.CRLF + value + ProtocolConstants.CRLF;
-            return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+            return encodeBulkString(value);
         }
 
         ByteBuffer cached = BULK_STRING_CACHE.get(value);
@@ -116,8 +115,7 @@ public final class ResponseCache {
         }
 
         // Cache is full, create without caching - direct encoding
-        String response = "$" + value.length() + ProtocolConstants.CRLF + value + ProtocolConstants.CRLF;
-        return ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8));
+        return encodeBulkString(value);
     }
 
     /**
@@ -134,12 +132,22 @@ public final class ResponseCache {
      * Creates and caches a bulk string response.
      */
     private static ByteBuffer cacheBulkString(String value) {
-        String response = "$" + value.length() + ProtocolConstants.CRLF + value + ProtocolConstants.CRLF;
-        ByteBuffer buffer = ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        ByteBuffer buffer = encodeBulkString(value).asReadOnlyBuffer();
         BULK_STRING_CACHE.put(value, buffer);
         return buffer.duplicate();
     }
 
+    /**
+     * Encodes a bulk string. Values are Latin-1 carriers of the payload
+     * bytes, one char per byte, so the header carries the string's length,
+     * which is its length in bytes.
+     */
+    private static ByteBuffer encodeBulkString(String value) {
+        ByteBuffer buffer = ByteBuffer.allocate(RespEncoder.bulkStringLength(value));
+        RespEncoder.writeBulkString(buffer, value);
+        return buffer.flip();
+    }
+
     /**
      * Gets cache statistics for monitoring.
      * 
@@ -0,0 +1,203 @@
+package protocol;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+
+import utils.BufferPool;
+
+/**
+ * An ordered chain of reply segments written to a socket with gathering
+ * writes.
+ *
+ * <p>
+ * Replies are kept as the buffers they were built in, including the shared
+ * read-only constants from {@link ResponseCache}, and handed to the kernel
+ * together with {@code write(ByteBuffer[])} instead of being copied into one
+ * contiguous buffer first. A pipeline or EXEC reply therefore never needs a
+ * second buffer as large as the reply itself.
+ * </p>
+ *
+ * <p>
+ * The JDK copies every heap buffer handed to a socket write into a temporary
+ * direct buffer of the same size, and keeps large ones around per thread.
+ * Runs of heap segments at the head of the chain are therefore copied into a
+ * pooled direct buffer from {@link BufferPool} first, at most its size at a
+ * time, and that buffer is returned to the pool once it has been written.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe; the owner synchronizes access.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ResponseChain {
+
+    /** Segments per gathering write, the usual IOV_MAX */
+    private static final int MAX_GATHER_SEGMENTS = 1024;
+
+    private static final BufferPool BUFFER_POOL = BufferPool.getInstance();
+
+    private final Deque<ByteBuffer> segments = new ArrayDeque<>();
+    /** Pooled buffers among the segments, in chain order */
+    private final Deque<ByteBuffer> staged = new ArrayDeque<>();
+    private ByteBuffer[] gather = new ByteBuffer[0];
+    private long remaining;
+
+    /**
+     * Appends a segment to the chain.
+     *
+     * @param segment the bytes to append; its position must not be changed
+     *                by the caller afterwards
+     */
+    public void add(ByteBuffer segment) {
+        if (segment.hasRemaining()) {
+            segments.addLast(segment);
+            remaining += segment.remaining();
+        }
+    }
+
+    /**
+     * Appends several segments in order.
+     *
+     * @param chainSegments the segments to append
+     */
+    public void addAll(Collection<ByteBuffer> chainSegments) {
+        for (ByteBuffer segment : chainSegments) {
+            add(segment);
+        }
+    }
+
+    /**
+     * Moves every segment of another chain to the end of this one.
+     *
+     * @param other the chain to drain
+     */
+    public void transferFrom(ResponseChain other) {
+        ByteBuffer segment;
+        while ((segment = other.segments.pollFirst()) != null) {
+            segments.addLast(segment);
+        }
+        staged.addAll(other.staged);
+        other.staged.clear();
+        remaining += other.remaining;
+        other.remaining = 0;
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Returns the number of bytes not yet written.
+     *
+     * @return the unwritten size in bytes
+     */
+    public long remaining() {
+        return remaining;
+    }
+
+    /**
+     * Writes as much of the chain as the channel accepts, dropping segments
+     * once they have been written completely.
+     *
+     * @param channel the channel to write to
+     * @return the number of bytes written
+     * @throws IOException if the write fails
+     */
+    public long writeTo(GatheringByteChannel channel) throws IOException {
+        long total = 0;
+        while (!segments.isEmpty()) {
+            stageHeapSegments();
+            int count = Math.min(segments.size(), MAX_GATHER_SEGMENTS);
+            if (gather.length < count) {
+                gather = new ByteBuffer[count];
+            }
+            long attempted = 0;
+            int index = 0;
+            for (ByteBuffer segment : segments) {
+                if (index == count) {
+                    break;
+                }
+                gather[index++] = segment;
+                attempted += segment.remaining();
+            }
+
+            long written = channel.write(gather, 0, count);
+            Arrays.fill(gather, 0, count, null);
+            total += written;
+            remaining -= written;
+            while (!segments.isEmpty() && !segments.peekFirst().hasRemaining()) {
+                releaseIfStaged(segments.pollFirst());
+            }
+            if (written < attempted) {
+                // The socket buffer is full
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Discards all segments.
+     */
+    public void clear() {
+        segments.clear();
+        for (ByteBuffer buffer : staged) {
+            BUFFER_POOL.release(buffer);
+        }
+        staged.clear();
+        remaining = 0;
+    }
+
+    /**
+     * Replaces the heap segments at the head of the chain, or as many of
+     * their bytes as fit, with one pooled direct buffer holding a copy.
+     * Segments copied completely are dropped.
+     */
+    private void stageHeapSegments() {
+        ByteBuffer head = segments.peekFirst();
+        if (head == null || head.isDirect()) {
+            return;
+        }
+
+        long heapBytes = 0;
+        for (ByteBuffer segment : segments) {
+            if (segment.isDirect() || heapBytes >= BUFFER_POOL.getLargestBufferSize()) {
+                break;
+            }
+            heapBytes += segment.remaining();
+        }
+        ByteBuffer staging = BUFFER_POOL.acquire((int) Math.min(heapBytes, BUFFER_POOL.getLargestBufferSize()));
+        if (!staging.isDirect()) {
+            // The pool is out of direct memory; let the JDK copy as before
+            return;
+        }
+
+        while (staging.hasRemaining() && !segments.isEmpty() && !segments.peekFirst().isDirect()) {
+            ByteBuffer segment = segments.peekFirst();
+            int length = Math.min(segment.remaining(), staging.remaining());
+            staging.put(staging.position(), segment, segment.position(), length);
+            staging.position(staging.position() + length);
+            segment.position(segment.position() + length);
+            if (!segment.hasRemaining()) {
+                segments.pollFirst();
+            }
+        }
+        segments.addFirst(staging.flip());
+        staged.addFirst(staging);
+    }
+
+    private void releaseIfStaged(ByteBuffer segment) {
+        if (segment == staged.peekFirst()) {
+            BUFFER_POOL.release(staged.pollFirst());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package pubsub;
 
 import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -15,11 +14,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import protocol.ResponseBuilder;
+import server.ClientSession;
+import server.OutputBufferLimitException;
 import server.ServerContext;
 
 /**
  * Manages Redis-like Pub/Sub functionality:
- * - Tracks per-client PubSub state.
+ * - Tracks per-client PubSub state, kept in each client's session.
  * - Manages subscriptions to channels and patterns.
  * - Publishes messages to subscribers.
  *
@@ -49,9 +50,9 @@ public class PubSubManager {
     private static final String REGEX_STAR = ".*";
     private static final String REGEX_QMARK = ".";
 
-    private final Map<SocketChannel, PubSubState> clientStates = new ConcurrentHashMap<>();
-    private final Map<String, Set<SocketChannel>> channelSubscribers = new ConcurrentHashMap<>();
-    private final Map<String, Set<SocketChannel>> patternSubscribers = new ConcurrentHashMap<>();
+    private final Set<ClientSession> subscribedClients = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<ClientSession>> channelSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<ClientSession>> patternSubscribers = new ConcurrentHashMap<>();
     private final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
 
     private final ServerContext serverContext;
@@ -64,21 +65,22 @@ public class PubSubManager {
      * Get or create a PubSub state for a client.
      * If the client is null (replication case), returns a new empty state.
      */
-    public PubSubState getOrCreateState(SocketChannel client) {
+    public PubSubState getOrCreateState(ClientSession client) {
         if (client == null) {
             return new PubSubState();
         }
-        return clientStates.computeIfAbsent(client, _ -> new PubSubState());
+        return client.getPubSubState();
     }
 
     /**
      * Clear PubSub state for a client and remove global subscriptions.
      */
-    public void clearState(SocketChannel client) {
+    public void clearState(ClientSession client) {
         if (client == null)
             return;
 
-        PubSubState state = clientStates.remove(client);
+        PubSubState state = client.peekPubSubState();
+        subscribedClients.remove(client);
         if (state != null) {
             for (String channel : state.getSubscribedChannels()) {
                 removeFromGlobalSubscribers(channelSubscribers, channel, client);
@@ -91,11 +93,11 @@ public class PubSubManager {
     }
 
     private void removeFromGlobalSubscribers(
-            Map<String, Set<SocketChannel>> subscriberMap,
+            Map<String, Set<ClientSession>> subscriberMap,
             String subscriptionKey,
-            SocketChannel client) {
+            ClientSession client) {
 
-        Set<SocketChannel> subscribers = subscriberMap.get(subscriptionKey);
+        Set<ClientSession> subscribers = subscriberMap.get(subscriptionKey);
         if (subscribers != null) {
             subscribers.remove(client);
             if (subscribers.isEmpty()) {
@@ -111,28 +113,26 @@ public class PubSubManager {
      * Clear all PubSub states and subscriptions.
      */
     public void clearAll() {
-        clientStates.values().forEach(PubSubState::exitPubSubMode);
-        clientStates.clear();
+        subscribedClients.forEach(client -> client.getPubSubState().exitPubSubMode());
+        subscribedClients.clear();
         channelSubscribers.clear();
         patternSubscribers.clear();
         compiledPatterns.clear();
     }
 
-    public boolean isInPubSubMode(SocketChannel client) {
-        if (client == null)
-            return false;
-        PubSubState state = clientStates.get(client);
-        return state != null && state.isInPubSubMode();
+    public boolean isInPubSubMode(ClientSession client) {
+        return client != null && client.isInPubSubMode();
     }
 
     /**
      * Subscribe client to one or more channels.
      */
-    public void subscribe(SocketChannel client, List<String> channels) {
+    public void subscribe(ClientSession client, List<String> channels) {
         if (client == null || channels == null || channels.isEmpty())
             return;
 
         PubSubState state = getOrCreateState(client);
+        subscribedClients.add(client);
 
         for (String channel : channels) {
             if (channel != null && !channel.isEmpty()) {
@@ -150,10 +150,10 @@ public class PubSubManager {
     /**
      * Unsubscribe client from specific or all channels.
      */
-    public void unsubscribe(SocketChannel client, List<String> channels) {
+    public void unsubscribe(ClientSession client, List<String> channels) {
         if (client == null)
             return;
-        PubSubState state = clientStates.get(client);
+        PubSubState state = client.peekPubSubState();
         if (state == null)
             return;
 
@@ -172,11 +172,12 @@ public class PubSubManager {
     /**
      * Subscribe client to patterns.
      */
-    public void psubscribe(SocketChannel client, List<String> patterns) {
+    public void psubscribe(ClientSession client, List<String> patterns) {
         if (client == null || patterns == null || patterns.isEmpty())
             return;
 
         PubSubState state = getOrCreateState(client);
+        subscribedClients.add(client);
 
         for (String pattern : patterns) {
             if (pattern != null && !pattern.isEmpty()) {
@@ -189,10 +190,10 @@ public class PubSubManager {
     /**
      * Unsubscribe client from specific or all patterns.
      */
-    public void punsubscribe(SocketChannel client, List<String> patterns) {
+    public void punsubscribe(ClientSession client, List<String> patterns) {
         if (client == null)
             return;
-        PubSubState state = clientStates.get(client);
+        PubSubState state = client.peekPubSubState();
         if (state == null)
             return;
 
@@ -208,23 +209,23 @@ public class PubSubManager {
         }
     }
 
-    public int subscriptionCount(SocketChannel client) {
+    public int subscriptionCount(ClientSession client) {
         if (client == null)
             return 0;
-        PubSubState state = clientStates.get(client);
+        PubSubState state = client.peekPubSubState();
         if (state == null)
             return 0;
         return state.getSubscribedChannels().size() + state.getSubscribedPatterns().size();
     }
 
-    public Set<SocketChannel> getChannelSubscribers(String channel) {
-        Set<SocketChannel> subscribers = channelSubscribers.get(channel);
+    public Set<ClientSession> getChannelSubscribers(String channel) {
+        Set<ClientSession> subscribers = channelSubscribers.get(channel);
         return subscribers != null ? new HashSet<>(subscribers) : Collections.emptySet();
     }
 
-    public Set<SocketChannel> getPatternMatchingSubscribers(String channel) {
-        Set<SocketChannel> matchingClients = new HashSet<>();
-        for (Map.Entry<String, Set<SocketChannel>> entry : patternSubscribers.entrySet()) {
+    public Set<ClientSession> getPatternMatchingSubscribers(String channel) {
+        Set<ClientSession> matchingClients = new HashSet<>();
+        for (Map.Entry<String, Set<ClientSession>> entry : patternSubscribers.entrySet()) {
             String pattern = entry.getKey();
             if (matchesPattern(channel, pattern)) {
                 matchingClients.addAll(entry.getValue());
@@ -233,8 +234,8 @@ public class PubSubManager {
         return matchingClients;
     }
 
-    public Set<SocketChannel> getAllSubscribers(String channel) {
-        Set<SocketChannel> allSubscribers = new HashSet<>(getChannelSubscribers(channel));
+    public Set<ClientSession> getAllSubscribers(String channel) {
+        Set<ClientSession> allSubscribers = new HashSet<>(getChannelSubscribers(channel));
         allSubscribers.addAll(getPatternMatchingSubscribers(channel));
         return allSubscribers;
     }
@@ -246,13 +247,17 @@ public class PubSubManager {
         if (channel == null || message == null)
             return;
 
-        Set<SocketChannel> processedClients = new HashSet<>();
+        Set<ClientSession> processedClients = new HashSet<>();
 
         // Channel subscribers
-        for (SocketChannel client : getChannelSubscribers(channel)) {
+        for (ClientSession client : getChannelSubscribers(channel)) {
             try {
                 sendMessageToChannelSubscriber(client, channel, message);
                 processedClients.add(client);
+            } catch (OutputBufferLimitException e) {
+                // The client was disconnected for not reading its messages
+                clearState(client);
+                processedClients.add(client);
             } catch (Exception e) {
                 LOGGER.error("Failed to send message to channel subscriber: {}", client, e);
                 clearState(client);
@@ -260,13 +265,16 @@ public class PubSubManager {
         }
 
         // Pattern subscribers
-        for (Map.Entry<String, Set<SocketChannel>> entry : patternSubscribers.entrySet()) {
+        for (Map.Entry<String, Set<ClientSession>> entry : patternSubscribers.entrySet()) {
             String pattern = entry.getKey();
             if (matchesPattern(channel, pattern)) {
-                for (SocketChannel client : entry.getValue()) {
+                for (ClientSession client : entry.getValue()) {
                     if (!processedClients.contains(client)) {
                         try {
                             sendMessageToPatternSubscriber(client, pattern, channel, message);
+                        } catch (OutputBufferLimitException e) {
+                            // The client was disconnected for not reading its messages
+                            clearState(client);
                         } catch (Exception e) {
                             LOGGER.error("Failed to send message to pattern subscriber: {}", client, e);
                             clearState(client);
@@ -285,7 +293,7 @@ public class PubSubManager {
                 String regex = Pattern.quote(pattern)
                         .replace(WILDCARD_STAR, REGEX_STAR)
                         .replace(WILDCARD_QMARK, REGEX_QMARK);
-                return Pattern.compile(regex);
+                return Pattern.compile(regex, Pattern.DOTALL);
             } catch (Exception e) {
                 LOGGER.warn("Invalid pattern {}, using fallback never-match regex", globPattern, e);
                 return Pattern.compile(NEVER_MATCH_REGEX);
@@ -294,16 +302,17 @@ public class PubSubManager {
         return compiledPattern.matcher(channel).matches();
     }
 
-    protected void sendMessageToChannelSubscriber(SocketChannel client, String channel, String message)
+    protected void sendMessageToChannelSubscriber(ClientSession client, String channel, String message)
             throws Exception {
         ByteBuffer response = ResponseBuilder.array(List.of(MESSAGE_TYPE, channel, message));
-        client.write(response);
+        serverContext.getClientWriter().write(client, response);
     }
 
-    protected void sendMessageToPatternSubscriber(SocketChannel client, String pattern, String channel, String message)
+    protected void sendMessageToPatternSubscriber(ClientSession client, String pattern, String channel,
+            String message)
             throws Exception {
         ByteBuffer response = ResponseBuilder.array(List.of(PMESSAGE_TYPE, pattern, channel, message));
-        client.write(response);
+        serverContext.getClientWriter().write(client, response);
     }
 
     // ---- Monitoring / Debugging ----
@@ -325,7 +334,7 @@ public class PubSubManager {
     }
 
     public int getTotalClients() {
-        return clientStates.size();
+        return subscribedClients.size();
     }
 
     public int getCompiledPatternCacheSize() {
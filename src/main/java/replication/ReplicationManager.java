@@ -1,6 +1,7 @@
 package replication;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -13,12 +14,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import protocol.ResponseBuilder;
+import server.ClientSession;
 import server.ServerContext;
 
 /**
  * Manages master-replica synchronization and replication state.
  * Handles replica registration, command propagation, offset tracking,
  * and pending WAIT command logic.
+ *
+ * <p>
+ * Propagated commands are queued on the replica's session without blocking
+ * the master, and clients are never held back for a replica. A replica that
+ * falls behind on the stream is left to the {@code replica} class of the
+ * {@code client-output-buffer-limit}, which disconnects it so that it
+ * resynchronizes, as Redis does.
+ * </p>
  */
 public final class ReplicationManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationManager.class);
@@ -48,6 +58,10 @@ public final class ReplicationManager {
      */
     public void addReplica(final SocketChannel replicaChannel) {
         replicaOffsets.put(replicaChannel, new AtomicLong(0));
+        ClientSession replica = serverContext.getClientWriter().clientFor(replicaChannel);
+        if (replica != null) {
+            replica.markReplica();
+        }
         replicationState.incrementConnectedSlaves();
         serverContext.getMetricsCollector().incrementReplicaConnections();
         LOGGER.info("Replica added: {}", getChannelInfo(replicaChannel));
@@ -66,6 +80,16 @@ public final class ReplicationManager {
         }
     }
 
+    /**
+     * Checks whether a channel is a registered replica connection.
+     * 
+     * @param channel the client socket channel
+     * @return true if the channel belongs to a replica
+     */
+    public boolean isReplica(final SocketChannel channel) {
+        return channel != null && replicaOffsets.containsKey(channel);
+    }
+
     /**
      * Checks if any replicas are connected.
      * 
@@ -94,10 +118,11 @@ public final class ReplicationManager {
         }
 
         final long commandSize = ReplicationProtocol.calculateCommandSize(commandArgs);
+        final ByteBuffer encodedCommand = ResponseBuilder.array(List.of(commandArgs));
         final List<SocketChannel> failedReplicas = new ArrayList<>();
 
         for (final SocketChannel replica : replicaOffsets.keySet()) {
-            if (!sendCommandToReplica(replica, commandArgs)) {
+            if (!sendToReplica(replica, encodedCommand.duplicate())) {
                 failedReplicas.add(replica);
             }
         }
@@ -123,9 +148,9 @@ public final class ReplicationManager {
         }
     }
 
-    private boolean sendCommandToReplica(final SocketChannel replicaChannel, final String[] commandArgs) {
+    private boolean sendToReplica(final SocketChannel replicaChannel, final ByteBuffer encodedCommand) {
         try {
-            ReplicationProtocol.sendCommand(replicaChannel, commandArgs);
+            serverContext.getClientWriter().write(replicaChannel, encodedCommand);
             return true;
         } catch (final IOException e) {
             LOGGER.debug("Failed to send command to replica {}: {}", getChannelInfo(replicaChannel), e.getMessage());
@@ -157,9 +182,10 @@ public final class ReplicationManager {
      * Sends REPLCONF GETACK to all replicas to request acknowledgement.
      */
     public void sendGetAckToAllReplicas() {
+        final ByteBuffer getAckCommand = ResponseBuilder.array(List.of(REPLCONF_GETACK_COMMAND));
         replicaOffsets.keySet().forEach(replica -> {
             try {
-                ReplicationProtocol.sendCommand(replica, REPLCONF_GETACK_COMMAND);
+                serverContext.getClientWriter().write(replica, getAckCommand.duplicate());
             } catch (final IOException e) {
                 LOGGER.debug("Failed to send GETACK to replica {}: {}", getChannelInfo(replica), e.getMessage());
             }
@@ -189,6 +215,21 @@ public final class ReplicationManager {
         pendingWaits.removeIf(wait -> wait.clientChannel == clientChannel);
     }
 
+    /**
+     * Checks whether a client still waits for a WAIT reply.
+     * 
+     * @param clientChannel the client's socket channel
+     * @return true if a WAIT request is pending for the client
+     */
+    public boolean hasPendingWait(final SocketChannel clientChannel) {
+        for (final PendingWait wait : pendingWaits) {
+            if (wait.clientChannel == clientChannel) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks all pending WAIT requests and responds to clients if satisfied or
      * timed out.
@@ -219,7 +260,7 @@ public final class ReplicationManager {
     public void sendCurrentCount(final SocketChannel clientChannel, final long requiredOffset) {
         final int syncedReplicas = getSyncReplicasCount(requiredOffset);
         try {
-            ReplicationProtocol.sendResponse(clientChannel, ResponseBuilder.integer(syncedReplicas));
+            serverContext.getClientWriter().write(clientChannel, ResponseBuilder.integer(syncedReplicas));
         } catch (final IOException e) {
             LOGGER.debug("Failed to send current count to client {}: {}", getChannelInfo(clientChannel),
                     e.getMessage());
@@ -4,6 +4,7 @@ import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +15,8 @@ import config.ServerConfig;
  * Schedules and executes timeout tasks at a fixed interval.
  * 
  * This class manages delayed tasks and periodically executes them using a
- * single-threaded scheduled executor.
+ * single-threaded scheduled executor. Tasks run while holding the server's
+ * execution lock, so they never race with command execution.
  */
 public final class TimeoutScheduler {
 
@@ -26,6 +28,16 @@ public final class TimeoutScheduler {
     private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
             Thread.ofVirtual().name(THREAD_NAME).factory());
     private final ConcurrentLinkedDeque<Runnable> pendingTasks = new ConcurrentLinkedDeque<>();
+    private final Lock executionLock;
+
+    /**
+     * Creates a scheduler whose tasks run under the given lock.
+     *
+     * @param executionLock the lock serializing tasks with command execution
+     */
+    public TimeoutScheduler(Lock executionLock) {
+        this.executionLock = executionLock;
+    }
 
     /**
      * Starts the periodic execution of pending tasks.
@@ -46,11 +58,19 @@ public final class TimeoutScheduler {
      * @param task    the task to execute
      */
     public void schedule(long delayMs, Runnable task) {
+        Runnable lockedTask = () -> {
+            executionLock.lock();
+            try {
+                task.run();
+            } finally {
+                executionLock.unlock();
+            }
+        };
         pendingTasks.add(() -> {
             if (delayMs <= 0) {
-                task.run();
+                lockedTask.run();
             } else {
-                scheduledExecutor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+                scheduledExecutor.schedule(lockedTask, delayMs, TimeUnit.MILLISECONDS);
             }
         });
     }
@@ -10,8 +10,13 @@ import java.nio.channels.SocketChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import config.ServerConfig;
+import errors.ErrorCode;
 import protocol.CommandDispatcher;
-import protocol.ProtocolParser;
+import protocol.ProtocolException;
+import protocol.RespParser;
+import protocol.ResponseBuilder;
+import utils.CoarseClock;
 
 /**
  * Handles client connections and communication for the Redis server.
@@ -32,32 +37,37 @@ public final class ClientConnectionHandler {
     /** Logger instance for this class */
     private static final Logger LOGGER = LoggerFactory.getLogger(ClientConnectionHandler.class);
 
-    /** Buffer size for client communication in bytes */
-    private static final int BUFFER_SIZE = 1024;
-
     /** Indicates end of stream when reading from client */
     private static final int END_OF_STREAM = -1;
 
+    /** Protocol error reported when a request exceeds the query buffer limit */
+    public static final String REQUEST_TOO_BIG = "too big request";
+
     private ClientConnectionHandler() {
         // Utility class - prevent instantiation
     }
 
     /**
-     * Accepts a new client connection and registers it with the selector.
+     * Accepts a new client connection. The caller decides which event loop
+     * serves it (see {@link #registerClient}). A client beyond
+     * {@code maxclients} is told so and disconnected right away.
      * 
      * @param key           the selection key for the server socket
-     * @param selector      the NIO selector for managing channels
      * @param serverContext the server context containing shared resources
+     * @return the accepted non-blocking channel, or null if none was pending
+     *         or the client was refused
      * @throws IOException if an I/O error occurs during connection acceptance
      */
-    public static void acceptNewConnection(SelectionKey key, Selector selector, ServerContext serverContext)
+    public static SocketChannel acceptNewConnection(SelectionKey key, ServerContext serverContext)
             throws IOException {
         ServerSocketChannel serverChannel = (ServerSocketChannel) key.channel();
         SocketChannel clientChannel = serverChannel.accept();
 
         if (clientChannel != null) {
             clientChannel.configureBlocking(false);
-            clientChannel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(BUFFER_SIZE));
+            if (!admitClient(clientChannel, serverContext)) {
+                return null;
+            }
 
             // Only log connections in debug mode to reduce hot path overhead
             if (LOGGER.isDebugEnabled()) {
@@ -68,66 +78,402 @@ public final class ClientConnectionHandler {
             var metricsCollector = serverContext.getMetricsCollector();
             metricsCollector.recordClientConnection();
         }
+        return clientChannel;
+    }
+
+    /**
+     * Reserves a connection slot for a freshly accepted client, or refuses
+     * the client with an error reply when {@code maxclients} is reached. The
+     * reply is written with a single attempt, which a new socket always
+     * accepts.
+     *
+     * @param clientChannel the accepted client channel
+     * @param serverContext the server context containing shared resources
+     * @return false if the client was refused and its channel closed
+     */
+    static boolean admitClient(SocketChannel clientChannel, ServerContext serverContext) {
+        if (serverContext.tryAdmitClient()) {
+            return true;
+        }
+
+        serverContext.getMetricsCollector().recordRejectedConnection();
+        LOGGER.warn("Refusing client: maxclients limit of {} reached", serverContext.getConfig().maxClients());
+        try (clientChannel) {
+            clientChannel.write(ResponseBuilder.error(ErrorCode.MAX_CLIENTS_REACHED.getMessage()));
+        } catch (IOException e) {
+            LOGGER.debug("Error refusing client: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Registers an accepted client with an event loop selector and attaches
+     * its session state.
+     * 
+     * @param clientChannel the accepted client channel
+     * @param selector      the selector of the event loop serving the client
+     * @param serverContext the server context containing shared resources
+     * @return the session of the client
+     * @throws IOException if the channel cannot be registered
+     */
+    public static NioClientSession registerClient(SocketChannel clientChannel, Selector selector,
+            ServerContext serverContext) throws IOException {
+        SelectionKey clientKey = clientChannel.register(selector, SelectionKey.OP_READ);
+        NioClientSession session = new NioClientSession(clientKey, serverContext.getReadBufferManager());
+        clientKey.attach(session);
+        serverContext.registerClient(session);
+        return session;
+    }
+
+    /**
+     * Result of reading and parsing a client's input off the main thread.
+     */
+    public enum ReadOutcome {
+        /** Input was read and parsed; commands may be ready to execute. */
+        READY,
+        /** The client closed the connection or the read failed. */
+        CLOSED,
+        /** The input is malformed or a request exceeds the query buffer limit. */
+        INVALID
     }
 
     /**
      * Handles incoming client requests and processes commands.
      * 
+     * <p>
+     * Newly read bytes are appended to the bytes left over from earlier reads,
+     * then every complete command is executed (see
+     * {@link #processBufferedCommands}).
+     * </p>
+     * 
      * @param key           the selection key for the client socket
      * @param dispatcher    the command dispatcher for processing commands
      * @param serverContext the server context containing shared resources
+     * @return true if complete commands remain buffered for a later tick
      * @throws IOException if an I/O error occurs during request handling
      */
-    public static void handleClientRequest(SelectionKey key, CommandDispatcher dispatcher, ServerContext serverContext)
-            throws IOException {
-        SocketChannel clientChannel = (SocketChannel) key.channel();
-        ByteBuffer buffer = (ByteBuffer) key.attachment();
+    public static boolean handleClientRequest(SelectionKey key, CommandDispatcher dispatcher,
+            ServerContext serverContext) throws IOException {
+        if (!readFromClient(key, serverContext)) {
+            closeClient(key, serverContext);
+            return false;
+        }
 
-        int bytesRead = clientChannel.read(buffer);
+        return processBufferedCommands(key, dispatcher, serverContext);
+    }
 
-        if (bytesRead > 0) {
-            // Record network input metrics
-            serverContext.getMetricsCollector().recordNetworkInput(bytesRead);
+    /**
+     * Executes the complete commands buffered for a client.
+     * 
+     * <p>
+     * At most {@link ServerConfig#MAX_COMMANDS_PER_CLIENT_TICK} commands run per
+     * call so that one heavy pipeliner cannot starve the other clients. Replies
+     * are collected in order and flushed with a single write. When a command
+     * parks the client (a blocking pop or WAIT that answers later), processing
+     * stops so that the deferred reply keeps its place in the reply stream; the
+     * remaining commands run once the client is released. The tick also ends
+     * early once the client's queued output passes
+     * {@link ServerConfig#OUTPUT_HIGH_WATER_MARK}.
+     * </p>
+     * 
+     * <p>
+     * A request larger than the read buffer makes the buffer grow; the client
+     * is disconnected only once it would exceed the configured
+     * {@code client-query-buffer-limit}.
+     * </p>
+     * 
+     * @param key           the selection key for the client socket
+     * @param dispatcher    the command dispatcher for processing commands
+     * @param serverContext the server context containing shared resources
+     * @return true if complete commands may remain buffered for a later tick
+     * @throws IOException if an I/O error occurs while writing replies
+     */
+    public static boolean processBufferedCommands(SelectionKey key, CommandDispatcher dispatcher,
+            ServerContext serverContext) throws IOException {
+        NioClientSession session = (NioClientSession) key.attachment();
+
+        boolean withinLimit = parseBufferedCommands(session);
+        boolean pending = executeParsedCommands(key, dispatcher, serverContext);
+        flushReplies(session, serverContext);
+
+        if (!withinLimit) {
+            rejectInvalidRequest(key, session, serverContext);
+            return false;
+        }
+        return pending;
+    }
+
+    /**
+     * Reads and parses a client's input. Touches only the client's own
+     * session, so io-threads mode runs it on I/O threads in parallel.
+     * 
+     * @param key           the selection key for the client socket
+     * @param readable      whether the socket reported pending bytes
+     * @param serverContext the server context containing shared resources
+     * @return what the main thread should do with the client next
+     */
+    public static ReadOutcome readAndParse(SelectionKey key, boolean readable, ServerContext serverContext) {
+        NioClientSession session = (NioClientSession) key.attachment();
+        if (session.isCloseAfterReply()) {
+            // Only waiting for its final reply to be written
+            return ReadOutcome.READY;
+        }
+        try {
+            if (readable && !readFromClient(key, serverContext)) {
+                return ReadOutcome.CLOSED;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Error reading from client: {}", e.getMessage());
+            return ReadOutcome.CLOSED;
+        }
+        return parseBufferedCommands(session) ? ReadOutcome.READY : ReadOutcome.INVALID;
+    }
+
+    /**
+     * Runs the commands already parsed for a client and hands their replies to
+     * the output side. In io-threads mode this is the only step that runs on
+     * the main thread.
+     * 
+     * @param key           the selection key for the client socket
+     * @param dispatcher    the command dispatcher for processing commands
+     * @param serverContext the server context containing shared resources
+     * @return true if commands may remain buffered for a later tick
+     */
+    public static boolean executeParsedCommands(SelectionKey key, CommandDispatcher dispatcher,
+            ServerContext serverContext) {
+        NioClientSession session = (NioClientSession) key.attachment();
 
-            buffer.flip();
-            String[] commands = ProtocolParser.parse(buffer);
-            ByteBuffer response = dispatcher.dispatch(commands, clientChannel);
+        if (session.isAwaitingReply()) {
+            if (isParked(session, serverContext)) {
+                return session.hasBufferedInput();
+            }
+            session.setAwaitingReply(false);
+        }
+        if (session.isReadPaused()) {
+            // Picked up again once the client has read enough of its replies
+            return false;
+        }
 
-            if (response != null) {
-                int responseSize = response.remaining();
-                writeCompleteResponse(clientChannel, response);
+        int executed = 0;
+        boolean outputFull = false;
+        String[] command;
+        while (executed < ServerConfig.MAX_COMMANDS_PER_CLIENT_TICK
+                && (command = session.pollParsedCommand()) != null) {
+            executed++;
+            if (command.length == 0) {
+                continue;
+            }
 
-                // Record network output metrics
-                serverContext.getMetricsCollector().recordNetworkOutput(responseSize);
+            if (!dispatcher.dispatch(command, session, session.getReplySink())
+                    && isParked(session, serverContext)) {
+                session.setAwaitingReply(true);
+                break;
+            }
+            if (session.getPendingOutputBytes() > ServerConfig.OUTPUT_HIGH_WATER_MARK) {
+                // The flush decides whether the client has to be paused
+                outputFull = true;
+                break;
             }
-            buffer.clear();
+        }
+
+        boolean budgetExhausted = executed == ServerConfig.MAX_COMMANDS_PER_CLIENT_TICK;
+        return session.hasBufferedInput() && (budgetExhausted || outputFull || session.isAwaitingReply());
+    }
 
-        } else if (bytesRead == END_OF_STREAM) {
+    /**
+     * Hands the replies collected for a client to its output queue and, when
+     * the socket reported writability, continues any queued output.
+     * 
+     * @param key           the selection key for the client socket
+     * @param writable      whether the socket reported writability
+     * @param serverContext the server context containing shared resources
+     * @return true if the write resumed a client that still has buffered
+     *         commands to run
+     * @throws IOException if an I/O error occurs during writing
+     */
+    public static boolean flushClient(SelectionKey key, boolean writable, ServerContext serverContext)
+            throws IOException {
+        NioClientSession session = (NioClientSession) key.attachment();
+        boolean resumed = writable && session.flushOutput();
+        flushReplies(session, serverContext);
+        return resumed && session.hasBufferedInput();
+    }
+
+    /**
+     * Reads whatever bytes the socket has into the session buffer.
+     * 
+     * @return false if the client closed the connection
+     */
+    private static boolean readFromClient(SelectionKey key, ServerContext serverContext) throws IOException {
+        SocketChannel clientChannel = (SocketChannel) key.channel();
+        NioClientSession session = (NioClientSession) key.attachment();
+
+        int bytesRead = clientChannel.read(session.getReadBuffer());
+
+        if (bytesRead == END_OF_STREAM) {
             // Only log disconnections in debug mode to reduce hot path overhead
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Client disconnected: {}", clientChannel.getRemoteAddress());
             }
+            return false;
+        }
 
-            // Record Redis Enterprise compatible disconnection metrics
-            var metricsCollector = serverContext.getMetricsCollector();
-            metricsCollector.recordClientDisconnection();
+        if (bytesRead > 0) {
+            session.markActive(CoarseClock.millis());
+            // Record network input metrics
+            serverContext.getMetricsCollector().recordNetworkInput(bytesRead);
+            session.recordNetworkInput(bytesRead);
+        }
+        return true;
+    }
+
+    /**
+     * Parses complete commands from the read buffer into the session, at most
+     * one tick's budget ahead of execution. Consumed bytes are compacted away;
+     * the buffer grows only when the argument being received does not fit.
+     * 
+     * @return false if the input is malformed or exceeds the query buffer
+     *         limit; the reason is recorded in the session
+     */
+    private static boolean parseBufferedCommands(NioClientSession session) {
+        ByteBuffer buffer = session.getReadBuffer();
+        RespParser parser = session.getParser();
+
+        buffer.flip();
+        try {
+            while (session.getParsedCommandCount() < ServerConfig.MAX_COMMANDS_PER_CLIENT_TICK) {
+                String[] command = parser.parse(buffer);
+                if (command == null) {
+                    break;
+                }
+                session.addParsedCommand(command);
+            }
+        } catch (ProtocolException e) {
+            session.setProtocolError(e.getMessage());
+            return false;
+        } finally {
+            buffer.compact();
+        }
 
-            key.cancel();
-            clientChannel.close();
+        if (session.getParsedCommandCount() >= ServerConfig.MAX_COMMANDS_PER_CLIENT_TICK) {
+            return true;
         }
+
+        int requiredCapacity = Math.max(parser.getRequiredBufferCapacity(), buffer.position() + 1);
+        if (requiredCapacity <= buffer.capacity() || session.growReadBuffer(requiredCapacity)) {
+            return true;
+        }
+        session.setProtocolError(REQUEST_TOO_BIG);
+        return false;
     }
 
     /**
-     * Writes a complete response to the client channel.
-     * Ensures all bytes are written even if the write operation is partial.
+     * Continues writing queued output once the client socket is writable,
+     * closing a rejected client once its final reply has been written.
      * 
-     * @param channel  the client socket channel
-     * @param response the response buffer to write
+     * @param key           the selection key for the client socket
+     * @param serverContext the server context containing shared resources
+     * @return true if the write resumed a client that still has buffered
+     *         commands to run
      * @throws IOException if an I/O error occurs during writing
      */
-    private static void writeCompleteResponse(SocketChannel channel, ByteBuffer response) throws IOException {
-        while (response.hasRemaining()) {
-            channel.write(response);
+    public static boolean handleWritable(SelectionKey key, ServerContext serverContext) throws IOException {
+        NioClientSession session = (NioClientSession) key.attachment();
+        boolean resumed = session.flushOutput();
+        if (session.isReplyFlushed()) {
+            closeClient(key, serverContext);
+            return false;
+        }
+        return resumed && session.hasBufferedInput();
+    }
+
+    /**
+     * Closes a client connection and records the disconnection.
+     * 
+     * @param key           the selection key for the client socket
+     * @param serverContext the server context containing shared resources
+     * @throws IOException if closing the channel fails
+     */
+    public static void closeClient(SelectionKey key, ServerContext serverContext) throws IOException {
+        // Record Redis Enterprise compatible disconnection metrics
+        var metricsCollector = serverContext.getMetricsCollector();
+        metricsCollector.recordClientDisconnection();
+
+        if (key.attachment() instanceof NioClientSession session) {
+            serverContext.unregisterClient(session);
+            session.release();
+        }
+        key.cancel();
+        key.channel().close();
+    }
+
+    /**
+     * Checks whether the client is parked waiting for a reply that another
+     * component will deliver later.
+     */
+    static boolean isParked(ClientSession client, ServerContext serverContext) {
+        return client.isBlocked()
+                || serverContext.getReplicationManager().hasPendingWait(client.getChannel());
+    }
+
+    /**
+     * Hands all replies collected during this tick to the output queue in one
+     * gathering write. A client whose queued output now exceeds its output
+     * buffer limit fails like a broken connection and is closed by the
+     * caller.
+     */
+    private static void flushReplies(NioClientSession session, ServerContext serverContext) throws IOException {
+        if (!session.hasPendingReplies()) {
+            return;
+        }
+
+        long responseSize = session.flushReplies();
+
+        // Record network output metrics
+        serverContext.getMetricsCollector().recordNetworkOutput(responseSize);
+
+        if (!serverContext.getClientWriter().checkOutputLimit(session)) {
+            throw new OutputBufferLimitException("client output buffer limit reached");
+        }
+    }
+
+    /**
+     * Replies with a protocol error and closes the connection when a client
+     * sends malformed input or a request that does not fit within the query
+     * buffer limit. Replies still queued for the client, the error included,
+     * are written first: if the socket does not take them all now, the client
+     * is closed from the {@code OP_WRITE} path once they have been.
+     * 
+     * @param key           the selection key for the client socket
+     * @param session       the client session holding the protocol error
+     * @param serverContext the server context containing shared resources
+     * @throws IOException if closing the channel fails
+     */
+    public static void rejectInvalidRequest(SelectionKey key, NioClientSession session,
+            ServerContext serverContext) throws IOException {
+        logRejectedRequest(session.getChannel(), session.getProtocolError(), serverContext);
+        session.write(ResponseBuilder.error(ErrorCode.PROTOCOL_ERROR.format(session.getProtocolError())));
+        if (session.closeAfterReply()) {
+            closeClient(key, serverContext);
+        }
+    }
+
+    /**
+     * Logs why a client is being disconnected for invalid input.
+     * 
+     * @param clientChannel the client channel
+     * @param reason        the protocol error
+     * @param serverContext the server context containing shared resources
+     * @throws IOException if the client address cannot be read
+     */
+    static void logRejectedRequest(SocketChannel clientChannel, String reason, ServerContext serverContext)
+            throws IOException {
+        if (REQUEST_TOO_BIG.equals(reason)) {
+            LOGGER.warn("Closing client {}: request exceeds client-query-buffer-limit of {} bytes",
+                    clientChannel.getRemoteAddress(),
+                    serverContext.getReadBufferManager().getQueryBufferLimit());
+        } else {
+            LOGGER.warn("Closing client {}: protocol error: {}", clientChannel.getRemoteAddress(), reason);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,374 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import commands.context.CommandContext;
+import pubsub.PubSubState;
+import tracking.TrackingState;
+import transaction.TransactionState;
+
+/**
+ * A connected client, whichever server engine serves it.
+ *
+ * <p>
+ * The session is the one place that holds a client's state: its transaction,
+ * pub/sub and tracking state, whether it is blocked or acts as a replica, and the
+ * statistics reported by {@code CLIENT LIST}. The dispatcher and the managers
+ * reach that state through the session with plain field accesses, instead of
+ * looking it up in maps keyed by the client's channel on every command.
+ * </p>
+ *
+ * <p>
+ * Transaction and pub/sub state is created on first use and only touched by
+ * the commands of the client itself, which execute one at a time. Flags and
+ * statistics read by other threads are volatile; each is updated by one
+ * thread at a time.
+ * </p>
+ *
+ * <p>
+ * The output side must accept writes from any thread without blocking the
+ * caller on a slow socket, and must keep the bytes of every write contiguous
+ * and in call order.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract class ClientSession {
+
+    /** Port reported for clients connected through a Unix domain socket */
+    private static final String UNIX_SOCKET_PORT = ":0";
+
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    private final long id = NEXT_ID.getAndIncrement();
+    private final SocketChannel channel;
+    private final long createdMillis = System.currentTimeMillis();
+    private final String address;
+    private final String localAddress;
+    private final boolean unixSocket;
+
+    private TransactionState transactionState;
+    private CommandContext commandContext;
+    private volatile PubSubState pubSubState;
+    private volatile TrackingState trackingState;
+
+    private volatile String name = "";
+    private volatile String lastCommand = "NULL";
+    private volatile long lastInteractionMillis = createdMillis;
+    private volatile long commandCount;
+    private volatile long networkInputBytes;
+    private volatile long networkOutputBytes;
+
+    /** Set while a blocking command (BLPOP, XREAD BLOCK) waits for data. */
+    private volatile boolean blocked;
+    private volatile boolean replica;
+
+    /** When the queued output first reached the soft limit, or 0 if below it */
+    private volatile long softLimitReachedMillis;
+
+    /** Links of the idle-timeout wheel slot holding the client, guarded by the wheel */
+    volatile ClientTimeoutWheel timeoutWheel;
+    ClientSession wheelPrevious;
+    ClientSession wheelNext;
+    int wheelSlot;
+
+    /**
+     * Creates the session of a newly accepted client.
+     *
+     * @param channel the client channel
+     */
+    protected ClientSession(SocketChannel channel) {
+        this.channel = channel;
+        SocketAddress local = localAddressOf(channel);
+        this.unixSocket = local instanceof UnixDomainSocketAddress;
+        this.localAddress = format(local);
+        this.address = unixSocket ? localAddress : format(remoteAddressOf(channel));
+    }
+
+    /**
+     * Returns the client's socket channel.
+     *
+     * @return the client channel
+     */
+    public final SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Sends bytes to the client.
+     *
+     * @param data the bytes to send
+     * @throws IOException if the channel is closed or the write fails
+     */
+    public abstract void write(ByteBuffer data) throws IOException;
+
+    /**
+     * Returns the number of bytes queued for the client but not yet written
+     * to its socket.
+     *
+     * @return the queued output size in bytes
+     */
+    public abstract long getPendingOutputBytes();
+
+    /**
+     * Drops the queued output and disconnects the client. Called from any
+     * thread; the engine serving the client finishes the cleanup.
+     */
+    public abstract void disconnect();
+
+    public final long getId() {
+        return id;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    public final void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the peer address as {@code host:port}, or the socket path for
+     * a Unix domain socket client.
+     *
+     * @return the client address
+     */
+    public final String getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the address the client connected to.
+     *
+     * @return the local address
+     */
+    public final String getLocalAddress() {
+        return localAddress;
+    }
+
+    public final boolean isUnixSocket() {
+        return unixSocket;
+    }
+
+    public final long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * Returns the client's transaction state, creating it on first use.
+     *
+     * @return the transaction state
+     */
+    public final TransactionState getTransactionState() {
+        TransactionState state = transactionState;
+        if (state == null) {
+            state = new TransactionState();
+            transactionState = state;
+        }
+        return state;
+    }
+
+    /**
+     * Checks whether the client has an open MULTI block, without creating
+     * transaction state.
+     *
+     * @return true if commands are being queued
+     */
+    public final boolean isInTransaction() {
+        TransactionState state = transactionState;
+        return state != null && state.isInTransaction();
+    }
+
+    /**
+     * Returns the transaction state if the client ever used MULTI or WATCH.
+     *
+     * @return the transaction state, or null
+     */
+    public final TransactionState peekTransactionState() {
+        return transactionState;
+    }
+
+    /**
+     * Returns the context the dispatcher reuses for the client's commands.
+     *
+     * @return the command context, or null before the first command
+     */
+    public final CommandContext getCommandContext() {
+        return commandContext;
+    }
+
+    public final void setCommandContext(CommandContext commandContext) {
+        this.commandContext = commandContext;
+    }
+
+    /**
+     * Returns the client's pub/sub state, creating it on first use.
+     *
+     * @return the pub/sub state
+     */
+    public final PubSubState getPubSubState() {
+        PubSubState state = pubSubState;
+        if (state == null) {
+            state = new PubSubState();
+            pubSubState = state;
+        }
+        return state;
+    }
+
+    /**
+     * Returns the pub/sub state if the client ever subscribed.
+     *
+     * @return the pub/sub state, or null
+     */
+    public final PubSubState peekPubSubState() {
+        return pubSubState;
+    }
+
+    /**
+     * Checks whether the client is subscribed to any channel or pattern.
+     *
+     * @return true if the client is in pub/sub mode
+     */
+    public final boolean isInPubSubMode() {
+        PubSubState state = pubSubState;
+        return state != null && state.isInPubSubMode();
+    }
+
+    /**
+     * Returns the client's {@code CLIENT TRACKING} options.
+     *
+     * @return the tracking state, or null if tracking is off
+     */
+    public final TrackingState getTrackingState() {
+        return trackingState;
+    }
+
+    public final void setTrackingState(TrackingState trackingState) {
+        this.trackingState = trackingState;
+    }
+
+    public final boolean isBlocked() {
+        return blocked;
+    }
+
+    public final void setBlocked(boolean blocked) {
+        this.blocked = blocked;
+    }
+
+    public final boolean isReplica() {
+        return replica;
+    }
+
+    /**
+     * Marks the client as a replica that receives the replication stream.
+     */
+    public final void markReplica() {
+        this.replica = true;
+    }
+
+    /**
+     * Records that the client ran a command.
+     *
+     * @param commandName the command's canonical name
+     * @param now         the current time in milliseconds
+     */
+    public final void recordCommand(String commandName, long now) {
+        lastCommand = commandName;
+        lastInteractionMillis = now;
+        commandCount++;
+    }
+
+    /**
+     * Records that the client sent data, which resets its idle time.
+     *
+     * @param now the current time in milliseconds
+     */
+    public final void markActive(long now) {
+        lastInteractionMillis = now;
+    }
+
+    public final String getLastCommand() {
+        return lastCommand;
+    }
+
+    public final long getLastInteractionMillis() {
+        return lastInteractionMillis;
+    }
+
+    public final long getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Adds bytes read from the client to its statistics.
+     *
+     * @param bytes the number of bytes read
+     */
+    public final void recordNetworkInput(long bytes) {
+        networkInputBytes += bytes;
+    }
+
+    /**
+     * Adds bytes sent to the client to its statistics.
+     *
+     * @param bytes the number of bytes sent
+     */
+    public final void recordNetworkOutput(long bytes) {
+        networkOutputBytes += bytes;
+    }
+
+    public final long getNetworkInputBytes() {
+        return networkInputBytes;
+    }
+
+    public final long getNetworkOutputBytes() {
+        return networkOutputBytes;
+    }
+
+    final long getSoftLimitReachedMillis() {
+        return softLimitReachedMillis;
+    }
+
+    final void setSoftLimitReachedMillis(long millis) {
+        this.softLimitReachedMillis = millis;
+    }
+
+    @Override
+    public String toString() {
+        return "id=" + id + " addr=" + address;
+    }
+
+    private static SocketAddress localAddressOf(SocketChannel channel) {
+        try {
+            return channel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static SocketAddress remoteAddressOf(SocketChannel channel) {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String format(SocketAddress socketAddress) {
+        return switch (socketAddress) {
+            case InetSocketAddress inet -> inet.getHostString() + ":" + inet.getPort();
+            case UnixDomainSocketAddress unix -> unix.getPath() + UNIX_SOCKET_PORT;
+            case null -> "";
+            default -> socketAddress.toString();
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A hashed timing wheel that closes clients once they have been idle for the
+ * configured {@code timeout}.
+ *
+ * <p>
+ * Each client sits in the slot of the tick at which it would become idle,
+ * linked through fields of its {@link ClientSession}, so adding and removing
+ * a client takes constant time and no memory. Activity does not touch the
+ * wheel at all: a client only records when it was last active, and when its
+ * slot comes up it is either found idle or moved to the slot of its new
+ * deadline. Advancing the wheel therefore only visits the clients due in the
+ * elapsed ticks, however many idle connections are open, where a scheduled
+ * task per connection would have to be cancelled and recreated on every
+ * command.
+ * </p>
+ *
+ * <p>
+ * Deadlines further away than one turn of the wheel simply come around
+ * early and are moved on. Thread-safe; the owning event loop advances the
+ * wheel while other threads may add and remove clients.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ClientTimeoutWheel {
+
+    private final long timeoutMillis;
+    private final long tickMillis;
+    private final Predicate<ClientSession> exempt;
+    private final ClientSession[] slots;
+    private final int mask;
+    private long currentTick;
+
+    /**
+     * Creates a wheel.
+     *
+     * @param timeoutMillis how long a client may stay idle
+     * @param tickMillis    the interval at which the wheel is advanced
+     * @param slotCount     the number of slots, a power of two
+     * @param exempt        selects clients that are never closed for being
+     *                      idle, such as blocked or subscribed clients
+     * @param now           the current time in milliseconds
+     */
+    public ClientTimeoutWheel(long timeoutMillis, long tickMillis, int slotCount,
+            Predicate<ClientSession> exempt, long now) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("slot count must be a power of two: " + slotCount);
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.tickMillis = tickMillis;
+        this.exempt = exempt;
+        this.slots = new ClientSession[slotCount];
+        this.mask = slotCount - 1;
+        this.currentTick = now / tickMillis;
+    }
+
+    /**
+     * Starts watching a client for idleness.
+     *
+     * @param client the newly connected client
+     */
+    public synchronized void add(ClientSession client) {
+        client.timeoutWheel = this;
+        insert(client, client.getLastInteractionMillis() + timeoutMillis);
+    }
+
+    /**
+     * Stops watching a client. Does nothing if the client is not in this
+     * wheel.
+     *
+     * @param client the disconnecting client
+     */
+    public synchronized void remove(ClientSession client) {
+        if (client.timeoutWheel == this) {
+            unlink(client);
+            client.timeoutWheel = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and disconnects the clients that
+     * have been idle for longer than the timeout.
+     *
+     * @param now the current time in milliseconds
+     * @return the number of clients disconnected
+     */
+    public int advance(long now) {
+        List<ClientSession> idleClients = collectIdle(now);
+        for (ClientSession client : idleClients) {
+            client.disconnect();
+        }
+        return idleClients.size();
+    }
+
+    private synchronized List<ClientSession> collectIdle(long now) {
+        List<ClientSession> idleClients = new ArrayList<>();
+        long targetTick = now / tickMillis;
+        // After a long pause one turn visits every slot once
+        currentTick = Math.max(currentTick, targetTick - slots.length);
+
+        while (currentTick < targetTick) {
+            currentTick++;
+            int slot = (int) (currentTick & mask);
+            ClientSession client = slots[slot];
+            slots[slot] = null;
+
+            while (client != null) {
+                ClientSession next = client.wheelNext;
+                client.wheelPrevious = null;
+                client.wheelNext = null;
+
+                if (exempt.test(client)) {
+                    insert(client, now + timeoutMillis);
+                } else if (now - client.getLastInteractionMillis() >= timeoutMillis) {
+                    client.timeoutWheel = null;
+                    idleClients.add(client);
+                } else {
+                    insert(client, client.getLastInteractionMillis() + timeoutMillis);
+                }
+                client = next;
+            }
+        }
+        return idleClients;
+    }
+
+    /**
+     * Links a client into the slot of its deadline, never into the current
+     * or an earlier tick.
+     */
+    private void insert(ClientSession client, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        int slot = (int) (tick & mask);
+        ClientSession head = slots[slot];
+        client.wheelSlot = slot;
+        client.wheelPrevious = null;
+        client.wheelNext = head;
+        if (head != null) {
+            head.wheelPrevious = client;
+        }
+        slots[slot] = client;
+    }
+
+    private void unlink(ClientSession client) {
+        ClientSession previous = client.wheelPrevious;
+        ClientSession next = client.wheelNext;
+        if (previous != null) {
+            previous.wheelNext = next;
+        } else if (slots[client.wheelSlot] == client) {
+            slots[client.wheelSlot] = next;
+        }
+        if (next != null) {
+            next.wheelPrevious = previous;
+        }
+        client.wheelPrevious = null;
+        client.wheelNext = null;
+    }
+}
@@ -0,0 +1,203 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import utils.CoarseClock;
+
+/**
+ * Keeps the sessions of all connected clients and routes out-of-band writes
+ * (pub/sub messages, blocking wakeups, WAIT replies, replica streams) to the
+ * output queue of the target client.
+ *
+ * <p>
+ * Components that only know a client's {@link SocketChannel} use this class
+ * instead of writing to the channel themselves, so a slow consumer never
+ * makes the caller spin. Clients may live on any event loop or on their own
+ * virtual threads, so the lookup does not depend on a particular selector.
+ * Channels that are not registered clients are written directly.
+ * </p>
+ *
+ * <p>
+ * Every write is checked against the {@code client-output-buffer-limit} of
+ * the client's class (normal, pub/sub or replica), so a consumer that stops
+ * reading is disconnected instead of letting its queued output grow without
+ * bound.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ClientWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientWriter.class);
+
+    private final Map<SocketChannel, ClientSession> clients = new ConcurrentHashMap<>();
+    private final ServerContext context;
+    private final OutputBufferLimits limits;
+
+    /**
+     * Creates the writer.
+     *
+     * @param context the server context, used to record evictions
+     * @param limits  the output buffer limits per client class
+     */
+    public ClientWriter(ServerContext context, OutputBufferLimits limits) {
+        this.context = context;
+        this.limits = limits;
+    }
+
+    /**
+     * Makes a newly registered client reachable for out-of-band writes.
+     *
+     * @param client the client session
+     */
+    public void register(ClientSession client) {
+        clients.put(client.getChannel(), client);
+    }
+
+    /**
+     * Forgets a client that is being closed.
+     *
+     * @param client the client session
+     * @return false if the client was already forgotten
+     */
+    public boolean unregister(ClientSession client) {
+        return clients.remove(client.getChannel(), client);
+    }
+
+    /**
+     * Returns the sessions of all connected clients.
+     *
+     * @return an unmodifiable live view of the connected clients
+     */
+    public Collection<ClientSession> getClients() {
+        return Collections.unmodifiableCollection(clients.values());
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return the client count
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Sends bytes to a client without blocking the caller on a slow socket.
+     *
+     * @param channel the client socket channel
+     * @param data    the bytes to send
+     * @throws OutputBufferLimitException if the client exceeded its output
+     *                                    buffer limit and was disconnected
+     * @throws IOException                if the channel is closed or the write
+     *                                    fails
+     */
+    public void write(SocketChannel channel, ByteBuffer data) throws IOException {
+        ClientSession client = clientFor(channel);
+        if (client != null) {
+            write(client, data);
+            return;
+        }
+
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Sends bytes to a client whose session is already known, without a
+     * registry lookup.
+     *
+     * @param client the client session
+     * @param data   the bytes to send
+     * @throws OutputBufferLimitException if the client exceeded its output
+     *                                    buffer limit and was disconnected
+     * @throws IOException                if the channel is closed or the write
+     *                                    fails
+     */
+    public void write(ClientSession client, ByteBuffer data) throws IOException {
+        client.write(data);
+        if (!checkOutputLimit(client)) {
+            client.disconnect();
+            throw new OutputBufferLimitException("client output buffer limit reached");
+        }
+    }
+
+    /**
+     * Looks up the session of a registered client.
+     *
+     * @param channel the client socket channel
+     * @return the client session, or null if the channel is not a registered
+     *         client
+     */
+    public ClientSession clientFor(SocketChannel channel) {
+        return channel != null ? clients.get(channel) : null;
+    }
+
+    /**
+     * Checks a client's queued output against the limits of its class. The
+     * caller disconnects the client when this fails.
+     *
+     * @param client the client session
+     * @return false if the client reached its hard limit or stayed over its
+     *         soft limit for too long
+     */
+    public boolean checkOutputLimit(ClientSession client) {
+        long pending = client.getPendingOutputBytes();
+        if (pending == 0) {
+            client.setSoftLimitReachedMillis(0);
+            return true;
+        }
+
+        OutputBufferLimits.ClientClass clientClass = classify(client);
+        OutputBufferLimits.Limit limit = limits.limitFor(clientClass);
+        if (limit.isUnlimited()) {
+            return true;
+        }
+
+        boolean overHardLimit = limit.hardLimitBytes() > 0 && pending >= limit.hardLimitBytes();
+        boolean overSoftLimit = false;
+        if (limit.softLimitBytes() > 0 && pending >= limit.softLimitBytes()) {
+            long now = CoarseClock.millis();
+            long reachedAt = client.getSoftLimitReachedMillis();
+            if (reachedAt == 0) {
+                reachedAt = now;
+                client.setSoftLimitReachedMillis(now);
+            }
+            overSoftLimit = now - reachedAt >= limit.softLimitSeconds() * 1000;
+        } else {
+            client.setSoftLimitReachedMillis(0);
+        }
+
+        if (!overHardLimit && !overSoftLimit) {
+            return true;
+        }
+
+        client.setSoftLimitReachedMillis(0);
+        context.getMetricsCollector().recordOutputBufferLimitDisconnection();
+        LOGGER.warn("Closing {} client {}: output buffer limit reached with {} bytes queued",
+                clientClass.getConfigName(), client, pending);
+        return false;
+    }
+
+    private static OutputBufferLimits.ClientClass classify(ClientSession client) {
+        if (client.isReplica()) {
+            return OutputBufferLimits.ClientClass.REPLICA;
+        }
+        if (client.isInPubSubMode()) {
+            return OutputBufferLimits.ClientClass.PUBSUB;
+        }
+        return OutputBufferLimits.ClientClass.NORMAL;
+    }
+}
@@ -0,0 +1,511 @@
+package server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import config.ServerConfig;
+import replication.ReplicationClient;
+import utils.CoarseClock;
+
+/**
+ * A single reactor: one selector and the thread that drives it.
+ *
+ * <p>
+ * Every client connection belongs to exactly one event loop for its whole
+ * lifetime; its reads, command parsing and output flushing happen on that
+ * loop's thread. Command execution itself is coordinated across loops by the
+ * server's execution lock (see {@link ServerContext#getExecutionLock()}):
+ * single-key commands on different lock stripes run in parallel, all
+ * other commands are serialized, so every key keeps single-threaded
+ * semantics no matter how many loops run.
+ * </p>
+ *
+ * <p>
+ * The loop that owns the listening socket accepts connections and passes
+ * them to the acceptor callback, which chooses the loop that will serve
+ * them. Channels handed over from another thread are queued and registered
+ * by the owning loop itself.
+ * </p>
+ *
+ * <p>
+ * With a client {@code timeout} configured, each loop keeps its clients in a
+ * {@link ClientTimeoutWheel} and advances it from the clients cron, closing
+ * the clients that have been idle for too long.
+ * </p>
+ *
+ * <p>
+ * When an {@link IoThreadPool} is supplied (io-threads mode) each tick runs
+ * in three phases separated by barriers: ready clients are read and parsed
+ * on the I/O threads, their commands execute one client after another on
+ * the loop thread, and the replies are written on the I/O threads again.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class EventLoop implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoop.class);
+
+    private final String name;
+    private final ServerContext context;
+    private final Selector selector;
+    private final Consumer<SocketChannel> acceptor;
+    private final IoThreadPool ioThreads;
+    private final Queue<SocketChannel> pendingRegistrations = new ConcurrentLinkedQueue<>();
+    private final Set<SelectionKey> backlog = new LinkedHashSet<>();
+    private final ClientTimeoutWheel timeoutWheel;
+
+    private volatile Thread thread;
+    private volatile boolean running = true;
+    private long lastClientsCronMillis = System.currentTimeMillis();
+    private Runnable serverCron;
+    private long lastServerCronMillis = System.currentTimeMillis();
+
+    /**
+     * Creates an event loop with its own selector.
+     *
+     * @param name     the loop name, used for its thread
+     * @param context  the server context containing shared resources
+     * @param acceptor  receives channels accepted by this loop
+     * @param ioThreads I/O threads for parallel read and write, or null to do
+     *                  all client I/O on the loop thread
+     * @throws IOException if the selector cannot be opened
+     */
+    public EventLoop(String name, ServerContext context, Consumer<SocketChannel> acceptor,
+            IoThreadPool ioThreads) throws IOException {
+        this.name = name;
+        this.context = context;
+        this.acceptor = acceptor;
+        this.ioThreads = ioThreads;
+        this.selector = Selector.open();
+        this.timeoutWheel = createTimeoutWheel(context);
+    }
+
+    /**
+     * Creates the idle-client wheel, or returns null if clients never time
+     * out. Replicas, subscribers and clients waiting for a deferred reply
+     * are never closed for being idle, as in Redis.
+     */
+    private static ClientTimeoutWheel createTimeoutWheel(ServerContext context) {
+        int timeoutSeconds = context.getConfig().clientTimeoutSeconds();
+        if (timeoutSeconds <= 0) {
+            return null;
+        }
+        return new ClientTimeoutWheel(timeoutSeconds * 1000L, ServerConfig.CLIENTS_CRON_INTERVAL_MS,
+                ServerConfig.CLIENT_TIMEOUT_WHEEL_SLOTS,
+                client -> client.isReplica() || client.isInPubSubMode()
+                        || ClientConnectionHandler.isParked(client, context),
+                System.currentTimeMillis());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Selector getSelector() {
+        return selector;
+    }
+
+    /**
+     * Returns the wheel that closes this loop's idle clients.
+     *
+     * @return the timeout wheel, or null if clients never time out
+     */
+    public ClientTimeoutWheel getTimeoutWheel() {
+        return timeoutWheel;
+    }
+
+    /**
+     * Makes this loop run server-wide housekeeping every
+     * {@link ServerConfig#CLEANUP_INTERVAL_MS}. Only the main loop is given a
+     * cron; must be called before the loop starts.
+     *
+     * @param serverCron the housekeeping task
+     */
+    public void setServerCron(Runnable serverCron) {
+        this.serverCron = serverCron;
+    }
+
+    /**
+     * Hands a freshly accepted client to this loop. Safe to call from any
+     * thread.
+     *
+     * @param clientChannel the non-blocking client channel
+     */
+    public void register(SocketChannel clientChannel) {
+        if (Thread.currentThread() == thread) {
+            registerNow(clientChannel);
+            return;
+        }
+        pendingRegistrations.offer(clientChannel);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop and closes its selector and client channels.
+     */
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Runs the loop on the calling thread until {@link #shutdown()} is called.
+     *
+     * <p>
+     * Clients that still hold complete pipelined commands after their per-tick
+     * budget are kept in a backlog and served again on the next iteration,
+     * even if no new bytes arrive for them. The selector never blocks longer
+     * than {@link ServerConfig#CLIENTS_CRON_INTERVAL_MS}, so that periodic
+     * per-client housekeeping (see {@link #runClientsCron}) runs even on an idle
+     * server, nor longer than {@link ServerConfig#CLEANUP_INTERVAL_MS} on the
+     * loop running the server cron.
+     * </p>
+     */
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        try {
+            while (running) {
+                waitForEvents();
+                CoarseClock.update();
+                registerPendingChannels();
+                if (ioThreads != null) {
+                    processReadyClientsInParallel();
+                } else {
+                    processSelectedKeys();
+                    drainBacklog();
+                }
+                runClientsCron();
+                runServerCron();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOGGER.error("Event loop {} failed: {}", name, e.getMessage(), e);
+        } finally {
+            closeSelector();
+        }
+    }
+
+    /**
+     * Waits for I/O readiness. Returns immediately when backlogged clients can
+     * make progress, and polls periodically while they are only parked on a
+     * deferred reply that another thread may deliver.
+     */
+    private void waitForEvents() throws IOException {
+        if (backlog.isEmpty()) {
+            selector.select(serverCron != null ? ServerConfig.CLEANUP_INTERVAL_MS
+                    : ServerConfig.CLIENTS_CRON_INTERVAL_MS);
+            return;
+        }
+
+        for (SelectionKey key : backlog) {
+            if (!((NioClientSession) key.attachment()).isAwaitingReply()) {
+                selector.selectNow();
+                return;
+            }
+        }
+        selector.select(ServerConfig.CLEANUP_INTERVAL_MS);
+    }
+
+    private void registerPendingChannels() {
+        SocketChannel clientChannel;
+        while ((clientChannel = pendingRegistrations.poll()) != null) {
+            registerNow(clientChannel);
+        }
+    }
+
+    private void registerNow(SocketChannel clientChannel) {
+        try {
+            NioClientSession session = ClientConnectionHandler.registerClient(clientChannel, selector, context);
+            if (timeoutWheel != null) {
+                timeoutWheel.add(session);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to register client on {}: {}", name, e.getMessage());
+            context.releaseClientSlot();
+            try {
+                clientChannel.close();
+            } catch (IOException closeError) {
+                LOGGER.debug("Error closing channel: {}", closeError.getMessage());
+            }
+        }
+    }
+
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+
+        while (keyIterator.hasNext()) {
+            SelectionKey key = keyIterator.next();
+            keyIterator.remove();
+
+            try {
+                handleSelectionKey(key);
+            } catch (IOException e) {
+                LOGGER.warn("Error handling key: {}", e.getMessage());
+                closeKey(key);
+            }
+        }
+    }
+
+    /**
+     * One io-threads tick. Ready and backlogged clients are read and parsed
+     * in parallel, executed sequentially on this thread, then flushed in
+     * parallel. Accepts and the replication link are still handled inline.
+     */
+    private void processReadyClientsInParallel() {
+        Set<SelectionKey> selectedClients = new LinkedHashSet<>();
+        Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+        while (keyIterator.hasNext()) {
+            SelectionKey key = keyIterator.next();
+            keyIterator.remove();
+
+            try {
+                if (key.isValid() && key.attachment() instanceof NioClientSession) {
+                    selectedClients.add(key);
+                } else {
+                    handleSelectionKey(key);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Error handling key: {}", e.getMessage());
+                closeKey(key);
+            }
+        }
+
+        List<SelectionKey> batch = new ArrayList<>(selectedClients);
+        for (SelectionKey key : backlog) {
+            if (!selectedClients.contains(key) && key.isValid()) {
+                batch.add(key);
+            }
+        }
+        backlog.clear();
+
+        int size = batch.size();
+        if (size == 0) {
+            return;
+        }
+
+        boolean[] readable = new boolean[size];
+        boolean[] writable = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            SelectionKey key = batch.get(i);
+            boolean selected = selectedClients.contains(key);
+            readable[i] = selected && key.isReadable();
+            writable[i] = selected && key.isWritable();
+        }
+
+        ClientConnectionHandler.ReadOutcome[] outcomes = new ClientConnectionHandler.ReadOutcome[size];
+        ioThreads.runAll(size,
+                i -> outcomes[i] = ClientConnectionHandler.readAndParse(batch.get(i), readable[i], context));
+
+        boolean[] open = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            SelectionKey key = batch.get(i);
+            if (outcomes[i] == ClientConnectionHandler.ReadOutcome.CLOSED) {
+                closeClientKey(key);
+                continue;
+            }
+            if (ClientConnectionHandler.executeParsedCommands(key, context.getCommandDispatcher(), context)) {
+                backlog.add(key);
+            }
+            open[i] = true;
+        }
+
+        boolean[] failed = new boolean[size];
+        boolean[] resumed = new boolean[size];
+        ioThreads.runAll(size, i -> {
+            if (!open[i]) {
+                return;
+            }
+            try {
+                resumed[i] = ClientConnectionHandler.flushClient(batch.get(i), writable[i], context);
+            } catch (IOException e) {
+                LOGGER.debug("Error writing to client: {}", e.getMessage());
+                failed[i] = true;
+            }
+        });
+
+        for (int i = 0; i < size; i++) {
+            SelectionKey key = batch.get(i);
+            if (failed[i] || (open[i] && ((NioClientSession) key.attachment()).isReplyFlushed())) {
+                closeClientKey(key);
+            } else if (open[i] && outcomes[i] == ClientConnectionHandler.ReadOutcome.INVALID) {
+                backlog.remove(key);
+                try {
+                    ClientConnectionHandler.rejectInvalidRequest(key, (NioClientSession) key.attachment(), context);
+                } catch (IOException e) {
+                    closeKey(key);
+                }
+            } else if (resumed[i]) {
+                backlog.add(key);
+            }
+        }
+    }
+
+    /**
+     * Closes a client through the regular disconnect path, falling back to a
+     * plain close if that fails.
+     */
+    private void closeClientKey(SelectionKey key) {
+        backlog.remove(key);
+        try {
+            ClientConnectionHandler.closeClient(key, context);
+        } catch (IOException e) {
+            closeKey(key);
+        }
+    }
+
+    /**
+     * Gives every backlogged client another command budget.
+     */
+    private void drainBacklog() {
+        Iterator<SelectionKey> backlogIterator = backlog.iterator();
+        while (backlogIterator.hasNext()) {
+            SelectionKey key = backlogIterator.next();
+            try {
+                if (!key.isValid() || !ClientConnectionHandler.processBufferedCommands(key,
+                        context.getCommandDispatcher(), context)) {
+                    backlogIterator.remove();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Error processing buffered commands: {}", e.getMessage());
+                backlogIterator.remove();
+                closeKey(key);
+            }
+        }
+    }
+
+    /**
+     * Periodic per-client housekeeping: closes clients that have exceeded
+     * the idle timeout and shrinks the read buffers of clients that have
+     * been idle since a large request.
+     */
+    private void runClientsCron() {
+        long now = System.currentTimeMillis();
+        if (now - lastClientsCronMillis < ServerConfig.CLIENTS_CRON_INTERVAL_MS) {
+            return;
+        }
+        lastClientsCronMillis = now;
+
+        if (timeoutWheel != null) {
+            int closed = timeoutWheel.advance(now);
+            if (closed > 0) {
+                context.getMetricsCollector().recordIdleClientDisconnections(closed);
+                LOGGER.debug("Closed {} idle client(s) on {}", closed, name);
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof NioClientSession session) {
+                session.shrinkReadBufferIfIdle(now);
+            }
+        }
+    }
+
+    private void runServerCron() {
+        if (serverCron == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastServerCronMillis < ServerConfig.CLEANUP_INTERVAL_MS) {
+            return;
+        }
+        lastServerCronMillis = now;
+        try {
+            serverCron.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Server cron failed on {}: {}", name, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cancels a key and closes its channel after an I/O failure.
+     */
+    private void closeKey(SelectionKey key) {
+        backlog.remove(key);
+        if (key.attachment() instanceof NioClientSession session) {
+            context.unregisterClient(session);
+            session.release();
+        }
+        key.cancel();
+        try {
+            if (key.channel() != null) {
+                key.channel().close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Error closing channel: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Handles different types of selection key events (accept, write, read,
+     * connect).
+     *
+     * @param key the selection key to handle
+     * @throws IOException if an I/O error occurs during key handling
+     */
+    private void handleSelectionKey(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            SocketChannel clientChannel = ClientConnectionHandler.acceptNewConnection(key, context);
+            if (clientChannel != null) {
+                acceptor.accept(clientChannel);
+            }
+            return;
+        }
+
+        if (key.isWritable() && key.attachment() instanceof NioClientSession) {
+            if (ClientConnectionHandler.handleWritable(key, context)) {
+                backlog.add(key);
+            }
+            if (!key.isValid()) {
+                // Closed once its final reply was written
+                backlog.remove(key);
+                return;
+            }
+        }
+
+        if (key.isReadable()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof ReplicationClient) {
+                ((ReplicationClient) attachment).handleKey(key);
+            } else if (ClientConnectionHandler.handleClientRequest(key, context.getCommandDispatcher(), context)) {
+                backlog.add(key);
+            } else {
+                backlog.remove(key);
+            }
+        } else if (key.isConnectable()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof ReplicationClient) {
+                ((ReplicationClient) attachment).handleKey(key);
+            }
+        }
+    }
+
+    private void closeSelector() {
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioClientSession) {
+                closeKey(key);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            LOGGER.debug("Error closing selector: {}", e.getMessage());
+        }
+    }
+}
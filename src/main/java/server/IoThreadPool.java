@@ -0,0 +1,106 @@
+package server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fixed group of I/O threads used by io-threads mode.
+ *
+ * <p>
+ * The event loop hands a batch of ready clients to {@link #runAll}, which
+ * stripes the batch across the I/O threads and the calling thread and
+ * returns only once every item is done. That barrier keeps the phases of a
+ * tick (read and parse, execute, write) strictly ordered, so command
+ * execution on the main thread never overlaps with I/O on the same client.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class IoThreadPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IoThreadPool.class);
+
+    private static final String THREAD_NAME_PREFIX = "io-thread-";
+
+    /** Batches smaller than this run on the calling thread alone. */
+    private static final int MIN_PARALLEL_BATCH = 2;
+
+    private final int threadCount;
+    private final ExecutorService executor;
+
+    /**
+     * Creates the pool. The calling thread counts as one of the I/O threads,
+     * so {@code threadCount - 1} helper threads are started.
+     *
+     * @param threadCount total number of threads working on a batch
+     */
+    public IoThreadPool(int threadCount) {
+        this.threadCount = threadCount;
+        this.executor = Executors.newFixedThreadPool(threadCount - 1,
+                Thread.ofPlatform().name(THREAD_NAME_PREFIX, 1).daemon().factory());
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Runs {@code task} for every index in {@code [0, count)} and waits for
+     * all of them to finish.
+     *
+     * @param count number of items in the batch
+     * @param task  the per-item work; must not touch state shared between
+     *              items
+     */
+    public void runAll(int count, IntConsumer task) {
+        int stripes = Math.min(threadCount, count);
+        if (count < MIN_PARALLEL_BATCH || stripes < 2) {
+            runStripe(0, 1, count, task);
+            return;
+        }
+
+        CountDownLatch done = new CountDownLatch(stripes - 1);
+        for (int stripe = 1; stripe < stripes; stripe++) {
+            final int first = stripe;
+            executor.execute(() -> {
+                try {
+                    runStripe(first, stripes, count, task);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        runStripe(0, stripes, count, task);
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for I/O threads");
+        }
+    }
+
+    /**
+     * Stops the helper threads.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void runStripe(int first, int step, int count, IntConsumer task) {
+        for (int i = first; i < count; i += step) {
+            try {
+                task.accept(i);
+            } catch (RuntimeException e) {
+                LOGGER.warn("I/O task failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
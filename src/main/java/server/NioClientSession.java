@@ -0,0 +1,442 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import config.ServerConfig;
+import protocol.RespParser;
+import protocol.ResponseChain;
+import utils.CoarseClock;
+
+/**
+ * The session of a client served by the selector event loops, attached to
+ * the client's selection key.
+ *
+ * <p>
+ * On top of the state every {@link ClientSession} holds, it keeps the bytes
+ * that were read but not yet parsed together with the incremental parser's
+ * state, so that pipelined commands and commands split across several reads
+ * are never lost or re-parsed, holds the commands parsed but not yet
+ * executed, and collects the replies produced during one selector tick so
+ * they can be flushed to the socket together with one gathering write,
+ * without merging them into one buffer.
+ * </p>
+ *
+ * <p>
+ * The read buffer starts small and grows on demand up to the query buffer
+ * limit; once the client has been idle for a while it is swapped back to the
+ * initial size so that a single large request does not pin memory for the
+ * lifetime of the connection.
+ * </p>
+ *
+ * <p>
+ * Outgoing bytes never block the event loop: {@link #write} hands the socket
+ * whatever it accepts and queues the rest, registering {@code OP_WRITE}
+ * interest until {@link #flushOutput} has drained the queue. Writes may come
+ * from other threads (timeouts, WAIT checks), so the output side is
+ * synchronized.
+ * </p>
+ *
+ * <p>
+ * A client that pipelines requests faster than it reads the replies would
+ * make the queue grow without bound. Once more than
+ * {@link ServerConfig#OUTPUT_HIGH_WATER_MARK} bytes are queued, the session
+ * drops {@code OP_READ} interest and its buffered commands are left alone,
+ * so the client's own TCP window pushes back on it; reading resumes when the
+ * queue has drained below {@link ServerConfig#OUTPUT_LOW_WATER_MARK}.
+ * Replica links are exempt: a replica only sends acknowledgements, and not
+ * reading them would just stall WAIT. A replica that falls behind on the
+ * replication stream is disconnected by the {@code replica} class of the
+ * output buffer limits instead.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NioClientSession extends ClientSession {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NioClientSession.class);
+
+    private final SelectionKey key;
+    private final ReadBufferManager bufferManager;
+    private final ResponseChain pendingReplies = new ResponseChain();
+    private final Deque<String[]> parsedCommands = new ArrayDeque<>();
+    private final ResponseChain outputQueue = new ResponseChain();
+    private final Consumer<ByteBuffer> replySink = this::addReply;
+    private final RespParser parser = new RespParser();
+    private ByteBuffer readBuffer;
+    private String protocolError;
+
+    /** Set once the client has been dropped; output is discarded from then on. */
+    private boolean disconnected;
+
+    /**
+     * Set while reading is suspended because too much output is queued or the
+     * client is about to be closed.
+     */
+    private boolean readPaused;
+
+    /** Set once the client is to be closed as soon as its output is written. */
+    private boolean closeAfterReply;
+
+    /** Set while the client waits for a deferred reply (BLPOP, WAIT, ...). */
+    private boolean awaitingReply;
+
+    /**
+     * Creates the session state for a newly accepted client.
+     *
+     * @param key           the selection key of the client socket
+     * @param bufferManager the manager supplying pooled read buffers
+     */
+    public NioClientSession(SelectionKey key, ReadBufferManager bufferManager) {
+        super((SocketChannel) key.channel());
+        this.key = key;
+        this.bufferManager = bufferManager;
+        this.readBuffer = bufferManager.acquire();
+    }
+
+    /**
+     * Returns the read buffer in write mode; unconsumed bytes from previous
+     * reads sit between index 0 and the current position.
+     *
+     * @return the connection read buffer
+     */
+    public ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    public RespParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Records why the client's input was rejected.
+     *
+     * @param reason the protocol error reported to the client
+     */
+    public void setProtocolError(String reason) {
+        this.protocolError = reason;
+    }
+
+    public String getProtocolError() {
+        return protocolError;
+    }
+
+    /**
+     * Grows the read buffer to at least the given capacity (and at least
+     * double its size), keeping the unparsed bytes.
+     *
+     * @param minCapacity the capacity needed
+     * @return false if that would exceed the query buffer limit
+     */
+    public boolean growReadBuffer(int minCapacity) {
+        ByteBuffer grown = bufferManager.grow(readBuffer, minCapacity);
+        if (grown == null) {
+            return false;
+        }
+        readBuffer = grown;
+        return true;
+    }
+
+    /**
+     * Returns a grown read buffer to its pool and falls back to the initial
+     * size once the client has been idle long enough and its unparsed bytes
+     * fit.
+     *
+     * @param now the current time in milliseconds
+     */
+    public void shrinkReadBufferIfIdle(long now) {
+        if (readBuffer == null
+                || readBuffer.capacity() <= ServerConfig.BUFFER_SIZE
+                || readBuffer.position() > ServerConfig.BUFFER_SIZE
+                || now - getLastInteractionMillis() < ServerConfig.QUERY_BUFFER_IDLE_SHRINK_MS) {
+            return;
+        }
+
+        ByteBuffer shrunk = bufferManager.acquire();
+        shrunk.put(readBuffer.flip());
+        bufferManager.release(readBuffer);
+        readBuffer = shrunk;
+    }
+
+    /**
+     * Returns the read buffer to its pool. Safe to call more than once.
+     */
+    public void release() {
+        if (readBuffer != null) {
+            bufferManager.release(readBuffer);
+            readBuffer = null;
+        }
+        parsedCommands.clear();
+        synchronized (this) {
+            outputQueue.clear();
+            pendingReplies.clear();
+        }
+    }
+
+    /**
+     * Checks whether input is still waiting to be parsed or executed.
+     *
+     * @return true if unparsed bytes or unexecuted commands remain
+     */
+    public boolean hasBufferedInput() {
+        return !parsedCommands.isEmpty() || (readBuffer != null && readBuffer.position() > 0);
+    }
+
+    /**
+     * Queues a parsed command for execution.
+     *
+     * @param command the command arguments
+     */
+    public void addParsedCommand(String[] command) {
+        parsedCommands.addLast(command);
+    }
+
+    /**
+     * Takes the next parsed command, in arrival order.
+     *
+     * @return the command arguments, or null if none is queued
+     */
+    public String[] pollParsedCommand() {
+        return parsedCommands.pollFirst();
+    }
+
+    public int getParsedCommandCount() {
+        return parsedCommands.size();
+    }
+
+    /**
+     * Queues a reply to be written at the end of the current tick.
+     *
+     * @param reply the encoded reply
+     */
+    public synchronized void addReply(ByteBuffer reply) {
+        if (!disconnected) {
+            pendingReplies.add(reply);
+        }
+    }
+
+    /**
+     * Returns a sink that queues replies through {@link #addReply}, for
+     * handing to the command dispatcher without allocating per command.
+     *
+     * @return the reply sink of this session
+     */
+    public Consumer<ByteBuffer> getReplySink() {
+        return replySink;
+    }
+
+    public synchronized boolean hasPendingReplies() {
+        return !pendingReplies.isEmpty();
+    }
+
+    /**
+     * Moves the replies queued during this tick to the output queue and
+     * writes them, together with any earlier output, with gathering writes.
+     * The replies keep their own buffers; nothing is copied.
+     *
+     * @return the size in bytes of the replies that were moved
+     * @throws IOException if the write fails
+     */
+    public synchronized long flushReplies() throws IOException {
+        long size = pendingReplies.remaining();
+        boolean wasIdle = outputQueue.isEmpty();
+        outputQueue.transferFrom(pendingReplies);
+        if (wasIdle) {
+            writeQueuedOutput();
+        }
+        pauseReadingIfBackedUp();
+        return size;
+    }
+
+    /**
+     * Sends bytes to the client without blocking. Whatever the socket does
+     * not accept right away is queued behind earlier output and written once
+     * the channel becomes writable. Replies still collected for the current
+     * tick go out first so the client sees them in order.
+     *
+     * @param data the bytes to send
+     * @throws IOException if the channel is closed or the write fails
+     */
+    @Override
+    public synchronized void write(ByteBuffer data) throws IOException {
+        if (disconnected) {
+            throw new ClosedChannelException();
+        }
+        if (closeAfterReply) {
+            return;
+        }
+        boolean wasIdle = outputQueue.isEmpty();
+        outputQueue.transferFrom(pendingReplies);
+        outputQueue.add(data);
+        if (wasIdle) {
+            writeQueuedOutput();
+        }
+        pauseReadingIfBackedUp();
+    }
+
+    /**
+     * Writes as much queued output as the socket accepts. A client that reads
+     * its replies counts as active, and gets its reading resumed once the
+     * queue has drained below the low-water mark.
+     *
+     * @return true if reading was resumed by this call
+     * @throws IOException if the write fails
+     */
+    public synchronized boolean flushOutput() throws IOException {
+        long written = outputQueue.writeTo(getChannel());
+        if (written > 0) {
+            recordNetworkOutput(written);
+            markActive(CoarseClock.millis());
+        }
+        boolean resumed = resumeReadingIfDrained();
+
+        if (outputQueue.isEmpty() && key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+        return resumed;
+    }
+
+    /**
+     * Stops serving the client and has it closed once the output queued so
+     * far, typically a final error reply, has been written, like Redis'
+     * {@code CLIENT_CLOSE_AFTER_REPLY}. Unprocessed input is dropped, reading
+     * stops for good and later writes are discarded, so the queue only
+     * drains; whoever sees it empty after {@link #flushOutput} closes the
+     * client.
+     *
+     * @return true if nothing is left to write, so the client can be closed
+     *         right away
+     */
+    public synchronized boolean closeAfterReply() {
+        closeAfterReply = true;
+        parsedCommands.clear();
+        if (readBuffer != null) {
+            readBuffer.clear();
+        }
+        if (!readPaused && key.isValid()) {
+            readPaused = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+        return outputQueue.isEmpty();
+    }
+
+    /**
+     * Checks whether the client was marked to be closed after its replies.
+     *
+     * @return true if the client is no longer served
+     */
+    public synchronized boolean isCloseAfterReply() {
+        return closeAfterReply;
+    }
+
+    /**
+     * Checks whether the client was marked to be closed after its replies
+     * and they have all been written.
+     *
+     * @return true if the client should be closed now
+     */
+    public synchronized boolean isReplyFlushed() {
+        return closeAfterReply && outputQueue.isEmpty();
+    }
+
+    /**
+     * Checks whether reading is suspended until the client catches up with
+     * its replies.
+     *
+     * @return true if the session is over its output high-water mark
+     */
+    public synchronized boolean isReadPaused() {
+        return readPaused;
+    }
+
+    /**
+     * Gets the number of bytes waiting in the output queue, including the
+     * replies collected during the current tick.
+     *
+     * @return queued output size in bytes
+     */
+    @Override
+    public synchronized long getPendingOutputBytes() {
+        return outputQueue.remaining() + pendingReplies.remaining();
+    }
+
+    /**
+     * Drops the queued output and shuts the socket's input down, so the
+     * event loop serving this client sees end-of-stream and closes it
+     * through the usual path. Later writes fail.
+     */
+    @Override
+    public void disconnect() {
+        synchronized (this) {
+            disconnected = true;
+            outputQueue.clear();
+            pendingReplies.clear();
+            // The event loop must see the end-of-stream caused below
+            resumeReadingIfDrained();
+        }
+        try {
+            getChannel().shutdownInput();
+        } catch (IOException e) {
+            LOGGER.debug("Error shutting down client input: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes freshly queued output right away; whatever the socket does not
+     * accept waits for {@code OP_WRITE}. Only called when the queue was
+     * empty before, as otherwise writability is already being awaited.
+     */
+    private void writeQueuedOutput() throws IOException {
+        recordNetworkOutput(outputQueue.writeTo(getChannel()));
+        if (!outputQueue.isEmpty() && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            // Interest changes made off the event loop apply on the next select.
+            key.selector().wakeup();
+        }
+    }
+
+    /**
+     * Drops {@code OP_READ} interest once the output queue passes the
+     * high-water mark. The queue is not empty then, so {@code OP_WRITE} is
+     * already awaited and {@link #flushOutput} will resume reading.
+     */
+    private void pauseReadingIfBackedUp() {
+        if (!readPaused && !isReplica() && outputQueue.remaining() > ServerConfig.OUTPUT_HIGH_WATER_MARK
+                && key.isValid()) {
+            readPaused = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    private boolean resumeReadingIfDrained() {
+        if (!readPaused || outputQueue.remaining() >= ServerConfig.OUTPUT_LOW_WATER_MARK
+                || (closeAfterReply && !disconnected)) {
+            return false;
+        }
+        readPaused = false;
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+            key.selector().wakeup();
+        }
+        return true;
+    }
+
+    public boolean isAwaitingReply() {
+        return awaitingReply;
+    }
+
+    public void setAwaitingReply(boolean awaitingReply) {
+        this.awaitingReply = awaitingReply;
+    }
+}
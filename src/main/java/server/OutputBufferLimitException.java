@@ -0,0 +1,17 @@
+package server;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a write pushes a client's queued output past its
+ * {@code client-output-buffer-limit}; the client has been disconnected.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public class OutputBufferLimitException extends IOException {
+    public OutputBufferLimitException(String message) {
+        super(message);
+    }
+}
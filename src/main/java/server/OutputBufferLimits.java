@@ -0,0 +1,224 @@
+package server;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import config.ServerConfig;
+
+/**
+ * Per-class limits on the reply data queued for a client that does not read
+ * it, configured like Redis' {@code client-output-buffer-limit}.
+ *
+ * <p>
+ * The setting is a list of {@code <class> <hard> <soft> <soft-seconds>}
+ * groups, for example {@code pubsub 32mb 8mb 60}. A client is disconnected
+ * as soon as its queued output reaches the hard limit, or once it has stayed
+ * at or above the soft limit for the given number of seconds. A limit of 0
+ * disables that check. Classes missing from the setting keep their defaults.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class OutputBufferLimits {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutputBufferLimits.class);
+
+    private static final String SEPARATOR = "\\s+";
+    private static final int FIELDS_PER_CLASS = 4;
+
+    /**
+     * Client classes with separate limits.
+     */
+    public enum ClientClass {
+        NORMAL("normal"),
+        REPLICA("replica"),
+        PUBSUB("pubsub");
+
+        private final String configName;
+
+        ClientClass(String configName) {
+            this.configName = configName;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        /**
+         * Resolves a class name as written in the configuration; "slave" is
+         * accepted as in Redis.
+         *
+         * @param name the configured class name
+         * @return the client class
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        static ClientClass fromConfigName(String name) {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if ("slave".equals(lowerName)) {
+                return REPLICA;
+            }
+            for (ClientClass clientClass : values()) {
+                if (clientClass.configName.equals(lowerName)) {
+                    return clientClass;
+                }
+            }
+            throw new IllegalArgumentException("unknown client class '" + name + "'");
+        }
+    }
+
+    /**
+     * The limits of one client class.
+     *
+     * @param hardLimitBytes   queued bytes at which the client is dropped at
+     *                         once, or 0 for no hard limit
+     * @param softLimitBytes   queued bytes the client may only stay above for
+     *                         {@code softLimitSeconds}, or 0 for no soft limit
+     * @param softLimitSeconds how long the soft limit may be exceeded
+     */
+    public record Limit(long hardLimitBytes, long softLimitBytes, long softLimitSeconds) {
+
+        /**
+         * Checks whether neither limit is set.
+         *
+         * @return true if the class is unlimited
+         */
+        public boolean isUnlimited() {
+            return hardLimitBytes == 0 && softLimitBytes == 0;
+        }
+    }
+
+    private final Map<ClientClass, Limit> limits;
+
+    private OutputBufferLimits(Map<ClientClass, Limit> limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Parses the configured limits, falling back to the defaults if the
+     * setting is invalid.
+     *
+     * @param spec the {@code client-output-buffer-limit} setting
+     * @return the limits for every client class
+     */
+    public static OutputBufferLimits fromConfig(String spec) {
+        try {
+            return parse(spec);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid client-output-buffer-limit '{}': {}. Using default: {}",
+                    spec, e.getMessage(), ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT);
+            return parse(ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT);
+        }
+    }
+
+    /**
+     * Parses a {@code client-output-buffer-limit} setting on top of the
+     * defaults.
+     *
+     * @param spec the setting
+     * @return the limits for every client class
+     * @throws IllegalArgumentException if the setting is malformed
+     */
+    static OutputBufferLimits parse(String spec) {
+        Map<ClientClass, Limit> parsed = new EnumMap<>(ClientClass.class);
+        parseInto(parsed, ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT);
+        parseInto(parsed, spec);
+        return new OutputBufferLimits(parsed);
+    }
+
+    private static void parseInto(Map<ClientClass, Limit> limits, String spec) {
+        String[] fields = spec.trim().split(SEPARATOR);
+        if (fields.length % FIELDS_PER_CLASS != 0) {
+            throw new IllegalArgumentException("expected <class> <hard> <soft> <soft-seconds> groups");
+        }
+        for (int i = 0; i < fields.length; i += FIELDS_PER_CLASS) {
+            Limit limit = new Limit(parseBytes(fields[i + 1]), parseBytes(fields[i + 2]),
+                    parseNonNegative(fields[i + 3]));
+            limits.put(ClientClass.fromConfigName(fields[i]), limit);
+        }
+    }
+
+    /**
+     * Returns the limits of a client class.
+     *
+     * @param clientClass the client class
+     * @return its limits
+     */
+    public Limit limitFor(ClientClass clientClass) {
+        return limits.get(clientClass);
+    }
+
+    /**
+     * Formats the limits the way they are configured, with sizes in bytes.
+     *
+     * @return the setting for all classes
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<ClientClass, Limit> entry : limits.entrySet()) {
+            Limit limit = entry.getValue();
+            if (!builder.isEmpty()) {
+                builder.append(' ');
+            }
+            builder.append(entry.getKey().getConfigName()).append(' ')
+                    .append(limit.hardLimitBytes()).append(' ')
+                    .append(limit.softLimitBytes()).append(' ')
+                    .append(limit.softLimitSeconds());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parses a size with an optional unit: k/m/g are powers of 1000 and
+     * kb/mb/gb powers of 1024, as in Redis.
+     */
+    private static long parseBytes(String value) {
+        String lowerValue = value.toLowerCase(Locale.ROOT);
+        long unit = 1;
+        int digits = lowerValue.length();
+        if (lowerValue.endsWith("gb")) {
+            unit = 1024L * 1024 * 1024;
+            digits -= 2;
+        } else if (lowerValue.endsWith("mb")) {
+            unit = 1024L * 1024;
+            digits -= 2;
+        } else if (lowerValue.endsWith("kb")) {
+            unit = 1024L;
+            digits -= 2;
+        } else if (lowerValue.endsWith("g")) {
+            unit = 1000L * 1000 * 1000;
+            digits -= 1;
+        } else if (lowerValue.endsWith("m")) {
+            unit = 1000L * 1000;
+            digits -= 1;
+        } else if (lowerValue.endsWith("k")) {
+            unit = 1000L;
+            digits -= 1;
+        } else if (lowerValue.endsWith("b")) {
+            digits -= 1;
+        }
+        long amount = parseNonNegative(lowerValue.substring(0, digits));
+        if (amount > Long.MAX_VALUE / unit) {
+            throw new IllegalArgumentException("invalid value '" + value + "'");
+        }
+        return amount * unit;
+    }
+
+    private static long parseNonNegative(String value) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("invalid value '" + value + "'");
+    }
+}
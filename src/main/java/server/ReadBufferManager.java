@@ -0,0 +1,96 @@
+package server;
+
+import java.nio.ByteBuffer;
+
+import config.ServerConfig;
+import utils.BufferPool;
+
+/**
+ * Hands out growable client read buffers from the shared {@link BufferPool}.
+ *
+ * <p>
+ * Every connection starts with a {@link ServerConfig#BUFFER_SIZE} buffer.
+ * When a request does not fit, the buffer is replaced by one of at least
+ * twice the size (up to the configured query buffer limit) and the old one
+ * is returned to the pool, so large values can be received without every
+ * connection paying for the worst case. Buffers up to
+ * {@link ServerConfig#MAX_POOLED_BUFFER_SIZE} are pooled direct buffers that
+ * sockets read into without an extra copy; larger ones are plain heap
+ * allocations left to the garbage collector.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ReadBufferManager {
+
+    private final BufferPool pool = BufferPool.getInstance();
+    private final int queryBufferLimit;
+
+    /**
+     * Creates a manager enforcing the given query buffer limit.
+     *
+     * @param queryBufferLimit maximum buffer capacity a client may grow to
+     */
+    public ReadBufferManager(int queryBufferLimit) {
+        this.queryBufferLimit = queryBufferLimit;
+    }
+
+    /**
+     * Acquires a buffer of the initial size for a new connection.
+     *
+     * @return an empty buffer in write mode
+     */
+    public ByteBuffer acquire() {
+        return pool.acquire(ServerConfig.BUFFER_SIZE);
+    }
+
+    /**
+     * Replaces a full buffer with one at least twice as large, keeping its
+     * contents.
+     *
+     * @param current the full buffer in write mode
+     * @return the larger buffer in write mode, or null if the query buffer
+     *         limit would be exceeded
+     */
+    public ByteBuffer grow(ByteBuffer current) {
+        return grow(current, current.capacity() + 1);
+    }
+
+    /**
+     * Replaces a buffer with a larger one holding at least
+     * {@code minCapacity} bytes, keeping its contents. The capacity at least
+     * doubles, so that repeated growth stays cheap.
+     *
+     * @param current     the buffer in write mode
+     * @param minCapacity the capacity the caller needs
+     * @return the larger buffer in write mode, or null if the query buffer
+     *         limit would be exceeded
+     */
+    public ByteBuffer grow(ByteBuffer current, int minCapacity) {
+        if (minCapacity > queryBufferLimit) {
+            return null;
+        }
+
+        int newCapacity = (int) Math.min(Math.max((long) current.capacity() * 2, minCapacity), queryBufferLimit);
+        ByteBuffer grown = pool.acquire(newCapacity);
+
+        grown.put(current.flip());
+        release(current);
+        return grown;
+    }
+
+    /**
+     * Returns a buffer to the pool, if it came from there.
+     *
+     * @param buffer the buffer to release
+     */
+    public void release(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+
+    public int getQueryBufferLimit() {
+        return queryBufferLimit;
+    }
+}
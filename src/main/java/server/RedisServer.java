@@ -2,16 +2,19 @@ package server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
-import java.util.Iterator;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import config.ConfigurationParser;
-import replication.ReplicationClient;
+import config.ServerConfig;
 
 /**
  * Main entry point for the Redis-like server implementation.
@@ -25,6 +28,32 @@ import replication.ReplicationClient;
  * performance.
  * </p>
  * 
+ * <p>
+ * With {@code --reactor-threads N} (at most {@link ServerConfig#IO_THREADS})
+ * the server runs N {@link EventLoop}s, each with its own selector. The main
+ * loop owns the listening socket and hands accepted connections to the loops
+ * round-robin; command execution stays serialized by the execution lock.
+ * </p>
+ * 
+ * <p>
+ * Alternatively, {@code --io-threads N} keeps a single event loop but reads,
+ * parses and writes client data on N threads around one executing thread,
+ * like Redis 6 threaded I/O.
+ * </p>
+ * 
+ * <p>
+ * With {@code --server-engine virtual-threads} the selector loops no longer
+ * serve clients; a {@link VirtualThreadEngine} runs every connection on its
+ * own virtual threads with blocking I/O instead.
+ * </p>
+ * 
+ * <p>
+ * With {@code --unixsocket PATH} a second listener accepts same-host clients
+ * on a Unix domain socket. It is served by the same loops or virtual threads
+ * as the TCP listener, so both kinds of connection share the connection
+ * handler and the command dispatcher.
+ * </p>
+ * 
  * @author Ankit Kumar
  * @version 1.0
  * @since 1.0
@@ -37,8 +66,14 @@ public final class RedisServer {
     /** Exit code used when configuration parsing fails */
     private static final int CONFIG_ERROR_EXIT_CODE = 1;
 
+    /** Thread name prefix for event loops */
+    private static final String EVENT_LOOP_NAME_PREFIX = "io-reactor-";
+
     private final ServerConfiguration config;
     private final ServerContext context;
+    private EventLoop[] eventLoops;
+    private IoThreadPool ioThreadPool;
+    private int nextEventLoop;
 
     public RedisServer(ServerConfiguration config) {
         this.config = config;
@@ -64,82 +99,173 @@ public final class RedisServer {
 
     /**
      * Starts the Redis server and begins accepting client connections.
-     * This method initializes the server socket, selector, and enters the main
-     * event loop.
+     * This method initializes the server socket and event loops, then runs the
+     * main event loop on the calling thread.
      */
     public void start() {
         LOGGER.info("Starting Redis Server on port {}...", config.port());
 
         try (ServerSocketChannel serverChannel = ServerSocketChannel.open();
-                Selector selector = Selector.open()) {
+                ServerSocketChannel unixChannel = openUnixSocket()) {
+            boolean virtualThreads = isVirtualThreadEngine();
+            int reactorThreads = virtualThreads ? 1 : reactorThreadCount();
+            ioThreadPool = virtualThreads ? null : createIoThreadPool(reactorThreads);
+            eventLoops = createEventLoops(reactorThreads);
+            EventLoop mainLoop = eventLoops[0];
+            mainLoop.setServerCron(context::runServerCron);
 
-            serverChannel.configureBlocking(false);
             serverChannel.bind(new InetSocketAddress(config.bindAddress(), config.port()));
-            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 
-            context.start(selector);
-            LOGGER.info("Server ready and listening on {}:{}", config.bindAddress(), config.port());
+            if (virtualThreads) {
+                // The main loop still drives the replication link and housekeeping.
+                context.start(mainLoop.getSelector());
+                VirtualThreadEngine engine = new VirtualThreadEngine(context, mainLoop.getTimeoutWheel());
+                engine.start(serverChannel);
+                if (unixChannel != null) {
+                    engine.start(unixChannel);
+                }
+                LOGGER.info("Server ready and listening on {}:{} with one virtual thread per connection",
+                        config.bindAddress(), config.port());
+            } else {
+                serverChannel.configureBlocking(false);
+                serverChannel.register(mainLoop.getSelector(), SelectionKey.OP_ACCEPT);
+                if (unixChannel != null) {
+                    unixChannel.configureBlocking(false);
+                    unixChannel.register(mainLoop.getSelector(), SelectionKey.OP_ACCEPT);
+                }
 
-            runEventLoop(selector);
+                context.start(mainLoop.getSelector());
+                for (int i = 1; i < eventLoops.length; i++) {
+                    Thread.ofPlatform().name(eventLoops[i].getName()).start(eventLoops[i]);
+                }
+                LOGGER.info("Server ready and listening on {}:{} with {} event loop(s), {} I/O thread(s)",
+                        config.bindAddress(), config.port(), eventLoops.length,
+                        ioThreadPool != null ? ioThreadPool.getThreadCount() : 1);
+            }
+            if (unixChannel != null) {
+                LOGGER.info("Server ready and listening on Unix socket {}", config.unixSocket());
+            }
+
+            mainLoop.run();
 
         } catch (IOException e) {
             LOGGER.error("Server error: {}", e.getMessage(), e);
         } finally {
+            shutdownEventLoops();
             context.shutdown();
+            removeUnixSocketFile();
         }
     }
 
     /**
-     * Main event loop that processes client connections and I/O operations.
-     * Uses NIO selector for efficient non-blocking I/O handling.
-     * 
-     * @param selector the NIO selector for managing channels
-     * @throws IOException if an I/O error occurs during event processing
+     * Binds the Unix domain socket listener if one is configured, replacing
+     * a socket file left behind by an earlier run.
+     *
+     * @return the bound listener, or null if none is configured
+     * @throws IOException if the socket cannot be bound
      */
-    private void runEventLoop(Selector selector) throws IOException {
-        while (true) {
-            selector.select();
-            Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
-
-            while (keyIterator.hasNext()) {
-                SelectionKey key = keyIterator.next();
-                keyIterator.remove();
-
-                try {
-                    handleSelectionKey(key, selector);
-                } catch (IOException e) {
-                    LOGGER.warn("Error handling key: {}", e.getMessage());
-                    key.cancel();
-                    if (key.channel() != null) {
-                        key.channel().close();
-                    }
-                }
-            }
+    private ServerSocketChannel openUnixSocket() throws IOException {
+        if (config.unixSocket().isEmpty()) {
+            return null;
+        }
+        Path path = Path.of(config.unixSocket());
+        Files.deleteIfExists(path);
+
+        ServerSocketChannel unixChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            unixChannel.bind(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            unixChannel.close();
+            throw e;
+        }
+        return unixChannel;
+    }
+
+    private void removeUnixSocketFile() {
+        if (config.unixSocket().isEmpty()) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(Path.of(config.unixSocket()));
+        } catch (IOException e) {
+            LOGGER.debug("Error removing Unix socket {}: {}", config.unixSocket(), e.getMessage());
         }
     }
 
     /**
-     * Handles different types of selection key events (accept, read, connect).
-     * 
-     * @param key      the selection key to handle
-     * @param selector the NIO selector
-     * @throws IOException if an I/O error occurs during key handling
+     * Checks which engine serves clients. Reactor and I/O thread settings only
+     * apply to the selector engine.
      */
-    private void handleSelectionKey(SelectionKey key, Selector selector) throws IOException {
-        if (key.isAcceptable()) {
-            ClientConnectionHandler.acceptNewConnection(key, selector, context);
-        } else if (key.isReadable()) {
-            Object attachment = key.attachment();
-            if (attachment instanceof ReplicationClient) {
-                ((ReplicationClient) attachment).handleKey(key);
-            } else {
-                ClientConnectionHandler.handleClientRequest(key, context.getCommandDispatcher(), context);
-            }
-        } else if (key.isConnectable()) {
-            Object attachment = key.attachment();
-            if (attachment instanceof ReplicationClient) {
-                ((ReplicationClient) attachment).handleKey(key);
+    private boolean isVirtualThreadEngine() {
+        String engine = config.serverEngine();
+        if (ServerConfig.SERVER_ENGINE_VIRTUAL_THREADS.equalsIgnoreCase(engine)) {
+            if (config.reactorThreads() > 1 || config.ioThreads() > 1) {
+                LOGGER.warn("reactor-threads and io-threads are ignored by the {} engine", engine);
             }
+            return true;
+        }
+        if (!ServerConfig.SERVER_ENGINE_NIO.equalsIgnoreCase(engine)) {
+            LOGGER.warn("Unknown server-engine '{}', using {}", engine, ServerConfig.SERVER_ENGINE_NIO);
+        }
+        return false;
+    }
+
+    private int reactorThreadCount() {
+        int requested = config.reactorThreads();
+        int count = Math.clamp(requested, 1, ServerConfig.IO_THREADS);
+        if (count != requested) {
+            LOGGER.warn("reactor-threads {} out of range, using {}", requested, count);
+        }
+        return count;
+    }
+
+    /**
+     * Creates the I/O thread pool for io-threads mode, which only applies to a
+     * single event loop.
+     */
+    private IoThreadPool createIoThreadPool(int reactorThreads) {
+        int requested = config.ioThreads();
+        int count = Math.clamp(requested, 1, ServerConfig.IO_THREADS);
+        if (count != requested) {
+            LOGGER.warn("io-threads {} out of range, using {}", requested, count);
+        }
+        if (count == 1) {
+            return null;
+        }
+        if (reactorThreads > 1) {
+            LOGGER.warn("io-threads is ignored when reactor-threads is greater than 1");
+            return null;
+        }
+        return new IoThreadPool(count);
+    }
+
+    private EventLoop[] createEventLoops(int count) throws IOException {
+        EventLoop[] loops = new EventLoop[count];
+        for (int i = 0; i < count; i++) {
+            loops[i] = new EventLoop(EVENT_LOOP_NAME_PREFIX + i, context, this::assignClient, ioThreadPool);
+        }
+        return loops;
+    }
+
+    /**
+     * Hands an accepted connection to the next event loop. Only called from
+     * the main loop thread.
+     */
+    private void assignClient(SocketChannel clientChannel) {
+        EventLoop target = eventLoops[nextEventLoop];
+        nextEventLoop = (nextEventLoop + 1) % eventLoops.length;
+        target.register(clientChannel);
+    }
+
+    private void shutdownEventLoops() {
+        if (eventLoops == null) {
+            return;
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.shutdown();
+        }
+        if (ioThreadPool != null) {
+            ioThreadPool.shutdown();
         }
     }
-}
\ No newline at end of file
+}
@@ -23,12 +23,40 @@ import config.ServerConfig;
  * @param dataDirectory          directory for persistent data storage
  * @param databaseFilename       filename for the RDB database file
  * @param appendOnlyMode         whether AOF (Append Only File) mode is enabled
- * @param maxMemory              maximum memory usage in bytes
+ * @param maxMemory              maximum memory usage in bytes, or 0 for no
+ *                               limit
  * @param bindAddress            IP address to bind the server to
  * @param requirePassword        optional password for client authentication
  * @param httpServerEnabled      whether the HTTP management interface is
  *                               enabled
  * @param httpPort               port number for the HTTP management interface
+ * @param queryBufferLimit       maximum size in bytes of a client's unparsed
+ *                               input buffer
+ * @param reactorThreads         number of selector event loops serving
+ *                               clients
+ * @param ioThreads              number of threads doing client reads and
+ *                               writes around the single executing thread
+ * @param lockStripes            number of execution lock stripes; single-key
+ *                               commands on different stripes may execute
+ *                               concurrently
+ * @param serverEngine           client I/O engine: nio selector loops or one
+ *                               virtual thread per connection
+ * @param clientOutputBufferLimit per-class hard and soft limits on the
+ *                               output queued for a client, as in Redis
+ * @param unixSocket             path of an additional Unix domain socket
+ *                               listener, or empty for none
+ * @param clientTimeoutSeconds   seconds a client may stay idle before it is
+ *                               closed, or 0 to never close idle clients
+ * @param maxClients             maximum number of connected clients; further
+ *                               connections are refused
+ * @param activeExpireEffort     effort of the active expiry cycle, from 1 to
+ *                               10; higher values reclaim expired keys sooner
+ *                               at the cost of more CPU
+ * @param maxMemoryPolicy        which keys are evicted when the dataset is
+ *                               over {@code maxMemory}, such as
+ *                               {@code allkeys-lru}, or {@code noeviction}
+ * @param offHeapStrings         whether string values are kept in off-heap
+ *                               slabs instead of on the heap
  * 
  * @author Ankit Kumar
  * @version 1.0
@@ -45,7 +73,19 @@ public record ServerConfiguration(
         String bindAddress,
         Optional<String> requirePassword,
         boolean httpServerEnabled,
-        int httpPort) {
+        int httpPort,
+        int queryBufferLimit,
+        int reactorThreads,
+        int ioThreads,
+        int lockStripes,
+        String serverEngine,
+        String clientOutputBufferLimit,
+        String unixSocket,
+        int clientTimeoutSeconds,
+        int maxClients,
+        int activeExpireEffort,
+        String maxMemoryPolicy,
+        boolean offHeapStrings) {
 
     /** Configuration parameter name for port */
     private static final String PARAM_PORT = "port";
@@ -86,6 +126,42 @@ public record ServerConfiguration(
     /** Configuration parameter name for HTTP port */
     private static final String PARAM_HTTP_PORT = "http-port";
 
+    /** Configuration parameter name for client query buffer limit */
+    private static final String PARAM_QUERY_BUFFER_LIMIT = "client-query-buffer-limit";
+
+    /** Configuration parameter name for the number of event loops */
+    private static final String PARAM_REACTOR_THREADS = "reactor-threads";
+
+    /** Configuration parameter name for the number of I/O threads */
+    private static final String PARAM_IO_THREADS = "io-threads";
+
+    /** Configuration parameter name for the number of lock stripes */
+    private static final String PARAM_LOCK_STRIPES = "lock-stripes";
+
+    /** Configuration parameter name for the server engine */
+    private static final String PARAM_SERVER_ENGINE = "server-engine";
+
+    /** Configuration parameter name for client output buffer limits */
+    private static final String PARAM_OUTPUT_BUFFER_LIMIT = "client-output-buffer-limit";
+
+    /** Configuration parameter name for the Unix domain socket path */
+    private static final String PARAM_UNIX_SOCKET = "unixsocket";
+
+    /** Seconds a client may stay idle before it is closed */
+    private static final String PARAM_TIMEOUT = "timeout";
+
+    /** Maximum number of connected clients */
+    private static final String PARAM_MAX_CLIENTS = "maxclients";
+
+    /** Effort of the active expiry cycle */
+    private static final String PARAM_ACTIVE_EXPIRE_EFFORT = "active-expire-effort";
+
+    /** Eviction policy applied over maxmemory */
+    private static final String PARAM_MAXMEMORY_POLICY = "maxmemory-policy";
+
+    /** Whether string values are kept off the heap */
+    private static final String PARAM_OFFHEAP_STRINGS = "offheap-strings";
+
     /** Configuration value for boolean true */
     private static final String BOOLEAN_YES = "yes";
 
@@ -117,7 +193,29 @@ public record ServerConfiguration(
                 ConfigurationParser.getStringOption(options, PARAM_BIND, ServerConfig.DEFAULT_BIND_ADDRESS),
                 Optional.ofNullable(options.get(PARAM_REQUIREPASS)),
                 ConfigurationParser.getBooleanOption(options, PARAM_HTTP_ENABLED, ServerConfig.DEFAULT_HTTP_ENABLED),
-                ConfigurationParser.getIntOption(options, PARAM_HTTP_PORT, ServerConfig.DEFAULT_HTTP_PORT));
+                ConfigurationParser.getIntOption(options, PARAM_HTTP_PORT, ServerConfig.DEFAULT_HTTP_PORT),
+                ConfigurationParser.getIntOption(options, PARAM_QUERY_BUFFER_LIMIT,
+                        ServerConfig.DEFAULT_QUERY_BUFFER_LIMIT),
+                ConfigurationParser.getIntOption(options, PARAM_REACTOR_THREADS,
+                        ServerConfig.DEFAULT_REACTOR_THREADS),
+                ConfigurationParser.getIntOption(options, PARAM_IO_THREADS, ServerConfig.DEFAULT_IO_THREADS),
+                ConfigurationParser.getIntOption(options, PARAM_LOCK_STRIPES,
+                        ServerConfig.DEFAULT_LOCK_STRIPES),
+                ConfigurationParser.getStringOption(options, PARAM_SERVER_ENGINE,
+                        ServerConfig.DEFAULT_SERVER_ENGINE),
+                ConfigurationParser.getStringOption(options, PARAM_OUTPUT_BUFFER_LIMIT,
+                        ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT),
+                ConfigurationParser.getStringOption(options, PARAM_UNIX_SOCKET,
+                        ServerConfig.DEFAULT_UNIX_SOCKET),
+                ConfigurationParser.getIntOption(options, PARAM_TIMEOUT,
+                        ServerConfig.DEFAULT_CLIENT_TIMEOUT_SECONDS),
+                ConfigurationParser.getIntOption(options, PARAM_MAX_CLIENTS, ServerConfig.MAX_CONNECTIONS),
+                ConfigurationParser.getIntOption(options, PARAM_ACTIVE_EXPIRE_EFFORT,
+                        ServerConfig.DEFAULT_ACTIVE_EXPIRE_EFFORT),
+                ConfigurationParser.getStringOption(options, PARAM_MAXMEMORY_POLICY,
+                        ServerConfig.DEFAULT_MAXMEMORY_POLICY),
+                ConfigurationParser.getBooleanOption(options, PARAM_OFFHEAP_STRINGS,
+                        ServerConfig.DEFAULT_OFFHEAP_STRINGS));
     }
 
     /**
@@ -154,8 +252,20 @@ public record ServerConfiguration(
                     PARAM_DBFILENAME + " " + databaseFilename + " " +
                     PARAM_APPENDONLY + " " + (appendOnlyMode ? BOOLEAN_YES : BOOLEAN_NO) + " " +
                     PARAM_MAXMEMORY + " " + maxMemory + " " +
+                    PARAM_MAXMEMORY_POLICY + " " + maxMemoryPolicy + " " +
+                    PARAM_OFFHEAP_STRINGS + " " + (offHeapStrings ? BOOLEAN_YES : BOOLEAN_NO) + " " +
                     PARAM_BIND + " " + bindAddress + " " +
                     PARAM_REQUIREPASS + " " + requirePassword.orElse(EMPTY_STRING) + " " +
+                    PARAM_QUERY_BUFFER_LIMIT + " " + queryBufferLimit + " " +
+                    PARAM_REACTOR_THREADS + " " + reactorThreads + " " +
+                    PARAM_IO_THREADS + " " + ioThreads + " " +
+                    PARAM_LOCK_STRIPES + " " + lockStripes + " " +
+                    PARAM_SERVER_ENGINE + " " + serverEngine + " " +
+                    PARAM_OUTPUT_BUFFER_LIMIT + " " + clientOutputBufferLimit + " " +
+                    PARAM_UNIX_SOCKET + " " + unixSocket + " " +
+                    PARAM_TIMEOUT + " " + clientTimeoutSeconds + " " +
+                    PARAM_MAX_CLIENTS + " " + maxClients + " " +
+                    PARAM_ACTIVE_EXPIRE_EFFORT + " " + activeExpireEffort + " " +
                     PARAM_MASTER_HOST + " " + (isReplicaMode() ? getMasterInfo().host() : EMPTY_STRING) + " " +
                     PARAM_MASTER_PORT + " "
                     + (isReplicaMode() ? String.valueOf(getMasterInfo().port()) : DEFAULT_MASTER_PORT_STRING) + " " +
@@ -170,8 +280,20 @@ public record ServerConfiguration(
             case PARAM_DBFILENAME -> Optional.of(databaseFilename);
             case PARAM_APPENDONLY -> Optional.of(appendOnlyMode ? BOOLEAN_YES : BOOLEAN_NO);
             case PARAM_MAXMEMORY -> Optional.of(String.valueOf(maxMemory));
+            case PARAM_MAXMEMORY_POLICY -> Optional.of(maxMemoryPolicy);
+            case PARAM_OFFHEAP_STRINGS -> Optional.of(offHeapStrings ? BOOLEAN_YES : BOOLEAN_NO);
             case PARAM_BIND -> Optional.of(bindAddress);
             case PARAM_REQUIREPASS -> Optional.of(requirePassword.orElse(EMPTY_STRING));
+            case PARAM_QUERY_BUFFER_LIMIT -> Optional.of(String.valueOf(queryBufferLimit));
+            case PARAM_REACTOR_THREADS -> Optional.of(String.valueOf(reactorThreads));
+            case PARAM_IO_THREADS -> Optional.of(String.valueOf(ioThreads));
+            case PARAM_LOCK_STRIPES -> Optional.of(String.valueOf(lockStripes));
+            case PARAM_SERVER_ENGINE -> Optional.of(serverEngine);
+            case PARAM_OUTPUT_BUFFER_LIMIT -> Optional.of(clientOutputBufferLimit);
+            case PARAM_UNIX_SOCKET -> Optional.of(unixSocket);
+            case PARAM_TIMEOUT -> Optional.of(String.valueOf(clientTimeoutSeconds));
+            case PARAM_MAX_CLIENTS -> Optional.of(String.valueOf(maxClients));
+            case PARAM_ACTIVE_EXPIRE_EFFORT -> Optional.of(String.valueOf(activeExpireEffort));
             case PARAM_MASTER_HOST -> Optional.of(isReplicaMode() ? getMasterInfo().host() : EMPTY_STRING);
             case PARAM_MASTER_PORT ->
                 Optional.of(isReplicaMode() ? String.valueOf(getMasterInfo().port()) : DEFAULT_MASTER_PORT_STRING);
@@ -3,6 +3,7 @@ package server;
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import blocking.BlockingManager;
 import commands.registry.CommandFactory;
 import commands.registry.CommandRegistry;
+import config.ServerConfig;
 import events.EventPublisher;
 import metrics.MetricsCollector;
 import metrics.MetricsHandler;
@@ -21,9 +23,15 @@ import replication.ReplicationState;
 import scheduler.TimeoutScheduler;
 import server.http.HttpServerManager;
 import storage.StorageService;
+import storage.eviction.EvictionPolicy;
+import storage.eviction.MemoryEvictor;
+import storage.expiry.ActiveExpiryCycle;
+import storage.offheap.OffHeapCompactor;
+import storage.offheap.SlabStore;
 import storage.persistence.AofRepository;
 import storage.persistence.PersistentRepository;
 import storage.persistence.RdbRepository;
+import tracking.TrackingManager;
 import transaction.TransactionManager;
 
 /**
@@ -45,6 +53,9 @@ public final class ServerContext implements EventPublisher {
     /** Default filename for Append-Only File persistence. */
     private static final String AOF_FILENAME = "appendonly.aof";
 
+    /** Command that replays an eviction on replicas and in the AOF. */
+    private static final String EVICTION_COMMAND = "DEL";
+
     private final ServerConfiguration serverConfig;
     private final StorageService storageService;
     private final BlockingManager blockingManager;
@@ -58,9 +69,17 @@ public final class ServerContext implements EventPublisher {
     private final PersistentRepository persistentRepository;
     private final File rdbSnapshotFile;
     private final PubSubManager pubSubManager;
+    private final TrackingManager trackingManager;
+    private final ActiveExpiryCycle activeExpiryCycle;
+    private final MemoryEvictor memoryEvictor;
+    private final OffHeapCompactor offHeapCompactor;
     private final MetricsCollector metricsCollector;
     private final MetricsHandler metricsHandler;
     private final HttpServerManager httpServerManager;
+    private final ReadBufferManager readBufferManager;
+    private final ClientWriter clientWriter;
+    private final StripedExecutionLock executionLock;
+    private final AtomicInteger connectedClients = new AtomicInteger();
 
     /**
      * Creates and initializes the server context.
@@ -71,17 +90,28 @@ public final class ServerContext implements EventPublisher {
         this.serverConfig = serverConfig;
         this.rdbSnapshotFile = new File(serverConfig.dataDirectory(), serverConfig.databaseFilename());
 
-        this.storageService = new StorageService();
+        this.executionLock = new StripedExecutionLock(Math.max(1, serverConfig.lockStripes()));
+        SlabStore slabStore = serverConfig.offHeapStrings() ? new SlabStore() : null;
+        this.storageService = new StorageService(slabStore);
         this.storageService.setEventPublisher(this);
 
         this.persistentRepository = serverConfig.appendOnlyMode()
                 ? initAofRepository()
                 : new RdbRepository(storageService.getStore());
 
-        this.blockingManager = new BlockingManager(storageService);
+        this.clientWriter = new ClientWriter(this,
+                OutputBufferLimits.fromConfig(serverConfig.clientOutputBufferLimit()));
+        this.blockingManager = new BlockingManager(storageService, clientWriter);
         this.transactionManager = new TransactionManager(this);
         this.pubSubManager = new PubSubManager(this);
-
+        this.trackingManager = new TrackingManager(clientWriter, ServerConfig.TRACKING_TABLE_MAX_KEYS);
+        this.activeExpiryCycle = new ActiveExpiryCycle(storageService, executionLock,
+                serverConfig.activeExpireEffort());
+        this.memoryEvictor = new MemoryEvictor(storageService, executionLock, serverConfig.maxMemory(),
+                resolveEvictionPolicy(serverConfig.maxMemoryPolicy()), this::onKeyEvicted);
+        this.offHeapCompactor = slabStore != null ? new OffHeapCompactor(slabStore, executionLock) : null;
+
+        this.readBufferManager = new ReadBufferManager(serverConfig.queryBufferLimit());
         this.metricsCollector = new MetricsCollector();
         this.metricsHandler = new MetricsHandler(metricsCollector);
 
@@ -93,9 +123,8 @@ public final class ServerContext implements EventPublisher {
 
         this.replicationManager = new ReplicationManager(replicationState, this);
         this.commandRegistry = CommandFactory.createRegistry(this);
-        this.commandDispatcher = new CommandDispatcher(commandRegistry, storageService, transactionManager,
-                pubSubManager, this);
-        this.timeoutScheduler = new TimeoutScheduler();
+        this.commandDispatcher = new CommandDispatcher(commandRegistry, storageService, this);
+        this.timeoutScheduler = new TimeoutScheduler(executionLock.global());
 
         this.replicationClient = serverConfig.isReplicaMode()
                 ? new ReplicationClient(serverConfig.getMasterInfo(), replicationState, serverConfig.port(), this)
@@ -110,6 +139,27 @@ public final class ServerContext implements EventPublisher {
                 serverConfig.httpServerEnabled() ? "enabled on " + serverConfig.httpPort() : "disabled");
     }
 
+    private static EvictionPolicy resolveEvictionPolicy(String name) {
+        return EvictionPolicy.fromConfigName(name).orElseGet(() -> {
+            LOGGER.warn("Unknown maxmemory-policy '{}', using {}", name, EvictionPolicy.NOEVICTION.configName());
+            return EvictionPolicy.NOEVICTION;
+        });
+    }
+
+    /**
+     * Counts an evicted key and replays the eviction on replicas and in the
+     * AOF as a DEL, since neither evicts on its own.
+     */
+    private void onKeyEvicted(String key) {
+        metricsCollector.incrementEvictedKeys();
+        String[] delete = { EVICTION_COMMAND, key };
+        propagateWriteCommand(delete);
+        AofRepository aofRepository = getAofRepository();
+        if (aofRepository != null) {
+            aofRepository.appendCommand(delete);
+        }
+    }
+
     private PersistentRepository initAofRepository() {
         AofRepository aofRepository = new AofRepository(storageService.getStore(), this);
         aofRepository.setStorageService(storageService);
@@ -161,6 +211,23 @@ public final class ServerContext implements EventPublisher {
         } catch (Exception e) {
             LOGGER.error("Failed to load persistence file", e);
         }
+        storageService.indexLoadedKeys();
+    }
+
+    /**
+     * Periodic keyspace housekeeping, run by the main event loop every
+     * {@link ServerConfig#CLEANUP_INTERVAL_MS}: deletes expired keys that
+     * nobody reads, compacts the off-heap string slabs and publishes the
+     * memory used by the keyspace to the metrics.
+     */
+    public void runServerCron() {
+        activeExpiryCycle.run();
+        if (offHeapCompactor != null) {
+            offHeapCompactor.run();
+        }
+        metricsCollector.setMemoryUsage(storageService.getUsedMemory());
+        storageService.getUsedMemoryByType()
+                .forEach((type, bytes) -> metricsCollector.setMemoryUsage(type.getDisplayName(), bytes));
     }
 
     /**
@@ -208,15 +275,98 @@ public final class ServerContext implements EventPublisher {
         }
     }
 
+    /**
+     * Reserves a connection slot for a client that is being accepted. Every
+     * admitted client must either be registered, which hands the slot to its
+     * session, or give the slot back with {@link #releaseClientSlot()}.
+     *
+     * @return false if {@code maxclients} clients are already connected
+     */
+    public boolean tryAdmitClient() {
+        if (connectedClients.incrementAndGet() > serverConfig.maxClients()) {
+            connectedClients.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back the slot of an admitted client that could not be registered.
+     */
+    public void releaseClientSlot() {
+        connectedClients.decrementAndGet();
+    }
+
+    /**
+     * Makes a newly connected client reachable for out-of-band writes and
+     * {@code CLIENT LIST}.
+     *
+     * @param client the client session
+     */
+    public void registerClient(ClientSession client) {
+        clientWriter.register(client);
+    }
+
+    /**
+     * Forgets a client that is being closed, frees its connection slot and
+     * drops its transaction, pub/sub and tracking state, including its
+     * watched keys and subscriptions.
+     *
+     * @param client the client session
+     */
+    public void unregisterClient(ClientSession client) {
+        if (clientWriter.unregister(client)) {
+            connectedClients.decrementAndGet();
+        }
+        ClientTimeoutWheel timeoutWheel = client.timeoutWheel;
+        if (timeoutWheel != null) {
+            timeoutWheel.remove(client);
+        }
+        transactionManager.clearState(client);
+        pubSubManager.clearState(client);
+        trackingManager.clearState(client);
+    }
+
     // ---- Getters ----
     public ServerConfiguration getConfig() {
         return serverConfig;
     }
 
+    /**
+     * Returns the lock that serializes command execution and scheduled
+     * timeout tasks. Commands on keys in different lock stripes may run
+     * concurrently; everything else is serialized through its global lock.
+     *
+     * @return the execution lock
+     */
+    public StripedExecutionLock getExecutionLock() {
+        return executionLock;
+    }
+
+    public ClientWriter getClientWriter() {
+        return clientWriter;
+    }
+
+    public ReadBufferManager getReadBufferManager() {
+        return readBufferManager;
+    }
+
     public PubSubManager getPubSubManager() {
         return pubSubManager;
     }
 
+    public TrackingManager getTrackingManager() {
+        return trackingManager;
+    }
+
+    public ActiveExpiryCycle getActiveExpiryCycle() {
+        return activeExpiryCycle;
+    }
+
+    public MemoryEvictor getMemoryEvictor() {
+        return memoryEvictor;
+    }
+
     public PersistentRepository getPersistentRepository() {
         return persistentRepository;
     }
@@ -295,6 +445,7 @@ public final class ServerContext implements EventPublisher {
     @Override
     public void publishKeyModified(String key) {
         transactionManager.invalidateWatchingClients(key);
+        trackingManager.invalidate(key);
     }
 
     @Override
@@ -303,6 +454,7 @@ public final class ServerContext implements EventPublisher {
 
         blockingManager.onStoreCleared();
         transactionManager.invalidateAllWatchingClients();
+        trackingManager.invalidateAll();
 
         // Clear AOF
         AofRepository aof = getAofRepository();
@@ -0,0 +1,168 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Execution lock split into stripes by key hash.
+ *
+ * <p>
+ * Every key maps to one stripe, chosen by its hash. A command that touches
+ * a single key only takes that stripe, so commands on keys of different
+ * stripes run in parallel on different event loops. Everything else (EXEC,
+ * WATCH, blocking pops over several keys, keyspace-wide commands and
+ * scheduled timeout tasks) takes the {@link #global()} lock, which excludes
+ * every stripe at once and is the cross-stripe coordination path.
+ * </p>
+ *
+ * <p>
+ * This is lock striping over shared structures, not keyspace ownership: the
+ * keys of every stripe still live in the one store of
+ * {@link storage.StorageService}, and any event loop may execute a command
+ * on any stripe, so the store, the memory totals and the other managers are
+ * still shared between cores. What striping removes is the single mutex that
+ * serialized every command.
+ * </p>
+ *
+ * <p>
+ * A single-key command takes nothing but its stripe's mutex; there is no
+ * shared lock word that every command updates. The global lock takes every
+ * stripe in index order instead, so it costs one uncontended lock per stripe
+ * and two global lockers cannot deadlock. A thread holding one stripe must
+ * not take the global lock.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class StripedExecutionLock {
+
+    private final ReentrantLock[] stripes;
+    private final Lock global = new AllStripesLock();
+
+    /**
+     * Creates the lock with the given number of stripes.
+     *
+     * @param stripeCount number of lock stripes, at least 1
+     */
+    public StripedExecutionLock(int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the lock that excludes all stripes.
+     *
+     * @return the global execution lock
+     */
+    public Lock global() {
+        return global;
+    }
+
+    /**
+     * Maps a key to its stripe.
+     *
+     * @param key the key
+     * @return the stripe index
+     */
+    public int stripeFor(String key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    /**
+     * Acquires a single stripe; blocks while the global lock is held.
+     *
+     * @param stripe the stripe index
+     */
+    public void lockStripe(int stripe) {
+        stripes[stripe].lock();
+    }
+
+    /**
+     * Releases a stripe acquired with {@link #lockStripe}.
+     *
+     * @param stripe the stripe index
+     */
+    public void unlockStripe(int stripe) {
+        stripes[stripe].unlock();
+    }
+
+    /** Takes every stripe in index order and releases them in reverse. */
+    private final class AllStripesLock implements Lock {
+
+        @Override
+        public void lock() {
+            for (ReentrantLock stripe : stripes) {
+                stripe.lock();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int locked = 0;
+            try {
+                for (; locked < stripes.length; locked++) {
+                    stripes[locked].lockInterruptibly();
+                }
+            } catch (InterruptedException e) {
+                unlockFirst(locked);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            for (int i = 0; i < stripes.length; i++) {
+                if (!stripes[i].tryLock()) {
+                    unlockFirst(i);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            int locked = 0;
+            try {
+                for (; locked < stripes.length; locked++) {
+                    if (!stripes[locked].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        unlockFirst(locked);
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                unlockFirst(locked);
+                throw e;
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            unlockFirst(stripes.length);
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("The global execution lock has no conditions");
+        }
+
+        private void unlockFirst(int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+}
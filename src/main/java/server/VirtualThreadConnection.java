@@ -0,0 +1,399 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import config.ServerConfig;
+import errors.ErrorCode;
+import protocol.ProtocolException;
+import protocol.RespParser;
+import protocol.ResponseBuilder;
+import protocol.ResponseChain;
+import utils.CoarseClock;
+
+/**
+ * A client served by the virtual-thread engine with blocking socket I/O.
+ *
+ * <p>
+ * Each connection runs three virtual threads connected by queues: the
+ * reader parses commands off the socket, the executor runs them through the
+ * shared {@link protocol.CommandDispatcher} one at a time, and the writer
+ * sends replies with gathering writes. Out-of-band output (pub/sub messages,
+ * blocking wakeups, WAIT replies, the replica stream) joins the same output
+ * queue, so other threads never block on this client's socket.
+ * </p>
+ *
+ * <p>
+ * When a command defers its reply (BLPOP, XREAD BLOCK, WAIT) the executor
+ * thread simply parks until the reply has been delivered, while the reader
+ * keeps watching the socket so that a client that goes away is still noticed.
+ * </p>
+ *
+ * <p>
+ * Once more than {@link ServerConfig#OUTPUT_HIGH_WATER_MARK} bytes of output
+ * are queued, the executor stops taking commands until the writer has
+ * drained the queue below {@link ServerConfig#OUTPUT_LOW_WATER_MARK}. The
+ * command queue then fills up and the reader blocks, so a client that does
+ * not read its replies is held back by its own TCP window, just like the
+ * selector engine drops read interest. Replica links are exempt, as their
+ * input is only acknowledgements; a replica that falls behind is left to the
+ * {@code replica} class of the output buffer limits.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class VirtualThreadConnection extends ClientSession implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadConnection.class);
+
+    private static final String EXECUTOR_THREAD_SUFFIX = "-exec";
+    private static final String WRITER_THREAD_SUFFIX = "-writer";
+
+    /** Indicates end of stream when reading from client */
+    private static final int END_OF_STREAM = -1;
+
+    /** Maximum number of queued replies written with one gathering write */
+    private static final int MAX_WRITE_BATCH = 64;
+
+    /** Queue markers; compared by identity. */
+    private static final String[] END_OF_INPUT = new String[0];
+    private static final String[] INVALID_REQUEST = new String[0];
+    private static final ByteBuffer END_OF_OUTPUT = ByteBuffer.allocate(0);
+
+    private final ServerContext context;
+    private final ReadBufferManager bufferManager;
+    private final BlockingQueue<String[]> commands = new ArrayBlockingQueue<>(
+            ServerConfig.MAX_COMMANDS_PER_CLIENT_TICK);
+    private final BlockingQueue<ByteBuffer> output = new LinkedBlockingQueue<>();
+    private final Consumer<ByteBuffer> replySink = this::queueReply;
+    private final AtomicLong pendingOutputBytes = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final RespParser parser = new RespParser();
+    private ByteBuffer readBuffer;
+    private volatile String protocolError;
+    private volatile Thread executor;
+
+    /** Set while the executor waits for the writer to drain the output */
+    private volatile boolean outputBackedUp;
+
+    /**
+     * Creates the connection state for an accepted client.
+     *
+     * @param channel the blocking client channel
+     * @param context the server context containing shared resources
+     */
+    public VirtualThreadConnection(SocketChannel channel, ServerContext context) {
+        super(channel);
+        this.context = context;
+        this.bufferManager = context.getReadBufferManager();
+        this.readBuffer = bufferManager.acquire();
+    }
+
+    /**
+     * Queues bytes for the writer thread and wakes the executor in case it is
+     * parked on a deferred reply.
+     *
+     * @param data the bytes to send
+     * @throws IOException if the connection is already closed
+     */
+    @Override
+    public void write(ByteBuffer data) throws IOException {
+        if (closed.get()) {
+            throw new ClosedChannelException();
+        }
+        queueReply(data);
+
+        Thread executorThread = executor;
+        if (executorThread != null && executorThread != Thread.currentThread()) {
+            LockSupport.unpark(executorThread);
+        }
+    }
+
+    @Override
+    public long getPendingOutputBytes() {
+        return pendingOutputBytes.get();
+    }
+
+    /**
+     * Drops the queued output and closes the socket, which also stops a
+     * writer blocked on a client that does not read.
+     */
+    @Override
+    public void disconnect() {
+        output.clear();
+        pendingOutputBytes.set(0);
+        close();
+        // The clear may have removed the marker queued by an earlier close
+        output.add(END_OF_OUTPUT);
+        closeChannel();
+    }
+
+    private void queueReply(ByteBuffer reply) {
+        pendingOutputBytes.addAndGet(reply.remaining());
+        output.add(reply);
+    }
+
+    /**
+     * Runs the reader on the calling thread after starting the executor and
+     * writer threads.
+     */
+    @Override
+    public void run() {
+        String name = Thread.currentThread().getName();
+        context.registerClient(this);
+        executor = Thread.ofVirtual().name(name + EXECUTOR_THREAD_SUFFIX).start(this::executeCommands);
+        Thread.ofVirtual().name(name + WRITER_THREAD_SUFFIX).start(this::writeOutput);
+
+        try {
+            if (readCommands() == INVALID_REQUEST) {
+                submit(INVALID_REQUEST);
+                return;
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Error reading from client: {}", e.getMessage());
+        } finally {
+            bufferManager.release(readBuffer);
+        }
+        close();
+    }
+
+    /**
+     * Reads and parses commands until the client disconnects.
+     *
+     * @return {@link #END_OF_INPUT}, or {@link #INVALID_REQUEST} if the input
+     *         is malformed or a request exceeds the query buffer limit
+     */
+    private String[] readCommands() throws IOException {
+        while (!closed.get()) {
+            int bytesRead = getChannel().read(readBuffer);
+            if (bytesRead == END_OF_STREAM) {
+                return END_OF_INPUT;
+            }
+            markActive(CoarseClock.update());
+            context.getMetricsCollector().recordNetworkInput(bytesRead);
+            recordNetworkInput(bytesRead);
+
+            readBuffer.flip();
+            try {
+                String[] command;
+                while ((command = parser.parse(readBuffer)) != null) {
+                    if (!submit(command)) {
+                        return END_OF_INPUT;
+                    }
+                }
+            } catch (ProtocolException e) {
+                protocolError = e.getMessage();
+                return INVALID_REQUEST;
+            } finally {
+                readBuffer.compact();
+            }
+
+            int requiredCapacity = Math.max(parser.getRequiredBufferCapacity(), readBuffer.position() + 1);
+            if (requiredCapacity > readBuffer.capacity()) {
+                ByteBuffer grown = bufferManager.grow(readBuffer, requiredCapacity);
+                if (grown == null) {
+                    protocolError = ClientConnectionHandler.REQUEST_TOO_BIG;
+                    return INVALID_REQUEST;
+                }
+                readBuffer = grown;
+            }
+        }
+        return END_OF_INPUT;
+    }
+
+    /**
+     * Hands a command to the executor, waiting while it is busy with earlier
+     * ones.
+     *
+     * @return false if the connection was closed meanwhile
+     */
+    private boolean submit(String[] command) {
+        try {
+            while (!commands.offer(command, ServerConfig.CLEANUP_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (closed.get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void executeCommands() {
+        var dispatcher = context.getCommandDispatcher();
+        try {
+            while (true) {
+                String[] command = commands.take();
+                if (closed.get() || command == END_OF_INPUT) {
+                    return;
+                }
+                if (command == INVALID_REQUEST) {
+                    rejectInvalidRequest();
+                    return;
+                }
+                if (command.length == 0) {
+                    continue;
+                }
+
+                awaitOutputDrained();
+                if (!dispatcher.dispatch(command, this, replySink)
+                        && ClientConnectionHandler.isParked(this, context)) {
+                    awaitDeferredReply();
+                }
+                if (!context.getClientWriter().checkOutputLimit(this)) {
+                    disconnect();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parks the executor until the deferred reply of a blocking command has
+     * been delivered. Replies are delivered and the blocked state is cleared
+     * under the global execution lock, so checking under that lock never
+     * sees one without the other; a wakeup that races with the check leaves
+     * a permit that makes the next park return at once.
+     */
+    private void awaitDeferredReply() {
+        Lock globalLock = context.getExecutionLock().global();
+        while (!closed.get()) {
+            globalLock.lock();
+            try {
+                if (!ClientConnectionHandler.isParked(this, context)) {
+                    return;
+                }
+            } finally {
+                globalLock.unlock();
+            }
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Parks the executor while the client is over its output high-water
+     * mark, until the writer has drained the queue below the low-water mark.
+     */
+    private void awaitOutputDrained() {
+        if (isReplica() || pendingOutputBytes.get() <= ServerConfig.OUTPUT_HIGH_WATER_MARK) {
+            return;
+        }
+        outputBackedUp = true;
+        while (!closed.get() && pendingOutputBytes.get() >= ServerConfig.OUTPUT_LOW_WATER_MARK) {
+            LockSupport.park(this);
+        }
+        outputBackedUp = false;
+    }
+
+    private void rejectInvalidRequest() {
+        try {
+            ClientConnectionHandler.logRejectedRequest(getChannel(), protocolError, context);
+        } catch (IOException e) {
+            LOGGER.debug("Error reading client address: {}", e.getMessage());
+        }
+        output.add(ResponseBuilder.error(ErrorCode.PROTOCOL_ERROR.format(protocolError)));
+        close();
+    }
+
+    /**
+     * Writes queued output until the connection is closed, then closes the
+     * socket once everything queued before the close has been sent.
+     */
+    private void writeOutput() {
+        List<ByteBuffer> batch = new ArrayList<>();
+        ResponseChain chain = new ResponseChain();
+        boolean finished = false;
+        try {
+            while (!finished) {
+                batch.add(output.take());
+                output.drainTo(batch, MAX_WRITE_BATCH - 1);
+
+                int end = batch.size();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.get(i) == END_OF_OUTPUT) {
+                        end = i;
+                        finished = true;
+                        break;
+                    }
+                }
+                chain.addAll(batch.subList(0, end));
+                writeFully(chain);
+                batch.clear();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Error writing to client: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            chain.clear();
+            close();
+            closeChannel();
+        }
+    }
+
+    private void writeFully(ResponseChain chain) throws IOException {
+        long total = chain.remaining();
+        while (!chain.isEmpty()) {
+            chain.writeTo(getChannel());
+        }
+        long pending = pendingOutputBytes.addAndGet(-total);
+        context.getMetricsCollector().recordNetworkOutput(total);
+        recordNetworkOutput(total);
+        markActive(CoarseClock.millis());
+
+        Thread executorThread = executor;
+        if (outputBackedUp && pending < ServerConfig.OUTPUT_LOW_WATER_MARK && executorThread != null) {
+            LockSupport.unpark(executorThread);
+        }
+    }
+
+    /**
+     * Stops the connection. Output queued so far is still flushed by the
+     * writer, which then closes the socket. Safe to call more than once.
+     */
+    private void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        context.unregisterClient(this);
+        context.getMetricsCollector().recordClientDisconnection();
+
+        output.add(END_OF_OUTPUT);
+        commands.offer(END_OF_INPUT);
+        Thread executorThread = executor;
+        if (executorThread != null) {
+            LockSupport.unpark(executorThread);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            getChannel().close();
+        } catch (IOException e) {
+            LOGGER.debug("Error closing channel: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server engine that serves every connection on its own virtual threads
+ * with blocking socket I/O, as an alternative to the selector event loops.
+ *
+ * <p>
+ * A single virtual thread accepts connections from the blocking listening
+ * socket and starts a {@link VirtualThreadConnection} for each one. Commands
+ * still go through the shared command dispatcher and execution lock, so both
+ * engines execute commands identically; only the I/O model differs.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class VirtualThreadEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadEngine.class);
+
+    private static final String ACCEPTOR_THREAD_NAME = "vt-acceptor";
+    private static final String CONNECTION_THREAD_PREFIX = "vt-client-";
+
+    private final ServerContext context;
+    private final ClientTimeoutWheel timeoutWheel;
+    private final ThreadFactory connectionThreads = Thread.ofVirtual().name(CONNECTION_THREAD_PREFIX, 1).factory();
+
+    /**
+     * Creates the engine.
+     *
+     * @param context      the server context containing shared resources
+     * @param timeoutWheel the wheel that closes idle connections, advanced
+     *                     by the main event loop, or null if clients never
+     *                     time out
+     */
+    public VirtualThreadEngine(ServerContext context, ClientTimeoutWheel timeoutWheel) {
+        this.context = context;
+        this.timeoutWheel = timeoutWheel;
+    }
+
+    /**
+     * Starts accepting connections on a virtual thread. The acceptor stops
+     * once the listening socket is closed.
+     *
+     * @param serverChannel the bound listening socket in blocking mode
+     */
+    public void start(ServerSocketChannel serverChannel) {
+        Thread.ofVirtual().name(ACCEPTOR_THREAD_NAME).start(() -> acceptConnections(serverChannel));
+    }
+
+    private void acceptConnections(ServerSocketChannel serverChannel) {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel clientChannel = serverChannel.accept();
+                if (!ClientConnectionHandler.admitClient(clientChannel, context)) {
+                    continue;
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Client connected: {}", clientChannel.getRemoteAddress());
+                }
+                context.getMetricsCollector().recordClientConnection();
+                VirtualThreadConnection connection = new VirtualThreadConnection(clientChannel, context);
+                if (timeoutWheel != null) {
+                    timeoutWheel.add(connection);
+                }
+                connectionThreads.newThread(connection).start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to accept connection: {}", e.getMessage());
+                context.getMetricsCollector().recordClientConnectionFailure();
+            }
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.sun.net.httpserver.HttpExchange;
 
 import metrics.MetricsCollector;
 import server.ServerContext;
+import utils.BufferPool;
 
 /**
  * HTTP endpoint that exposes server metrics in Prometheus-compatible plain text
@@ -119,6 +120,8 @@ public final class MetricsEndpoint implements HttpEndpoint {
         appendEndpointMetrics(prometheusBuilder, collector);
         appendKeyspaceMetrics(prometheusBuilder, collector);
         appendKeyTypeAndNetworkMetrics(prometheusBuilder, collector);
+        appendMemoryMetrics(prometheusBuilder, collector);
+        appendBufferPoolMetrics(prometheusBuilder, BufferPool.getInstance().getStats());
         appendLegacyMetrics(prometheusBuilder, infoMetrics);
 
         return prometheusBuilder.toString();
@@ -188,6 +191,46 @@ public final class MetricsEndpoint implements HttpEndpoint {
                 .append("\n");
     }
 
+    /**
+     * Appends the memory used by the keyspace, in total and by key type.
+     */
+    private void appendMemoryMetrics(StringBuilder builder, MetricsCollector collector) {
+        builder.append("\n# HELP redis_memory_used_bytes Estimated memory used by the keyspace\n")
+                .append("# TYPE redis_memory_used_bytes gauge\n")
+                .append("redis_memory_used_bytes ").append(String.format("%.0f", collector.getMemoryUsage()))
+                .append("\n")
+                .append("# HELP redis_memory_used_by_type_bytes Estimated memory used by keys of each type\n")
+                .append("# TYPE redis_memory_used_by_type_bytes gauge\n");
+        collector.getMemoryUsageByType().forEach((type, bytes) -> builder
+                .append("redis_memory_used_by_type_bytes{type=\"").append(type).append("\"} ").append(bytes)
+                .append("\n"));
+    }
+
+    /**
+     * Appends I/O buffer pool metrics to the builder.
+     */
+    private void appendBufferPoolMetrics(StringBuilder builder, BufferPool.Stats stats) {
+        builder.append("\n# HELP redis_io_buffer_pool_hits Buffer acquisitions served from the pool\n")
+                .append("# TYPE redis_io_buffer_pool_hits counter\n")
+                .append("redis_io_buffer_pool_hits ").append(stats.hits()).append("\n")
+                .append("# HELP redis_io_buffer_pool_misses Buffer acquisitions that needed fresh memory\n")
+                .append("# TYPE redis_io_buffer_pool_misses counter\n")
+                .append("redis_io_buffer_pool_misses ").append(stats.misses()).append("\n")
+                .append("# HELP redis_io_buffer_pool_hit_ratio Share of buffer acquisitions served from the pool\n")
+                .append("# TYPE redis_io_buffer_pool_hit_ratio gauge\n")
+                .append("redis_io_buffer_pool_hit_ratio ").append(String.format("%.4f", stats.hitRate()))
+                .append("\n")
+                .append("# HELP redis_io_buffer_pool_bytes_outstanding Pooled bytes currently in use\n")
+                .append("# TYPE redis_io_buffer_pool_bytes_outstanding gauge\n")
+                .append("redis_io_buffer_pool_bytes_outstanding ").append(stats.bytesOutstanding()).append("\n")
+                .append("# HELP redis_io_buffer_pool_bytes_idle Pooled bytes waiting for reuse\n")
+                .append("# TYPE redis_io_buffer_pool_bytes_idle gauge\n")
+                .append("redis_io_buffer_pool_bytes_idle ").append(stats.bytesIdle()).append("\n")
+                .append("# HELP redis_io_buffer_pool_direct_bytes Direct memory held by the buffer pool\n")
+                .append("# TYPE redis_io_buffer_pool_direct_bytes gauge\n")
+                .append("redis_io_buffer_pool_direct_bytes ").append(stats.directBytes()).append("\n");
+    }
+
     /**
      * Appends legacy INFO-format metrics to the builder.
      */
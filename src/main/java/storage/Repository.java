@@ -2,7 +2,7 @@ package storage;
 
 import java.util.Optional;
 
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.Expiry;
 import storage.types.ValueType;
 
 /**
@@ -15,13 +15,14 @@ import storage.types.ValueType;
 public interface Repository<T> {
 
     /**
-     * Stores a value with the specified key and expiry policy.
+     * Stores a value with the specified key and expiry deadline.
      *
-     * @param key    the key to associate with the value
-     * @param value  the value to store
-     * @param expiry the expiry policy for the value
+     * @param key       the key to associate with the value
+     * @param value     the value to store
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
      */
-    void put(String key, T value, ExpiryPolicy expiry);
+    void put(String key, T value, long expiresAt);
 
     /**
      * Retrieves the value associated with the specified key.
@@ -62,6 +63,6 @@ public interface Repository<T> {
      * @param value the value to store
      */
     default void put(String key, T value) {
-        put(key, value, ExpiryPolicy.never());
+        put(key, value, Expiry.NEVER);
     }
 }
@@ -1,18 +1,26 @@
 package storage;
 
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import collections.QuickZSet;
 import events.EventPublisher;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.expiry.Expiry;
+import storage.memory.MemoryTracker;
+import storage.offheap.SlabStore;
 import storage.repositories.*;
 import storage.types.StoredValue;
+import storage.types.StringValue;
 import storage.types.ValueType;
 import storage.types.streams.StreamRangeEntry;
 import utils.GeoUtils.GeoUnit;
@@ -24,6 +32,17 @@ import utils.GeoUtils.GeoUnit;
  * It also integrates with event publishers and metrics collectors
  * for keyspace operations.
  * </p>
+ * <p>
+ * Keys written with a time to live are also recorded in an index of volatile
+ * keys, which the active expiry cycle walks to delete keys that expire
+ * without being read again. Entries are dropped lazily by that cycle once
+ * their key is gone or persistent, so the write path only ever adds to it.
+ * </p>
+ * <p>
+ * Every value entering or leaving the store goes through a
+ * {@link MemoryTracker}, which keeps the estimated size of each key and of
+ * the whole keyspace up to date.
+ * </p>
  *
  * @author Ankit Kumar
  * @version 1.0
@@ -40,7 +59,17 @@ public final class StorageService {
     // private static final String TYPE_HASH = "hash";
     // private static final String TYPE_SET = "set";
 
+    /** Types of the values the store can hold */
+    private static final List<ValueType> STORED_TYPES = List.of(ValueType.STRING, ValueType.LIST,
+            ValueType.STREAM, ValueType.ZSET);
+
+    /** Deadline reported by {@link #getExpiresAt} for a missing key */
+    public static final long NO_SUCH_KEY = -2;
+
     private final Map<String, StoredValue<?>> store = new ConcurrentHashMap<>();
+    private final Set<String> volatileKeys = ConcurrentHashMap.newKeySet();
+    private final MemoryTracker memoryTracker = new MemoryTracker(store);
+    private final SlabStore slabStore;
     private final StringRepository stringRepository;
     private final ListRepository listRepository;
     private final StreamRepository streamRepository;
@@ -49,12 +78,19 @@ public final class StorageService {
 
     private EventPublisher eventPublisher;
 
-    public StorageService() {
-        this.stringRepository = new StringRepository(store);
-        this.listRepository = new ListRepository(store);
-        this.streamRepository = new StreamRepository(store);
-        this.zSetRepository = new ZSetRepository(store);
-        this.geoRepository = new GeoRepository(store);
+    /**
+     * Creates an empty store.
+     *
+     * @param slabStore the store string values are kept in off the heap, or
+     *                  null to keep them on the heap
+     */
+    public StorageService(final SlabStore slabStore) {
+        this.slabStore = slabStore;
+        this.stringRepository = new StringRepository(store, memoryTracker, this::deleteExpired, slabStore);
+        this.listRepository = new ListRepository(store, memoryTracker, this::deleteExpired);
+        this.streamRepository = new StreamRepository(store, memoryTracker, this::deleteExpired);
+        this.zSetRepository = new ZSetRepository(store, memoryTracker, this::deleteExpired);
+        this.geoRepository = new GeoRepository(store, memoryTracker, this::deleteExpired);
     }
 
     public void setEventPublisher(final EventPublisher eventPublisher) {
@@ -98,9 +134,12 @@ public final class StorageService {
 
     /* ---------- String operations ---------- */
 
-    public void setString(final String key, final String value, final ExpiryPolicy expiry) {
+    public void setString(final String key, final String value, final long expiresAt) {
         final boolean isNewKey = !stringRepository.exists(key);
-        stringRepository.put(key, value, expiry);
+        stringRepository.put(key, value, expiresAt);
+        if (expiresAt != Expiry.NEVER) {
+            volatileKeys.add(key);
+        }
         recordWriteMetrics(isNewKey, TYPE_STRING);
         notifyKeyModified(key);
     }
@@ -111,6 +150,20 @@ public final class StorageService {
         return value;
     }
 
+    /**
+     * Returns a string value as a ready-to-send RESP bulk string, without
+     * decoding it.
+     *
+     * @param key the key
+     * @return a read-only view of the encoded value, or a copy if it is off
+     *         the heap, or null if there is no string at the key
+     */
+    public ByteBuffer getEncodedString(final String key) {
+        final ByteBuffer value = stringRepository.getEncoded(key);
+        recordReadMetrics(value != null);
+        return value;
+    }
+
     public long incrementString(final String key) {
         final long newValue = stringRepository.increment(key);
         notifyKeyModified(key);
@@ -186,9 +239,9 @@ public final class StorageService {
     /* ---------- Stream operations ---------- */
 
     public String addStreamEntry(final String key, final String id, final Map<String, String> fields,
-            final ExpiryPolicy expiry) {
+            final long expiresAt) {
         final boolean isNewKey = !streamRepository.exists(key);
-        final String newId = streamRepository.addEntry(key, id, fields, expiry);
+        final String newId = streamRepository.addEntry(key, id, fields, expiresAt);
         recordWriteMetrics(isNewKey, TYPE_STREAM);
         notifyKeyModified(key);
         return newId;
@@ -283,10 +336,10 @@ public final class StorageService {
 
     /* ---------- GEO operations ---------- */
     public boolean geoAdd(final String key, final double longitude, final double latitude, final String member,
-            final ExpiryPolicy expiry) {
+            final long expiresAt) {
 
         final boolean isNewKey = !geoRepository.exists(key);
-        final boolean added = geoRepository.geoAdd(key, longitude, latitude, member, expiry);
+        final boolean added = geoRepository.geoAdd(key, longitude, latitude, member, expiresAt);
         recordWriteMetrics(isNewKey, TYPE_ZSET); // or TYPE_ZSET if you want Redis-compatible
         notifyKeyModified(key);
         return added;
@@ -321,9 +374,45 @@ public final class StorageService {
         return getValidValue(key) != null;
     }
 
+    /**
+     * Returns the expiry deadline of a key.
+     *
+     * @param key the key
+     * @return the deadline in epoch milliseconds, {@link Expiry#NEVER} if the
+     *         key has no time to live, or {@link #NO_SUCH_KEY}
+     */
+    public long getExpiresAt(final String key) {
+        final StoredValue<?> value = getValidValue(key);
+        return value != null ? value.expiresAt() : NO_SUCH_KEY;
+    }
+
+    /**
+     * Sets or clears the expiry deadline of an existing key, keeping its
+     * value.
+     *
+     * @param key       the key
+     * @param expiresAt the new deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER} to make the key persistent
+     * @return false if the key does not exist
+     */
+    public boolean setExpiresAt(final String key, final long expiresAt) {
+        if (getValidValue(key) == null
+                || store.computeIfPresent(key, (k, value) -> value.withExpiresAt(expiresAt)) == null) {
+            return false;
+        }
+        if (expiresAt != Expiry.NEVER) {
+            volatileKeys.add(key);
+        }
+        notifyKeyModified(key);
+        return true;
+    }
+
     public boolean delete(final String key) {
-        final StoredValue<?> removedValue = store.remove(key);
+        final StoredValue<?> removedValue = memoryTracker.remove(key);
         if (removedValue != null) {
+            if (removedValue.isVolatile()) {
+                volatileKeys.remove(key);
+            }
             updateDeleteMetrics(removedValue);
             notifyKeyModified(key);
             return true;
@@ -337,40 +426,165 @@ public final class StorageService {
     }
 
     public List<String> getKeysByPattern(final String pattern) {
-        final String regex = "^" + pattern.replace("?", ".").replace("*", ".*") + "$";
+        final Pattern regex = globToPattern(pattern);
         return store.keySet().stream()
-                .filter(key -> key.matches(regex))
+                .filter(key -> regex.matcher(key).matches())
                 .toList();
     }
 
+    /**
+     * Compiles a glob with {@code *} and {@code ?} wildcards. Everything else
+     * matches literally, and wildcards match any byte, CR and LF included.
+     */
+    private static Pattern globToPattern(final String glob) {
+        final StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
     public void clear() {
         store.values().forEach(this::updateDeleteMetrics);
-        store.clear();
+        memoryTracker.clear();
+        volatileKeys.clear();
         if (eventPublisher != null) {
             eventPublisher.publishStoreCleared(); // optional event
         }
     }
 
-    public void purgeExpiredKeys() {
-        final long expiredCount = store.entrySet().stream()
-                .filter(entry -> entry.getValue().isExpired())
-                .count();
+    /* ---------- Memory ---------- */
 
-        store.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    /**
+     * Returns the estimated memory taken by the keyspace.
+     *
+     * @return the estimate in bytes
+     */
+    public long getUsedMemory() {
+        return memoryTracker.getUsedMemory();
+    }
+
+    /**
+     * Returns the estimated memory taken by the keys of each type that can be
+     * stored.
+     *
+     * @return the estimates in bytes, by type
+     */
+    public Map<ValueType, Long> getUsedMemoryByType() {
+        final Map<ValueType, Long> usedMemory = new EnumMap<>(ValueType.class);
+        for (final ValueType type : STORED_TYPES) {
+            usedMemory.put(type, memoryTracker.getUsedMemory(type));
+        }
+        return usedMemory;
+    }
 
-        if (expiredCount > 0 && eventPublisher instanceof final server.ServerContext serverContext) {
-            for (int i = 0; i < expiredCount; i++) {
-                serverContext.getMetricsCollector().incrementExpiredKeys();
+    /**
+     * Returns the estimated memory taken by a key and its value.
+     *
+     * @param key the key
+     * @return the estimate in bytes, or -1 if the key does not exist
+     */
+    public long getMemoryUsage(final String key) {
+        final StoredValue<?> value = getValidValue(key);
+        return value != null ? MemoryTracker.entryBytes(key, value) : -1;
+    }
+
+    /**
+     * Returns the store string values are kept in off the heap.
+     *
+     * @return the slab store, or empty if strings are kept on the heap
+     */
+    public Optional<SlabStore> getSlabStore() {
+        return Optional.ofNullable(slabStore);
+    }
+
+    /* ---------- Active expiry ---------- */
+
+    /**
+     * Returns the index of keys written with a time to live. It may still
+     * hold keys that were since deleted or made persistent.
+     *
+     * @return the live, concurrently modifiable index
+     */
+    public Set<String> getVolatileKeys() {
+        return volatileKeys;
+    }
+
+    /**
+     * Rebuilds the volatile key index and the memory totals from the store,
+     * after a snapshot was loaded into it directly. Loaded strings are moved
+     * off the heap if strings are kept there.
+     */
+    public void indexLoadedKeys() {
+        if (slabStore != null) {
+            store.replaceAll((key, value) -> value instanceof final StringValue stringValue
+                    ? stringValue.moveOffHeap(slabStore)
+                    : value);
+        }
+        memoryTracker.recount();
+        store.forEach((key, value) -> {
+            if (value.isVolatile()) {
+                volatileKeys.add(key);
             }
+        });
+    }
+
+    /**
+     * Deletes a key if it has expired, as if a command had found it expired,
+     * and drops it from the volatile key index if it is gone or no longer has
+     * a time to live. The caller holds the key's stripe.
+     *
+     * @param key the indexed key
+     * @return true if the key was expired and deleted
+     */
+    public boolean expireIfDue(final String key) {
+        final StoredValue<?> value = store.get(key);
+        if (value == null || !value.isVolatile()) {
+            volatileKeys.remove(key);
+            return false;
+        }
+        return value.isExpired() && deleteExpired(key, value);
+    }
+
+    /**
+     * Deletes a key found expired, by a command or by the active expiry
+     * cycle, counting it in {@code expired_keys} and reporting it as
+     * modified. Repositories delete expired keys through this too, see
+     * {@link ExpiredKeyHandler}.
+     */
+    private boolean deleteExpired(final String key, final StoredValue<?> value) {
+        if (!memoryTracker.remove(key, value)) {
+            return false;
         }
+        volatileKeys.remove(key);
+        updateDeleteMetrics(value);
+        notifyKeyModified(key);
+        if (eventPublisher != null) {
+            eventPublisher.publishExpiredKeysRemoved(1);
+        }
+        return true;
     }
 
     private StoredValue<?> getValidValue(final String key) {
         final StoredValue<?> value = store.get(key);
         if (value != null && value.isExpired()) {
-            store.remove(key);
+            deleteExpired(key, value);
             return null;
         }
+        if (value != null) {
+            value.touch();
+        }
         return value;
     }
 
@@ -0,0 +1,119 @@
+package storage.eviction;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import config.ServerConfig;
+import utils.CoarseClock;
+
+/**
+ * The access clock every stored value carries for approximate LRU and LFU
+ * eviction.
+ *
+ * <p>
+ * As in Redis, the clock is a single {@code int} per value whose meaning
+ * depends on the eviction policy. Under LRU it is the time of the last access
+ * in seconds, truncated to 24 bits. Under LFU its upper 16 bits hold the time
+ * of the last counter decrement in minutes and its lower 8 bits a logarithmic
+ * access counter: each access increments the counter with a probability that
+ * falls as the counter grows, and the counter loses one point per idle decay
+ * period, so keys that were hot once but are no longer cool down.
+ * </p>
+ *
+ * <p>
+ * Updates are plain writes. Two threads touching the same value at once may
+ * lose an update, which only makes the approximation slightly coarser.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class AccessClock {
+
+    private static final int LFU_COUNTER_BITS = 8;
+    private static final int LFU_COUNTER_MAX = (1 << LFU_COUNTER_BITS) - 1;
+    private static final int LFU_MINUTES_MAX = (1 << 16) - 1;
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    private static volatile boolean lfu;
+
+    private AccessClock() {
+    }
+
+    /**
+     * Selects what the clock of values records from now on.
+     *
+     * @param useLfu true to count accesses, false to record access times
+     */
+    public static void setLfu(boolean useLfu) {
+        lfu = useLfu;
+    }
+
+    /**
+     * Returns the clock of a value that was just created.
+     *
+     * @return the current LRU time, or a fresh LFU counter
+     */
+    public static int initial() {
+        return lfu ? lfuMinutes() << LFU_COUNTER_BITS | ServerConfig.LFU_INIT_VAL : lruClock();
+    }
+
+    /**
+     * Returns the clock of a value after an access.
+     *
+     * @param clock the value's clock
+     * @return the new clock
+     */
+    public static int touch(int clock) {
+        if (!lfu) {
+            return lruClock();
+        }
+        int counter = logIncrement(decayedCounter(clock));
+        return lfuMinutes() << LFU_COUNTER_BITS | counter;
+    }
+
+    /**
+     * Returns for how long a value has not been accessed, under LRU.
+     *
+     * @param clock the value's clock
+     * @return the estimated idle time in milliseconds
+     */
+    public static long idleMillis(int clock) {
+        int now = lruClock();
+        int elapsed = now >= clock ? now - clock : now + (ServerConfig.LRU_CLOCK_MAX - clock);
+        return elapsed * (long) ServerConfig.LRU_CLOCK_RESOLUTION_MS;
+    }
+
+    /**
+     * Returns the access counter of a value, under LFU, lowered by the decay
+     * periods elapsed since it last changed.
+     *
+     * @param clock the value's clock
+     * @return the counter from 0 to 255
+     */
+    public static int decayedCounter(int clock) {
+        int counter = clock & LFU_COUNTER_MAX;
+        int now = lfuMinutes();
+        int then = clock >>> LFU_COUNTER_BITS;
+        int elapsed = now >= then ? now - then : now + (LFU_MINUTES_MAX - then);
+        int periods = elapsed / ServerConfig.LFU_DECAY_TIME_MINUTES;
+        return periods > counter ? 0 : counter - periods;
+    }
+
+    private static int logIncrement(int counter) {
+        if (counter == LFU_COUNTER_MAX) {
+            return counter;
+        }
+        double base = Math.max(0, counter - ServerConfig.LFU_INIT_VAL);
+        double p = 1.0 / (base * ServerConfig.LFU_LOG_FACTOR + 1);
+        return ThreadLocalRandom.current().nextDouble() < p ? counter + 1 : counter;
+    }
+
+    private static int lruClock() {
+        return (int) (CoarseClock.millis() / ServerConfig.LRU_CLOCK_RESOLUTION_MS & ServerConfig.LRU_CLOCK_MAX);
+    }
+
+    private static int lfuMinutes() {
+        return (int) (CoarseClock.millis() / MILLIS_PER_MINUTE & LFU_MINUTES_MAX);
+    }
+}
@@ -0,0 +1,95 @@
+package storage.eviction;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The policies of {@code maxmemory-policy}: which keys are evicted when the
+ * dataset is over {@code maxmemory}.
+ *
+ * <p>
+ * A policy either considers every key or only keys with a time to live, and
+ * picks among sampled keys the least recently used, the least frequently
+ * used, the one expiring soonest, or any key at random. Under
+ * {@link #NOEVICTION} nothing is evicted and commands that may use more
+ * memory are refused instead.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public enum EvictionPolicy {
+
+    NOEVICTION("noeviction", false, Order.NONE),
+    ALLKEYS_LRU("allkeys-lru", true, Order.LRU),
+    ALLKEYS_LFU("allkeys-lfu", true, Order.LFU),
+    ALLKEYS_RANDOM("allkeys-random", true, Order.RANDOM),
+    VOLATILE_LRU("volatile-lru", false, Order.LRU),
+    VOLATILE_LFU("volatile-lfu", false, Order.LFU),
+    VOLATILE_RANDOM("volatile-random", false, Order.RANDOM),
+    VOLATILE_TTL("volatile-ttl", false, Order.TTL);
+
+    /** How a policy ranks candidate keys */
+    enum Order {
+        NONE, LRU, LFU, RANDOM, TTL
+    }
+
+    private final String configName;
+    private final boolean allKeys;
+    private final Order order;
+
+    EvictionPolicy(String configName, boolean allKeys, Order order) {
+        this.configName = configName;
+        this.allKeys = allKeys;
+        this.order = order;
+    }
+
+    /**
+     * Looks a policy up by its configuration name.
+     *
+     * @param name the name, such as {@code allkeys-lru}, in any case
+     * @return the policy, or empty if the name is unknown
+     */
+    public static Optional<EvictionPolicy> fromConfigName(String name) {
+        String lowerName = name.trim().toLowerCase(Locale.ROOT);
+        for (EvictionPolicy policy : values()) {
+            if (policy.configName.equals(lowerName)) {
+                return Optional.of(policy);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the name used in the configuration.
+     *
+     * @return the configuration name
+     */
+    public String configName() {
+        return configName;
+    }
+
+    /**
+     * Checks whether the policy may evict keys without a time to live.
+     *
+     * @return true for the allkeys policies
+     */
+    public boolean isAllKeys() {
+        return allKeys;
+    }
+
+    /**
+     * Checks whether the policy ranks keys by access frequency, so values
+     * must count their accesses.
+     *
+     * @return true for the LFU policies
+     */
+    public boolean isLfu() {
+        return order == Order.LFU;
+    }
+
+    Order order() {
+        return order;
+    }
+}
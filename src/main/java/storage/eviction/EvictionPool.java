@@ -0,0 +1,86 @@
+package storage.eviction;
+
+/**
+ * The best eviction candidates seen so far, as in Redis.
+ *
+ * <p>
+ * Sampling only a handful of keys per eviction would evict whichever key
+ * happens to be the worst of a small sample. The pool keeps the best
+ * candidates across samples, ordered by ascending score, so each eviction
+ * takes the key with the highest score ever sampled that has not been
+ * evicted yet. Entries may be stale: the caller checks that a key taken from
+ * the pool still exists.
+ * </p>
+ *
+ * <p>
+ * The pool is used by one thread at a time.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+final class EvictionPool {
+
+    private final String[] keys;
+    private final long[] scores;
+    private int size;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity the number of candidates kept
+     */
+    EvictionPool(int capacity) {
+        this.keys = new String[capacity];
+        this.scores = new long[capacity];
+    }
+
+    /**
+     * Offers a sampled key. It is kept if the pool has room or if it scores
+     * higher than the lowest candidate, which then makes room for it.
+     *
+     * @param key   the sampled key
+     * @param score how good a candidate the key is, higher is evicted first
+     */
+    void offer(String key, long score) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return;
+            }
+        }
+        if (size == keys.length) {
+            if (score <= scores[0]) {
+                return;
+            }
+            // Drop the lowest candidate
+            System.arraycopy(keys, 1, keys, 0, size - 1);
+            System.arraycopy(scores, 1, scores, 0, size - 1);
+            size--;
+        }
+        int index = size;
+        while (index > 0 && scores[index - 1] > score) {
+            keys[index] = keys[index - 1];
+            scores[index] = scores[index - 1];
+            index--;
+        }
+        keys[index] = key;
+        scores[index] = score;
+        size++;
+    }
+
+    /**
+     * Removes and returns the candidate with the highest score.
+     *
+     * @return the key, or null if the pool is empty
+     */
+    String takeBest() {
+        if (size == 0) {
+            return null;
+        }
+        size--;
+        String key = keys[size];
+        keys[size] = null;
+        return key;
+    }
+}
@@ -0,0 +1,224 @@
+package storage.eviction;
+
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import config.ServerConfig;
+import server.StripedExecutionLock;
+import storage.StorageService;
+import storage.types.StoredValue;
+
+/**
+ * Keeps the dataset under {@code maxmemory} by evicting keys according to
+ * the {@code maxmemory-policy}.
+ *
+ * <p>
+ * The dispatcher calls {@link #performEvictions()} before every write
+ * command. While the dataset is over the limit, keys are sampled a few at a
+ * time from the keyspace, or from the index of keys with a TTL for the
+ * volatile policies, ranked by the policy and fed to an
+ * {@link EvictionPool}; the best candidate is deleted under the lock of its
+ * stripe, so no two stripe locks are ever held at once. The random policies
+ * evict the first sampled key. Under
+ * {@code noeviction}, or when nothing is left to evict, the call reports the
+ * dataset as full and the command may be refused.
+ * </p>
+ *
+ * <p>
+ * Each sample is drawn at random, like Redis picks a random hash bucket: the
+ * key set is split in halves, choosing one at random each time, until the
+ * part left is expected to hold about one key, and that part's first key is
+ * taken. Samples are therefore spread over the whole table instead of being
+ * neighbours in iteration order.
+ * </p>
+ *
+ * <p>
+ * The size of the dataset is the running total kept by the memory tracker of
+ * the store, so it drops as soon as a key is evicted.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MemoryEvictor {
+
+    private static final long LFU_COUNTER_MAX = 255;
+
+    /** Sampling rounds without a candidate before giving up */
+    private static final int MAX_SAMPLE_ROUNDS = 16;
+
+    /** Draws for one sample that may land on empty buckets */
+    private static final int MAX_SAMPLE_DRAWS = 8;
+
+    private final StorageService storageService;
+    private final StripedExecutionLock executionLock;
+    private final long maxMemory;
+    private final EvictionPolicy policy;
+    private final Consumer<String> evictionListener;
+    private final EvictionPool pool = new EvictionPool(ServerConfig.EVICTION_POOL_SIZE);
+
+    /**
+     * Creates the evictor and selects what the access clock of values
+     * records.
+     *
+     * @param storageService   the store holding the keys
+     * @param executionLock    the lock guarding command execution
+     * @param maxMemory        the limit in bytes, or 0 for none
+     * @param policy           the eviction policy
+     * @param evictionListener told of every evicted key, while its stripe is
+     *                         held
+     */
+    public MemoryEvictor(StorageService storageService, StripedExecutionLock executionLock, long maxMemory,
+            EvictionPolicy policy, Consumer<String> evictionListener) {
+        this.storageService = storageService;
+        this.executionLock = executionLock;
+        this.maxMemory = maxMemory;
+        this.policy = policy;
+        this.evictionListener = evictionListener;
+        AccessClock.setLfu(policy.isLfu());
+    }
+
+    /**
+     * Evicts keys until the dataset fits in {@code maxmemory}.
+     *
+     * @return true if the dataset fits, false if it is still over the limit
+     */
+    public boolean performEvictions() {
+        if (maxMemory == 0 || getUsedMemory() <= maxMemory) {
+            return true;
+        }
+        if (policy == EvictionPolicy.NOEVICTION) {
+            return false;
+        }
+        synchronized (this) {
+            while (getUsedMemory() > maxMemory) {
+                String victim = findVictim();
+                if (victim == null) {
+                    return false;
+                }
+                evictUnderLock(victim);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the estimated size of the dataset.
+     *
+     * @return the estimate in bytes
+     */
+    public long getUsedMemory() {
+        return storageService.getUsedMemory();
+    }
+
+    /**
+     * Returns the configured limit.
+     *
+     * @return the limit in bytes, or 0 for none
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Returns the configured policy.
+     *
+     * @return the eviction policy
+     */
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Picks the next key to evict. Gives up once there are no keys to sample
+     * or after several rounds without a candidate.
+     */
+    private String findVictim() {
+        for (int round = 0; round < MAX_SAMPLE_ROUNDS; round++) {
+            Set<String> keys = sampledKeys();
+            if (keys.isEmpty()) {
+                return null;
+            }
+            for (int i = 0; i < ServerConfig.MAXMEMORY_SAMPLES; i++) {
+                String key = randomKey(keys);
+                if (key == null) {
+                    continue;
+                }
+                StoredValue<?> value = storageService.getStore().get(key);
+                if (!isCandidate(value)) {
+                    continue;
+                }
+                if (policy.order() == EvictionPolicy.Order.RANDOM) {
+                    return key;
+                }
+                pool.offer(key, score(value));
+            }
+
+            String best;
+            while ((best = pool.takeBest()) != null) {
+                if (isCandidate(storageService.getStore().get(best))) {
+                    return best;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isCandidate(StoredValue<?> value) {
+        return value != null && (policy.isAllKeys() || value.isVolatile());
+    }
+
+    /**
+     * Ranks a value; the highest score is evicted first.
+     */
+    private long score(StoredValue<?> value) {
+        return switch (policy.order()) {
+            case LFU -> LFU_COUNTER_MAX - AccessClock.decayedCounter(value.accessClock());
+            case TTL -> Long.MAX_VALUE - value.expiresAt();
+            default -> AccessClock.idleMillis(value.accessClock());
+        };
+    }
+
+    private void evictUnderLock(String key) {
+        int stripe = executionLock.stripeFor(key);
+        executionLock.lockStripe(stripe);
+        try {
+            if (storageService.delete(key)) {
+                evictionListener.accept(key);
+            }
+        } finally {
+            executionLock.unlockStripe(stripe);
+        }
+    }
+
+    private Set<String> sampledKeys() {
+        return policy.isAllKeys() ? storageService.getStore().keySet() : storageService.getVolatileKeys();
+    }
+
+    /**
+     * Draws a key at random, retrying a few times when the drawn part of the
+     * table turns out empty.
+     *
+     * @return the key, or null if every draw was empty
+     */
+    private static String randomKey(Set<String> keys) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int draw = 0; draw < MAX_SAMPLE_DRAWS; draw++) {
+            Spliterator<String> part = keys.spliterator();
+            Spliterator<String> prefix;
+            while (part.estimateSize() > 1 && (prefix = part.trySplit()) != null) {
+                if (random.nextBoolean()) {
+                    part = prefix;
+                }
+            }
+            String[] drawn = new String[1];
+            if (part.tryAdvance(key -> drawn[0] = key)) {
+                return drawn[0];
+            }
+        }
+        return null;
+    }
+}
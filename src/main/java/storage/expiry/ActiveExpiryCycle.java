@@ -0,0 +1,179 @@
+package storage.expiry;
+
+import java.util.Iterator;
+
+import config.ServerConfig;
+import server.StripedExecutionLock;
+import storage.StorageService;
+import storage.types.StoredValue;
+
+/**
+ * Deletes expired keys that are never read again.
+ *
+ * <p>
+ * Keys are otherwise only removed when a command touches them after their
+ * deadline, so a key written once with a TTL would stay in memory for good.
+ * Each cycle walks the index of keys with a TTL kept by
+ * {@link StorageService}, continuing where the previous cycle stopped, and
+ * samples a batch of keys per loop. Expired keys are deleted under the lock
+ * of their stripe, so commands of other stripes keep running meanwhile. While
+ * more than the acceptable share of a batch turns out to be expired, the
+ * cycle loops again, up to a time limit that is a share of the cron
+ * interval.
+ * </p>
+ *
+ * <p>
+ * The effort, from 1 to 10, scales the batch size, the acceptable share of
+ * expired keys and the time limit, as {@code active-expire-effort} does in
+ * Redis. Cycles run on a single thread, the main event loop.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ActiveExpiryCycle {
+
+    /** Weight of the latest cycle in the smoothed share of expired keys */
+    private static final double STALE_SMOOTHING = 0.05;
+
+    /** Loops between two checks of the time limit */
+    private static final int LOOPS_PER_TIME_CHECK = 16;
+
+    private final StorageService storageService;
+    private final StripedExecutionLock executionLock;
+    private final int keysPerLoop;
+    private final int acceptableStalePerc;
+    private final long timeLimitNanos;
+
+    private Iterator<String> cursor;
+
+    private volatile double stalePerc;
+    private volatile long cycleTimeNanos;
+    private volatile long timeCapReachedCount;
+
+    /**
+     * Creates the cycle.
+     *
+     * @param storageService the store holding the keys
+     * @param executionLock  the lock guarding command execution
+     * @param effort         the effort from 1 to 10; out of range values are
+     *                       clamped
+     */
+    public ActiveExpiryCycle(StorageService storageService, StripedExecutionLock executionLock, int effort) {
+        int extra = Math.clamp(effort, 1, ServerConfig.MAX_ACTIVE_EXPIRE_EFFORT) - 1;
+        this.storageService = storageService;
+        this.executionLock = executionLock;
+        this.keysPerLoop = ServerConfig.ACTIVE_EXPIRE_KEYS_PER_LOOP
+                + ServerConfig.ACTIVE_EXPIRE_KEYS_PER_LOOP / 4 * extra;
+        this.acceptableStalePerc = ServerConfig.ACTIVE_EXPIRE_ACCEPTABLE_STALE_PERC - extra;
+        this.timeLimitNanos = ServerConfig.CLEANUP_INTERVAL_MS * 1_000_000L
+                * (ServerConfig.ACTIVE_EXPIRE_CYCLE_TIME_PERC + 2L * extra) / 100;
+    }
+
+    /**
+     * Runs one cycle.
+     *
+     * @return the number of keys deleted
+     */
+    public int run() {
+        long start = System.nanoTime();
+        int totalSampled = 0;
+        int totalExpired = 0;
+        int loops = 0;
+        boolean again;
+
+        do {
+            int sampled = 0;
+            int expired = 0;
+            int visited = 0;
+            // Bound the walk when most index entries are stale
+            while (sampled < keysPerLoop && visited < keysPerLoop * 2) {
+                String key = nextKey();
+                if (key == null) {
+                    break;
+                }
+                visited++;
+                StoredValue<?> value = storageService.getStore().get(key);
+                if (value != null && value.isVolatile() && !value.isExpired()) {
+                    sampled++;
+                } else if (expireUnderLock(key)) {
+                    sampled++;
+                    expired++;
+                }
+            }
+            totalSampled += sampled;
+            totalExpired += expired;
+            loops++;
+
+            again = sampled > 0 && expired * 100 > sampled * acceptableStalePerc;
+            if (again && loops % LOOPS_PER_TIME_CHECK == 0 && System.nanoTime() - start > timeLimitNanos) {
+                timeCapReachedCount++;
+                again = false;
+            }
+        } while (again);
+
+        cycleTimeNanos += System.nanoTime() - start;
+        if (totalSampled > 0) {
+            double current = (double) totalExpired / totalSampled;
+            stalePerc = current * STALE_SMOOTHING + stalePerc * (1 - STALE_SMOOTHING);
+        }
+        return totalExpired;
+    }
+
+    /**
+     * Returns the smoothed share of sampled keys found expired.
+     *
+     * @return the share between 0 and 1
+     */
+    public double getStalePerc() {
+        return stalePerc;
+    }
+
+    /**
+     * Returns the time spent in cycles so far.
+     *
+     * @return the total cycle time in milliseconds
+     */
+    public long getCycleTimeMillis() {
+        return cycleTimeNanos / 1_000_000;
+    }
+
+    /**
+     * Returns how many cycles stopped at the time limit with expired keys
+     * left.
+     *
+     * @return the number of cycles cut short
+     */
+    public long getTimeCapReachedCount() {
+        return timeCapReachedCount;
+    }
+
+    /**
+     * Deletes a key if it is still expired once its stripe is locked, or drops
+     * it from the index if it no longer has a TTL.
+     */
+    private boolean expireUnderLock(String key) {
+        int stripe = executionLock.stripeFor(key);
+        executionLock.lockStripe(stripe);
+        try {
+            return storageService.expireIfDue(key);
+        } finally {
+            executionLock.unlockStripe(stripe);
+        }
+    }
+
+    /**
+     * Returns the next indexed key, starting a new pass over the index when
+     * the previous one is done.
+     */
+    private String nextKey() {
+        if (cursor == null || !cursor.hasNext()) {
+            cursor = storageService.getVolatileKeys().iterator();
+            if (!cursor.hasNext()) {
+                return null;
+            }
+        }
+        return cursor.next();
+    }
+}
@@ -0,0 +1,32 @@
+package storage.expiry;
+
+import storage.types.StoredValue;
+
+/**
+ * Deletes keys found past their deadline.
+ *
+ * <p>
+ * A key expires either when a command looks it up after its deadline or
+ * when the active expiry cycle samples it. Both go through the same handler,
+ * so an expired key is counted in {@code expired_keys}, leaves the per-type
+ * key counts and the volatile key index, and is reported as modified to
+ * WATCH and client-side caching however it was found.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface ExpiredKeyHandler {
+
+    /**
+     * Deletes a key whose value has expired. The caller holds the key's
+     * stripe.
+     *
+     * @param key   the key
+     * @param value the expired value found at the key
+     * @return false if the key no longer held the value
+     */
+    boolean deleteExpired(String key, StoredValue<?> value);
+}
@@ -0,0 +1,57 @@
+package storage.expiry;
+
+import utils.CoarseClock;
+
+/**
+ * Expiry deadlines of stored values.
+ *
+ * <p>
+ * A value carries its deadline as a primitive {@code long}: the time in
+ * milliseconds since the epoch after which it is gone, or {@link #NEVER}.
+ * Checking a deadline compares it against {@link CoarseClock}, so a key
+ * access neither allocates nor reads the system clock.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Expiry {
+
+    /** Deadline of a value that never expires */
+    public static final long NEVER = -1;
+
+    private Expiry() {
+    }
+
+    /**
+     * Checks whether a deadline has passed.
+     *
+     * @param deadline the deadline in epoch milliseconds, or {@link #NEVER}
+     * @return true if the deadline is set and in the past
+     */
+    public static boolean isExpired(long deadline) {
+        return deadline != NEVER && CoarseClock.millis() > deadline;
+    }
+
+    /**
+     * Returns the deadline a number of milliseconds from now.
+     *
+     * @param milliseconds the time to live
+     * @return the deadline in epoch milliseconds
+     * @throws ArithmeticException if the deadline overflows
+     */
+    public static long inMillis(long milliseconds) {
+        return Math.addExact(CoarseClock.millis(), milliseconds);
+    }
+
+    /**
+     * Returns the time left until a deadline.
+     *
+     * @param deadline the deadline in epoch milliseconds, not {@link #NEVER}
+     * @return the remaining milliseconds, never negative
+     */
+    public static long remainingMillis(long deadline) {
+        return Math.max(0, deadline - CoarseClock.millis());
+    }
+}
@@ -0,0 +1,200 @@
+package storage.memory;
+
+import java.util.Map;
+
+import collections.QuickList;
+import collections.QuickZSet;
+import config.ProtocolConstants;
+import storage.types.ListValue;
+import storage.types.StoredValue;
+import storage.types.StringValue;
+import storage.types.ZSetValue;
+import storage.types.streams.StreamEntry;
+import storage.types.streams.StreamValue;
+
+/**
+ * Estimates the memory taken by keys and values.
+ *
+ * <p>
+ * The estimates follow the object layout of a 64-bit JVM with compressed
+ * references: 12-byte object headers, 16-byte array headers, 4-byte
+ * references and sizes rounded up to 8 bytes. Strings hold one byte per
+ * character, since keys and values are Latin-1 text. The sizes of the JDK
+ * collections backing lists, sorted sets and streams are modelled per
+ * element, so a change to a collection can be accounted for by adding the
+ * cost of the elements added or removed.
+ * </p>
+ *
+ * <p>
+ * A string kept off the heap is counted as its handle plus the slot it
+ * takes in the slab store, so the estimate covers the memory the value keeps
+ * in use wherever it lives.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MemoryEstimator {
+
+    private static final int OBJECT_ALIGNMENT = 8;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    /** A String object with its byte array header */
+    private static final int STRING_OVERHEAD = 24;
+
+    /** A node of the keyspace hash map and its share of the table */
+    private static final int KEY_ENTRY_OVERHEAD = 40;
+
+    /** A stored value object: header, deadline, clock, estimate, contents */
+    private static final int VALUE_OVERHEAD = 40;
+
+    /** The handle of a string kept off the heap */
+    private static final int OFF_HEAP_HANDLE = 24;
+
+    /** An empty QuickList and its lock */
+    private static final int LIST_OVERHEAD = 64;
+
+    /** A QuickList node and its element array */
+    private static final long LIST_NODE = 32 + align(ARRAY_HEADER + (long) ProtocolConstants.LIST_NODE_CAPACITY
+            * REFERENCE);
+
+    /** An empty QuickZSet with its hash map and skip list */
+    private static final int ZSET_OVERHEAD = 256;
+
+    /**
+     * A sorted set member beyond its text: its hash map node, table slot and
+     * boxed score, plus a skip list node, index share, boxed score and member
+     * set in the score map. Members sharing a score share the last three.
+     */
+    private static final int ZSET_MEMBER_OVERHEAD = 240;
+
+    /** An empty skip list of stream entries */
+    private static final int STREAM_OVERHEAD = 96;
+
+    /**
+     * A stream entry beyond its ID and fields: its skip list node and index
+     * share, the entry record and its field map.
+     */
+    private static final int STREAM_ENTRY_OVERHEAD = 168;
+
+    /** A field of a stream entry beyond its text: a map node and slot */
+    private static final int STREAM_FIELD_OVERHEAD = 40;
+
+    private MemoryEstimator() {
+    }
+
+    /**
+     * Returns the memory a key takes in the keyspace, without its value.
+     *
+     * @param key the key
+     * @return the estimate in bytes
+     */
+    public static long keyBytes(String key) {
+        return KEY_ENTRY_OVERHEAD + stringBytes(key);
+    }
+
+    /**
+     * Measures a whole value by walking its contents.
+     *
+     * @param value the value
+     * @return the estimate in bytes
+     */
+    public static long measure(StoredValue<?> value) {
+        return VALUE_OVERHEAD + switch (value.type()) {
+            case STRING -> measureString((StringValue) value);
+            case LIST -> measureList(((ListValue) value).value());
+            case ZSET -> measureZSet(((ZSetValue) value).value());
+            case STREAM -> measureStream(((StreamValue) value).streamEntries());
+            default -> 0;
+        };
+    }
+
+    /**
+     * Returns the memory a list element takes, without its slot in a node.
+     *
+     * @param element the element
+     * @return the estimate in bytes
+     */
+    public static long listElementBytes(String element) {
+        return stringBytes(element);
+    }
+
+    /**
+     * Returns the memory a node of a list takes, element slots included.
+     *
+     * @return the estimate in bytes
+     */
+    public static long listNodeBytes() {
+        return LIST_NODE;
+    }
+
+    /**
+     * Returns the memory a sorted set member takes, score included.
+     *
+     * @param member the member
+     * @return the estimate in bytes
+     */
+    public static long zsetMemberBytes(String member) {
+        return ZSET_MEMBER_OVERHEAD + stringBytes(member);
+    }
+
+    /**
+     * Returns the memory a stream entry takes. The entry ID is shared by the
+     * entry and its key in the stream.
+     *
+     * @param entry the entry
+     * @return the estimate in bytes
+     */
+    public static long streamEntryBytes(StreamEntry entry) {
+        long bytes = STREAM_ENTRY_OVERHEAD + stringBytes(entry.id());
+        for (Map.Entry<String, String> field : entry.fields().entrySet()) {
+            bytes += STREAM_FIELD_OVERHEAD + stringBytes(field.getKey()) + stringBytes(field.getValue());
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the memory a string takes.
+     *
+     * @param s the string
+     * @return the estimate in bytes
+     */
+    public static long stringBytes(String s) {
+        return STRING_OVERHEAD + align(ARRAY_HEADER + s.length());
+    }
+
+    private static long measureString(StringValue value) {
+        int offHeapBytes = value.offHeapBytes();
+        return offHeapBytes > 0 ? OFF_HEAP_HANDLE + offHeapBytes : align(ARRAY_HEADER + value.encodedLength());
+    }
+
+    private static long measureList(QuickList<String> list) {
+        long bytes = LIST_OVERHEAD + list.nodeCount() * LIST_NODE;
+        for (String element : list.range(0, -1)) {
+            bytes += listElementBytes(element);
+        }
+        return bytes;
+    }
+
+    private static long measureZSet(QuickZSet zset) {
+        long bytes = ZSET_OVERHEAD;
+        for (QuickZSet.ZSetEntry entry : zset.range(0, -1)) {
+            bytes += zsetMemberBytes(entry.member());
+        }
+        return bytes;
+    }
+
+    private static long measureStream(Map<String, StreamEntry> entries) {
+        long bytes = STREAM_OVERHEAD;
+        for (StreamEntry entry : entries.values()) {
+            bytes += streamEntryBytes(entry);
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + OBJECT_ALIGNMENT - 1) & -OBJECT_ALIGNMENT;
+    }
+}
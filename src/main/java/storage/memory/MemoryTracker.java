@@ -0,0 +1,187 @@
+package storage.memory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import storage.types.StoredValue;
+import storage.types.ValueType;
+
+/**
+ * Keeps a running total of the memory taken by the keyspace.
+ *
+ * <p>
+ * Every value entering or leaving the store goes through the tracker, which
+ * measures it with {@link MemoryEstimator} and adds it to the totals. Each
+ * value also carries its own estimate, so removing a key subtracts exactly
+ * what was added for it and {@code MEMORY USAGE} answers without walking the
+ * value. When a collection grows or shrinks in place, the repository reports
+ * the bytes of the elements added or removed with
+ * {@link #resize(StoredValue, long)}.
+ * </p>
+ *
+ * <p>
+ * Values leaving the store, whether removed or replaced, are
+ * {@link StoredValue#release() released} here, freeing any memory they hold
+ * off the heap.
+ * </p>
+ *
+ * <p>
+ * Values are only changed under the lock of their key's stripe. The totals
+ * are adders, so they may be read at any time without a lock.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MemoryTracker {
+
+    private final Map<String, StoredValue<?>> store;
+    private final LongAdder usedMemory = new LongAdder();
+    private final Map<ValueType, LongAdder> usedMemoryByType = new EnumMap<>(ValueType.class);
+
+    /**
+     * Creates a tracker for a store.
+     *
+     * @param store the keyspace
+     */
+    public MemoryTracker(Map<String, StoredValue<?>> store) {
+        this.store = store;
+        for (ValueType type : ValueType.values()) {
+            usedMemoryByType.put(type, new LongAdder());
+        }
+    }
+
+    /**
+     * Stores a value, measuring it and accounting for the value it replaces.
+     *
+     * @param key   the key
+     * @param value the new value
+     * @return the previous value, or null
+     */
+    public StoredValue<?> put(String key, StoredValue<?> value) {
+        value.resizeMemory(MemoryEstimator.measure(value) - value.memoryBytes());
+        StoredValue<?> previous = store.put(key, value);
+        account(key, value, 1);
+        if (previous != null) {
+            account(key, previous, -1);
+            if (previous != value) {
+                previous.release();
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Removes a key. The value is released, so only its type and deadline
+     * may be looked at afterwards.
+     *
+     * @param key the key
+     * @return the removed value, or null if there was none
+     */
+    public StoredValue<?> remove(String key) {
+        StoredValue<?> removed = store.remove(key);
+        if (removed != null) {
+            account(key, removed, -1);
+            removed.release();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes a key if it still holds a given value.
+     *
+     * @param key   the key
+     * @param value the expected value
+     * @return true if the key was removed
+     */
+    public boolean remove(String key, StoredValue<?> value) {
+        if (!store.remove(key, value)) {
+            return false;
+        }
+        account(key, value, -1);
+        value.release();
+        return true;
+    }
+
+    /**
+     * Accounts for a stored value whose contents grew or shrank in place.
+     *
+     * @param value the value, still in the store
+     * @param delta the bytes added, negative if freed
+     */
+    public void resize(StoredValue<?> value, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        value.resizeMemory(delta);
+        usedMemory.add(delta);
+        usedMemoryByType.get(value.type()).add(delta);
+    }
+
+    /**
+     * Measures the whole store again, after values were put into it
+     * directly, such as by loading a snapshot.
+     */
+    public void recount() {
+        reset();
+        store.forEach((key, value) -> {
+            value.resizeMemory(MemoryEstimator.measure(value) - value.memoryBytes());
+            account(key, value, 1);
+        });
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void clear() {
+        store.values().forEach(StoredValue::release);
+        store.clear();
+        reset();
+    }
+
+    /**
+     * Forgets everything, after the store was cleared.
+     */
+    public void reset() {
+        usedMemory.reset();
+        usedMemoryByType.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Returns the memory taken by the whole keyspace.
+     *
+     * @return the estimate in bytes
+     */
+    public long getUsedMemory() {
+        return usedMemory.sum();
+    }
+
+    /**
+     * Returns the memory taken by the keys of one type.
+     *
+     * @param type the value type
+     * @return the estimate in bytes
+     */
+    public long getUsedMemory(ValueType type) {
+        return usedMemoryByType.get(type).sum();
+    }
+
+    /**
+     * Returns the memory taken by a key and its value.
+     *
+     * @param key   the key
+     * @param value its value
+     * @return the estimate in bytes
+     */
+    public static long entryBytes(String key, StoredValue<?> value) {
+        return MemoryEstimator.keyBytes(key) + value.memoryBytes();
+    }
+
+    private void account(String key, StoredValue<?> value, int sign) {
+        long bytes = sign * entryBytes(key, value);
+        usedMemory.add(bytes);
+        usedMemoryByType.get(value.type()).add(bytes);
+    }
+}
@@ -0,0 +1,84 @@
+package storage.offheap;
+
+import java.util.concurrent.locks.Lock;
+
+import config.ServerConfig;
+import server.StripedExecutionLock;
+
+/**
+ * Compacts the off-heap string store from the server cron.
+ *
+ * <p>
+ * Compaction moves values between slabs and updates their handles, which
+ * commands follow under the lock of their key's stripe only. Each run
+ * therefore takes the global execution lock, excluding every stripe, and moves
+ * at most {@link ServerConfig#OFFHEAP_COMPACT_MAX_MOVES} values, so commands
+ * are held up briefly; a sparse slab too large for one run is emptied over
+ * several. Otherwise runs are skipped unless more than
+ * {@code 100 - OFFHEAP_COMPACT_FILL_PERC} percent of the reserved memory,
+ * and at least a slab's worth, is free, or if nothing changed since a run
+ * that found nothing to move, so the lock is not taken for nothing on every
+ * cron tick.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class OffHeapCompactor {
+
+    private final SlabStore slabStore;
+    private final StripedExecutionLock executionLock;
+
+    /** Whether the previous run used up its moves */
+    private boolean unfinished;
+
+    /** Counters after the last run that moved nothing, not worth retrying */
+    private SlabStore.Stats idleStats;
+
+    /**
+     * Creates the compactor.
+     *
+     * @param slabStore     the store to compact
+     * @param executionLock the lock guarding command execution
+     */
+    public OffHeapCompactor(SlabStore slabStore, StripedExecutionLock executionLock) {
+        this.slabStore = slabStore;
+        this.executionLock = executionLock;
+    }
+
+    /**
+     * Runs one bounded compaction if the previous one was cut short or
+     * enough of the slabs is free.
+     *
+     * @return the number of values moved
+     */
+    public int run() {
+        SlabStore.Stats stats = slabStore.getStats();
+        if (!unfinished && (!isFragmented(stats) || isUnchanged(stats))) {
+            return 0;
+        }
+        int moves;
+        Lock global = executionLock.global();
+        global.lock();
+        try {
+            moves = slabStore.compact(ServerConfig.OFFHEAP_COMPACT_MAX_MOVES);
+        } finally {
+            global.unlock();
+        }
+        unfinished = moves == ServerConfig.OFFHEAP_COMPACT_MAX_MOVES;
+        idleStats = moves == 0 ? slabStore.getStats() : null;
+        return moves;
+    }
+
+    private boolean isUnchanged(SlabStore.Stats stats) {
+        return idleStats != null && idleStats.reservedBytes() == stats.reservedBytes()
+                && idleStats.usedBytes() == stats.usedBytes();
+    }
+
+    private static boolean isFragmented(SlabStore.Stats stats) {
+        long free = stats.reservedBytes() - stats.usedBytes();
+        return free >= ServerConfig.OFFHEAP_SLAB_SIZE
+                && free * 100 > stats.reservedBytes() * (100 - ServerConfig.OFFHEAP_COMPACT_FILL_PERC);
+    }
+}
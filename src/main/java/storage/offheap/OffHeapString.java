@@ -0,0 +1,83 @@
+package storage.offheap;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Handle to bytes kept outside the heap by a {@link SlabStore}.
+ *
+ * <p>
+ * The handle is all the heap holds of the bytes: the slab they live in, the
+ * slot within it and their length. Compaction may move the bytes to another
+ * slab, updating the handle, so the location must only be followed while
+ * compaction is excluded, that is under the lock of the owning key's stripe.
+ * Once {@link #free() freed}, the handle no longer refers to any memory.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class OffHeapString {
+
+    private final int length;
+
+    /** The slab holding the bytes, or null once freed */
+    SlabStore.Slab slab;
+    int slot;
+
+    OffHeapString(int length) {
+        this.length = length;
+    }
+
+    /**
+     * Returns the number of bytes held.
+     *
+     * @return the length in bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the off-heap memory reserved for the bytes, which is the size
+     * of their slot.
+     *
+     * @return the slot size in bytes, or 0 once freed
+     */
+    public int slotSize() {
+        SlabStore.Slab current = slab;
+        return current == null ? 0 : current.slotSize;
+    }
+
+    /**
+     * Copies the bytes onto the heap.
+     *
+     * @return a new array holding the bytes
+     * @throws IllegalStateException if the handle was freed
+     */
+    public byte[] toByteArray() {
+        SlabStore.Slab current = slab;
+        if (current == null) {
+            throw new IllegalStateException("Off-heap string was freed");
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(current.segment, ValueLayout.JAVA_BYTE, offset(), bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * Gives the memory of the bytes back to the store. Freeing a handle twice
+     * is harmless.
+     */
+    public void free() {
+        SlabStore.Slab current = slab;
+        if (current != null) {
+            current.store.free(this);
+        }
+    }
+
+    long offset() {
+        return (long) slot * slab.slotSize;
+    }
+}
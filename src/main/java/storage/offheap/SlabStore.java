@@ -0,0 +1,458 @@
+package storage.offheap;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import config.ServerConfig;
+
+/**
+ * Size-classed slab allocator for bytes kept outside the heap.
+ *
+ * <p>
+ * Tens of millions of small values on the heap make for a large heap and
+ * long collections, although the values themselves hold no references. The
+ * store keeps such bytes in slabs of native memory that the garbage collector
+ * never scans, leaving a small {@link OffHeapString} handle on the heap. Each
+ * slab is a {@link ServerConfig#OFFHEAP_SLAB_SIZE} segment of its own shared
+ * arena, carved into slots of one size class; classes double from
+ * {@link ServerConfig#OFFHEAP_MIN_SLOT_SIZE} to
+ * {@link ServerConfig#OFFHEAP_MAX_SLOT_SIZE}.
+ * </p>
+ *
+ * <p>
+ * Larger values get a segment of their own, rounded up to a power of two.
+ * Closing a shared arena makes every thread go through a handshake, which a
+ * DEL or overwrite must not pay, so such segments come from an automatic
+ * arena instead and are recycled: a freed segment waits in the pool of its
+ * size for the next value of that size, as long as the pools hold less than
+ * {@link ServerConfig#OFFHEAP_LARGE_POOL_BYTES}. Past that, the segment is
+ * dropped and the garbage collector gives its memory back.
+ * </p>
+ *
+ * <p>
+ * Freed slots are reused by the next allocation of their class, but a class
+ * that shrank is left with many sparse slabs. {@link #compact(int)} moves
+ * the values of the sparsest slabs into the free slots of the others and
+ * closes the arenas of the slabs it emptied, giving their memory back to the
+ * operating system. Moving a value updates its handle, so compaction must
+ * exclude every reader of the store.
+ * </p>
+ *
+ * <p>
+ * Allocation and release only lock the size class involved, so commands on
+ * different stripes may allocate concurrently.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SlabStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlabStore.class);
+
+    private static final int PERCENT = 100;
+
+    /**
+     * A snapshot of the store's counters.
+     *
+     * @param reservedBytes   native memory held by slabs and large values
+     * @param usedBytes       bytes of the slots holding values
+     * @param slabs           slabs and large values allocated
+     * @param compactionMoves values moved by compaction so far
+     */
+    public record Stats(long reservedBytes, long usedBytes, int slabs, long compactionMoves) {
+    }
+
+    /** A segment carved into slots of one size. */
+    static final class Slab {
+        final SlabStore store;
+
+        /** The slab's own arena, or null for a large value's segment */
+        final Arena arena;
+        final MemorySegment segment;
+        final int slotSize;
+        final int classIndex;
+        final OffHeapString[] owners;
+        final int[] freeSlots;
+        int freeCount;
+
+        /** In the list of slabs of its class with free slots */
+        boolean available;
+
+        /** Being emptied by compaction, so it takes no new values */
+        boolean evacuating;
+
+        private Slab(SlabStore store, int classIndex, int slotSize, int slotCount) {
+            this.store = store;
+            if (classIndex < 0) {
+                this.arena = null;
+                this.segment = Arena.ofAuto().allocate(slotSize);
+            } else {
+                this.arena = Arena.ofShared();
+                try {
+                    this.segment = arena.allocate((long) slotSize * slotCount);
+                } catch (RuntimeException | Error e) {
+                    arena.close();
+                    throw e;
+                }
+            }
+            this.slotSize = slotSize;
+            this.classIndex = classIndex;
+            this.owners = new OffHeapString[slotCount];
+            this.freeSlots = new int[slotCount];
+            for (int slot = slotCount - 1; slot >= 0; slot--) {
+                freeSlots[freeCount++] = slot;
+            }
+        }
+
+        int live() {
+            return owners.length - freeCount;
+        }
+    }
+
+    /** The slabs of one size class, or the pooled segments of one large size. */
+    private static final class SizeClass {
+        private final int slotSize;
+        private final List<Slab> slabs = new ArrayList<>();
+        private final ArrayDeque<Slab> available = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private SizeClass(int slotSize) {
+            this.slotSize = slotSize;
+        }
+    }
+
+    private final SizeClass[] classes;
+    private final SizeClass[] largeClasses;
+    private final int smallestSize;
+    private final int largestSize;
+    private final int slabSize;
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong pooledLargeBytes = new AtomicLong();
+    private final AtomicInteger slabCount = new AtomicInteger();
+    private final LongAdder usedBytes = new LongAdder();
+    private final LongAdder compactionMoves = new LongAdder();
+
+    /**
+     * Creates a store with the configured slab and size class limits.
+     */
+    public SlabStore() {
+        this(ServerConfig.OFFHEAP_MIN_SLOT_SIZE, ServerConfig.OFFHEAP_MAX_SLOT_SIZE,
+                ServerConfig.OFFHEAP_SLAB_SIZE);
+    }
+
+    private SlabStore(int smallestSize, int largestSize, int slabSize) {
+        int count = Integer.numberOfTrailingZeros(largestSize / smallestSize) + 1;
+        this.classes = new SizeClass[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new SizeClass(smallestSize << i);
+        }
+        int largeCount = Integer.numberOfLeadingZeros(largestSize) - 1;
+        this.largeClasses = new SizeClass[largeCount];
+        for (int i = 0; i < largeCount; i++) {
+            largeClasses[i] = new SizeClass(largestSize << (i + 1));
+        }
+        this.smallestSize = smallestSize;
+        this.largestSize = largestSize;
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Copies bytes into a slot of the smallest fitting size class, or into a
+     * pooled segment of their own if they exceed the largest class.
+     *
+     * @param bytes the bytes to store
+     * @return the handle to the stored bytes, or null if native memory is
+     *         exhausted
+     */
+    public OffHeapString allocate(byte[] bytes) {
+        OffHeapString handle = new OffHeapString(bytes.length);
+        int index = classIndex(bytes.length);
+        try {
+            if (index < 0) {
+                place(takeLargeSegment(largeClassIndex(bytes.length)), handle);
+            } else {
+                allocateSlot(classes[index], handle);
+            }
+        } catch (OutOfMemoryError e) {
+            LOGGER.warn("Native memory exhausted, keeping the value on the heap: {}", e.getMessage());
+            return null;
+        }
+        MemorySegment.copy(bytes, 0, handle.slab.segment, ValueLayout.JAVA_BYTE, handle.offset(), bytes.length);
+        usedBytes.add(handle.slab.slotSize);
+        return handle;
+    }
+
+    /**
+     * Gives the slot of a handle back. Freeing a handle twice is harmless.
+     */
+    void free(OffHeapString handle) {
+        Slab slab = handle.slab;
+        if (slab == null) {
+            return;
+        }
+        handle.slab = null;
+        usedBytes.add(-slab.slotSize);
+        if (slab.classIndex < 0) {
+            poolLargeSegment(slab);
+            return;
+        }
+
+        SizeClass sizeClass = classes[slab.classIndex];
+        sizeClass.lock.lock();
+        try {
+            release(sizeClass, slab, handle.slot);
+        } finally {
+            sizeClass.lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the slabs left empty and moves the values of the sparsest slabs
+     * into the free slots of fuller ones, closing the slabs emptied. A slab
+     * less than {@link ServerConfig#OFFHEAP_COMPACT_FILL_PERC} percent full is
+     * evacuated if the rest of its class has room for its values; evacuation
+     * goes on across calls until the slab is empty. The caller must exclude
+     * every reader and writer of the handles.
+     *
+     * @param maxMoves the most values to move
+     * @return the number of values moved
+     */
+    public int compact(int maxMoves) {
+        int moves = 0;
+        for (SizeClass sizeClass : classes) {
+            if (moves >= maxMoves) {
+                break;
+            }
+            sizeClass.lock.lock();
+            try {
+                moves += compact(sizeClass, maxMoves - moves);
+            } finally {
+                sizeClass.lock.unlock();
+            }
+        }
+        compactionMoves.add(moves);
+        return moves;
+    }
+
+    /**
+     * Takes a snapshot of the store's counters.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        return new Stats(reservedBytes.get(), usedBytes.sum(), slabCount.get(), compactionMoves.sum());
+    }
+
+    /**
+     * Returns the index of the smallest size class holding the given length,
+     * or -1 if it exceeds the largest class.
+     */
+    private int classIndex(int length) {
+        if (length > largestSize) {
+            return -1;
+        }
+        if (length <= smallestSize) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros((length - 1) / smallestSize);
+    }
+
+    private int largeClassIndex(int length) {
+        return 31 - Integer.numberOfLeadingZeros((length - 1) / largestSize);
+    }
+
+    /**
+     * Takes a pooled segment of the large size class, or allocates one.
+     */
+    private Slab takeLargeSegment(int largeIndex) {
+        SizeClass largeClass = largeClasses[largeIndex];
+        largeClass.lock.lock();
+        try {
+            Slab pooled = largeClass.available.pollFirst();
+            if (pooled != null) {
+                pooledLargeBytes.addAndGet(-largeClass.slotSize);
+                return pooled;
+            }
+        } finally {
+            largeClass.lock.unlock();
+        }
+        return newSlab(-1, largeClass.slotSize, 1);
+    }
+
+    /**
+     * Keeps a freed large segment for reuse, or drops it once the pools are
+     * full so that the garbage collector releases it. Either way no arena is
+     * closed.
+     */
+    private void poolLargeSegment(Slab slab) {
+        slab.owners[0] = null;
+        slab.freeSlots[slab.freeCount++] = 0;
+        SizeClass largeClass = largeClasses[largeClassIndex(slab.slotSize)];
+        if (pooledLargeBytes.addAndGet(slab.slotSize) <= ServerConfig.OFFHEAP_LARGE_POOL_BYTES) {
+            largeClass.lock.lock();
+            try {
+                largeClass.available.addFirst(slab);
+            } finally {
+                largeClass.lock.unlock();
+            }
+            return;
+        }
+        pooledLargeBytes.addAndGet(-slab.slotSize);
+        close(slab);
+    }
+
+    private void allocateSlot(SizeClass sizeClass, OffHeapString handle) {
+        sizeClass.lock.lock();
+        try {
+            Slab slab = sizeClass.available.peekFirst();
+            if (slab == null) {
+                slab = newSlab(classIndexOf(sizeClass), sizeClass.slotSize, slabSize / sizeClass.slotSize);
+                sizeClass.slabs.add(slab);
+                sizeClass.available.addFirst(slab);
+                slab.available = true;
+            }
+            place(slab, handle);
+            if (slab.freeCount == 0) {
+                sizeClass.available.pollFirst();
+                slab.available = false;
+            }
+        } finally {
+            sizeClass.lock.unlock();
+        }
+    }
+
+    private int compact(SizeClass sizeClass, int maxMoves) {
+        closeEmptySlabs(sizeClass);
+
+        int free = 0;
+        List<Slab> sparse = new ArrayList<>();
+        for (Slab slab : sizeClass.slabs) {
+            if (slab.evacuating) {
+                sparse.add(slab);
+            } else {
+                free += slab.freeCount;
+                if (slab.live() * PERCENT < slab.owners.length * ServerConfig.OFFHEAP_COMPACT_FILL_PERC) {
+                    sparse.add(slab);
+                }
+            }
+        }
+        // Slabs already being emptied first, then the sparsest
+        sparse.sort(Comparator.comparing((Slab slab) -> !slab.evacuating).thenComparingInt(Slab::live));
+
+        int moves = 0;
+        for (Slab slab : sparse) {
+            if (!slab.evacuating) {
+                int room = free - slab.freeCount;
+                if (slab.live() > room) {
+                    break;
+                }
+                free = room - slab.live();
+                slab.evacuating = true;
+                if (slab.available) {
+                    sizeClass.available.remove(slab);
+                    slab.available = false;
+                }
+            }
+            moves += evacuate(sizeClass, slab, maxMoves - moves);
+            if (slab.live() > 0) {
+                break;
+            }
+            sizeClass.slabs.remove(slab);
+            close(slab);
+        }
+        return moves;
+    }
+
+    /**
+     * Moves values out of an evacuating slab into the available slabs of its
+     * class.
+     */
+    private int evacuate(SizeClass sizeClass, Slab source, int maxMoves) {
+        int moves = 0;
+        for (int slot = 0; slot < source.owners.length && moves < maxMoves; slot++) {
+            OffHeapString handle = source.owners[slot];
+            if (handle == null) {
+                continue;
+            }
+            Slab target = sizeClass.available.peekFirst();
+            if (target == null) {
+                break;
+            }
+            long from = handle.offset();
+            place(target, handle);
+            if (target.freeCount == 0) {
+                sizeClass.available.pollFirst();
+                target.available = false;
+            }
+            MemorySegment.copy(source.segment, from, target.segment, handle.offset(), handle.length());
+            release(sizeClass, source, slot);
+            moves++;
+        }
+        return moves;
+    }
+
+    private void closeEmptySlabs(SizeClass sizeClass) {
+        Iterator<Slab> slabs = sizeClass.slabs.iterator();
+        while (slabs.hasNext() && sizeClass.slabs.size() > 1) {
+            Slab slab = slabs.next();
+            if (slab.live() == 0) {
+                slabs.remove();
+                if (slab.available) {
+                    sizeClass.available.remove(slab);
+                }
+                close(slab);
+            }
+        }
+    }
+
+    private static void place(Slab slab, OffHeapString handle) {
+        int slot = slab.freeSlots[--slab.freeCount];
+        slab.owners[slot] = handle;
+        handle.slab = slab;
+        handle.slot = slot;
+    }
+
+    private static void release(SizeClass sizeClass, Slab slab, int slot) {
+        slab.owners[slot] = null;
+        slab.freeSlots[slab.freeCount++] = slot;
+        if (!slab.available && !slab.evacuating) {
+            sizeClass.available.addLast(slab);
+            slab.available = true;
+        }
+    }
+
+    private Slab newSlab(int classIndex, int slotSize, int slotCount) {
+        Slab slab = new Slab(this, classIndex, slotSize, slotCount);
+        reservedBytes.addAndGet(slab.segment.byteSize());
+        slabCount.incrementAndGet();
+        return slab;
+    }
+
+    private void close(Slab slab) {
+        if (slab.arena != null) {
+            slab.arena.close();
+        }
+        reservedBytes.addAndGet(-slab.segment.byteSize());
+        slabCount.decrementAndGet();
+    }
+
+    private int classIndexOf(SizeClass sizeClass) {
+        return Integer.numberOfTrailingZeros(sizeClass.slotSize / smallestSize);
+    }
+}
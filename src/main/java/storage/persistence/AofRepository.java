@@ -1,13 +1,10 @@
 package storage.persistence;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
@@ -16,9 +13,11 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import config.ProtocolConstants;
 import protocol.ProtocolParser;
 import server.ServerContext;
 import storage.StorageService;
+import storage.expiry.Expiry;
 import storage.types.StoredValue;
 
 /**
@@ -40,6 +39,10 @@ public class AofRepository implements PersistentRepository {
     private static final String INCR_COMMAND = "INCR";
     private static final String ZADD_COMMAND = "ZADD";
     private static final String ZREM_COMMAND = "ZREM";
+    private static final String PEXPIREAT_COMMAND = "PEXPIREAT";
+    private static final String PERSIST_COMMAND = "PERSIST";
+    private static final String PXAT_OPTION = "PXAT";
+    private static final String KEEPTTL_OPTION = "KEEPTTL";
 
     private final Map<String, StoredValue<?>> store;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
@@ -62,7 +65,7 @@ public class AofRepository implements PersistentRepository {
         this.aofFile = aofFile;
         ensureParentDirectory(aofFile);
         try {
-            this.aofWriter = new BufferedWriter(new FileWriter(aofFile, true));
+            this.aofWriter = new BufferedWriter(new FileWriter(aofFile, ProtocolConstants.BYTE_CHARSET, true));
             LOGGER.info("AOF file initialized: {}", aofFile.getAbsolutePath());
         } catch (IOException e) {
             throw new PersistenceException("Failed to initialize AOF file", e);
@@ -117,7 +120,7 @@ public class AofRepository implements PersistentRepository {
         try {
             store.clear();
             replayAofCommands();
-            this.aofWriter = new BufferedWriter(new FileWriter(aofFile, true));
+            this.aofWriter = new BufferedWriter(new FileWriter(aofFile, ProtocolConstants.BYTE_CHARSET, true));
             LOGGER.info("AOF file loaded successfully. Store now contains {} keys", store.size());
         } catch (IOException e) {
             throw new PersistenceException("Failed to load AOF file: " + aofFile.getAbsolutePath(), e);
@@ -127,19 +130,12 @@ public class AofRepository implements PersistentRepository {
     }
 
     private void replayAofCommands() throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(aofFile))) {
-            String currentLine;
-            while ((currentLine = reader.readLine()) != null) {
-                contentBuilder.append(currentLine).append(RESP_LINE_ENDING);
-            }
-        }
-
-        if (contentBuilder.length() == 0)
+        // Read the raw bytes: bulk strings may contain CR and LF themselves
+        byte[] content = Files.readAllBytes(aofFile.toPath());
+        if (content.length == 0)
             return;
 
-        ByteBuffer buffer = ByteBuffer.wrap(contentBuilder.toString().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.wrap(content);
         List<String[]> commands = ProtocolParser.parseRespArrays(buffer);
 
         for (String[] command : commands) {
@@ -168,6 +164,8 @@ public class AofRepository implements PersistentRepository {
                 case INCR_COMMAND -> handleIncr(command);
                 case ZADD_COMMAND -> handleZadd(command);
                 case ZREM_COMMAND -> handleZrem(command);
+                case PEXPIREAT_COMMAND -> handlePexpireat(command);
+                case PERSIST_COMMAND -> handlePersist(command);
                 default -> LOGGER.debug("Unsupported command in AOF replay: {}", cmd);
             }
         } catch (Exception e) {
@@ -176,9 +174,30 @@ public class AofRepository implements PersistentRepository {
     }
 
     /* ---------- Extracted handlers to reduce complexity ---------- */
+    /** Relative times are logged as PXAT, so only PXAT and KEEPTTL occur. */
     private void handleSet(String[] cmd) {
-        if (cmd.length >= 3) {
-            storageService.setString(cmd[1], cmd[2], storage.expiry.ExpiryPolicy.never());
+        if (cmd.length < 3) {
+            return;
+        }
+        long expiresAt = Expiry.NEVER;
+        if (cmd.length >= 5 && PXAT_OPTION.equalsIgnoreCase(cmd[3])) {
+            expiresAt = Long.parseLong(cmd[4]);
+        } else if (cmd.length >= 4 && KEEPTTL_OPTION.equalsIgnoreCase(cmd[3])) {
+            expiresAt = Math.max(Expiry.NEVER, storageService.getExpiresAt(cmd[1]));
+        }
+        storageService.setString(cmd[1], cmd[2], expiresAt);
+    }
+
+    /** EXPIRE variants are logged as plain PEXPIREAT when they take effect. */
+    private void handlePexpireat(String[] cmd) {
+        if (cmd.length == 3) {
+            storageService.setExpiresAt(cmd[1], Long.parseLong(cmd[2]));
+        }
+    }
+
+    private void handlePersist(String[] cmd) {
+        if (cmd.length >= 2) {
+            storageService.setExpiresAt(cmd[1], Expiry.NEVER);
         }
     }
 
@@ -281,7 +300,7 @@ public class AofRepository implements PersistentRepository {
                 if (!aofFile.createNewFile()) {
                     throw new PersistenceException("Failed to recreate AOF file: " + aofFile.getAbsolutePath());
                 }
-                aofWriter = new BufferedWriter(new FileWriter(aofFile, true));
+                aofWriter = new BufferedWriter(new FileWriter(aofFile, ProtocolConstants.BYTE_CHARSET, true));
                 LOGGER.info("AOF file cleared and recreated: {}", aofFile.getAbsolutePath());
             }
         } catch (IOException e) {
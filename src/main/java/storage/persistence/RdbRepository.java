@@ -7,7 +7,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -15,7 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import collections.QuickList;
 import config.ProtocolConstants;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.Expiry;
 import storage.types.ListValue;
 import storage.types.StoredValue;
 import storage.types.StringValue;
@@ -65,6 +64,10 @@ public class RdbRepository implements PersistentRepository {
                     continue;
                 }
 
+                if (value.isVolatile()) {
+                    out.writeByte(ProtocolConstants.RDB_OPCODE_EXPIRE_TIME_MS);
+                    out.writeLong(Long.reverseBytes(value.expiresAt()));
+                }
                 out.writeByte(ProtocolConstants.RDB_KEY_INDICATOR);
                 writeEntry(out, key);
 
@@ -108,7 +111,7 @@ public class RdbRepository implements PersistentRepository {
             boolean eofReached = false;
             while (!eofReached) {
                 int type = in.readByte() & 0xFF;
-                Long expiryTimeMs = null;
+                long expiryTimeMs = Expiry.NEVER;
 
                 // Handle expiry time
                 if (type == ProtocolConstants.RDB_OPCODE_EXPIRE_TIME_SEC) {
@@ -160,24 +163,18 @@ public class RdbRepository implements PersistentRepository {
 
     /* ---------- Read helpers ---------- */
 
-    private StoredValue<?> readStringValue(DataInputStream in, Long expiryTimeMs) throws IOException {
+    private StoredValue<?> readStringValue(DataInputStream in, long expiryTimeMs) throws IOException {
         String value = readEntry(in);
-        ExpiryPolicy expiryPolicy = expiryTimeMs != null
-                ? ExpiryPolicy.at(Instant.ofEpochMilli(expiryTimeMs))
-                : ExpiryPolicy.never();
-        return StringValue.of(value, expiryPolicy);
+        return StringValue.of(value, expiryTimeMs);
     }
 
-    private StoredValue<?> readListValue(DataInputStream in, Long expiryTimeMs) throws IOException {
+    private StoredValue<?> readListValue(DataInputStream in, long expiryTimeMs) throws IOException {
         int listSize = readEncodedLength(in);
         QuickList<String> list = new QuickList<>();
         for (int i = 0; i < listSize; i++) {
             list.pushRight(readEntry(in));
         }
-        ExpiryPolicy expiryPolicy = expiryTimeMs != null
-                ? ExpiryPolicy.at(Instant.ofEpochMilli(expiryTimeMs))
-                : ExpiryPolicy.never();
-        return new ListValue(list, expiryPolicy);
+        return new ListValue(list, expiryTimeMs);
     }
 
     /* ---------- Utility methods ---------- */
@@ -265,11 +262,11 @@ public class RdbRepository implements PersistentRepository {
         if (data.length != length) {
             throw new IOException("Failed to read complete entry");
         }
-        return new String(data, StandardCharsets.UTF_8);
+        return new String(data, ProtocolConstants.BYTE_CHARSET);
     }
 
     private void writeEntry(DataOutputStream out, String entry) throws IOException {
-        byte[] entryBytes = entry.getBytes(StandardCharsets.UTF_8);
+        byte[] entryBytes = entry.getBytes(ProtocolConstants.BYTE_CHARSET);
         out.writeInt(entryBytes.length);
         out.write(entryBytes);
     }
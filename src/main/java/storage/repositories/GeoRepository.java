@@ -7,7 +7,9 @@ import java.util.Optional;
 import collections.QuickZSet;
 import collections.QuickZSet.ZSetEntry;
 import storage.Repository;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.memory.MemoryEstimator;
+import storage.memory.MemoryTracker;
 import storage.types.StoredValue;
 import storage.types.ValueType;
 import storage.types.ZSetValue;
@@ -26,28 +28,31 @@ import utils.GeoUtils;
 public final class GeoRepository implements Repository<QuickZSet> {
 
     private final Map<String, StoredValue<?>> store;
+    private final MemoryTracker memoryTracker;
+    private final ExpiredKeyHandler expiredKeyHandler;
 
-    public GeoRepository(final Map<String, StoredValue<?>> store) {
+    public GeoRepository(final Map<String, StoredValue<?>> store, final MemoryTracker memoryTracker,
+            final ExpiredKeyHandler expiredKeyHandler) {
         this.store = store;
+        this.memoryTracker = memoryTracker;
+        this.expiredKeyHandler = expiredKeyHandler;
     }
 
     // ==== Core Repository Operations ====
 
     @Override
-    public void put(final String key, final QuickZSet value, final ExpiryPolicy expiry) {
-        store.put(key, new ZSetValue(value, expiry));
+    public void put(final String key, final QuickZSet value, final long expiresAt) {
+        memoryTracker.put(key, new ZSetValue(value, expiresAt));
     }
 
     @Override
     public Optional<QuickZSet> get(final String key) {
-        return Optional.ofNullable(store.get(key))
-                .filter(v -> v.type() == ValueType.ZSET)
-                .map(v -> ((ZSetValue) v).value());
+        return getZSetValue(key).map(ZSetValue::value);
     }
 
     @Override
     public boolean delete(final String key) {
-        return store.remove(key) != null;
+        return memoryTracker.remove(key) != null;
     }
 
     @Override
@@ -67,15 +72,19 @@ public final class GeoRepository implements Repository<QuickZSet> {
      * Returns true if the member was newly added, false if updated.
      */
     public boolean geoAdd(final String key, final double longitude, final double latitude, 
-                         final String member, final ExpiryPolicy expiry) {
+                         final String member, final long expiresAt) {
         if (!GeoUtils.isValidCoordinates(longitude, latitude)) {
             throw new IllegalArgumentException("Invalid coordinates: " + longitude + ", " + latitude);
         }
 
-        final QuickZSet zset = getOrCreateZSet(key, expiry);
+        final ZSetValue zset = getOrCreateZSet(key, expiresAt);
         final double geohashScore = GeoUtils.encodeGeohash(longitude, latitude);
         
-        return zset.add(member, geohashScore);
+        final boolean added = zset.value().add(member, geohashScore);
+        if (added) {
+            memoryTracker.resize(zset, MemoryEstimator.zsetMemberBytes(member));
+        }
+        return added;
     }
 
     /**
@@ -156,11 +165,25 @@ public final class GeoRepository implements Repository<QuickZSet> {
     /**
      * Get existing ZSet or create a new one if it doesn't exist.
      */
-    private QuickZSet getOrCreateZSet(final String key, final ExpiryPolicy expiry) {
-        return get(key).orElseGet(() -> {
-            final QuickZSet newSet = new QuickZSet();
-            put(key, newSet, expiry);
+    private ZSetValue getOrCreateZSet(final String key, final long expiresAt) {
+        return getZSetValue(key).orElseGet(() -> {
+            final ZSetValue newSet = new ZSetValue(new QuickZSet(), expiresAt);
+            memoryTracker.put(key, newSet);
             return newSet;
         });
     }
+
+    private Optional<ZSetValue> getZSetValue(final String key) {
+        StoredValue<?> value = store.get(key);
+        if (value != null && value.isExpired()) {
+            expiredKeyHandler.deleteExpired(key, value);
+            value = null;
+        }
+        return Optional.ofNullable(value)
+                .filter(v -> v.type() == ValueType.ZSET)
+                .map(v -> {
+                    v.touch();
+                    return (ZSetValue) v;
+                });
+    }
 }
@@ -9,7 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import collections.QuickList;
 import storage.Repository;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.memory.MemoryEstimator;
+import storage.memory.MemoryTracker;
 import storage.types.ListValue;
 import storage.types.StoredValue;
 import storage.types.ValueType;
@@ -17,33 +19,38 @@ import storage.types.ValueType;
 /**
  * Repository for managing Redis-like list data structures.
  * Provides methods for list operations such as push, pop, and range queries.
+ * Pushes and pops report the elements and nodes they add or free to the
+ * memory tracker.
  */
 public final class ListRepository implements Repository<QuickList<String>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ListRepository.class);
 
     private final Map<String, StoredValue<?>> store;
+    private final MemoryTracker memoryTracker;
+    private final ExpiredKeyHandler expiredKeyHandler;
 
-    public ListRepository(Map<String, StoredValue<?>> store) {
+    public ListRepository(Map<String, StoredValue<?>> store, MemoryTracker memoryTracker,
+            ExpiredKeyHandler expiredKeyHandler) {
         this.store = store;
+        this.memoryTracker = memoryTracker;
+        this.expiredKeyHandler = expiredKeyHandler;
     }
 
     @Override
-    public void put(String key, QuickList<String> value, ExpiryPolicy expiry) {
-        store.put(key, new ListValue(value, expiry));
+    public void put(String key, QuickList<String> value, long expiresAt) {
+        memoryTracker.put(key, new ListValue(value, expiresAt));
         LOGGER.debug("Put list for key: {}", key);
     }
 
     @Override
     public Optional<QuickList<String>> get(String key) {
-        return getValidValue(key)
-                .filter(storedValue -> storedValue.type() == ValueType.LIST)
-                .map(storedValue -> ((ListValue) storedValue).value());
+        return getListValue(key).map(ListValue::value);
     }
 
     @Override
     public boolean delete(String key) {
-        boolean removed = store.remove(key) != null;
+        boolean removed = memoryTracker.remove(key) != null;
         if (removed) {
             LOGGER.info("Deleted key: {}", key);
         }
@@ -61,61 +68,63 @@ public final class ListRepository implements Repository<QuickList<String>> {
     }
 
     public QuickList<String> getOrCreate(String key) {
-        return get(key).orElseGet(() -> {
-            QuickList<String> newList = new QuickList<>();
-            put(key, newList);
-            return newList;
-        });
+        return getOrCreateValue(key).value();
     }
 
     public int pushLeft(String key, String... values) {
         if (values.length == 0)
             return getLength(key);
-        QuickList<String> list = getOrCreate(key);
+        ListValue listValue = getOrCreateValue(key);
+        QuickList<String> list = listValue.value();
+        int nodes = list.nodeCount();
         list.pushLeft(values);
+        memoryTracker.resize(listValue, elementBytes(List.of(values)) + nodeBytes(list.nodeCount() - nodes));
         return list.length();
     }
 
     public int pushRight(String key, String... values) {
         if (values.length == 0)
             return getLength(key);
-        QuickList<String> list = getOrCreate(key);
+        ListValue listValue = getOrCreateValue(key);
+        QuickList<String> list = listValue.value();
+        int nodes = list.nodeCount();
         list.pushRight(values);
+        memoryTracker.resize(listValue, elementBytes(List.of(values)) + nodeBytes(list.nodeCount() - nodes));
         return list.length();
     }
 
     public Optional<String> popLeft(String key) {
-        return get(key).map(list -> {
-            String result = list.popLeft();
-            if (list.isEmpty())
-                delete(key);
+        return getListValue(key).map(listValue -> {
+            int nodes = listValue.value().nodeCount();
+            String result = listValue.value().popLeft();
+            afterPop(key, listValue, nodes, result != null ? List.of(result) : List.of());
             return result;
         });
     }
 
     public Optional<String> popRight(String key) {
-        return get(key).map(list -> {
-            String result = list.popRight();
-            if (list.isEmpty())
-                delete(key);
+        return getListValue(key).map(listValue -> {
+            int nodes = listValue.value().nodeCount();
+            String result = listValue.value().popRight();
+            afterPop(key, listValue, nodes, result != null ? List.of(result) : List.of());
             return result;
         });
     }
 
     public List<String> popLeft(String key, int count) {
-        return get(key).map(list -> {
-            List<String> result = list.popLeft(count);
-            if (list.isEmpty())
-                delete(key);
+        return getListValue(key).map(listValue -> {
+            int nodes = listValue.value().nodeCount();
+            List<String> result = listValue.value().popLeft(count);
+            afterPop(key, listValue, nodes, result);
             return result;
         }).orElse(List.of());
     }
 
     public List<String> popRight(String key, int count) {
-        return get(key).map(list -> {
-            List<String> result = list.popRight(count);
-            if (list.isEmpty())
-                delete(key);
+        return getListValue(key).map(listValue -> {
+            int nodes = listValue.value().nodeCount();
+            List<String> result = listValue.value().popRight(count);
+            afterPop(key, listValue, nodes, result);
             return result;
         }).orElse(List.of());
     }
@@ -128,11 +137,52 @@ public final class ListRepository implements Repository<QuickList<String>> {
         return get(key).map(QuickList::length).orElse(0);
     }
 
+    /**
+     * Deletes a list emptied by a pop, or accounts for the elements and nodes
+     * it freed.
+     */
+    private void afterPop(String key, ListValue listValue, int nodesBefore, List<String> popped) {
+        QuickList<String> list = listValue.value();
+        if (list.isEmpty()) {
+            delete(key);
+            return;
+        }
+        memoryTracker.resize(listValue, -elementBytes(popped) + nodeBytes(list.nodeCount() - nodesBefore));
+    }
+
+    private static long elementBytes(List<String> elements) {
+        long bytes = 0;
+        for (String element : elements) {
+            bytes += MemoryEstimator.listElementBytes(element);
+        }
+        return bytes;
+    }
+
+    private static long nodeBytes(int nodes) {
+        return nodes * MemoryEstimator.listNodeBytes();
+    }
+
+    private ListValue getOrCreateValue(String key) {
+        return getListValue(key).orElseGet(() -> {
+            ListValue newList = ListValue.empty();
+            memoryTracker.put(key, newList);
+            return newList;
+        });
+    }
+
+    private Optional<ListValue> getListValue(String key) {
+        return getValidValue(key)
+                .filter(storedValue -> storedValue.type() == ValueType.LIST)
+                .map(ListValue.class::cast);
+    }
+
     private Optional<StoredValue<?>> getValidValue(String key) {
         StoredValue<?> value = store.get(key);
         if (value != null && value.isExpired()) {
-            store.remove(key);
+            expiredKeyHandler.deleteExpired(key, value);
             value = null;
+        } else if (value != null) {
+            value.touch();
         }
         return Optional.ofNullable(value);
     }
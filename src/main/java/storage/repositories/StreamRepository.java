@@ -8,7 +8,9 @@ import java.util.concurrent.ConcurrentSkipListMap;
 
 import errors.ErrorCode;
 import storage.Repository;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.memory.MemoryEstimator;
+import storage.memory.MemoryTracker;
 import storage.types.StoredValue;
 import storage.types.ValueType;
 import storage.types.streams.StreamEntry;
@@ -31,26 +33,30 @@ import utils.StreamIdComparator;
 public final class StreamRepository
         implements Repository<ConcurrentNavigableMap<String, StreamEntry>> {
     private final Map<String, StoredValue<?>> store;
+    private final MemoryTracker memoryTracker;
+    private final ExpiredKeyHandler expiredKeyHandler;
 
-    public StreamRepository(Map<String, StoredValue<?>> store) {
+    public StreamRepository(Map<String, StoredValue<?>> store, MemoryTracker memoryTracker,
+            ExpiredKeyHandler expiredKeyHandler) {
         this.store = store;
+        this.memoryTracker = memoryTracker;
+        this.expiredKeyHandler = expiredKeyHandler;
     }
 
     @Override
     public void put(String key, ConcurrentNavigableMap<String, StreamEntry> value,
-            ExpiryPolicy expiry) {
-        store.put(key, new StreamValue(value, expiry));
+            long expiresAt) {
+        memoryTracker.put(key, new StreamValue(value, expiresAt));
     }
 
     @Override
     public Optional<ConcurrentNavigableMap<String, StreamEntry>> get(String key) {
-        return getValidValue(key).filter(v -> v.type() == ValueType.STREAM)
-                .map(v -> ((StreamValue) v).value());
+        return getStreamValue(key).map(StreamValue::value);
     }
 
     @Override
     public boolean delete(String key) {
-        return store.remove(key) != null;
+        return memoryTracker.remove(key) != null;
     }
 
     @Override
@@ -64,19 +70,17 @@ public final class StreamRepository
     }
 
     public ConcurrentNavigableMap<String, StreamEntry> getOrCreate(String key,
-            ExpiryPolicy expiry) {
-        return get(key).orElseGet(() -> {
-            ConcurrentNavigableMap<String, StreamEntry> newStream = new ConcurrentSkipListMap<>(
-                    StreamIdComparator.INSTANCE);
-            put(key, newStream, expiry);
-            return newStream;
-        });
+            long expiresAt) {
+        return getOrCreateValue(key, expiresAt).value();
     }
 
-    public String addEntry(String key, String id, Map<String, String> fields, ExpiryPolicy expiry) {
-        ConcurrentNavigableMap<String, StreamEntry> stream = getOrCreate(key, expiry);
+    public String addEntry(String key, String id, Map<String, String> fields, long expiresAt) {
+        StreamValue streamValue = getOrCreateValue(key, expiresAt);
+        ConcurrentNavigableMap<String, StreamEntry> stream = streamValue.value();
         String entryId = generateOrValidateId(id, stream);
-        stream.put(entryId, new StreamEntry(entryId, fields));
+        StreamEntry entry = new StreamEntry(entryId, fields);
+        stream.put(entryId, entry);
+        memoryTracker.resize(streamValue, MemoryEstimator.streamEntryBytes(entry));
         return entryId;
     }
 
@@ -179,9 +183,25 @@ public final class StreamRepository
     private Optional<StoredValue<?>> getValidValue(String key) {
         StoredValue<?> value = store.get(key);
         if (value != null && value.isExpired()) {
-            store.remove(key);
+            expiredKeyHandler.deleteExpired(key, value);
             value = null;
+        } else if (value != null) {
+            value.touch();
         }
         return Optional.ofNullable(value);
     }
+
+    private StreamValue getOrCreateValue(String key, long expiresAt) {
+        return getStreamValue(key).orElseGet(() -> {
+            StreamValue newStream = new StreamValue(new ConcurrentSkipListMap<>(StreamIdComparator.INSTANCE),
+                    expiresAt);
+            memoryTracker.put(key, newStream);
+            return newStream;
+        });
+    }
+
+    private Optional<StreamValue> getStreamValue(String key) {
+        return getValidValue(key).filter(v -> v.type() == ValueType.STREAM)
+                .map(StreamValue.class::cast);
+    }
 }
@@ -1,11 +1,15 @@
 package storage.repositories;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Optional;
 
 import errors.ErrorCode;
 import storage.Repository;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.expiry.Expiry;
+import storage.memory.MemoryTracker;
+import storage.offheap.SlabStore;
 import storage.types.StoredValue;
 import storage.types.StringValue;
 import storage.types.ValueType;
@@ -25,14 +29,31 @@ import storage.types.ValueType;
 public final class StringRepository implements Repository<String> {
 
     private final Map<String, StoredValue<?>> store;
-
-    public StringRepository(final Map<String, StoredValue<?>> store) {
+    private final MemoryTracker memoryTracker;
+    private final ExpiredKeyHandler expiredKeyHandler;
+    private final SlabStore slabStore;
+
+    /**
+     * Creates the repository.
+     *
+     * @param store             the keyspace
+     * @param memoryTracker     the tracker values are stored and removed
+     *                          through
+     * @param expiredKeyHandler deletes the keys found expired
+     * @param slabStore         the store values are kept in off the heap, or
+     *                          null to keep them on the heap
+     */
+    public StringRepository(final Map<String, StoredValue<?>> store, final MemoryTracker memoryTracker,
+            final ExpiredKeyHandler expiredKeyHandler, final SlabStore slabStore) {
         this.store = store;
+        this.memoryTracker = memoryTracker;
+        this.expiredKeyHandler = expiredKeyHandler;
+        this.slabStore = slabStore;
     }
 
     @Override
-    public void put(final String key, final String value, final ExpiryPolicy expiry) {
-        store.put(key, StringValue.of(value, expiry));
+    public void put(final String key, final String value, final long expiresAt) {
+        memoryTracker.put(key, StringValue.of(value, expiresAt, slabStore));
     }
 
     @Override
@@ -41,9 +62,30 @@ public final class StringRepository implements Repository<String> {
                 .map(v -> ((StringValue) v).value());
     }
 
+    /**
+     * Returns a string value as a ready-to-send RESP bulk string.
+     *
+     * @param key the key
+     * @return a read-only view of the encoded value, or a copy if it is off
+     *         the heap, or null if the key is missing, expired or not a
+     *         string
+     */
+    public ByteBuffer getEncoded(final String key) {
+        StoredValue<?> value = store.get(key);
+        if (value != null && value.isExpired()) {
+            expiredKeyHandler.deleteExpired(key, value);
+            return null;
+        }
+        if (!(value instanceof StringValue stringValue)) {
+            return null;
+        }
+        stringValue.touch();
+        return stringValue.encodedResponse();
+    }
+
     @Override
     public boolean delete(final String key) {
-        return store.remove(key) != null;
+        return memoryTracker.remove(key) != null;
     }
 
     @Override
@@ -62,7 +104,7 @@ public final class StringRepository implements Repository<String> {
 
         if (currentValue.isEmpty()) {
             // Key doesn't exist, start from 0
-            put(key, "1", ExpiryPolicy.never());
+            put(key, "1", Expiry.NEVER);
             return 1L;
         }
 
@@ -79,7 +121,7 @@ public final class StringRepository implements Repository<String> {
         }
 
         final long newVal = currentLong + 1;
-        put(key, Long.toString(newVal), ExpiryPolicy.never());
+        put(key, Long.toString(newVal), storedValue.expiresAt());
         return newVal;
     }
 
@@ -89,7 +131,7 @@ public final class StringRepository implements Repository<String> {
 
         if (currentValue.isEmpty()) {
             // Key doesn't exist, start from 0
-            put(key, "-1", ExpiryPolicy.never());
+            put(key, "-1", Expiry.NEVER);
             return -1L;
         }
 
@@ -106,13 +148,13 @@ public final class StringRepository implements Repository<String> {
         }
 
         final long newVal = currentLong - 1;
-        put(key, Long.toString(newVal), ExpiryPolicy.never());
+        put(key, Long.toString(newVal), storedValue.expiresAt());
         return newVal;
     }
 
     private void ensureStringKeyExists(final String key) {
         if (!exists(key)) {
-            put(key, "0", ExpiryPolicy.never());
+            put(key, "0", Expiry.NEVER);
         }
         if (getType(key) != ValueType.STRING) {
             throw new IllegalStateException(ErrorCode.WRONG_TYPE.getMessage());
@@ -130,8 +172,10 @@ public final class StringRepository implements Repository<String> {
     private Optional<StoredValue<?>> getValidValue(final String key) {
         StoredValue<?> value = store.get(key);
         if (value != null && value.isExpired()) {
-            store.remove(key);
+            expiredKeyHandler.deleteExpired(key, value);
             value = null;
+        } else if (value != null) {
+            value.touch();
         }
         return Optional.ofNullable(value);
     }
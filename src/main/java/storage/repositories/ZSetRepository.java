@@ -7,7 +7,10 @@ import java.util.Optional;
 import collections.QuickZSet;
 import collections.QuickZSet.ZSetEntry;
 import storage.Repository;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.ExpiredKeyHandler;
+import storage.expiry.Expiry;
+import storage.memory.MemoryEstimator;
+import storage.memory.MemoryTracker;
 import storage.types.StoredValue;
 import storage.types.ValueType;
 import storage.types.ZSetValue;
@@ -15,26 +18,29 @@ import storage.types.ZSetValue;
 public final class ZSetRepository implements Repository<QuickZSet> {
 
     private final Map<String, StoredValue<?>> store;
+    private final MemoryTracker memoryTracker;
+    private final ExpiredKeyHandler expiredKeyHandler;
 
-    public ZSetRepository(final Map<String, StoredValue<?>> store) {
+    public ZSetRepository(final Map<String, StoredValue<?>> store, final MemoryTracker memoryTracker,
+            final ExpiredKeyHandler expiredKeyHandler) {
         this.store = store;
+        this.memoryTracker = memoryTracker;
+        this.expiredKeyHandler = expiredKeyHandler;
     }
 
     @Override
-    public void put(final String key, final QuickZSet value, final ExpiryPolicy expiry) {
-        store.put(key, new ZSetValue(value, expiry));
+    public void put(final String key, final QuickZSet value, final long expiresAt) {
+        memoryTracker.put(key, new ZSetValue(value, expiresAt));
     }
 
     @Override
     public Optional<QuickZSet> get(final String key) {
-        return getValidValue(key)
-                .filter(v -> v.type() == ValueType.ZSET)
-                .map(v -> ((ZSetValue) v).value());
+        return getZSetValue(key).map(ZSetValue::value);
     }
 
     @Override
     public boolean delete(final String key) {
-        return store.remove(key) != null;
+        return memoryTracker.remove(key) != null;
     }
 
     @Override
@@ -50,32 +56,50 @@ public final class ZSetRepository implements Repository<QuickZSet> {
     private Optional<StoredValue<?>> getValidValue(final String key) {
         StoredValue<?> value = store.get(key);
         if (value != null && value.isExpired()) {
-            store.remove(key);
+            expiredKeyHandler.deleteExpired(key, value);
             value = null;
+        } else if (value != null) {
+            value.touch();
         }
         return Optional.ofNullable(value);
     }
 
+    private Optional<ZSetValue> getZSetValue(final String key) {
+        return getValidValue(key)
+                .filter(v -> v.type() == ValueType.ZSET)
+                .map(ZSetValue.class::cast);
+    }
+
     // === ZSet operations ===
 
     /** Add or update a member with a score, returns true if new member was added */
     public boolean add(final String key, final String member, final double score) {
-        final QuickZSet zset = getOrCreate(key);
-        return zset.add(member, score);
+        final ZSetValue zset = getOrCreate(key);
+        final boolean added = zset.value().add(member, score);
+        if (added) {
+            memoryTracker.resize(zset, MemoryEstimator.zsetMemberBytes(member));
+        }
+        return added;
     }
 
     /** Remove a member */
     public boolean remove(final String key, final String member) {
-        return get(key).map(zset -> zset.remove(member)).orElse(false);
+        return getZSetValue(key).map(zset -> {
+            final boolean removed = zset.value().remove(member);
+            if (removed) {
+                memoryTracker.resize(zset, -MemoryEstimator.zsetMemberBytes(member));
+            }
+            return removed;
+        }).orElse(false);
     }
 
     /** Pop min */
     public Optional<ZSetEntry> popMin(final String key) {
-        return get(key).flatMap(QuickZSet::popMin);
+        return getZSetValue(key).flatMap(zset -> released(zset, zset.value().popMin()));
     }
 
     public Optional<ZSetEntry> popMax(final String key) {
-        return get(key).flatMap(QuickZSet::popMax);
+        return getZSetValue(key).flatMap(zset -> released(zset, zset.value().popMax()));
     }
 
     /** Range by rank (supports negative index) */
@@ -103,12 +127,18 @@ public final class ZSetRepository implements Repository<QuickZSet> {
         return get(key).map(zset -> zset.getRank(member)).orElse(null);
     }
 
-    /** Get or create a QuickZSet */
-    private QuickZSet getOrCreate(final String key) {
-        return get(key).orElseGet(() -> {
-            final QuickZSet newSet = new QuickZSet();
-            put(key, newSet);
+    /** Get or create a sorted set value */
+    private ZSetValue getOrCreate(final String key) {
+        return getZSetValue(key).orElseGet(() -> {
+            final ZSetValue newSet = new ZSetValue(new QuickZSet(), Expiry.NEVER);
+            memoryTracker.put(key, newSet);
             return newSet;
         });
     }
+
+    /** Account for a popped member */
+    private Optional<ZSetEntry> released(final ZSetValue zset, final Optional<ZSetEntry> popped) {
+        popped.ifPresent(entry -> memoryTracker.resize(zset, -MemoryEstimator.zsetMemberBytes(entry.member())));
+        return popped;
+    }
 }
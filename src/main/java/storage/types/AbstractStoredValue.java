@@ -0,0 +1,81 @@
+package storage.types;
+
+import storage.eviction.AccessClock;
+import storage.expiry.Expiry;
+import storage.memory.MemoryTracker;
+import storage.types.streams.StreamValue;
+
+/**
+ * Base of the stored value types: holds the expiry deadline, the access
+ * clock used for eviction and the estimated memory the value takes.
+ *
+ * <p>
+ * The deadline is fixed; changing it creates a new value sharing the
+ * contents. The access clock changes on every read and write of the key, see
+ * {@link AccessClock}. The memory estimate is kept by {@link MemoryTracker}
+ * as the contents grow and shrink.
+ * </p>
+ *
+ * @param <T> the type of the stored value
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public abstract sealed class AbstractStoredValue<T> implements StoredValue<T>
+        permits StringValue, ListValue, StreamValue, ZSetValue {
+
+    private final long expiresAt;
+    private int accessClock;
+    private long memoryBytes;
+
+    /**
+     * Creates a value that was just accessed.
+     *
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
+     */
+    protected AbstractStoredValue(long expiresAt) {
+        this.expiresAt = expiresAt;
+        this.accessClock = AccessClock.initial();
+    }
+
+    /**
+     * Creates a value replacing another with the same contents, keeping its
+     * access clock and memory estimate.
+     *
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
+     * @param source    the value replaced
+     */
+    protected AbstractStoredValue(long expiresAt, AbstractStoredValue<T> source) {
+        this.expiresAt = expiresAt;
+        this.accessClock = source.accessClock;
+        this.memoryBytes = source.memoryBytes;
+    }
+
+    @Override
+    public final long expiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public final int accessClock() {
+        return accessClock;
+    }
+
+    @Override
+    public final void touch() {
+        accessClock = AccessClock.touch(accessClock);
+    }
+
+    @Override
+    public final long memoryBytes() {
+        return memoryBytes;
+    }
+
+    @Override
+    public final void resizeMemory(long delta) {
+        memoryBytes += delta;
+    }
+}
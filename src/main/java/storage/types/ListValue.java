@@ -1,10 +1,10 @@
 package storage.types;
 
 import collections.QuickList;
-import storage.expiry.ExpiryPolicy;
+import storage.expiry.Expiry;
 
 /**
- * Represents a Redis-style list value with an associated expiry policy.
+ * Represents a Redis-style list value with an associated expiry deadline.
  * 
  * @Override
  *           public ValueType type() {
@@ -16,10 +16,26 @@ import storage.expiry.ExpiryPolicy;
  * @since 1.0
  *        The default expiry policy for lists that never expire.
  */
-public record ListValue(QuickList<String> list, ExpiryPolicy expiry)
-        implements StoredValue<QuickList<String>> {
+public final class ListValue extends AbstractStoredValue<QuickList<String>> {
 
-    private static final ExpiryPolicy DEFAULT_EXPIRY = ExpiryPolicy.never();
+    private final QuickList<String> list;
+
+    /**
+     * Creates a list value.
+     *
+     * @param list      the list
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
+     */
+    public ListValue(QuickList<String> list, long expiresAt) {
+        super(expiresAt);
+        this.list = list;
+    }
+
+    private ListValue(QuickList<String> list, long expiresAt, ListValue source) {
+        super(expiresAt, source);
+        this.list = list;
+    }
 
     @Override
     public ValueType type() {
@@ -27,22 +43,17 @@ public record ListValue(QuickList<String> list, ExpiryPolicy expiry)
     }
 
     /**
-     * Creates an empty list value with the default expiry policy (never expires).
+     * Creates an empty list value that never expires.
      *
-     * @return a new ListValue instance with an empty list and default expiry
+     * @return a new ListValue instance with an empty list and no deadline
      */
     public static ListValue empty() {
-        return new ListValue(new QuickList<>(), DEFAULT_EXPIRY);
+        return new ListValue(new QuickList<>(), Expiry.NEVER);
     }
 
-    /**
-     * Creates an empty list value with the specified expiry policy.
-     *
-     * @param expiryPolicy the expiry policy to associate with the list
-     * @return a new ListValue instance with an empty list and the given expiry
-     */
-    public static ListValue empty(ExpiryPolicy expiryPolicy) {
-        return new ListValue(new QuickList<>(), expiryPolicy);
+    @Override
+    public ListValue withExpiresAt(long expiresAt) {
+        return new ListValue(list, expiresAt, this);
     }
 
     /**
@@ -1,18 +1,18 @@
 package storage.types;
 
-import storage.expiry.ExpiryPolicy;
-import storage.types.streams.StreamValue;
+import storage.eviction.AccessClock;
+import storage.expiry.Expiry;
 
 /**
  * Represents a value stored in the storage system with an associated expiry
- * policy and type.
+ * deadline and type.
  * 
  * @param <T> the type of the stored value
  * 
  * @author Ankit Kumar
  * @version 1.0
  */
-public sealed interface StoredValue<T> permits StringValue, ListValue, StreamValue, ZSetValue {
+public sealed interface StoredValue<T> permits AbstractStoredValue {
 
     /**
      * Returns the actual stored value.
@@ -22,11 +22,56 @@ public sealed interface StoredValue<T> permits StringValue, ListValue, StreamVal
     T value();
 
     /**
-     * Returns the expiry policy associated with this value.
+     * Returns the time after which this value is gone.
      *
-     * @return the expiry policy
+     * @return the deadline in epoch milliseconds, or {@link Expiry#NEVER}
      */
-    ExpiryPolicy expiry();
+    long expiresAt();
+
+    /**
+     * Returns this value with another deadline. The contents are shared, not
+     * copied.
+     *
+     * @param expiresAt the new deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
+     * @return a value holding the same contents
+     */
+    StoredValue<T> withExpiresAt(long expiresAt);
+
+    /**
+     * Returns the clock eviction ranks the value by: when it was last
+     * accessed, or how often, depending on the eviction policy.
+     *
+     * @return the access clock, see {@link AccessClock}
+     */
+    int accessClock();
+
+    /**
+     * Records an access to the value in its access clock.
+     */
+    void touch();
+
+    /**
+     * Returns the estimated memory the value takes, without its key.
+     *
+     * @return the estimate in bytes
+     */
+    long memoryBytes();
+
+    /**
+     * Changes the memory estimate of the value. Only the memory tracker
+     * calls this, keeping its totals in step.
+     *
+     * @param delta the bytes added, negative if freed
+     */
+    void resizeMemory(long delta);
+
+    /**
+     * Frees the memory the value holds outside the heap. Only the memory
+     * tracker calls this, once the value has left the store.
+     */
+    default void release() {
+    }
 
     /**
      * Returns the type of the stored value.
@@ -36,11 +81,20 @@ public sealed interface StoredValue<T> permits StringValue, ListValue, StreamVal
     ValueType type();
 
     /**
-     * Checks if the value has expired based on its expiry policy.
+     * Checks if the value has expired based on its deadline.
      *
      * @return {@code true} if expired, {@code false} otherwise
      */
     default boolean isExpired() {
-        return expiry().isExpired();
+        return Expiry.isExpired(expiresAt());
+    }
+
+    /**
+     * Checks if the value has a time to live.
+     *
+     * @return {@code true} unless the value never expires
+     */
+    default boolean isVolatile() {
+        return expiresAt() != Expiry.NEVER;
     }
 }
@@ -1,19 +1,97 @@
 package storage.types;
 
-import storage.expiry.ExpiryPolicy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import config.ProtocolConstants;
+import storage.expiry.Expiry;
+import storage.offheap.OffHeapString;
+import storage.offheap.SlabStore;
 
 /**
  * Represents a string value stored in the system with an associated expiry
- * policy.
+ * deadline.
  * Provides factory methods for creating instances with or without expiry.
  *
+ * <p>
+ * The value is kept in the form GET sends it: the payload bytes framed as a
+ * RESP bulk string ({@code $len\r\npayload\r\n}), encoded once when the value
+ * is written. A GET hands a read-only view of these bytes to the writer
+ * instead of encoding the string on every read; commands that need the text,
+ * such as INCR, decode the payload.
+ * </p>
+ *
+ * <p>
+ * With {@code offheap-strings} enabled the encoded bytes live in a
+ * {@link SlabStore} instead, and the value holds only their handle. A GET
+ * then copies them onto the heap while the key's stripe is held: the reply is
+ * written after the lock is released, when the slot may already have been
+ * freed, reused or moved by compaction. The slot is freed by
+ * {@link #release()} once the value has left the store.
+ * </p>
+ *
  * @author Ankit Kumar
  * @version 1.0
  */
-public record StringValue(String stringValue, ExpiryPolicy expiryPolicy) implements StoredValue<String> {
+public final class StringValue extends AbstractStoredValue<String> {
 
     private static final ValueType VALUE_TYPE = ValueType.STRING;
 
+    private static final byte[] CRLF = ProtocolConstants.CRLF.getBytes(StandardCharsets.US_ASCII);
+
+    /** The encoded bytes on the heap, or null if they are off the heap */
+    private final byte[] encoded;
+
+    /** The encoded bytes off the heap, or null if they are on the heap */
+    private final OffHeapString offHeap;
+
+    /**
+     * Creates a value from an encoded bulk string.
+     *
+     * @param encoded   the payload framed as a RESP bulk string
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@link Expiry#NEVER}
+     */
+    public StringValue(byte[] encoded, long expiresAt) {
+        super(expiresAt);
+        this.encoded = encoded;
+        this.offHeap = null;
+    }
+
+    private StringValue(byte[] encoded, OffHeapString offHeap, long expiresAt, StringValue source) {
+        super(expiresAt, source);
+        this.encoded = encoded;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Returns the value as stored: the payload framed as a RESP bulk string.
+     *
+     * @return the encoded bytes, not to be modified; a copy if they are off
+     *         the heap
+     */
+    public byte[] encoded() {
+        return encoded != null ? encoded : offHeap.toByteArray();
+    }
+
+    /**
+     * Returns the length of the value as stored.
+     *
+     * @return the length of the encoded bulk string in bytes
+     */
+    public int encodedLength() {
+        return encoded != null ? encoded.length : offHeap.length();
+    }
+
+    /**
+     * Returns the off-heap memory reserved for the value.
+     *
+     * @return the size of its slot in bytes, or 0 if the value is on the heap
+     */
+    public int offHeapBytes() {
+        return offHeap != null ? offHeap.slotSize() : 0;
+    }
+
     /**
      * Returns the type of value stored.
      *
@@ -32,39 +110,120 @@ public record StringValue(String stringValue, ExpiryPolicy expiryPolicy) impleme
      */
     public static StringValue of(String stringValue) {
 
-        return new StringValue(stringValue, ExpiryPolicy.never());
+        return of(stringValue, Expiry.NEVER);
     }
 
     /**
-     * Creates a StringValue with a specified expiry policy.
+     * Creates a StringValue with a specified expiry deadline.
      *
-     * @param stringValue  the string to store
-     * @param expiryPolicy the expiry policy to apply
-     * @return a new StringValue instance with the given expiry policy
+     * @param stringValue the string to store
+     * @param expiresAt   the deadline in epoch milliseconds, or
+     *                    {@link Expiry#NEVER}
+     * @return a new StringValue instance with the given deadline
+     */
+    public static StringValue of(String stringValue, long expiresAt) {
+
+        return new StringValue(encode(stringValue), expiresAt);
+    }
+
+    /**
+     * Creates a StringValue kept off the heap, or on the heap if there is no
+     * slab store or it is out of memory.
+     *
+     * @param stringValue the string to store
+     * @param expiresAt   the deadline in epoch milliseconds, or
+     *                    {@link Expiry#NEVER}
+     * @param slabStore   the store to keep the value in, or null
+     * @return a new StringValue instance with the given deadline
      */
-    public static StringValue of(String stringValue, ExpiryPolicy expiryPolicy) {
+    public static StringValue of(String stringValue, long expiresAt, SlabStore slabStore) {
+        StringValue value = of(stringValue, expiresAt);
+        return slabStore != null ? value.moveOffHeap(slabStore) : value;
+    }
 
-        return new StringValue(stringValue, expiryPolicy);
+    /**
+     * Returns this value kept off the heap, with the same deadline and access
+     * clock. The heap copy is left to the garbage collector.
+     *
+     * @param slabStore the store to keep the value in
+     * @return the off-heap value, or this value if it is already off the heap
+     *         or the store is out of memory
+     */
+    public StringValue moveOffHeap(SlabStore slabStore) {
+        if (offHeap != null) {
+            return this;
+        }
+        OffHeapString moved = slabStore.allocate(encoded);
+        return moved != null ? new StringValue(null, moved, expiresAt(), this) : this;
     }
 
     /**
-     * Returns the actual stored string value.
-     * 
+     * Returns the actual stored string value, decoded from the payload.
+     *
      * @return the stored string value
      */
     @Override
     public String value() {
-        return stringValue;
+        byte[] bytes = encoded();
+        int offset = payloadOffset(bytes);
+        return new String(bytes, offset, bytes.length - offset - CRLF.length, ProtocolConstants.BYTE_CHARSET);
     }
 
     /**
-     * Returns the expiry policy associated with this string value.
-     * 
-     * @return the expiry policy
+     * Returns the value as a RESP bulk string, ready to be written to a
+     * client. The view is read-only and has its own position, so it may be
+     * handed to any number of writers. An off-heap value is copied, so the
+     * key's stripe must be held.
+     *
+     * @return the encoded bulk string
      */
+    public ByteBuffer encodedResponse() {
+        return encoded != null ? ByteBuffer.wrap(encoded).asReadOnlyBuffer() : ByteBuffer.wrap(offHeap.toByteArray());
+    }
 
     @Override
-    public ExpiryPolicy expiry() {
-        return expiryPolicy;
+    public StringValue withExpiresAt(long expiresAt) {
+        return new StringValue(encoded, offHeap, expiresAt, this);
+    }
+
+    /**
+     * Frees the slot of an off-heap value. Values sharing the slot through
+     * {@link #withExpiresAt(long)} must not be used afterwards.
+     */
+    @Override
+    public void release() {
+        if (offHeap != null) {
+            offHeap.free();
+        }
+    }
+
+    /**
+     * Returns the index of the first payload byte, just past the
+     * {@code $len\r\n} header.
+     */
+    private static int payloadOffset(byte[] encoded) {
+        int offset = 1;
+        while (encoded[offset] != '\n') {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    /**
+     * Frames the string as a RESP bulk string in a single array. Each char is
+     * one payload byte ({@link ProtocolConstants#BYTE_CHARSET}), so the
+     * payload is copied straight out of the string without an intermediate
+     * byte array.
+     */
+    @SuppressWarnings("deprecation")
+    private static byte[] encode(String payload) {
+        int length = payload.length();
+        byte[] header = (ProtocolConstants.BULK_STRING + Integer.toString(length) + ProtocolConstants.CRLF)
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] result = new byte[header.length + length + CRLF.length];
+        System.arraycopy(header, 0, result, 0, header.length);
+        payload.getBytes(0, length, result, header.length);
+        System.arraycopy(CRLF, 0, result, header.length + length, CRLF.length);
+        return result;
     }
 }
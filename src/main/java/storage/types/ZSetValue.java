@@ -1,28 +1,32 @@
 package storage.types;
 
 import collections.QuickZSet;
-import storage.expiry.ExpiryPolicy;
 
 /**
- * Represents a stored sorted set (ZSet) value with an associated expiry policy.
+ * Represents a stored sorted set (ZSet) value with an associated expiry deadline.
  * Used for data persistence in the storage layer.
  */
-public final class ZSetValue implements StoredValue<QuickZSet> {
+public final class ZSetValue extends AbstractStoredValue<QuickZSet> {
 
     private static final ValueType VALUE_TYPE = ValueType.ZSET;
 
     private final QuickZSet zset;
-    private final ExpiryPolicy expiryPolicy;
 
     /**
-     * Constructs a ZSetValue with the specified sorted set and expiry policy.
+     * Constructs a ZSetValue with the specified sorted set and expiry deadline.
      *
-     * @param zset         the sorted set value to store
-     * @param expiryPolicy the expiry policy for this value
+     * @param zset      the sorted set value to store
+     * @param expiresAt the deadline in epoch milliseconds, or
+     *                  {@code Expiry.NEVER}
      */
-    public ZSetValue(QuickZSet zset, ExpiryPolicy expiryPolicy) {
+    public ZSetValue(QuickZSet zset, long expiresAt) {
+        super(expiresAt);
+        this.zset = zset;
+    }
+
+    private ZSetValue(QuickZSet zset, long expiresAt, ZSetValue source) {
+        super(expiresAt, source);
         this.zset = zset;
-        this.expiryPolicy = expiryPolicy;
     }
 
     /**
@@ -35,14 +39,9 @@ public final class ZSetValue implements StoredValue<QuickZSet> {
         return zset;
     }
 
-    /**
-     * Returns the expiry policy associated with this value.
-     *
-     * @return the ExpiryPolicy instance
-     */
     @Override
-    public ExpiryPolicy expiry() {
-        return expiryPolicy;
+    public ZSetValue withExpiresAt(long expiresAt) {
+        return new ZSetValue(zset, expiresAt, this);
     }
 
     /**
@@ -2,20 +2,18 @@ package storage.types.streams;
 
 import java.util.concurrent.ConcurrentNavigableMap;
 
-import storage.expiry.ExpiryPolicy;
-import storage.types.StoredValue;
+import storage.expiry.Expiry;
+import storage.types.AbstractStoredValue;
 import storage.types.ValueType;
 
 /**
  * Represents a stream value in the storage system.
- * Holds a navigable map of stream entries and an expiry policy.
+ * Holds a navigable map of stream entries and an expiry deadline.
  * 
  * @author Ankit Kumar
  * @version 1.0
  */
-public record StreamValue(
-        ConcurrentNavigableMap<String, StreamEntry> streamEntries,
-        ExpiryPolicy expiryPolicy) implements StoredValue<ConcurrentNavigableMap<String, StreamEntry>> {
+public final class StreamValue extends AbstractStoredValue<ConcurrentNavigableMap<String, StreamEntry>> {
 
     /**
      * The value type for this stored value.
@@ -23,6 +21,35 @@ public record StreamValue(
 
     public static final ValueType STREAM_VALUE_TYPE = ValueType.STREAM;
 
+    private final ConcurrentNavigableMap<String, StreamEntry> streamEntries;
+
+    /**
+     * Creates a stream value.
+     *
+     * @param streamEntries the entries by ID
+     * @param expiresAt     the deadline in epoch milliseconds, or
+     *                      {@link Expiry#NEVER}
+     */
+    public StreamValue(ConcurrentNavigableMap<String, StreamEntry> streamEntries, long expiresAt) {
+        super(expiresAt);
+        this.streamEntries = streamEntries;
+    }
+
+    private StreamValue(ConcurrentNavigableMap<String, StreamEntry> streamEntries, long expiresAt,
+            StreamValue source) {
+        super(expiresAt, source);
+        this.streamEntries = streamEntries;
+    }
+
+    /**
+     * Returns the entries of the stream.
+     *
+     * @return the entries by ID
+     */
+    public ConcurrentNavigableMap<String, StreamEntry> streamEntries() {
+        return streamEntries;
+    }
+
     @Override
     public ValueType type() {
         return STREAM_VALUE_TYPE;
@@ -34,7 +61,7 @@ public record StreamValue(
     }
 
     @Override
-    public ExpiryPolicy expiry() {
-        return expiryPolicy;
+    public StreamValue withExpiresAt(long expiresAt) {
+        return new StreamValue(streamEntries, expiresAt, this);
     }
 }
\ No newline at end of file
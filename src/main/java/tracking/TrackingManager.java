@@ -0,0 +1,287 @@
+package tracking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import protocol.ResponseBuilder;
+import pubsub.PubSubState;
+import server.ClientSession;
+import server.ClientWriter;
+import server.OutputBufferLimitException;
+
+/**
+ * Server side of client-side caching ({@code CLIENT TRACKING}).
+ *
+ * <p>
+ * In the default mode the server remembers which clients read which keys, in
+ * a table from key to the ids of its readers, and tells those clients when
+ * the key changes. Each key is reported once and then forgotten until it is
+ * read again. The table is bounded; when it is full an arbitrary key is
+ * invalidated to make room, which costs the readers a cache miss but never
+ * a stale value. In BCAST mode nothing is remembered per key: a client
+ * registers key prefixes and hears about every change of a matching key.
+ * </p>
+ *
+ * <p>
+ * Keys are read and written by commands running in parallel on different
+ * lock stripes, and by eviction and expiry, so the reader sets are
+ * concurrent too. Registered prefixes are indexed by their length: a write
+ * looks up the key's own prefix of each registered length, so its cost
+ * grows with the number of distinct lengths rather than with the number of
+ * prefixes.
+ * </p>
+ *
+ * <p>
+ * Invalidations are sent as pub/sub messages on
+ * {@value #INVALIDATE_CHANNEL}, either to the tracking client itself or to
+ * the client named with {@code REDIRECT}, and only while that client is
+ * subscribed to the channel. Entries of clients that stopped tracking are
+ * dropped lazily, when their keys are invalidated.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TrackingManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrackingManager.class);
+
+    /** Channel the invalidation messages are published on */
+    public static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+
+    private static final String MESSAGE_TYPE = "message";
+
+    /** Prefix registered by a BCAST client without PREFIX options */
+    private static final String ALL_KEYS_PREFIX = "";
+
+    private final Map<Long, ClientSession> trackingClients = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> keyReaders = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> prefixSubscribers = new ConcurrentHashMap<>();
+
+    /** Distinct lengths of the registered prefixes, ascending, replaced on change */
+    private volatile int[] prefixLengths = new int[0];
+    private final ClientWriter clientWriter;
+    private final int maxTrackedKeys;
+
+    /**
+     * Creates the manager.
+     *
+     * @param clientWriter   the writer delivering invalidation messages
+     * @param maxTrackedKeys the number of keys remembered for default-mode
+     *                       clients before keys are evicted
+     */
+    public TrackingManager(ClientWriter clientWriter, int maxTrackedKeys) {
+        this.clientWriter = clientWriter;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Turns tracking on for a client, replacing its previous options.
+     *
+     * @param client the client
+     * @param state  the tracking options
+     */
+    public void enable(ClientSession client, TrackingState state) {
+        disable(client);
+        client.setTrackingState(state);
+        trackingClients.put(client.getId(), client);
+        if (state.isBroadcast()) {
+            List<String> prefixes = state.getPrefixes().isEmpty() ? List.of(ALL_KEYS_PREFIX) : state.getPrefixes();
+            synchronized (prefixSubscribers) {
+                for (String prefix : prefixes) {
+                    prefixSubscribers.computeIfAbsent(prefix, _ -> ConcurrentHashMap.newKeySet()).add(client.getId());
+                }
+                indexPrefixLengths();
+            }
+        }
+        LOGGER.debug("Tracking enabled for client {} (bcast={})", client, state.isBroadcast());
+    }
+
+    /**
+     * Turns tracking off for a client. Does nothing if it was not tracking.
+     *
+     * @param client the client
+     */
+    public void disable(ClientSession client) {
+        TrackingState state = client.getTrackingState();
+        if (state == null) {
+            return;
+        }
+        client.setTrackingState(null);
+        trackingClients.remove(client.getId());
+        if (state.isBroadcast()) {
+            List<String> prefixes = state.getPrefixes().isEmpty() ? List.of(ALL_KEYS_PREFIX) : state.getPrefixes();
+            synchronized (prefixSubscribers) {
+                for (String prefix : prefixes) {
+                    prefixSubscribers.computeIfPresent(prefix, (_, ids) -> {
+                        ids.remove(client.getId());
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+                indexPrefixLengths();
+            }
+        }
+    }
+
+    /**
+     * Drops the tracking state of a disconnecting client.
+     *
+     * @param client the client session
+     */
+    public void clearState(ClientSession client) {
+        if (client != null) {
+            disable(client);
+        }
+    }
+
+    /**
+     * Remembers that a client read a key, so it is told when the key
+     * changes. Does nothing for clients that are not tracking, track in
+     * BCAST mode, or opted out of caching the reply.
+     *
+     * @param client the client that ran a read command
+     * @param key    the key read
+     */
+    public void rememberRead(ClientSession client, String key) {
+        TrackingState state = client.getTrackingState();
+        if (state == null || state.isBroadcast() || !state.shouldTrack(client.getCommandCount())) {
+            return;
+        }
+        if (keyReaders.size() >= maxTrackedKeys && !keyReaders.containsKey(key)) {
+            evictKey();
+        }
+        keyReaders.compute(key, (_, readers) -> {
+            Set<Long> ids = readers != null ? readers : ConcurrentHashMap.newKeySet();
+            ids.add(client.getId());
+            return ids;
+        });
+    }
+
+    /**
+     * Tells the clients tracking a key that it changed.
+     *
+     * @param key the modified key
+     */
+    public void invalidate(String key) {
+        if (trackingClients.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer message = null;
+        Set<Long> readers = keyReaders.remove(key);
+        if (readers != null) {
+            message = invalidationMessage(key);
+            for (Long id : readers) {
+                send(trackingClients.get(id), message);
+            }
+        }
+
+        for (int length : prefixLengths) {
+            if (length > key.length()) {
+                break;
+            }
+            Set<Long> subscribers = prefixSubscribers.get(key.substring(0, length));
+            if (subscribers != null) {
+                if (message == null) {
+                    message = invalidationMessage(key);
+                }
+                for (Long id : subscribers) {
+                    send(trackingClients.get(id), message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells every tracking client that all keys changed, after the store
+     * was flushed, and forgets all remembered keys.
+     */
+    public void invalidateAll() {
+        keyReaders.clear();
+        if (trackingClients.isEmpty()) {
+            return;
+        }
+        ByteBuffer message = invalidationMessage(null);
+        for (ClientSession client : trackingClients.values()) {
+            send(client, message);
+        }
+    }
+
+    public int getTrackingClientCount() {
+        return trackingClients.size();
+    }
+
+    public int getTrackedKeyCount() {
+        return keyReaders.size();
+    }
+
+    public int getPrefixCount() {
+        return prefixSubscribers.size();
+    }
+
+    /**
+     * Rebuilds the index of prefix lengths after prefixes were registered or
+     * dropped. The caller holds the prefix table's monitor.
+     */
+    private void indexPrefixLengths() {
+        prefixLengths = prefixSubscribers.keySet().stream()
+                .mapToInt(String::length)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Makes room in the full key table by invalidating an arbitrary key.
+     */
+    private void evictKey() {
+        Iterator<String> keys = keyReaders.keySet().iterator();
+        if (keys.hasNext()) {
+            invalidate(keys.next());
+        }
+    }
+
+    /**
+     * Sends an invalidation to the client receiving the messages of a
+     * tracking client, if it still tracks and the receiver listens.
+     */
+    private void send(ClientSession client, ByteBuffer message) {
+        TrackingState state = client != null ? client.getTrackingState() : null;
+        if (state == null) {
+            return;
+        }
+        ClientSession target = state.getRedirect() != null ? state.getRedirect() : client;
+        PubSubState pubSubState = target.peekPubSubState();
+        if (pubSubState == null || !pubSubState.getSubscribedChannels().contains(INVALIDATE_CHANNEL)) {
+            return;
+        }
+
+        try {
+            clientWriter.write(target, message.duplicate());
+        } catch (OutputBufferLimitException e) {
+            // The receiver was disconnected for not reading its messages
+        } catch (IOException e) {
+            LOGGER.debug("Failed to send invalidation to {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes the invalidation message for a key, or for all keys when the
+     * key is null.
+     */
+    private static ByteBuffer invalidationMessage(String key) {
+        return ResponseBuilder.arrayOfBuffers(List.of(
+                ResponseBuilder.bulkString(MESSAGE_TYPE),
+                ResponseBuilder.bulkString(INVALIDATE_CHANNEL),
+                key != null ? ResponseBuilder.array(List.of(key)) : ResponseBuilder.bulkString(null)));
+    }
+}
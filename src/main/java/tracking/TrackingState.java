@@ -0,0 +1,96 @@
+package tracking;
+
+import java.util.List;
+
+import server.ClientSession;
+
+/**
+ * The {@code CLIENT TRACKING} options of one client.
+ *
+ * <p>
+ * A new state is created each time the client turns tracking on, so the
+ * options themselves never change. Only the {@code CLIENT CACHING} marker is
+ * updated, by the commands of the client itself, which execute one at a time.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TrackingState {
+
+    private final ClientSession redirect;
+    private final boolean broadcast;
+    private final boolean optIn;
+    private final boolean optOut;
+    private final List<String> prefixes;
+
+    /** Number of the CLIENT CACHING command, or -1 if none was sent */
+    private long cachingCommand = -1;
+
+    /**
+     * Creates the options of a client that turned tracking on.
+     *
+     * @param redirect  the client receiving the invalidation messages, or null
+     *                  to send them to the tracking client itself
+     * @param broadcast true for BCAST mode
+     * @param optIn     true for OPTIN mode
+     * @param optOut    true for OPTOUT mode
+     * @param prefixes  the BCAST prefixes, empty to match every key
+     */
+    public TrackingState(ClientSession redirect, boolean broadcast, boolean optIn, boolean optOut,
+            List<String> prefixes) {
+        this.redirect = redirect;
+        this.broadcast = broadcast;
+        this.optIn = optIn;
+        this.optOut = optOut;
+        this.prefixes = List.copyOf(prefixes);
+    }
+
+    public ClientSession getRedirect() {
+        return redirect;
+    }
+
+    public boolean isBroadcast() {
+        return broadcast;
+    }
+
+    public boolean isOptIn() {
+        return optIn;
+    }
+
+    public boolean isOptOut() {
+        return optOut;
+    }
+
+    public List<String> getPrefixes() {
+        return prefixes;
+    }
+
+    /**
+     * Records a {@code CLIENT CACHING} command, which applies to the command
+     * that follows it.
+     *
+     * @param commandNumber the client's command count including the CACHING
+     *                      command
+     */
+    public void markCaching(long commandNumber) {
+        this.cachingCommand = commandNumber;
+    }
+
+    /**
+     * Decides whether the keys read by a command are remembered: always in
+     * the default mode, only right after {@code CLIENT CACHING yes} in OPTIN
+     * mode, and unless right after {@code CLIENT CACHING no} in OPTOUT mode.
+     *
+     * @param commandNumber the client's command count including the read
+     * @return true if the keys should be tracked
+     */
+    public boolean shouldTrack(long commandNumber) {
+        boolean overridden = cachingCommand >= 0 && commandNumber == cachingCommand + 1;
+        if (optIn) {
+            return overridden;
+        }
+        return !optOut || !overridden;
+    }
+}
@@ -1,6 +1,5 @@
 package transaction;
 
-import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -8,12 +7,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import server.ClientSession;
 import server.ServerContext;
 
 /**
  * TransactionManager manages transaction states for clients, supporting
  * MULTI/EXEC and WATCH functionality.
  * It handles queuing commands, tracking watched keys, and transaction metrics.
+ * Each client's {@link TransactionState} lives in its {@link ClientSession};
+ * this class only keeps the reverse index from watched keys to clients.
  *
  * @author Ankit Kumar
  * @version 1.0
@@ -25,11 +27,8 @@ public final class TransactionManager {
     // Stateless TransactionState for replicated commands (no client)
     private static final TransactionState REPLICATED_COMMAND_STATE = new TransactionState();
 
-    // Map of client channels to their transaction states
-    private final Map<SocketChannel, TransactionState> clientTransactionStates = new ConcurrentHashMap<>();
-
     // Reverse index: key -> set of clients watching that key (for performance)
-    private final Map<String, Set<SocketChannel>> keyToWatchingClients = new ConcurrentHashMap<>();
+    private final Map<String, Set<ClientSession>> keyToWatchingClients = new ConcurrentHashMap<>();
 
     private final ServerContext serverContext;
 
@@ -46,84 +45,88 @@ public final class TransactionManager {
      * Returns the TransactionState for a client, creating one if necessary.
      * For replicated commands (null client), returns a stateless TransactionState.
      *
-     * @param clientChannel the client channel, or null for replicated commands
+     * @param client the client session, or null for replicated commands
      * @return the TransactionState for the client
      */
-    public TransactionState getOrCreateState(final SocketChannel clientChannel) {
-        if (clientChannel == null) {
+    public TransactionState getOrCreateState(final ClientSession client) {
+        if (client == null) {
             return REPLICATED_COMMAND_STATE;
         }
-        return clientTransactionStates.computeIfAbsent(clientChannel, ch -> new TransactionState());
+        return client.getTransactionState();
     }
 
     /**
      * Checks if the client is currently in a transaction.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      * @return true if the client is in a transaction, false otherwise
      */
-    public boolean isInTransaction(final SocketChannel clientChannel) {
-        final TransactionState transactionState = clientTransactionStates.get(clientChannel);
-        return transactionState != null && transactionState.isInTransaction();
+    public boolean isInTransaction(final ClientSession client) {
+        return client != null && client.isInTransaction();
     }
 
     /**
-     * Clears the transaction state for a client and updates metrics if needed.
+     * Clears the transaction state of a disconnecting client and updates
+     * metrics if needed.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      */
-    public void clearState(final SocketChannel clientChannel) {
-        final TransactionState transactionState = clientTransactionStates.remove(clientChannel);
+    public void clearState(final ClientSession client) {
+        final TransactionState transactionState = client.peekTransactionState();
         if (transactionState != null) {
-            // Clean up reverse index
-            final Set<String> watchedKeys = transactionState.getWatchedKeys();
-            for (final String key : watchedKeys) {
-                final Set<SocketChannel> clients = keyToWatchingClients.get(key);
-                if (clients != null) {
-                    clients.remove(clientChannel);
-                    if (clients.isEmpty()) {
-                        keyToWatchingClients.remove(key);
-                    }
-                }
-            }
+            removeFromWatchIndex(client, transactionState);
 
             if (transactionState.isInTransaction()) {
+                transactionState.clearTransaction();
                 serverContext.getMetricsCollector().decrementActiveTransactions();
             }
-            LOGGER.info("Cleared transaction state for client: {}", clientChannel);
+            transactionState.clearWatchedKeys();
+            LOGGER.debug("Cleared transaction state for client {}", client);
+        }
+    }
+
+    private void removeFromWatchIndex(final ClientSession client, final TransactionState transactionState) {
+        for (final String key : transactionState.getWatchedKeys()) {
+            final Set<ClientSession> clients = keyToWatchingClients.get(key);
+            if (clients != null) {
+                clients.remove(client);
+                if (clients.isEmpty()) {
+                    keyToWatchingClients.remove(key);
+                }
+            }
         }
     }
 
     /**
      * Begins a transaction for the client and updates metrics.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      */
-    public void beginTransaction(final SocketChannel clientChannel) {
-        final TransactionState transactionState = getOrCreateState(clientChannel);
+    public void beginTransaction(final ClientSession client) {
+        final TransactionState transactionState = getOrCreateState(client);
         if (!transactionState.isInTransaction()) {
             transactionState.beginTransaction();
             serverContext.getMetricsCollector().incrementActiveTransactions();
-            LOGGER.info("Transaction started for client: {}", clientChannel);
+            LOGGER.info("Transaction started for client {}", client);
         }
     }
 
     /**
      * Ends a transaction for the client, updates metrics, and logs failures.
      *
-     * @param clientChannel the client channel
-     * @param success       true if the transaction succeeded, false otherwise
+     * @param client  the client session
+     * @param success true if the transaction succeeded, false otherwise
      */
-    public void endTransaction(final SocketChannel clientChannel, final boolean success) {
-        final TransactionState transactionState = clientTransactionStates.get(clientChannel);
+    public void endTransaction(final ClientSession client, final boolean success) {
+        final TransactionState transactionState = client.peekTransactionState();
         if (transactionState != null && transactionState.isInTransaction()) {
             transactionState.clearTransaction();
             serverContext.getMetricsCollector().decrementActiveTransactions();
             if (!success) {
                 serverContext.getMetricsCollector().incrementFailedTransactions();
-                LOGGER.warn("Transaction failed for client: {}", clientChannel);
+                LOGGER.warn("Transaction failed for client {}", client);
             } else {
-                LOGGER.info("Transaction ended successfully for client: {}", clientChannel);
+                LOGGER.info("Transaction ended successfully for client {}", client);
             }
         }
     }
@@ -131,17 +134,17 @@ public final class TransactionManager {
     /**
      * Queues a command for execution in the client's transaction.
      *
-     * @param clientChannel  the client channel
+     * @param client         the client session
      * @param command        the command to queue
      * @param commandContext the command context
      */
-    public void queueCommand(final SocketChannel clientChannel, final commands.core.Command command,
+    public void queueCommand(final ClientSession client, final commands.core.Command command,
             final commands.context.CommandContext commandContext) {
-        final TransactionState transactionState = getOrCreateState(clientChannel);
+        final TransactionState transactionState = getOrCreateState(client);
         if (transactionState.isInTransaction()) {
             transactionState.queueCommand(command, commandContext);
             serverContext.getMetricsCollector().incrementTransactionCommands();
-            LOGGER.debug("Queued command in transaction for client: {}", clientChannel);
+            LOGGER.debug("Queued command in transaction for client {}", client);
         }
     }
 
@@ -151,21 +154,21 @@ public final class TransactionManager {
      * Useful when the entire store is cleared.
      */
     public void invalidateAllWatchingClients() {
-        for (final Map.Entry<SocketChannel, TransactionState> entry : clientTransactionStates.entrySet()) {
-            final TransactionState state = entry.getValue();
-            if (state.hasWatchedKeys()) {
-                state.invalidateTransaction();
-                LOGGER.debug("Invalidated transaction for client {} due to store clear", entry.getKey());
+        for (final Set<ClientSession> clients : keyToWatchingClients.values()) {
+            for (final ClientSession client : clients) {
+                client.getTransactionState().invalidateTransaction();
+                LOGGER.debug("Invalidated transaction for client {} due to store clear", client);
             }
         }
         LOGGER.info("Invalidated all watching clients due to store clear.");
     }
 
     /**
-     * Clears all transaction states for all clients.
+     * Forgets all watched keys of all clients.
      */
     public void clearAll() {
-        clientTransactionStates.clear();
+        keyToWatchingClients.values().forEach(clients -> clients.forEach(
+                client -> client.getTransactionState().clearWatchedKeys()));
         keyToWatchingClients.clear();
         LOGGER.info("Cleared all transaction states.");
     }
@@ -173,67 +176,58 @@ public final class TransactionManager {
     /**
      * Adds a key to the set of watched keys for the client.
      *
-     * @param clientChannel the client channel
-     * @param key           the key to watch
+     * @param client the client session
+     * @param key    the key to watch
      */
-    public void watchKey(final SocketChannel clientChannel, final String key) {
-        getOrCreateState(clientChannel).addWatchedKey(key);
+    public void watchKey(final ClientSession client, final String key) {
+        getOrCreateState(client).addWatchedKey(key);
 
         // Update reverse index for performance
-        Set<SocketChannel> clients = keyToWatchingClients.get(key);
+        Set<ClientSession> clients = keyToWatchingClients.get(key);
         if (clients == null) {
             clients = ConcurrentHashMap.newKeySet();
             keyToWatchingClients.put(key, clients);
         }
-        clients.add(clientChannel);
+        clients.add(client);
 
-        LOGGER.debug("Client {} is now watching key: {}", clientChannel, key);
+        LOGGER.debug("Client {} is now watching key: {}", client, key);
     }
 
     /**
      * Removes all watched keys for the client.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      */
-    public void unwatchAllKeys(final SocketChannel clientChannel) {
-        final TransactionState transactionState = clientTransactionStates.get(clientChannel);
+    public void unwatchAllKeys(final ClientSession client) {
+        final TransactionState transactionState = client.peekTransactionState();
         if (transactionState != null) {
             // Remove client from reverse index for all watched keys
-            final Set<String> watchedKeys = transactionState.getWatchedKeys();
-            for (final String key : watchedKeys) {
-                final Set<SocketChannel> clients = keyToWatchingClients.get(key);
-                if (clients != null) {
-                    clients.remove(clientChannel);
-                    if (clients.isEmpty()) {
-                        keyToWatchingClients.remove(key);
-                    }
-                }
-            }
+            removeFromWatchIndex(client, transactionState);
 
             transactionState.clearWatchedKeys();
-            LOGGER.debug("Client {} unwatched all keys.", clientChannel);
+            LOGGER.debug("Client {} unwatched all keys.", client);
         }
     }
 
     /**
      * Checks if the client has any watched keys.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      * @return true if the client has watched keys, false otherwise
      */
-    public boolean hasWatchedKeys(final SocketChannel clientChannel) {
-        final TransactionState transactionState = clientTransactionStates.get(clientChannel);
+    public boolean hasWatchedKeys(final ClientSession client) {
+        final TransactionState transactionState = client.peekTransactionState();
         return transactionState != null && transactionState.hasWatchedKeys();
     }
 
     /**
      * Returns the set of watched keys for the client.
      *
-     * @param clientChannel the client channel
+     * @param client the client session
      * @return the set of watched keys, or an empty set if none
      */
-    public Set<String> getWatchedKeys(final SocketChannel clientChannel) {
-        final TransactionState transactionState = clientTransactionStates.get(clientChannel);
+    public Set<String> getWatchedKeys(final ClientSession client) {
+        final TransactionState transactionState = client.peekTransactionState();
         return transactionState != null ? transactionState.getWatchedKeys() : Set.of();
     }
 
@@ -244,14 +238,11 @@ public final class TransactionManager {
      * @param key the key to invalidate
      */
     public void invalidateWatchingClients(final String key) {
-        final Set<SocketChannel> watchingClients = keyToWatchingClients.get(key);
+        final Set<ClientSession> watchingClients = keyToWatchingClients.get(key);
         if (watchingClients != null && !watchingClients.isEmpty()) {
-            for (final SocketChannel clientChannel : watchingClients) {
-                final TransactionState transactionState = clientTransactionStates.get(clientChannel);
-                if (transactionState != null) {
-                    transactionState.invalidateTransaction();
-                    LOGGER.debug("Invalidated transaction for client {} watching key: {}", clientChannel, key);
-                }
+            for (final ClientSession client : watchingClients) {
+                client.getTransactionState().invalidateTransaction();
+                LOGGER.debug("Invalidated transaction for client {} watching key: {}", client, key);
             }
         }
     }
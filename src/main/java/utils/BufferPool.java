@@ -1,48 +1,117 @@
 package utils;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import config.ServerConfig;
 
 /**
- * High-performance buffer pool for reusing ByteBuffer instances.
- * Reduces allocation overhead by maintaining a pool of pre-allocated buffers.
- * 
- * Features:
- * - Thread-safe buffer recycling
- * - Configurable pool size limits
- * - Automatic buffer clearing on return
- * - Java 24 optimized implementation
- * 
+ * Size-classed slab allocator for the direct buffers used in socket I/O.
+ *
+ * <p>
+ * A heap buffer handed to a channel read or write is first copied by the
+ * JDK into a temporary direct buffer. Reading into and writing from direct
+ * buffers avoids that hidden copy, but direct buffers are expensive to
+ * allocate and are only freed by the garbage collector, so they must be
+ * reused. The pool carves {@link ServerConfig#BUFFER_POOL_SLAB_SIZE} slabs
+ * of direct memory into buffers of a few size classes (1 KB, 4 KB, 16 KB and
+ * 64 KB) and recycles them.
+ * </p>
+ *
+ * <p>
+ * Released buffers go to a small cache of the releasing platform thread
+ * first, so an event loop that keeps acquiring and releasing buffers does not
+ * touch shared state. Virtual threads, which come and go with their
+ * connections, use the shared free lists directly. Once the pool holds
+ * {@link ServerConfig#BUFFER_POOL_MAX_DIRECT_BYTES} of direct memory, or for
+ * requests larger than the largest class, plain heap buffers are handed out
+ * instead; releasing them is a no-op.
+ * </p>
+ *
  * @author Ankit Kumar
  * @version 1.0
+ * @since 1.0
  */
 public final class BufferPool {
 
-    private static final int DEFAULT_BUFFER_SIZE = ServerConfig.BUFFER_SIZE;
-    private static final int MAX_POOL_SIZE = ServerConfig.MAX_CONNECTIONS / 2; // Conservative limit
+    private static final Logger LOGGER = LoggerFactory.getLogger(BufferPool.class);
 
-    private final ConcurrentLinkedQueue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
-    private final AtomicInteger poolSize = new AtomicInteger(0);
-    private final int bufferSize;
-    private final int maxPoolSize;
+    /** Each size class is four times as large as the previous one. */
+    private static final int CLASS_SHIFT = 2;
 
-    private static final BufferPool INSTANCE = new BufferPool();
+    private static final BufferPool INSTANCE = new BufferPool(ServerConfig.BUFFER_SIZE,
+            ServerConfig.MAX_POOLED_BUFFER_SIZE, ServerConfig.BUFFER_POOL_SLAB_SIZE,
+            ServerConfig.BUFFER_POOL_MAX_DIRECT_BYTES);
 
-    private BufferPool() {
-        this(DEFAULT_BUFFER_SIZE, MAX_POOL_SIZE);
+    /**
+     * A snapshot of the pool's counters.
+     *
+     * @param hits             acquisitions served with a recycled buffer
+     * @param misses           acquisitions that needed fresh memory
+     * @param bytesOutstanding pooled bytes currently handed out
+     * @param bytesIdle        pooled bytes waiting for reuse
+     * @param directBytes      direct memory held by the pool
+     */
+    public record Stats(long hits, long misses, long bytesOutstanding, long bytesIdle, long directBytes) {
+
+        /**
+         * Returns the share of acquisitions served with a recycled buffer.
+         *
+         * @return the hit rate between 0 and 1, or 0 before the first
+         *         acquisition
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /** The free buffers of one size class. */
+    private static final class SizeClass {
+        private final int bufferSize;
+        private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock slabLock = new ReentrantLock();
+
+        private SizeClass(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
     }
 
-    private BufferPool(int bufferSize, int maxPoolSize) {
-        this.bufferSize = bufferSize;
-        this.maxPoolSize = maxPoolSize;
+    private final SizeClass[] classes;
+    private final int smallestSize;
+    private final int largestSize;
+    private final int slabSize;
+    private final long maxDirectBytes;
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCaches;
+
+    private final AtomicLong directBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesOutstanding = new LongAdder();
+
+    private BufferPool(int smallestSize, int largestSize, int slabSize, long maxDirectBytes) {
+        int count = (Integer.numberOfTrailingZeros(largestSize / smallestSize) >> 1) + 1;
+        this.classes = new SizeClass[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = new SizeClass(smallestSize << (i * CLASS_SHIFT));
+        }
+        this.smallestSize = smallestSize;
+        this.largestSize = largestSize;
+        this.slabSize = slabSize;
+        this.maxDirectBytes = maxDirectBytes;
+        this.threadCaches = ThreadLocal.withInitial(this::newThreadCache);
     }
 
     /**
-     * Gets the singleton buffer pool instance.
-     * 
+     * Gets the buffer pool shared by all connections.
+     *
      * @return the buffer pool instance
      */
     public static BufferPool getInstance() {
@@ -50,66 +119,159 @@ public final class BufferPool {
     }
 
     /**
-     * Acquires a buffer from the pool or creates a new one if pool is empty.
-     * 
-     * @return a cleared ByteBuffer ready for use
+     * Acquires a cleared buffer of at least the given capacity: a pooled
+     * direct buffer of the smallest fitting size class, or a heap buffer if
+     * the request exceeds the largest class or the direct memory budget is
+     * used up.
+     *
+     * @param minCapacity the capacity needed in bytes
+     * @return an empty buffer in write mode
      */
-    public ByteBuffer acquire() {
-        ByteBuffer buffer = bufferPool.poll();
-        if (buffer != null) {
-            poolSize.decrementAndGet();
-            buffer.clear(); // Ensure buffer is ready for use
-            return buffer;
+    public ByteBuffer acquire(int minCapacity) {
+        int index = classIndex(minCapacity);
+        if (index < 0) {
+            return ByteBuffer.allocate(minCapacity);
         }
 
-        // Pool is empty, create new buffer
-        return ByteBuffer.allocate(bufferSize);
+        SizeClass sizeClass = classes[index];
+        ByteBuffer buffer = pollCached(index);
+        if (buffer == null) {
+            buffer = sizeClass.free.poll();
+        }
+        if (buffer != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            buffer = allocate(sizeClass);
+            if (buffer == null) {
+                return ByteBuffer.allocate(sizeClass.bufferSize);
+            }
+        }
+        bytesOutstanding.add(sizeClass.bufferSize);
+        return buffer.clear();
     }
 
     /**
-     * Returns a buffer to the pool for reuse.
-     * Buffer will be cleared automatically.
-     * 
-     * @param buffer the buffer to return (must not be null)
+     * Returns a buffer obtained from {@link #acquire(int)} for reuse. Heap
+     * buffers are left to the garbage collector. A buffer must be released
+     * at most once and not be used afterwards.
+     *
+     * @param buffer the buffer to return
      */
     public void release(ByteBuffer buffer) {
-        if (buffer == null || buffer.capacity() != bufferSize) {
-            return; // Don't pool buffers of wrong size
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        int index = classIndex(buffer.capacity());
+        if (index < 0 || classes[index].bufferSize != buffer.capacity()) {
+            return;
         }
 
-        // Only pool if under size limit
-        if (poolSize.get() < maxPoolSize) {
-            buffer.clear(); // Clear for next use
-            bufferPool.offer(buffer);
-            poolSize.incrementAndGet();
+        bytesOutstanding.add(-buffer.capacity());
+        buffer.clear();
+        if (!offerCached(index, buffer)) {
+            classes[index].free.offer(buffer);
         }
-        // If pool is full, let buffer be GC'd
     }
 
     /**
-     * Gets the current number of buffers in the pool.
-     * 
-     * @return current pool size
+     * Returns the capacity of the largest pooled buffers.
+     *
+     * @return the largest size class in bytes
+     */
+    public int getLargestBufferSize() {
+        return largestSize;
+    }
+
+    /**
+     * Takes a snapshot of the pool's counters.
+     *
+     * @return the current statistics
      */
-    public int getPoolSize() {
-        return poolSize.get();
+    public Stats getStats() {
+        long held = directBytes.get();
+        long outstanding = bytesOutstanding.sum();
+        return new Stats(hits.sum(), misses.sum(), outstanding, Math.max(0, held - outstanding), held);
     }
 
     /**
-     * Gets the maximum pool size.
-     * 
-     * @return maximum pool size
+     * Returns the index of the smallest size class holding the given
+     * capacity, or -1 if it exceeds the largest class.
      */
-    public int getMaxPoolSize() {
-        return maxPoolSize;
+    private int classIndex(int capacity) {
+        if (capacity > largestSize) {
+            return -1;
+        }
+        if (capacity <= smallestSize) {
+            return 0;
+        }
+        int units = (capacity + smallestSize - 1) / smallestSize;
+        int log2 = 32 - Integer.numberOfLeadingZeros(units - 1);
+        return (log2 + CLASS_SHIFT - 1) / CLASS_SHIFT;
     }
 
     /**
-     * Clears all buffers from the pool.
-     * Useful for testing or memory cleanup.
+     * Carves a new slab into buffers of the class, keeping all but one in
+     * the free list.
+     *
+     * @return a fresh buffer, or null if the direct memory budget is used up
      */
-    public void clear() {
-        bufferPool.clear();
-        poolSize.set(0);
+    private ByteBuffer allocate(SizeClass sizeClass) {
+        sizeClass.slabLock.lock();
+        try {
+            // Another thread may have carved a slab while this one waited
+            ByteBuffer buffer = sizeClass.free.poll();
+            if (buffer != null) {
+                return buffer;
+            }
+            if (directBytes.get() + slabSize > maxDirectBytes) {
+                return null;
+            }
+
+            ByteBuffer slab;
+            try {
+                slab = ByteBuffer.allocateDirect(slabSize);
+            } catch (OutOfMemoryError e) {
+                LOGGER.warn("Direct memory exhausted, falling back to heap buffers: {}", e.getMessage());
+                return null;
+            }
+            directBytes.addAndGet(slabSize);
+
+            int size = sizeClass.bufferSize;
+            for (int offset = size; offset + size <= slabSize; offset += size) {
+                sizeClass.free.offer(slab.slice(offset, size));
+            }
+            return slab.slice(0, size);
+        } finally {
+            sizeClass.slabLock.unlock();
+        }
+    }
+
+    private ByteBuffer pollCached(int index) {
+        if (Thread.currentThread().isVirtual()) {
+            return null;
+        }
+        return threadCaches.get()[index].poll();
+    }
+
+    private boolean offerCached(int index, ByteBuffer buffer) {
+        if (Thread.currentThread().isVirtual()) {
+            return false;
+        }
+        ArrayDeque<ByteBuffer> cache = threadCaches.get()[index];
+        if (cache.size() >= ServerConfig.BUFFER_POOL_THREAD_CACHE_SIZE) {
+            return false;
+        }
+        cache.push(buffer);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<ByteBuffer>[] newThreadCache() {
+        ArrayDeque<ByteBuffer>[] caches = new ArrayDeque[classes.length];
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = new ArrayDeque<>();
+        }
+        return caches;
     }
 }
@@ -0,0 +1,54 @@
+package utils;
+
+/**
+ * Wall clock in milliseconds, read once per event loop tick instead of on
+ * every key access.
+ *
+ * <p>
+ * Every expiry check compares a deadline against the current time, which
+ * used to mean an {@code Instant} allocation per access. The event loops
+ * and the connection threads of the virtual thread engine call
+ * {@link #update()} whenever they wake up with input, so a command sees the
+ * time its input arrived, as Redis caches the time per command. Between
+ * updates the clock stands still: a key expires at the first tick past its
+ * deadline, never before it. The per-command and per-write bookkeeping of
+ * clients, such as their last activity and command times, reads it too.
+ * </p>
+ *
+ * <p>
+ * Several threads may update the clock; each writes the time it just read,
+ * so the value can step back by the skew between two nearly simultaneous
+ * updates, well under the millisecond resolution that matters for expiry.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CoarseClock {
+
+    private static volatile long nowMillis = System.currentTimeMillis();
+
+    private CoarseClock() {
+    }
+
+    /**
+     * Returns the time of the last update.
+     *
+     * @return milliseconds since the epoch
+     */
+    public static long millis() {
+        return nowMillis;
+    }
+
+    /**
+     * Reads the wall clock and publishes it to {@link #millis()}.
+     *
+     * @return the current time in milliseconds since the epoch
+     */
+    public static long update() {
+        long now = System.currentTimeMillis();
+        nowMillis = now;
+        return now;
+    }
+}
@@ -0,0 +1,160 @@
+package protocol;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import commands.core.Command;
+import commands.context.CommandContext;
+import commands.result.CommandResult;
+import config.ConfigurationParser;
+import server.ClientSession;
+import server.ServerConfiguration;
+import server.ServerContext;
+
+/**
+ * Checks that dispatching a command allocates nothing beyond its reply.
+ *
+ * <p>
+ * PING and GET build their reply buffer and result, which escape to the
+ * client's output and cannot be avoided: replies are queued by reference and
+ * written with gathering writes, so each needs a buffer view with its own
+ * position. Everything the dispatcher does around the command — looking it
+ * up, validating it, the command context, metrics and client statistics —
+ * must not allocate once warmed up. The test bounds the bytes allocated per
+ * dispatch absolutely, by the size of that reply, and checks that they are
+ * no more than those of executing the command directly on a prepared
+ * context, handing the reply to the same sink.
+ * </p>
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class CommandDispatcherAllocationTest {
+
+    private static final int WARMUP_ITERATIONS = 300_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    private static final int ROUNDS = 5;
+
+    /**
+     * A read-only view of a cached or stored reply plus its result record,
+     * with room for object layouts without compressed pointers
+     */
+    private static final double REPLY_BYTES = 96;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Keeps replies reachable so the JIT cannot drop them */
+    private static volatile ByteBuffer lastReply;
+
+    @TempDir
+    Path dataDir;
+
+    private ServerContext context;
+    private ClientSession client;
+    private final Consumer<ByteBuffer> sink = reply -> lastReply = reply;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(THREADS.isThreadAllocatedMemorySupported());
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        ConfigurationParser.ParseResult parsed =
+                ConfigurationParser.parse(new String[] { "--dir", dataDir.toString() });
+        context = new ServerContext(ServerConfiguration.from(parsed.options()));
+        client = new DiscardingSession(SocketChannel.open());
+        context.getCommandDispatcher().dispatch(new String[] { "SET", "key", "value" }, client, sink);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (context != null) {
+            context.shutdown();
+        }
+        if (client != null) {
+            client.getChannel().close();
+        }
+    }
+
+    @Test
+    void pingDispatchAllocatesOnlyTheReply() {
+        assertDispatchAllocatesOnlyTheReply(new String[] { "PING" });
+    }
+
+    @Test
+    void getDispatchAllocatesOnlyTheReply() {
+        assertDispatchAllocatesOnlyTheReply(new String[] { "GET", "key" });
+    }
+
+    private void assertDispatchAllocatesOnlyTheReply(String[] args) {
+        CommandDispatcher dispatcher = context.getCommandDispatcher();
+        Command command = context.getCommandRegistry().getCommand(args[0]);
+        CommandContext commandContext = new CommandContext(args[0], args, client,
+                context.getStorageService(), context);
+
+        double executed = bytesPerOperation(() -> {
+            if (command.execute(commandContext) instanceof CommandResult.Success(ByteBuffer reply)) {
+                sink.accept(reply);
+            }
+        });
+        double dispatched = bytesPerOperation(() -> dispatcher.dispatch(args, client, sink));
+
+        assertTrue(dispatched <= REPLY_BYTES, args[0] + " dispatch allocated " + dispatched
+                + " bytes per command, more than its reply");
+        assertTrue(dispatched <= executed + 1.0, args[0] + " dispatch allocated " + dispatched
+                + " bytes per command, executing it directly " + executed);
+    }
+
+    /**
+     * Returns the fewest bytes the current thread allocated per run over
+     * several measured rounds, after warming the code up.
+     */
+    private static double bytesPerOperation(Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().threadId();
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                operation.run();
+            }
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+            best = Math.min(best, (double) allocated / MEASURED_ITERATIONS);
+        }
+        return best;
+    }
+
+    /** A client whose output goes nowhere */
+    private static final class DiscardingSession extends ClientSession {
+
+        DiscardingSession(SocketChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void write(ByteBuffer data) {
+        }
+
+        @Override
+        public long getPendingOutputBytes() {
+            return 0;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+    }
+}
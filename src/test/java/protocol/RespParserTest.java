@@ -0,0 +1,98 @@
+package protocol;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Feeds {@link RespParser} requests whole, pipelined and split byte by byte,
+ * and checks what it rejects.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class RespParserTest {
+
+    private final RespParser parser = new RespParser();
+
+    @Test
+    void parsesPipelinedRequests() {
+        ByteBuffer buffer = bytes("*2\r\n$3\r\nGET\r\n$1\r\na\r\n*3\r\n$3\r\nSET\r\n$1\r\nb\r\n$0\r\n\r\n");
+
+        assertArrayEquals(new String[] { "GET", "a" }, parser.parse(buffer));
+        assertArrayEquals(new String[] { "SET", "b", "" }, parser.parse(buffer));
+        assertNull(parser.parse(buffer));
+    }
+
+    @Test
+    void resumesARequestSplitAcrossReads() {
+        byte[] request = "*2\r\n$4\r\nECHO\r\n$5\r\nhéllo\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.allocate(request.length);
+
+        String[] command = null;
+        for (int i = 0; i < request.length; i++) {
+            buffer.put(request[i]).flip();
+            command = parser.parse(buffer);
+            if (i < request.length - 1) {
+                assertNull(command);
+            }
+            buffer.compact();
+        }
+        assertArrayEquals(new String[] { "ECHO", "héllo" }, command);
+        assertEquals(0, parser.getRequiredBufferCapacity());
+    }
+
+    @Test
+    void asksForRoomForALargeArgument() {
+        ByteBuffer buffer = bytes("*1\r\n$5000\r\nabc");
+
+        assertNull(parser.parse(buffer));
+        assertEquals(5002, parser.getRequiredBufferCapacity());
+    }
+
+    @Test
+    void readsDirectBuffers() {
+        byte[] request = "*2\r\n$3\r\nGET\r\n$4\r\nkey1\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(request.length).put(request).flip();
+
+        assertArrayEquals(new String[] { "GET", "key1" }, parser.parse(buffer));
+    }
+
+    @Test
+    void parsesInlineRequests() {
+        ByteBuffer buffer = bytes("PING\r\n  SET  a   b \n\r\n");
+
+        assertArrayEquals(new String[] { "PING" }, parser.parse(buffer));
+        assertArrayEquals(new String[] { "SET", "a", "b" }, parser.parse(buffer));
+        assertArrayEquals(new String[0], parser.parse(buffer));
+    }
+
+    @Test
+    void rejectsUnterminatedInlineRequestsOver64Kb() {
+        ByteBuffer buffer = bytes("A".repeat(64 * 1024));
+        assertNull(parser.parse(buffer));
+
+        ByteBuffer larger = bytes("A".repeat(64 * 1024 + 1));
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(larger));
+    }
+
+    @Test
+    void rejectsMalformedRequests() {
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(bytes("*1\r\n$3\r\nGETxx")));
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(bytes("*1\r\n+GET\r\n")));
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(bytes("*1\r\n$-1\r\n")));
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(bytes("*x\r\n")));
+        assertThrows(ProtocolException.class, () -> new RespParser().parse(bytes("*2000000\r\n")));
+    }
+
+    private static ByteBuffer bytes(String request) {
+        return ByteBuffer.wrap(request.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
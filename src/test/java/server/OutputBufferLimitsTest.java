@@ -0,0 +1,66 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import config.ServerConfig;
+import server.OutputBufferLimits.ClientClass;
+import server.OutputBufferLimits.Limit;
+
+/**
+ * Checks how {@link OutputBufferLimits} reads the
+ * {@code client-output-buffer-limit} setting.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class OutputBufferLimitsTest {
+
+    @Test
+    void defaultsMatchRedis() {
+        OutputBufferLimits limits = OutputBufferLimits.fromConfig(ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT);
+
+        assertTrue(limits.limitFor(ClientClass.NORMAL).isUnlimited());
+        assertEquals(new Limit(256L << 20, 64L << 20, 60), limits.limitFor(ClientClass.REPLICA));
+        assertEquals(new Limit(32L << 20, 8L << 20, 60), limits.limitFor(ClientClass.PUBSUB));
+    }
+
+    @Test
+    void readsUnitsAsPowersOf1000Or1024() {
+        OutputBufferLimits limits = OutputBufferLimits.parse("normal 1k 2kb 0 pubsub 3m 4MB 5 replica 1g 1gb 0");
+
+        assertEquals(new Limit(1000, 2048, 0), limits.limitFor(ClientClass.NORMAL));
+        assertEquals(new Limit(3_000_000, 4L << 20, 5), limits.limitFor(ClientClass.PUBSUB));
+        assertEquals(new Limit(1_000_000_000, 1L << 30, 0), limits.limitFor(ClientClass.REPLICA));
+    }
+
+    @Test
+    void keepsDefaultsForClassesNotListed() {
+        OutputBufferLimits limits = OutputBufferLimits.parse("slave 10mb 0 0");
+
+        assertEquals(new Limit(10L << 20, 0, 0), limits.limitFor(ClientClass.REPLICA));
+        assertEquals(new Limit(32L << 20, 8L << 20, 60), limits.limitFor(ClientClass.PUBSUB));
+        assertTrue(limits.limitFor(ClientClass.NORMAL).isUnlimited());
+    }
+
+    @Test
+    void rejectsMalformedSettings() {
+        assertThrows(IllegalArgumentException.class, () -> OutputBufferLimits.parse("pubsub 32mb 8mb"));
+        assertThrows(IllegalArgumentException.class, () -> OutputBufferLimits.parse("master 1mb 0 0"));
+        assertThrows(IllegalArgumentException.class, () -> OutputBufferLimits.parse("pubsub -1 0 0"));
+        assertThrows(IllegalArgumentException.class, () -> OutputBufferLimits.parse("pubsub 1tb 0 0"));
+        assertThrows(IllegalArgumentException.class, () -> OutputBufferLimits.parse("pubsub 99999999999gb 0 0"));
+    }
+
+    @Test
+    void fallsBackToDefaultsOnInvalidSettings() {
+        OutputBufferLimits limits = OutputBufferLimits.fromConfig("pubsub lots 0 0");
+
+        assertEquals(OutputBufferLimits.parse(ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT).toString(),
+                limits.toString());
+    }
+}
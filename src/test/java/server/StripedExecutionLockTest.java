@@ -0,0 +1,79 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the global lock of {@link StripedExecutionLock} and its
+ * stripes exclude each other.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class StripedExecutionLockTest {
+
+    private final StripedExecutionLock lock = new StripedExecutionLock(4);
+
+    @Test
+    void stripesDoNotExcludeEachOther() throws Exception {
+        lock.lockStripe(0);
+        try {
+            assertTrue(CompletableFuture.supplyAsync(() -> {
+                lock.lockStripe(1);
+                lock.unlockStripe(1);
+                return true;
+            }).get(5, TimeUnit.SECONDS));
+        } finally {
+            lock.unlockStripe(0);
+        }
+    }
+
+    @Test
+    void globalLockWaitsForEveryStripe() throws Exception {
+        lock.lockStripe(3);
+        try {
+            assertFalse(CompletableFuture.supplyAsync(() -> lock.global().tryLock()).get(5, TimeUnit.SECONDS));
+        } finally {
+            lock.unlockStripe(3);
+        }
+        // The failed attempt released the stripes it had taken
+        assertTrue(CompletableFuture.supplyAsync(() -> {
+            lock.lockStripe(0);
+            lock.unlockStripe(0);
+            return true;
+        }).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void globalLockExcludesStripesAndIsReentrant() throws Exception {
+        Lock global = lock.global();
+        global.lock();
+        try {
+            lock.lockStripe(2);
+            lock.unlockStripe(2);
+            assertFalse(CompletableFuture.supplyAsync(() -> {
+                boolean locked = lock.global().tryLock();
+                if (locked) {
+                    lock.global().unlock();
+                }
+                return locked;
+            }).get(5, TimeUnit.SECONDS));
+        } finally {
+            global.unlock();
+        }
+        assertTrue(CompletableFuture.supplyAsync(() -> {
+            boolean locked = lock.global().tryLock();
+            if (locked) {
+                lock.global().unlock();
+            }
+            return locked;
+        }).get(5, TimeUnit.SECONDS));
+    }
+}
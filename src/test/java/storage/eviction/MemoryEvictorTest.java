@@ -0,0 +1,113 @@
+package storage.eviction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import server.StripedExecutionLock;
+import storage.StorageService;
+import storage.expiry.Expiry;
+import utils.CoarseClock;
+
+/**
+ * Checks which keys {@link MemoryEvictor} picks under the sampled policies.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class MemoryEvictorTest {
+
+    private static final int KEY_COUNT = 2000;
+    private static final long TTL_MILLIS = 3_600_000;
+
+    private final StorageService storage = new StorageService(null);
+    private final List<String> evicted = new ArrayList<>();
+
+    @Test
+    void noevictionRefusesOnceOverTheLimit() {
+        fill(KEY_COUNT, false);
+        MemoryEvictor evictor = evictor(EvictionPolicy.NOEVICTION, storage.getUsedMemory() / 2);
+
+        assertFalse(evictor.performEvictions());
+        assertEquals(KEY_COUNT, storage.getStore().size());
+    }
+
+    @Test
+    void allkeysRandomSamplesTheWholeKeyspace() {
+        fill(KEY_COUNT, false);
+        List<String> iterationOrder = new ArrayList<>(storage.getStore().keySet());
+        Set<String> firstHalf = new HashSet<>(iterationOrder.subList(0, KEY_COUNT / 2));
+        MemoryEvictor evictor = evictor(EvictionPolicy.ALLKEYS_RANDOM, storage.getUsedMemory() / 2);
+
+        assertTrue(evictor.performEvictions());
+        assertTrue(storage.getUsedMemory() <= evictor.getMaxMemory());
+
+        long fromFirstHalf = evicted.stream().filter(firstHalf::contains).count();
+        // Walking the table in order would evict the first half only
+        assertTrue(fromFirstHalf < evicted.size() * 0.7,
+                fromFirstHalf + " of " + evicted.size() + " evicted keys came first in iteration order");
+        assertTrue(fromFirstHalf > evicted.size() * 0.3,
+                fromFirstHalf + " of " + evicted.size() + " evicted keys came first in iteration order");
+    }
+
+    @Test
+    void volatileRandomKeepsKeysWithoutTtl() {
+        fill(KEY_COUNT, true);
+        fill(KEY_COUNT, false);
+        MemoryEvictor evictor = evictor(EvictionPolicy.VOLATILE_RANDOM, storage.getUsedMemory() * 3 / 4);
+
+        assertTrue(evictor.performEvictions());
+        assertFalse(evicted.isEmpty());
+        for (String key : evicted) {
+            assertTrue(key.startsWith("volatile:"), key + " had no TTL");
+        }
+    }
+
+    @Test
+    void volatileTtlPrefersKeysExpiringSoonest() {
+        fill(KEY_COUNT, true);
+        MemoryEvictor evictor = evictor(EvictionPolicy.VOLATILE_TTL, storage.getUsedMemory() * 9 / 10);
+
+        assertTrue(evictor.performEvictions());
+        assertFalse(evicted.isEmpty());
+
+        // Key i expires i milliseconds after key 0; random picks average half the range
+        double meanRank = evicted.stream()
+                .mapToInt(key -> Integer.parseInt(key.substring(key.indexOf(':') + 1)))
+                .average()
+                .orElseThrow() / KEY_COUNT;
+        assertTrue(meanRank < 0.25, "mean expiry rank of evicted keys was " + meanRank);
+    }
+
+    @Test
+    void evictionStopsWhenNoKeyIsACandidate() {
+        fill(KEY_COUNT, false);
+        MemoryEvictor evictor = evictor(EvictionPolicy.VOLATILE_LRU, storage.getUsedMemory() / 2);
+
+        assertFalse(evictor.performEvictions());
+        assertTrue(evicted.isEmpty());
+    }
+
+    private MemoryEvictor evictor(EvictionPolicy policy, long maxMemory) {
+        return new MemoryEvictor(storage, new StripedExecutionLock(4), maxMemory, policy, evicted::add);
+    }
+
+    private void fill(int count, boolean withTtl) {
+        long now = CoarseClock.update();
+        for (int i = 0; i < count; i++) {
+            if (withTtl) {
+                storage.setString("volatile:" + i, "value-" + i, now + TTL_MILLIS + i);
+            } else {
+                storage.setString("persistent:" + i, "value-" + i, Expiry.NEVER);
+            }
+        }
+    }
+}
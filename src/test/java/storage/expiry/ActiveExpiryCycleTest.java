@@ -0,0 +1,80 @@
+package storage.expiry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import server.StripedExecutionLock;
+import storage.StorageService;
+import utils.CoarseClock;
+
+/**
+ * Checks that expired keys are deleted when read and by
+ * {@link ActiveExpiryCycle}, and that the index of keys with a TTL follows
+ * them.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class ActiveExpiryCycleTest {
+
+    private static final int KEY_COUNT = 1000;
+    private static final long TTL_MILLIS = 3_600_000;
+
+    private final StorageService storage = new StorageService(null);
+    private final ActiveExpiryCycle cycle = new ActiveExpiryCycle(storage, new StripedExecutionLock(4), 1);
+
+    @Test
+    void readingAnExpiredKeyDeletesIt() {
+        storage.setString("gone", "v", past());
+        storage.setString("live", "v", Expiry.inMillis(TTL_MILLIS));
+
+        assertFalse(storage.getString("gone").isPresent());
+        assertTrue(storage.getString("live").isPresent());
+        assertFalse(storage.getStore().containsKey("gone"));
+        assertFalse(storage.getVolatileKeys().contains("gone"));
+        assertTrue(storage.getVolatileKeys().contains("live"));
+    }
+
+    @Test
+    void cycleDeletesExpiredKeysThatAreNeverRead() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            storage.setString("gone:" + i, "v", past());
+            storage.setString("live:" + i, "v", Expiry.inMillis(TTL_MILLIS));
+            storage.setString("persistent:" + i, "v", Expiry.NEVER);
+        }
+
+        int deleted = 0;
+        for (int run = 0; run < 100 && deleted < KEY_COUNT; run++) {
+            deleted += cycle.run();
+        }
+
+        assertEquals(KEY_COUNT, deleted);
+        assertEquals(2 * KEY_COUNT, storage.getStore().size());
+        assertEquals(KEY_COUNT, storage.getVolatileKeys().size());
+        for (String key : storage.getVolatileKeys()) {
+            assertTrue(key.startsWith("live:"), key + " left in the index");
+        }
+        assertTrue(cycle.getStalePerc() > 0);
+    }
+
+    @Test
+    void cycleDropsKeysThatLostTheirTtlFromTheIndex() {
+        storage.setString("persisted", "v", Expiry.inMillis(TTL_MILLIS));
+        storage.setString("deleted", "v", Expiry.inMillis(TTL_MILLIS));
+        storage.setExpiresAt("persisted", Expiry.NEVER);
+        storage.getStore().remove("deleted");
+
+        assertEquals(0, cycle.run());
+
+        assertTrue(storage.getVolatileKeys().isEmpty());
+        assertTrue(storage.getStore().containsKey("persisted"));
+    }
+
+    private static long past() {
+        return CoarseClock.update() - 1000;
+    }
+}
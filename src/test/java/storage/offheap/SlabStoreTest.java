@@ -0,0 +1,91 @@
+package storage.offheap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import config.ServerConfig;
+
+/**
+ * Checks how {@link SlabStore} places, frees and recycles off-heap bytes.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class SlabStoreTest {
+
+    private final SlabStore store = new SlabStore();
+
+    @Test
+    void smallValueRoundTripsThroughItsSizeClass() {
+        byte[] bytes = randomBytes(100);
+        OffHeapString handle = store.allocate(bytes);
+
+        assertNotNull(handle);
+        assertEquals(128, handle.slotSize());
+        assertArrayEquals(bytes, handle.toByteArray());
+
+        handle.free();
+        assertEquals(0, handle.slotSize());
+        assertEquals(0, store.getStats().usedBytes());
+    }
+
+    @Test
+    void largeValueGetsAPowerOfTwoSegment() {
+        byte[] bytes = randomBytes(ServerConfig.OFFHEAP_MAX_SLOT_SIZE + 1);
+        OffHeapString handle = store.allocate(bytes);
+
+        assertEquals(ServerConfig.OFFHEAP_MAX_SLOT_SIZE * 2, handle.slotSize());
+        assertArrayEquals(bytes, handle.toByteArray());
+    }
+
+    @Test
+    void freedLargeSegmentIsReusedBySameSize() {
+        OffHeapString first = store.allocate(randomBytes(100_000));
+        SlabStore.Slab segment = first.slab;
+        SlabStore.Stats allocated = store.getStats();
+
+        first.free();
+        // The segment stays reserved in its pool instead of being released
+        assertEquals(allocated.reservedBytes(), store.getStats().reservedBytes());
+        assertEquals(0, store.getStats().usedBytes());
+
+        byte[] bytes = randomBytes(120_000);
+        OffHeapString second = store.allocate(bytes);
+        assertSame(segment, second.slab);
+        assertArrayEquals(bytes, second.toByteArray());
+        assertEquals(allocated.reservedBytes(), store.getStats().reservedBytes());
+        assertEquals(allocated.slabs(), store.getStats().slabs());
+    }
+
+    @Test
+    void largeSegmentPoolIsBounded() {
+        byte[] bytes = randomBytes(1024 * 1024);
+        int count = (int) (ServerConfig.OFFHEAP_LARGE_POOL_BYTES / bytes.length) + 16;
+        List<OffHeapString> handles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            handles.add(store.allocate(bytes));
+        }
+        assertEquals((long) count * bytes.length, store.getStats().reservedBytes());
+
+        handles.forEach(OffHeapString::free);
+        assertTrue(store.getStats().reservedBytes() <= ServerConfig.OFFHEAP_LARGE_POOL_BYTES,
+                store.getStats().reservedBytes() + " bytes still reserved");
+        assertEquals(0, store.getStats().usedBytes());
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,177 @@
+package tracking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import config.ServerConfig;
+import server.ClientSession;
+import server.ClientWriter;
+import server.OutputBufferLimits;
+
+/**
+ * Checks which clients {@link TrackingManager} tells about changed keys.
+ *
+ * @author Ankit Kumar
+ * @version 1.0
+ * @since 1.0
+ */
+class TrackingManagerTest {
+
+    private final TrackingManager tracking = new TrackingManager(
+            new ClientWriter(null, OutputBufferLimits.fromConfig(ServerConfig.DEFAULT_CLIENT_OUTPUT_BUFFER_LIMIT)),
+            ServerConfig.TRACKING_TABLE_MAX_KEYS);
+    private final List<RecordingSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (RecordingSession session : sessions) {
+            session.getChannel().close();
+        }
+    }
+
+    @Test
+    void readerIsToldOnceWhenItsKeyChanges() throws Exception {
+        RecordingSession reader = listeningClient();
+        tracking.enable(reader, new TrackingState(null, false, false, false, List.of()));
+
+        tracking.rememberRead(reader, "user:1");
+        tracking.invalidate("user:2");
+        tracking.invalidate("user:1");
+        tracking.invalidate("user:1");
+
+        assertEquals(1, reader.invalidations("user:1"));
+        assertEquals(0, reader.invalidations("user:2"));
+        assertEquals(0, tracking.getTrackedKeyCount());
+    }
+
+    @Test
+    void broadcastMatchesRegisteredPrefixesOnly() throws Exception {
+        RecordingSession users = listeningClient();
+        RecordingSession everything = listeningClient();
+        tracking.enable(users, new TrackingState(null, true, false, false, List.of("user:", "session:")));
+        tracking.enable(everything, new TrackingState(null, true, false, false, List.of()));
+
+        tracking.invalidate("user:1");
+        tracking.invalidate("session:9");
+        tracking.invalidate("order:7");
+        tracking.invalidate("use");
+
+        assertEquals(1, users.invalidations("user:1"));
+        assertEquals(1, users.invalidations("session:9"));
+        assertEquals(0, users.invalidations("order:7"));
+        assertEquals(0, users.invalidations("use"));
+        assertEquals(1, everything.invalidations("order:7"));
+        assertEquals(1, everything.invalidations("use"));
+    }
+
+    @Test
+    void disabledBroadcastClientHearsNothing() throws Exception {
+        RecordingSession client = listeningClient();
+        tracking.enable(client, new TrackingState(null, true, false, false, List.of("a:", "ab:")));
+        tracking.disable(client);
+
+        tracking.invalidate("a:1");
+        tracking.invalidate("ab:1");
+
+        assertEquals(0, client.invalidations("a:1"));
+        assertEquals(0, client.invalidations("ab:1"));
+        assertEquals(0, tracking.getPrefixCount());
+    }
+
+    @Test
+    void concurrentReadsAndWritesLoseNoReader() throws Exception {
+        int threads = 4;
+        int keys = 2000;
+        List<RecordingSession> readers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            RecordingSession reader = listeningClient();
+            tracking.enable(reader, new TrackingState(null, false, false, false, List.of()));
+            readers.add(reader);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (RecordingSession reader : readers) {
+                executor.execute(() -> {
+                    awaitQuietly(start);
+                    for (int key = 0; key < keys; key++) {
+                        tracking.rememberRead(reader, "key:" + key);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        for (int key = 0; key < keys; key++) {
+            tracking.invalidate("key:" + key);
+        }
+        for (RecordingSession reader : readers) {
+            assertEquals(keys, reader.invalidationCount());
+        }
+    }
+
+    private RecordingSession listeningClient() throws Exception {
+        RecordingSession session = new RecordingSession(SocketChannel.open());
+        session.getPubSubState().subscribeChannel(TrackingManager.INVALIDATE_CHANNEL);
+        sessions.add(session);
+        return session;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** A client that keeps the messages written to it */
+    private static final class RecordingSession extends ClientSession {
+
+        private final List<String> messages = new ArrayList<>();
+
+        RecordingSession(SocketChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public synchronized void write(ByteBuffer data) {
+            messages.add(StandardCharsets.ISO_8859_1.decode(data).toString());
+        }
+
+        @Override
+        public long getPendingOutputBytes() {
+            return 0;
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        synchronized long invalidations(String key) {
+            String encodedKey = "$" + key.length() + "\r\n" + key + "\r\n";
+            return messages.stream().filter(message -> message.endsWith(encodedKey)).count();
+        }
+
+        synchronized int invalidationCount() {
+            return messages.size();
+        }
+    }
+}